@@ -48,6 +48,14 @@ public enum FieldsEnum implements Fields {
    * Name for the average task execution time.
    */
   AVG_EXECUTION_TIME,
+  /**
+   * Name for the 90th percentile of the task execution time.
+   */
+  P90_EXECUTION_TIME,
+  /**
+   * Name for the 99th percentile of the task execution time.
+   */
+  P99_EXECUTION_TIME,
   /**
    * Name for the total transport time for all tasks.
    */
@@ -68,6 +76,14 @@ public enum FieldsEnum implements Fields {
    * Name for the average task transport time.
    */
   AVG_TRANSPORT_TIME,
+  /**
+   * Name for the 90th percentile of the task transport time.
+   */
+  P90_TRANSPORT_TIME,
+  /**
+   * Name for the 99th percentile of the task transport time.
+   */
+  P99_TRANSPORT_TIME,
   /**
    * Name for the total execution time for all tasks on the nodes.
    */
@@ -88,6 +104,14 @@ public enum FieldsEnum implements Fields {
    * Name for the average task execution time on a node.
    */
   AVG_NODE_EXECUTION_TIME,
+  /**
+   * Name for the 90th percentile of the task execution time on the nodes.
+   */
+  P90_NODE_EXECUTION_TIME,
+  /**
+   * Name for the 99th percentile of the task execution time on the nodes.
+   */
+  P99_NODE_EXECUTION_TIME,
   /**
    * Name for the time the last queued task remained in the queue.
    */
@@ -108,6 +132,14 @@ public enum FieldsEnum implements Fields {
    * Name for the maximum time a task remained in the queue .
    */
   AVG_QUEUE_TIME,
+  /**
+   * Name for the 90th percentile of the time spent by the tasks in the queue.
+   */
+  P90_QUEUE_TIME,
+  /**
+   * Name for the 99th percentile of the time spent by the tasks in the queue.
+   */
+  P99_QUEUE_TIME,
   /**
    * Name for the total number of tasks that have been queued.
    */
@@ -70,24 +70,32 @@ public class StatsTransformer {
     map.put(MIN_EXECUTION_TIME, snapshot.getMin() == Long.MAX_VALUE ? 0L : snapshot.getMin());
     map.put(MAX_EXECUTION_TIME, snapshot.getMax());
     map.put(AVG_EXECUTION_TIME, snapshot.getAvg());
+    map.put(P90_EXECUTION_TIME, snapshot.getPercentile(90d));
+    map.put(P99_EXECUTION_TIME, snapshot.getPercentile(99d));
     snapshot = stats.getSnapshot(NODE_EXECUTION);
     map.put(TOTAL_NODE_EXECUTION_TIME, snapshot.getTotal());
     map.put(LATEST_NODE_EXECUTION_TIME, snapshot.getLatest());
     map.put(MIN_NODE_EXECUTION_TIME, snapshot.getMin() == Long.MAX_VALUE ? 0L : snapshot.getMin());
     map.put(MAX_NODE_EXECUTION_TIME, snapshot.getMax());
     map.put(AVG_NODE_EXECUTION_TIME, snapshot.getAvg());
+    map.put(P90_NODE_EXECUTION_TIME, snapshot.getPercentile(90d));
+    map.put(P99_NODE_EXECUTION_TIME, snapshot.getPercentile(99d));
     snapshot = stats.getSnapshot(TRANSPORT_TIME);
     map.put(TOTAL_TRANSPORT_TIME, snapshot.getTotal());
     map.put(LATEST_TRANSPORT_TIME, snapshot.getLatest());
     map.put(MIN_TRANSPORT_TIME, snapshot.getMin() == Long.MAX_VALUE ? 0L : snapshot.getMin());
     map.put(MAX_TRANSPORT_TIME, snapshot.getMax());
     map.put(AVG_TRANSPORT_TIME, snapshot.getAvg());
+    map.put(P90_TRANSPORT_TIME, snapshot.getPercentile(90d));
+    map.put(P99_TRANSPORT_TIME, snapshot.getPercentile(99d));
     snapshot = stats.getSnapshot(TASK_QUEUE_TIME);
     map.put(LATEST_QUEUE_TIME, snapshot.getLatest());
     map.put(TOTAL_QUEUE_TIME, snapshot.getTotal());
     map.put(MIN_QUEUE_TIME, snapshot.getMin() == Long.MAX_VALUE ? 0L : snapshot.getMin());
     map.put(MAX_QUEUE_TIME, snapshot.getMax());
     map.put(AVG_QUEUE_TIME, snapshot.getAvg());
+    map.put(P90_QUEUE_TIME, snapshot.getPercentile(90d));
+    map.put(P99_QUEUE_TIME, snapshot.getPercentile(99d));
     map.put(TOTAL_QUEUED, stats.getSnapshot(TASK_QUEUE_TOTAL).getTotal());
     snapshot = stats.getSnapshot(TASK_QUEUE_COUNT);
     map.put(QUEUE_SIZE, snapshot.getLatest());
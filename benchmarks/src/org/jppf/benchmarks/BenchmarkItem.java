@@ -0,0 +1,82 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jppf.benchmarks;
+
+import java.io.Serializable;
+import java.util.*;
+
+/**
+ * A small value object used to build the object graphs serialized by the benchmarks.
+ * @author Laurent Cohen
+ */
+public class BenchmarkItem implements Serializable {
+  /**
+   * Explicit serialVersionUID.
+   */
+  private static final long serialVersionUID = 1L;
+  /**
+   * An int field.
+   */
+  final int id;
+  /**
+   * A long field.
+   */
+  final long timestamp;
+  /**
+   * A double field.
+   */
+  final double value;
+  /**
+   * A string field.
+   */
+  final String name;
+  /**
+   * A reference to another item, shared by several items.
+   */
+  final BenchmarkItem parent;
+  /**
+   * A small array of primitive values.
+   */
+  final int[] data;
+
+  /**
+   * Initialize this item.
+   * @param id the item id.
+   * @param parent a reference to another item, possibly {@code null}.
+   */
+  public BenchmarkItem(final int id, final BenchmarkItem parent) {
+    this.id = id;
+    this.timestamp = 1_000_000L + id;
+    this.value = id / 7d;
+    this.name = "item-" + id;
+    this.parent = parent;
+    this.data = new int[] { id, id + 1, id + 2, id + 3 };
+  }
+
+  /**
+   * Create a list of items, in groups of 10 where each item references the first item of its group.
+   * @param size the number of items to create.
+   * @return a list of {@code size} items.
+   */
+  public static List<BenchmarkItem> createGraph(final int size) {
+    final List<BenchmarkItem> list = new ArrayList<>(size);
+    for (int i=0; i<size; i++) list.add(new BenchmarkItem(i, (i % 10 == 0) ? null : list.get(i - i % 10)));
+    return list;
+  }
+}
@@ -0,0 +1,133 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jppf.benchmarks;
+
+import java.util.concurrent.*;
+
+import org.jppf.load.balancer.AbstractAdaptiveBundler;
+import org.jppf.load.balancer.impl.*;
+import org.jppf.node.protocol.*;
+import org.jppf.utils.TypedProperties;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Measures the feedback path of the adaptive load-balancers, which is invoked by the driver each time a node returns results.
+ * The feedback is simulated with an execution time proportional to the number of tasks, plus some noise.
+ * @author Laurent Cohen
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class BundlerBenchmark {
+  /**
+   * The number of bundlers, i.e. of simulated nodes. The proportional algorithm recomputes the bundle size of all nodes upon each feedback.
+   */
+  @Param({ "1", "10", "100" })
+  public int nbBundlers;
+  /**
+   * The RL2 bundlers.
+   */
+  private RL2Bundler[] rl2Bundlers;
+  /**
+   * The proportional bundlers.
+   */
+  private ProportionalBundler[] proportionalBundlers;
+
+  /**
+   * Create the bundlers.
+   */
+  @Setup
+  public void setup() {
+    final TaskBundle job = new JPPFTaskBundle();
+    job.setTaskCount(1000);
+    final RL2Profile rl2Profile = new RL2Profile(new TypedProperties());
+    final ProportionalProfile proportionalProfile = new ProportionalProfile(new TypedProperties());
+    rl2Bundlers = new RL2Bundler[nbBundlers];
+    proportionalBundlers = new ProportionalBundler[nbBundlers];
+    for (int i=0; i<nbBundlers; i++) {
+      rl2Bundlers[i] = new RL2Bundler(rl2Profile);
+      rl2Bundlers[i].setup();
+      rl2Bundlers[i].setJob(job);
+      proportionalBundlers[i] = new ProportionalBundler(proportionalProfile);
+      proportionalBundlers[i].setup();
+      proportionalBundlers[i].setJob(job);
+    }
+  }
+
+  /**
+   * Dispose the bundlers, in particular to unregister the proportional bundlers from their shared list.
+   */
+  @TearDown
+  public void tearDown() {
+    for (int i=0; i<nbBundlers; i++) {
+      rl2Bundlers[i].dispose();
+      proportionalBundlers[i].dispose();
+    }
+  }
+
+  /**
+   * Give feedback to a randomly chosen RL2 bundler.
+   * @return the new bundle size.
+   */
+  @Benchmark
+  public int rl2Feedback() {
+    return feedback(rl2Bundlers[ThreadLocalRandom.current().nextInt(nbBundlers)]);
+  }
+
+  /**
+   * Give feedback to randomly chosen RL2 bundlers from multiple threads.
+   * @return the new bundle size.
+   */
+  @Benchmark
+  @Threads(4)
+  public int rl2FeedbackContended() {
+    return rl2Feedback();
+  }
+
+  /**
+   * Give feedback to a randomly chosen proportional bundler.
+   * @return the new bundle size.
+   */
+  @Benchmark
+  public int proportionalFeedback() {
+    return feedback(proportionalBundlers[ThreadLocalRandom.current().nextInt(nbBundlers)]);
+  }
+
+  /**
+   * Give feedback to randomly chosen proportional bundlers from multiple threads.
+   * @return the new bundle size.
+   */
+  @Benchmark
+  @Threads(4)
+  public int proportionalFeedbackContended() {
+    return proportionalFeedback();
+  }
+
+  /**
+   * Simulate the execution of a bundle with the current bundle size of the specified bundler, then give the corresponding feedback.
+   * @param bundler the bundler to give feedback to.
+   * @return the new bundle size.
+   */
+  private static int feedback(final AbstractAdaptiveBundler<?> bundler) {
+    final int size = bundler.getBundleSize();
+    final double time = size * (1_000_000d + ThreadLocalRandom.current().nextInt(100_000));
+    bundler.feedback(size, time);
+    return bundler.getBundleSize();
+  }
+}
@@ -0,0 +1,135 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jppf.benchmarks;
+
+import java.io.*;
+import java.util.concurrent.TimeUnit;
+
+import org.jppf.io.*;
+import org.jppf.serialization.ObjectSerializer;
+import org.jppf.utils.ObjectSerializerImpl;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Measures the serialization into, the copy of and the transfers from and to a {@link MultipleBuffersLocation}.
+ * @author Laurent Cohen
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DataLocationBenchmark {
+  /**
+   * The size in bytes of the data.
+   */
+  @Param({ "1024", "65536", "1048576" })
+  public int size;
+  /**
+   * The object to serialize.
+   */
+  private byte[] payload;
+  /**
+   * The data location to copy and transfer from.
+   */
+  private DataLocation location;
+  /**
+   * The content of the source data location.
+   */
+  private byte[] locationBytes;
+  /**
+   * The serializer.
+   */
+  private ObjectSerializer serializer;
+  /**
+   * A stream which discards the bytes written to it.
+   */
+  private final OutputStream nullStream = new OutputStream() {
+    @Override
+    public void write(final int b) {
+    }
+
+    @Override
+    public void write(final byte[] b, final int off, final int len) {
+    }
+  };
+
+  /**
+   * Create the payload and the source data location.
+   * @throws Exception if any error occurs.
+   */
+  @Setup
+  public void setup() throws Exception {
+    payload = new byte[size];
+    for (int i=0; i<size; i++) payload[i] = (byte) (i % 127);
+    serializer = new ObjectSerializerImpl();
+    location = IOHelper.serializeDataToMemory(payload, serializer);
+    final ByteArrayOutputStream baos = new ByteArrayOutputStream(location.getSize());
+    location.copy().transferTo(new StreamOutputDestination(baos), true);
+    locationBytes = baos.toByteArray();
+  }
+
+  /**
+   * Serialize the payload into a new data location.
+   * @return the data location.
+   * @throws Exception if any error occurs.
+   */
+  @Benchmark
+  public DataLocation serializeToMemory() throws Exception {
+    return IOHelper.serializeDataToMemory(payload, serializer);
+  }
+
+  /**
+   * Deserialize the payload from the data location.
+   * @return the deserialized payload.
+   * @throws Exception if any error occurs.
+   */
+  @Benchmark
+  public Object deserialize() throws Exception {
+    return IOHelper.unwrappedData(location, serializer);
+  }
+
+  /**
+   * Copy the data location.
+   * @return the copy.
+   */
+  @Benchmark
+  public DataLocation copy() {
+    return location.copy();
+  }
+
+  /**
+   * Transfer the content of the data location to a stream.
+   * @return the number of bytes transferred.
+   * @throws Exception if any error occurs.
+   */
+  @Benchmark
+  public int transferTo() throws Exception {
+    return location.copy().transferTo(new StreamOutputDestination(nullStream), true);
+  }
+
+  /**
+   * Transfer the content of a stream into a new data location.
+   * @return the number of bytes transferred.
+   * @throws Exception if any error occurs.
+   */
+  @Benchmark
+  public int transferFrom() throws Exception {
+    final MultipleBuffersLocation dest = new MultipleBuffersLocation(locationBytes.length);
+    return dest.transferFrom(new StreamInputSource(new ByteArrayInputStream(locationBytes)), true);
+  }
+}
@@ -0,0 +1,101 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jppf.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.jppf.management.JPPFSystemInformation;
+import org.jppf.node.policy.*;
+import org.jppf.utils.TypedProperties;
+import org.jppf.utils.configuration.JPPFProperties;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Measures the evaluation of execution policies against the system information of a node, as done by the driver
+ * each time it matches a job with a node, along with the parsing of an XML policy.
+ * @author Laurent Cohen
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ExecutionPolicyBenchmark {
+  /**
+   * The system information against which the policies are evaluated.
+   */
+  private JPPFSystemInformation info;
+  /**
+   * A policy with a single rule.
+   */
+  private ExecutionPolicy simplePolicy;
+  /**
+   * A policy combining numeric, string, regular expression and logical rules.
+   */
+  private ExecutionPolicy compoundPolicy;
+  /**
+   * The XML representation of the compound policy.
+   */
+  private String compoundPolicyXml;
+
+  /**
+   * Create the system information and the policies.
+   * @throws Exception if any error occurs.
+   */
+  @Setup
+  public void setup() throws Exception {
+    final TypedProperties config = new TypedProperties().set(JPPFProperties.PROCESSING_THREADS, 4);
+    config.setString("benchmark.tags", "serialization, queue, policy");
+    info = new JPPFSystemInformation(config, "benchmark-node", false, true);
+    simplePolicy = new AtLeast("availableProcessors", 1);
+    compoundPolicy = new AtLeast("availableProcessors", 1).and(
+      new Equal("jppf.processing.threads", 4),
+      new Contains("benchmark.tags", true, "POLICY"),
+      new RegExp("java.version", "\\d+.*"),
+      new OneOf("jppf.channel.local", false, "false", "true"),
+      new MoreThan("maxMemory", 1024).or(new LessThan("freeMemory", 0)));
+    compoundPolicyXml = compoundPolicy.toXML();
+  }
+
+  /**
+   * Evaluate the single rule policy.
+   * @return the result of the evaluation.
+   */
+  @Benchmark
+  public boolean evaluateSimple() {
+    return simplePolicy.evaluate(info);
+  }
+
+  /**
+   * Evaluate the compound policy.
+   * @return the result of the evaluation.
+   */
+  @Benchmark
+  public boolean evaluateCompound() {
+    return compoundPolicy.evaluate(info);
+  }
+
+  /**
+   * Parse the XML representation of the compound policy.
+   * @return the parsed policy.
+   * @throws Exception if any error occurs.
+   */
+  @Benchmark
+  public ExecutionPolicy parseXml() throws Exception {
+    return PolicyParser.parsePolicy(compoundPolicyXml);
+  }
+}
@@ -0,0 +1,179 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jppf.benchmarks;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+import org.jppf.serialization.*;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Compares the reflection and method handles field access modes of the JPPF serialization, along with the Java serialization,
+ * on a graph of many small objects whose fields cover all the primitive types, enums and fields inherited from a super class.
+ * @author Laurent Cohen
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class FieldAccessBenchmark {
+  /**
+   * The serialization scheme to use.
+   */
+  @Param({ "jppf", "jppf-method-handles", "java" })
+  public String scheme;
+  /**
+   * The number of items in the serialized graph.
+   */
+  @Param({ "10000" })
+  public int size;
+  /**
+   * The serialization.
+   */
+  private JPPFSerialization serialization;
+  /**
+   * The object graph to serialize.
+   */
+  private List<Item> graph;
+  /**
+   * The serialized graph, to benchmark the deserialization.
+   */
+  private byte[] serialized;
+  /**
+   * Reused destination of the serialization.
+   */
+  private final ByteArrayOutputStream out = new ByteArrayOutputStream(1024 * 1024);
+
+  /**
+   * Create the serialization scheme and the object graph.
+   * @throws Exception if any error occurs.
+   */
+  @Setup
+  public void setup() throws Exception {
+    serialization = SerializationBenchmark.createSerialization(scheme);
+    graph = new ArrayList<>(size);
+    for (int i=0; i<size; i++) graph.add(new Item(i, (i % 10 == 0) ? null : graph.get(i - i % 10)));
+    serialize();
+    serialized = out.toByteArray();
+  }
+
+  /**
+   * Serialize the object graph.
+   * @return the number of bytes produced.
+   * @throws Exception if any error occurs.
+   */
+  @Benchmark
+  public int serialize() throws Exception {
+    out.reset();
+    serialization.serialize(graph, out);
+    return out.size();
+  }
+
+  /**
+   * Deserialize the object graph.
+   * @return the deserialized graph.
+   * @throws Exception if any error occurs.
+   */
+  @Benchmark
+  public Object deserialize() throws Exception {
+    return serialization.deserialize(new ByteArrayInputStream(serialized));
+  }
+
+  /**
+   * An enum used as a field type.
+   */
+  public enum Kind {
+    /** */
+    A,
+    /** */
+    B,
+    /** */
+    C
+  }
+
+  /**
+   * A super class with a private field.
+   */
+  public static class ParentItem implements Serializable {
+    /**
+     * Explicit serialVersionUID.
+     */
+    private static final long serialVersionUID = 1L;
+    /**
+     * A field declared in the super class.
+     */
+    private short parentValue;
+
+    /**
+     * @param parentValue a field declared in the super class.
+     */
+    ParentItem(final short parentValue) {
+      this.parentValue = parentValue;
+    }
+  }
+
+  /**
+   * A small object with fields of various types.
+   */
+  public static class Item extends ParentItem {
+    /**
+     * Explicit serialVersionUID.
+     */
+    private static final long serialVersionUID = 1L;
+    /** */
+    final int id;
+    /** */
+    final long longValue;
+    /** */
+    double doubleValue;
+    /** */
+    float floatValue;
+    /** */
+    boolean flag;
+    /** */
+    byte byteValue;
+    /** */
+    char c;
+    /** */
+    final String name;
+    /** */
+    Kind kind;
+    /** */
+    final Item first;
+
+    /**
+     * @param id the item id.
+     * @param first the first item in the group of this item.
+     */
+    Item(final int id, final Item first) {
+      super((short) (id % 1000));
+      this.id = id;
+      this.longValue = 31L * id;
+      this.doubleValue = id / 3d;
+      this.floatValue = id / 7f;
+      this.flag = (id % 2) == 0;
+      this.byteValue = (byte) id;
+      this.c = (char) ('a' + (id % 26));
+      this.name = "item-" + id;
+      this.kind = Kind.values()[id % Kind.values().length];
+      this.first = first;
+    }
+  }
+}
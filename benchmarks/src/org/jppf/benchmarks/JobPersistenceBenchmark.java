@@ -0,0 +1,198 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jppf.benchmarks;
+
+import java.io.InputStream;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+import org.jppf.io.MultipleBuffersLocation;
+import org.jppf.job.persistence.*;
+import org.jppf.job.persistence.impl.*;
+import org.jppf.utils.DeleteFileVisitor;
+import org.jppf.utils.streams.StreamUtils;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Compares the {@link DefaultFilePersistence file} and {@link SegmentLogPersistence segment log} job persistence implementations:
+ * storing and loading batches of task results, and recovering the persisted jobs with a new persistence instance, as after a driver restart.
+ * <p>The segment files are not forced to the storage device, since the file persistence does not do it either.
+ * @author Laurent Cohen
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JobPersistenceBenchmark {
+  /**
+   * The job persistence implementation.
+   */
+  @Param({ "file", "segment" })
+  public String implementation;
+  /**
+   * The number of elements in each store or load operation.
+   */
+  @Param({ "1", "10" })
+  public int batchSize;
+  /**
+   * The size in bytes of each task and task result.
+   */
+  @Param({ "1024" })
+  public int size;
+  /**
+   * The number of persisted jobs.
+   */
+  private static final int NB_JOBS = 16;
+  /**
+   * The number of tasks in each job.
+   */
+  private static final int NB_TASKS = 100;
+  /**
+   * The root directory of the persistence.
+   */
+  private Path root;
+  /**
+   * The persistence.
+   */
+  private JobPersistence persistence;
+  /**
+   * The uuids of the persisted jobs.
+   */
+  private final List<String> uuids = new ArrayList<>();
+  /**
+   * The serialized data of the tasks and results.
+   */
+  private byte[] data;
+  /**
+   * Counter used to rotate the jobs and positions of the stored and loaded elements.
+   */
+  private int count;
+
+  /**
+   * Create the persistence and store the jobs.
+   * @throws Exception if any error occurs.
+   */
+  @Setup
+  public void setup() throws Exception {
+    root = Files.createTempDirectory("jppf-persistence");
+    persistence = createPersistence();
+    data = new byte[size];
+    for (int i=0; i<size; i++) data[i] = (byte) (i % 127);
+    for (int i=0; i<NB_JOBS; i++) {
+      final String uuid = UUID.randomUUID().toString();
+      uuids.add(uuid);
+      final List<PersistenceInfo> infos = new ArrayList<>();
+      infos.add(info(uuid, PersistenceObjectType.JOB_HEADER, -1));
+      for (int j=0; j<NB_TASKS; j++) infos.add(info(uuid, PersistenceObjectType.TASK, j));
+      persistence.store(infos);
+    }
+  }
+
+  /**
+   * Delete the jobs and the root directory.
+   * @throws Exception if any error occurs.
+   */
+  @TearDown
+  public void tearDown() throws Exception {
+    for (final String uuid: uuids) persistence.deleteJob(uuid);
+    close(persistence);
+    if (Files.exists(root)) Files.walkFileTree(root, new DeleteFileVisitor());
+  }
+
+  /**
+   * Store a batch of task results, superseding those previously stored at the same positions.
+   * @throws Exception if any error occurs.
+   */
+  @Benchmark
+  public void store() throws Exception {
+    persistence.store(nextBatch(PersistenceObjectType.TASK_RESULT));
+  }
+
+  /**
+   * Load a batch of tasks and read their content.
+   * @return the total number of bytes read.
+   * @throws Exception if any error occurs.
+   */
+  @Benchmark
+  public int load() throws Exception {
+    int n = 0;
+    for (final InputStream is: persistence.load(nextBatch(PersistenceObjectType.TASK))) n += StreamUtils.getInputStreamAsByte(is).length;
+    return n;
+  }
+
+  /**
+   * Find the persisted jobs and the positions of their tasks and results with a new persistence instance, as after a driver restart.
+   * @return the total number of positions found.
+   * @throws Exception if any error occurs.
+   */
+  @Benchmark
+  public int recover() throws Exception {
+    final JobPersistence recovered = createPersistence();
+    try {
+      int n = 0;
+      for (final String uuid: recovered.getPersistedJobUuids()) {
+        if (recovered.isJobPersisted(uuid)) n += recovered.getTaskPositions(uuid).length + recovered.getTaskResultPositions(uuid).length;
+      }
+      return n;
+    } finally {
+      close(recovered);
+    }
+  }
+
+  /**
+   * Close the files kept open by the specified persistence, if any.
+   * @param jobPersistence the persistence to close.
+   * @throws Exception if any error occurs.
+   */
+  private static void close(final JobPersistence jobPersistence) throws Exception {
+    if (jobPersistence instanceof SegmentLogPersistence) ((SegmentLogPersistence) jobPersistence).close();
+  }
+
+  /**
+   * @return a new persistence instance of the configured implementation.
+   */
+  private JobPersistence createPersistence() {
+    return "segment".equals(implementation) ? new SegmentLogPersistence(root.toString(), "false") : new DefaultFilePersistence(root.toString());
+  }
+
+  /**
+   * Create the next batch of elements of the specified type, all for the same job.
+   * @param type the type of elements.
+   * @return the information on the elements.
+   */
+  private List<PersistenceInfo> nextBatch(final PersistenceObjectType type) {
+    final String uuid = uuids.get(count % NB_JOBS);
+    final int start = (count / NB_JOBS) * batchSize % NB_TASKS;
+    count++;
+    final List<PersistenceInfo> infos = new ArrayList<>(batchSize);
+    for (int i=0; i<batchSize; i++) infos.add(info(uuid, type, (start + i) % NB_TASKS));
+    return infos;
+  }
+
+  /**
+   * Create the information on a job element.
+   * @param uuid the uuid of the job.
+   * @param type the type of element.
+   * @param position the position of the element.
+   * @return a {@link PersistenceInfo} instance.
+   */
+  private PersistenceInfo info(final String uuid, final PersistenceObjectType type, final int position) {
+    return new PersistenceInfoImpl(uuid, null, type, position, new MultipleBuffersLocation(data));
+  }
+}
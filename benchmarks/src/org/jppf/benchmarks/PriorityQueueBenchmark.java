@@ -0,0 +1,131 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jppf.benchmarks;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.jppf.io.*;
+import org.jppf.node.protocol.*;
+import org.jppf.server.JPPFDriver;
+import org.jppf.server.protocol.*;
+import org.jppf.server.queue.JPPFPriorityQueue;
+import org.jppf.utils.*;
+import org.jppf.utils.configuration.JPPFProperties;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Measures the driver's job queue: each invocation queues a new job, then dispatches all its tasks with
+ * {@link JPPFPriorityQueue#nextBundle(ServerJob, int, org.jppf.execute.ExecutorChannel) nextBundle()}, as the job scheduler does for each node,
+ * and finally removes the job from the queue. The contended variants run several threads against the same queue.
+ * <p>The driver is created but not started, so no server socket is opened.
+ * @author Laurent Cohen
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class PriorityQueueBenchmark {
+  /**
+   * The number of tasks in each job.
+   */
+  @Param({ "100" })
+  public int tasksPerJob;
+  /**
+   * The number of tasks requested by each call to {@code nextBundle()}.
+   */
+  @Param({ "1", "10" })
+  public int bundleSize;
+  /**
+   * The driver which owns the queue.
+   */
+  private JPPFDriver driver;
+  /**
+   * The queue.
+   */
+  private JPPFPriorityQueue queue;
+  /**
+   * The serialized tasks, shared by all jobs.
+   */
+  private List<DataLocation> tasks;
+  /**
+   * The positions of the tasks.
+   */
+  private int[] positions;
+
+  /**
+   * Create the driver and the queue.
+   * @throws Exception if any error occurs.
+   */
+  @Setup
+  public void setup() throws Exception {
+    final TypedProperties config = new TypedProperties()
+      .set(JPPFProperties.MANAGEMENT_ENABLED, false)
+      .set(JPPFProperties.DISCOVERY_ENABLED, false)
+      .set(JPPFProperties.LOCAL_NODE_ENABLED, false);
+    driver = new JPPFDriver(config);
+    queue = driver.getQueue();
+    tasks = new ArrayList<>(tasksPerJob);
+    positions = new int[tasksPerJob];
+    for (int i=0; i<tasksPerJob; i++) {
+      tasks.add(new MultipleBuffersLocation(new byte[64]));
+      positions[i] = i;
+    }
+  }
+
+  /**
+   * Queue and dispatch a job from a single thread.
+   * @return the number of dispatched bundles.
+   */
+  @Benchmark
+  @Threads(1)
+  public int addAndDispatch() {
+    return queueAndDispatchJob();
+  }
+
+  /**
+   * Queue and dispatch jobs from multiple threads.
+   * @return the number of dispatched bundles.
+   */
+  @Benchmark
+  @Threads(4)
+  public int addAndDispatchContended() {
+    return queueAndDispatchJob();
+  }
+
+  /**
+   * Queue a new job, dispatch all its tasks, then remove it from the queue.
+   * @return the number of dispatched bundles.
+   */
+  private int queueAndDispatchJob() {
+    final TaskBundle header = new JPPFTaskBundle();
+    header.setUuid(JPPFUuid.normalUUID());
+    header.setName(header.getUuid());
+    header.setTaskCount(tasksPerJob);
+    header.setSLA(new JobSLA().setPriority(ThreadLocalRandom.current().nextInt(10)));
+    header.setParameter(BundleParameter.TASK_POSITIONS, positions);
+    final ServerJob serverJob = queue.addBundle(new ServerTaskBundleClient(header, null, tasks, false));
+    int count = 0;
+    while (serverJob.getTaskCount() > 0) {
+      queue.nextBundle(serverJob, bundleSize, null);
+      count++;
+    }
+    queue.removeBundle(serverJob);
+    return count;
+  }
+}
@@ -0,0 +1,264 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jppf.benchmarks;
+
+import java.io.EOFException;
+import java.net.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.*;
+import java.util.concurrent.TimeUnit;
+
+import org.jppf.nio.*;
+import org.jppf.utils.*;
+import org.jppf.utils.streams.StreamUtils;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.ThreadParams;
+
+/**
+ * Measures the round-trip throughput of a {@link StatelessNioServer} handling many connections with a varying number of selector shards.
+ * <p>The server is a minimal echo server which relies on the same selection loops, channel registration and interest ops updates
+ * as the driver's node and client servers, so that the results reflect the cost of the sharding rather than that of the JPPF protocol.
+ * All the connections are opened in-process over the loopback interface: each invocation sends a small message on several connections
+ * at once, then waits for all the replies, cycling through all the connections of the calling thread.
+ * @author Laurent Cohen
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class SelectorShardBenchmark {
+  /**
+   * Size in bytes of the echoed messages.
+   */
+  static final int MESSAGE_SIZE = 64;
+  /**
+   * Number of messages sent by each thread before waiting for the replies.
+   */
+  static final int IN_FLIGHT = 16;
+  /**
+   * The number of simulated node connections.
+   */
+  @Param({ "500", "2000", "5000" })
+  public int connections;
+  /**
+   * The number of selector shards.
+   */
+  @Param({ "1", "2", "4", "8" })
+  public int shards;
+  /**
+   * The server being measured.
+   */
+  private EchoServer server;
+  /**
+   * Accepts the connections, which are then registered with the server.
+   */
+  private ServerSocketChannel acceptor;
+  /**
+   * The client side of the connections.
+   */
+  private SocketChannel[] clients;
+
+  /**
+   * Start the server and open the connections.
+   * @throws Exception if any error occurs.
+   */
+  @Setup
+  public void setup() throws Exception {
+    server = new EchoServer(shards);
+    server.start();
+    acceptor = ServerSocketChannel.open();
+    acceptor.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), connections);
+    clients = new SocketChannel[connections];
+    for (int i=0; i<connections; i++) {
+      clients[i] = SocketChannel.open(acceptor.getLocalAddress());
+      clients[i].socket().setTcpNoDelay(true);
+      final SocketChannel channel = acceptor.accept();
+      channel.configureBlocking(false);
+      channel.socket().setTcpNoDelay(true);
+      server.registerChannel(new EchoContext(channel), channel);
+    }
+  }
+
+  /**
+   * Close the connections and stop the server.
+   * @throws Exception if any error occurs.
+   */
+  @TearDown
+  public void tearDown() throws Exception {
+    server.shutdown();
+    for (final SocketChannel client: clients) client.close();
+    acceptor.close();
+  }
+
+  /**
+   * Send a message on {@link #IN_FLIGHT} connections, then wait for all the replies.
+   * @param state the connections of the calling thread.
+   * @return the number of bytes received.
+   * @throws Exception if any error occurs.
+   */
+  @Benchmark
+  @Threads(4)
+  @OperationsPerInvocation(IN_FLIGHT)
+  public int roundTrip(final ThreadConnections state) throws Exception {
+    final SocketChannel[] channels = state.channels;
+    final int start = state.next;
+    for (int i=0; i<IN_FLIGHT; i++) {
+      final ByteBuffer out = state.out;
+      out.clear();
+      final SocketChannel channel = channels[(start + i) % channels.length];
+      while (out.hasRemaining()) channel.write(out);
+    }
+    int total = 0;
+    for (int i=0; i<IN_FLIGHT; i++) {
+      final ByteBuffer in = state.in;
+      in.clear();
+      final SocketChannel channel = channels[(start + i) % channels.length];
+      while (in.hasRemaining()) {
+        if (channel.read(in) < 0) throw new EOFException("connection closed by the server");
+      }
+      total += in.position();
+    }
+    state.next = (start + IN_FLIGHT) % channels.length;
+    return total;
+  }
+
+  /**
+   * The connections used by a benchmark thread, which are not shared with any other thread.
+   */
+  @State(Scope.Thread)
+  public static class ThreadConnections {
+    /**
+     * The connections of this thread.
+     */
+    SocketChannel[] channels;
+    /**
+     * The position of the next connection to use.
+     */
+    int next;
+    /**
+     * The message to send.
+     */
+    final ByteBuffer out = ByteBuffer.allocate(MESSAGE_SIZE);
+    /**
+     * Receives the replies.
+     */
+    final ByteBuffer in = ByteBuffer.allocate(MESSAGE_SIZE);
+
+    /**
+     * Assign a distinct subset of the connections to the calling thread.
+     * @param benchmark the benchmark state which holds all the connections.
+     * @param params the parameters of the calling thread.
+     */
+    @Setup
+    public void setup(final SelectorShardBenchmark benchmark, final ThreadParams params) {
+      final int nbThreads = params.getThreadCount(), index = params.getThreadIndex();
+      final int size = (benchmark.clients.length - index + nbThreads - 1) / nbThreads;
+      channels = new SocketChannel[size];
+      for (int i=0; i<size; i++) channels[i] = benchmark.clients[index + i * nbThreads];
+    }
+  }
+
+  /**
+   * A server which sends back each message it receives on a connection.
+   */
+  static class EchoServer extends StatelessNioServer<EchoContext> {
+    /**
+     * Create the server with the specified number of selector shards, assigned in round-robin fashion.
+     * @param nbShards the number of selector shards.
+     * @throws Exception if any error occurs.
+     */
+    EchoServer(final int nbShards) throws Exception {
+      super("EchoServer", JPPFIdentifiers.NODE_JOB_DATA_CHANNEL, false, new TypedProperties());
+      initSelectorShards(nbShards, "round_robin");
+    }
+
+    @Override
+    protected void initReaderAndWriter() {
+    }
+
+    @Override
+    protected void handleRead(final SelectionKey key) throws Exception {
+      final EchoContext context = (EchoContext) key.attachment();
+      if (context.readMessage()) {
+        context.buffer.flip();
+        updateInterestOpsNoWakeup(key, SelectionKey.OP_READ, false);
+        updateInterestOpsNoWakeup(key, SelectionKey.OP_WRITE, true);
+      }
+    }
+
+    @Override
+    protected void handleWrite(final SelectionKey key) throws Exception {
+      final EchoContext context = (EchoContext) key.attachment();
+      if (context.writeMessage()) {
+        context.buffer.clear();
+        updateInterestOpsNoWakeup(key, SelectionKey.OP_WRITE, false);
+        updateInterestOpsNoWakeup(key, SelectionKey.OP_READ, true);
+      }
+    }
+
+    @Override
+    protected void handleSelectionException(final SelectionKey key, final Exception e) {
+      ((EchoContext) key.attachment()).handleException(e);
+    }
+
+    @Override
+    public void accept(final ServerSocketChannel serverSocketChannel, final SocketChannel channel, final SSLHandler sslHandler, final boolean ssl,
+      final boolean peer, final Object... params) throws Exception {
+      // the connections are registered directly by the benchmark
+    }
+
+    @Override
+    public NioContext createNioContext(final Object... params) {
+      return new EchoContext((SocketChannel) params[0]);
+    }
+  }
+
+  /**
+   * The context of a connection to the echo server, which holds the message being received or sent back.
+   */
+  static class EchoContext extends AbstractNioContext {
+    /**
+     * The message being received or sent back.
+     */
+    final ByteBuffer buffer = ByteBuffer.allocate(MESSAGE_SIZE);
+
+    /**
+     * @param socketChannel the server side of the connection.
+     */
+    EchoContext(final SocketChannel socketChannel) {
+      this.socketChannel = socketChannel;
+    }
+
+    @Override
+    public boolean readMessage() throws Exception {
+      if (socketChannel.read(buffer) < 0) throw new EOFException("connection closed by the client");
+      return !buffer.hasRemaining();
+    }
+
+    @Override
+    public boolean writeMessage() throws Exception {
+      socketChannel.write(buffer);
+      return !buffer.hasRemaining();
+    }
+
+    @Override
+    public void handleException(final Exception e) {
+      if (closed.compareAndSet(false, true)) StreamUtils.closeSilent(socketChannel);
+    }
+  }
+}
@@ -0,0 +1,117 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jppf.benchmarks;
+
+import java.io.*;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.jppf.serialization.*;
+import org.jppf.utils.JPPFConfiguration;
+import org.jppf.utils.configuration.JPPFProperties;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Measures the serialization and deserialization of an object graph with the built-in serialization schemes,
+ * with and without compression.
+ * @author Laurent Cohen
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SerializationBenchmark {
+  /**
+   * The serialization scheme to use. Composite schemes are expressed as in the {@code jppf.object.serialization.class} property.
+   */
+  @Param({ "jppf", "jppf-method-handles", "java", "LZ4 jppf", "ZLIB jppf", "LZ4 java", "ZLIB java" })
+  public String scheme;
+  /**
+   * The number of items in the serialized graph.
+   */
+  @Param({ "100", "10000" })
+  public int size;
+  /**
+   * The serialization.
+   */
+  private JPPFSerialization serialization;
+  /**
+   * The object graph to serialize.
+   */
+  private List<BenchmarkItem> graph;
+  /**
+   * The serialized graph, to benchmark the deserialization.
+   */
+  private byte[] serialized;
+  /**
+   * Reused destination of the serialization.
+   */
+  private final ByteArrayOutputStream out = new ByteArrayOutputStream(1024 * 1024);
+
+  /**
+   * Create the serialization scheme and the object graph.
+   * @throws Exception if any error occurs.
+   */
+  @Setup
+  public void setup() throws Exception {
+    serialization = createSerialization(scheme);
+    graph = BenchmarkItem.createGraph(size);
+    serialize();
+    serialized = out.toByteArray();
+  }
+
+  /**
+   * Serialize the object graph.
+   * @return the number of bytes produced.
+   * @throws Exception if any error occurs.
+   */
+  @Benchmark
+  public int serialize() throws Exception {
+    out.reset();
+    serialization.serialize(graph, out);
+    return out.size();
+  }
+
+  /**
+   * Deserialize the object graph.
+   * @return the deserialized graph.
+   * @throws Exception if any error occurs.
+   */
+  @Benchmark
+  public Object deserialize() throws Exception {
+    return serialization.deserialize(new ByteArrayInputStream(serialized));
+  }
+
+  /**
+   * Create the serialization for the specified scheme.
+   * @param scheme the name of the scheme, optionally prefixed with the name of a composite serialization.
+   * @return a {@link JPPFSerialization} instance.
+   */
+  static JPPFSerialization createSerialization(final String scheme) {
+    switch(scheme) {
+      case "jppf": return new DefaultJPPFSerialization(false);
+      case "jppf-method-handles": return new DefaultJPPFSerialization(true);
+      case "java": return new DefaultJavaSerialization();
+    }
+    final int idx = scheme.lastIndexOf(' ');
+    final String concrete = "jppf".equals(scheme.substring(idx + 1)) ? DefaultJPPFSerialization.class.getName() : DefaultJavaSerialization.class.getName();
+    JPPFConfiguration.set(JPPFProperties.OBJECT_SERIALIZATION_CLASS, scheme.substring(0, idx + 1) + concrete);
+    JPPFSerialization.Factory.reset();
+    return JPPFSerialization.Factory.getSerialization();
+  }
+}
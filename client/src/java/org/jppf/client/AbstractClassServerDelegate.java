@@ -175,7 +175,13 @@ public abstract class AbstractClassServerDelegate extends AbstractClientConnecti
         b = resourceProvider.getResource(name, loaders, fileLookup);
       }
       if (b == null) found = false;
-      if (callable == null) resource.setDefinition(b);
+      if (callable == null) {
+        resource.setDefinition(b);
+        if (found) {
+          owner.getConnectionPool().getClient().getPrefetchManifests().resourceLoaded(resource.getRequestUuid(), name);
+          validateCachedContent(resource, b);
+        }
+      }
       else resource.setCallable(b);
       if (debugEnabled) {
         if (found) log.debug("{} found resource: {} ({} bytes)", formattedName, name, b.length);
@@ -186,6 +192,21 @@ public abstract class AbstractClassServerDelegate extends AbstractClientConnecti
     writeResource(resource);
   }
 
+  /**
+   * If the node which requested the specified resource already holds a content with the same hash, then remove the definition
+   * from the response, so it doesn't have to be transferred, and flag the response as validated.
+   * @param resource the resource to send back.
+   * @param definition the content of the resource.
+   */
+  private void validateCachedContent(final JPPFResourceWrapper resource, final byte[] definition) {
+    final Object cachedHash = resource.getData(ResourceIdentifier.CACHED_CONTENT_HASH);
+    if ((cachedHash == null) || !cachedHash.equals(CryptoUtils.computeHash(definition, JPPFResourceWrapper.CONTENT_HASH_ALGORITHM))) return;
+    if (debugEnabled) log.debug("{} content of resource {} validated by hash", formattedName, resource.getName());
+    resource.setDefinition(null);
+    resource.setData(ResourceIdentifier.CONTENT_HASH, cachedHash);
+    resource.setData(ResourceIdentifier.CONTENT_VALIDATED, true);
+  }
+
   /**
    * Close the socket connection.
    */
@@ -76,6 +76,10 @@ public abstract class AbstractGenericClient extends AbstractJPPFClient implement
    * Handles the class loaders used for inbound class loading requests from the servers.
    */
   private final ClassLoaderRegistrationHandler classLoaderRegistrationHandler;
+  /**
+   * Records the classes and resources loaded remotely for each kind of job, to send them as prefetch manifests with subsequent jobs.
+   */
+  private ClassPrefetchManifests prefetchManifests;
   /**
    * The list of listeners on the queue associated with this client.
    */
@@ -137,6 +141,7 @@ public abstract class AbstractGenericClient extends AbstractJPPFClient implement
     closed.set(false);
     resetting.set(false);
     this.config = initConfig(configuration);
+    this.prefetchManifests = new ClassPrefetchManifests(config);
     try {
       final Map<String, DataSource> result = JPPFDatasourceFactory.getInstance().createDataSources(config);
       log.info("created client-side datasources: {}", result.keySet());
@@ -427,6 +432,16 @@ public abstract class AbstractGenericClient extends AbstractJPPFClient implement
    */
   public void unregisterClassLoaders(final String uuid) {
     classLoaderRegistrationHandler.unregister(uuid);
+    prefetchManifests.jobEnded(uuid);
+  }
+
+  /**
+   * Get the object which records the classes and resources loaded remotely for each kind of job.
+   * @return a {@link ClassPrefetchManifests} instance.
+   * @exclude
+   */
+  public ClassPrefetchManifests getPrefetchManifests() {
+    return prefetchManifests;
   }
 
   /**
@@ -28,11 +28,12 @@ import java.util.concurrent.locks.*;
 import org.jppf.JPPFException;
 import org.jppf.client.balancer.ClientTaskBundle;
 import org.jppf.comm.socket.*;
-import org.jppf.io.IOHelper;
+import org.jppf.io.*;
 import org.jppf.node.protocol.*;
 import org.jppf.node.protocol.graph.TaskGraphInfo;
 import org.jppf.serialization.*;
 import org.jppf.utils.*;
+import org.jppf.utils.configuration.JPPFProperties;
 import org.slf4j.*;
 
 /**
@@ -96,6 +97,14 @@ abstract class BaseJPPFClientConnection implements JPPFClientConnection {
    * 
    */
   private final ObjectSerializer defaultSerializer;
+  /**
+   * The codec used to compress the tasks sent to the driver, as negotiated during the handshake, or {@code null} if they are not compressed.
+   */
+  private volatile PayloadCodec payloadCodec;
+  /**
+   * The serialized size below which the tasks are not compressed.
+   */
+  private final int compressionThreshold;
 
   /**
    * Initialize this connection with a parent pool.
@@ -105,6 +114,7 @@ abstract class BaseJPPFClientConnection implements JPPFClientConnection {
     this.pool = pool;
     SEQUENTIAL_DESERIALIZATION = pool.getClient().getConfig().getBoolean("jppf.sequential.deserialization", false);
     defaultSerializer = new ObjectSerializerImpl();
+    compressionThreshold = pool.getClient().getConfig().get(JPPFProperties.PAYLOAD_COMPRESSION_THRESHOLD);
   }
 
   /**
@@ -146,7 +156,7 @@ abstract class BaseJPPFClientConnection implements JPPFClientConnection {
     final SocketWrapper socketClient = taskServerConnection.getSocketClient();
     IOHelper.sendData(socketClient, header, ser);
     try {
-      IOHelper.sendData(socketClient, job.getDataProvider(), ser);
+      IOHelper.sendData(socketClient, job.getDataProvider(), ser, payloadCodec, compressionThreshold);
     } catch(final NotSerializableException e) {
       log.error("error serializing data provider for {} : {}\nthe job will be cancelled", job, ExceptionUtils.getStackTrace(e));
       IOHelper.sendData(socketClient, null, ser);
@@ -166,11 +176,12 @@ abstract class BaseJPPFClientConnection implements JPPFClientConnection {
    * @return a list of tasks that couldn't be serialized, possibly empty.
    * @throws Exception if an error occurs while sending the request.
    */
-  private static List<Task<?>> sendTasks(final JPPFJob job, final ObjectSerializer ser, final SocketWrapper socketClient, final List<? extends PositionalElement<?>> tasks) throws Exception {
+  private List<Task<?>> sendTasks(final JPPFJob job, final ObjectSerializer ser, final SocketWrapper socketClient, final List<? extends PositionalElement<?>> tasks) throws Exception {
     final List<Task<?>> notSerializableTasks =  new ArrayList<>(tasks.size());
+    final PayloadCodec codec = payloadCodec;
     for (final PositionalElement<?> task : tasks) {
       try {
-        IOHelper.sendData(socketClient, task, ser);
+        IOHelper.sendData(socketClient, task, ser, codec, compressionThreshold);
       } catch(final NotSerializableException e) {
         log.error("error serializing task {} for {} : {}", task, job, ExceptionUtils.getStackTrace(e));
         ((Task<?>) task).setThrowable(e);
@@ -227,6 +238,8 @@ abstract class BaseJPPFClientConnection implements JPPFClientConnection {
     header.setHandshake(true);
     header.setUuid(header.getName());
     header.setParameter(BundleParameter.CONNECTION_UUID, connectionUuid);
+    final String codecs = PayloadCodecs.getAdvertisedCodecs(pool.getClient().getConfig());
+    if (codecs != null) header.setParameter(BundleParameter.PAYLOAD_CODECS, codecs);
     header.setSLA(null);
     header.setMetadata(null);
     final SocketWrapper socketClient = taskServerConnection.getSocketClient();
@@ -234,7 +247,10 @@ abstract class BaseJPPFClientConnection implements JPPFClientConnection {
     IOHelper.sendData(socketClient, null, ser); // null data provider
     socketClient.flush();
     if (debugEnabled) log.debug("{} sent handshake job, receiving handshake results", toDebugString());
-    return receiveBundleAndResults(ser, getClass().getClassLoader()).first();
+    final TaskBundle bundle = receiveBundleAndResults(ser, getClass().getClassLoader()).first();
+    payloadCodec = PayloadCodecs.getCodec(bundle.getParameter(BundleParameter.PAYLOAD_CODEC));
+    if (debugEnabled && (payloadCodec != null)) log.debug("{} negotiated payload codec {}", toDebugString(), payloadCodec);
+    return bundle;
   }
 
   /**
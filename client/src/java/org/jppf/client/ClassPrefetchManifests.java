@@ -0,0 +1,139 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jppf.client;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.jppf.utils.TypedProperties;
+import org.jppf.utils.configuration.JPPFProperties;
+import org.slf4j.*;
+
+/**
+ * Records the names of the classes and resources that the nodes load remotely from this client for the tasks of each kind of job,
+ * so that subsequent jobs of the same kind can carry them as a prefetch manifest. The nodes then fetch all the listed
+ * classes and resources in a single request before deserializing the tasks, instead of one request per missing class.
+ * <p>The kind of a job is given by the class of its first task, or of the object wrapped by this task.
+ * @author Laurent Cohen
+ * @exclude
+ */
+public class ClassPrefetchManifests {
+  /**
+   * Logger for this class.
+   */
+  private static Logger log = LoggerFactory.getLogger(ClassPrefetchManifests.class);
+  /**
+   * Determines whether debug-level logging is enabled.
+   */
+  private static boolean debugEnabled = log.isDebugEnabled();
+  /**
+   * Maximum number of manifests kept by this client. When this number is exceeded, the least recently used manifest is discarded.
+   */
+  private static final int MAX_MANIFESTS = 256;
+  /**
+   * Whether manifests are recorded and sent with the jobs.
+   */
+  private final boolean enabled;
+  /**
+   * Maximum number of names in a manifest.
+   */
+  private final int maxSize;
+  /**
+   * Mapping of job uuids to the key of the manifest in which the resources loaded for the job are recorded.
+   */
+  private final Map<String, String> jobKeys = new ConcurrentHashMap<>();
+  /**
+   * Mapping of keys to the corresponding manifests, in least recently used order.
+   */
+  private final Map<String, Set<String>> manifests = new LinkedHashMap<String, Set<String>>(16, 0.75f, true) {
+    @Override
+    protected boolean removeEldestEntry(final Map.Entry<String, Set<String>> eldest) {
+      return size() > MAX_MANIFESTS;
+    }
+  };
+
+  /**
+   * Initialize with the specified configuration.
+   * @param config the client configuration.
+   */
+  public ClassPrefetchManifests(final TypedProperties config) {
+    this.enabled = config.get(JPPFProperties.CLASSLOADER_PREFETCH_ENABLED);
+    this.maxSize = config.get(JPPFProperties.CLASSLOADER_PREFETCH_MAX_SIZE);
+  }
+
+  /**
+   * Called when tasks of a job are about to be sent to a driver. From then on, the resources loaded for the job are recorded
+   * in the manifest with the specified key.
+   * @param jobUuid the uuid of the job.
+   * @param key the key of the manifest.
+   * @return the names of the classes and resources recorded for previous jobs with the same key, or {@code null} if there are none.
+   */
+  public String[] jobDispatched(final String jobUuid, final String key) {
+    if (!enabled || (jobUuid == null) || (key == null)) return null;
+    jobKeys.put(jobUuid, key);
+    final Set<String> names;
+    synchronized(manifests) {
+      names = manifests.get(key);
+      if ((names == null) || names.isEmpty()) return null;
+    }
+    final String[] result;
+    synchronized(names) {
+      result = names.toArray(new String[names.size()]);
+    }
+    if (debugEnabled) log.debug("sending prefetch manifest with {} entries for job uuid={}, key={}", result.length, jobUuid, key);
+    return result;
+  }
+
+  /**
+   * Record a class or resource which was found by this client and sent to a node.
+   * @param jobUuid the uuid of the job for which the resource was requested.
+   * @param name the name of the class or resource.
+   */
+  public void resourceLoaded(final String jobUuid, final String name) {
+    if (!enabled || (jobUuid == null) || (name == null)) return;
+    final String key = jobKeys.get(jobUuid);
+    if (key == null) return;
+    Set<String> names;
+    synchronized(manifests) {
+      names = manifests.get(key);
+      if (names == null) manifests.put(key, names = new LinkedHashSet<>());
+    }
+    synchronized(names) {
+      if (names.size() < maxSize) names.add(name);
+    }
+  }
+
+  /**
+   * Called when a job has completed, to stop recording the resources loaded for it.
+   * @param jobUuid the uuid of the job.
+   */
+  public void jobEnded(final String jobUuid) {
+    if (jobUuid != null) jobKeys.remove(jobUuid);
+  }
+
+  /**
+   * Remove all the recorded manifests.
+   */
+  public void clear() {
+    jobKeys.clear();
+    synchronized(manifests) {
+      manifests.clear();
+    }
+  }
+}
@@ -22,7 +22,7 @@ import java.util.*;
 import java.util.concurrent.*;
 import java.util.function.Supplier;
 
-import org.jppf.JPPFException;
+import org.jppf.*;
 import org.jppf.client.balancer.ClientTaskBundle;
 import org.jppf.client.event.*;
 import org.jppf.client.event.JobEvent.Type;
@@ -297,6 +297,21 @@ public class JPPFJob extends AbstractJPPFJob<JPPFJob> implements Iterable<Task<?
     return results.getResultsList();
   }
 
+  /**
+   * Get an iterator which returns the results of this job as they are received, in the order in which they are received.
+   * The iterator's {@code hasNext()} method blocks until a result is available, or returns {@code false} once all the results
+   * were consumed or the job failed.
+   * <p>Multiple iterators can be used concurrently by distinct threads, in which case each result is returned by only one of them.
+   * When {@code releaseConsumed} is {@code true}, the results are no longer held by the job once returned by the iterator,
+   * which allows processing jobs with a very large number of tasks in bounded memory.
+   * @param releaseConsumed whether to release the results once returned by the iterator, see {@link JobResults#pollResult(boolean)}.
+   * @return an {@link Iterator} over the results.
+   * @since 6.2
+   */
+  public Iterator<Task<?>> resultsIterator(final boolean releaseConsumed) {
+    return new ResultsIterator(releaseConsumed);
+  }
+
   /**
    * Get the list of currently available task execution results.
    * This method is a shortcut for {@code getResults().getResultsList()}.
@@ -537,4 +552,56 @@ public class JPPFJob extends AbstractJPPFJob<JPPFJob> implements Iterable<Task<?
     getSLA().getDependencySpec().setCascadeCancellation(cascadeCancellation);
     return this;
   }
+
+  /**
+   * An iterator which returns the results as they are received.
+   */
+  private class ResultsIterator implements Iterator<Task<?>> {
+    /**
+     * Whether to release the results once consumed.
+     */
+    private final boolean release;
+    /**
+     * The next result to return.
+     */
+    private Task<?> next;
+
+    /**
+     * Initialize this iterator.
+     * @param release whether to release the results once consumed.
+     */
+    private ResultsIterator(final boolean release) {
+      this.release = release;
+    }
+
+    @Override
+    public boolean hasNext() {
+      if (next != null) return true;
+      // fast path, without locking
+      if ((next = results.pollResult(release)) != null) return true;
+      synchronized(results) {
+        while (true) {
+          if ((next = results.pollResult(release)) != null) return true;
+          if (isDone() || (getStatus() == JobStatus.FAILED)) {
+            // results are counted after being queued
+            return (next = results.pollResult(release)) != null;
+          }
+          try {
+            results.wait();
+          } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new JPPFRuntimeException("interrupted while waiting for the results of " + JPPFJob.this, e);
+          }
+        }
+      }
+    }
+
+    @Override
+    public Task<?> next() {
+      if (!hasNext()) throw new NoSuchElementException();
+      final Task<?> task = next;
+      next = null;
+      return task;
+    }
+  }
 }
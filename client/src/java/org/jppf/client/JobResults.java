@@ -20,6 +20,8 @@ package org.jppf.client;
 
 import java.io.Serializable;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
 
 import org.jppf.node.protocol.Task;
 import org.jppf.utils.concurrent.ThreadSynchronization;
@@ -27,6 +29,10 @@ import org.slf4j.*;
 
 /**
  * Instances of this class hold and manage the results of a job.
+ * <p>The results are held in concurrent, lock-free data structures, such that the thread which receives the results
+ * and the threads which consume them do not contend with each other. The results can also be consumed as they arrive,
+ * with {@link #pollResult()} or with the iterator provided by {@link JPPFJob#resultsIterator(boolean)}. When {@link #pollResult(boolean) polling}
+ * the results, they can optionally be released, which allows processing jobs with a very large number of tasks in bounded memory.
  * @author Laurent Cohen
  */
 public class JobResults extends ThreadSynchronization implements Serializable {
@@ -43,10 +49,22 @@ public class JobResults extends ThreadSynchronization implements Serializable {
    */
   private static boolean debugEnabled = log.isDebugEnabled();
   /**
-   * A map containing the tasks that have been successfully executed,
+   * A map containing the tasks that have been successfully executed and not released,
    * ordered by ascending position in the submitted list of tasks.
    */
-  private final SortedMap<Integer, Task<?>> resultMap = new TreeMap<>();
+  private final ConcurrentSkipListMap<Integer, Task<?>> resultMap = new ConcurrentSkipListMap<>();
+  /**
+   * The positions of the tasks for which a result was received, including the released results.
+   */
+  private final PositionSet received = new PositionSet();
+  /**
+   * The number of received results, including the released results.
+   */
+  private final AtomicInteger receivedCount = new AtomicInteger(0);
+  /**
+   * The results not yet consumed. Only created when the results are first polled.
+   */
+  private transient volatile UnconsumedResults unconsumed;
   /**
    * The name of the job.
    */
@@ -54,27 +72,28 @@ public class JobResults extends ThreadSynchronization implements Serializable {
 
   /**
    * Get the current number of received results.
+   * This includes the results which were {@link #pollResult(boolean) released} after being consumed.
    * @return the number of results as an int.
    */
-  public synchronized int size() {
-    return resultMap.size();
+  public int size() {
+    return receivedCount.get();
   }
 
   /**
    * Determine whether this job received a result for the task at the specified position.
    * @param position the task position to check.
-   * @return <code>true</code> if a result was received, <code>false</code> otherwise.
+   * @return <code>true</code> if a result was received, even if it was released afterwards, <code>false</code> otherwise.
    */
-  public synchronized boolean hasResult(final int position) {
-    return resultMap.containsKey(position);
+  public boolean hasResult(final int position) {
+    return received.contains(position);
   }
 
   /**
    * Get the result for the task at the specified position.
    * @param position the position of the task to get.
-   * @return a <code>Task</code> instance, or null if no result was received for a task at this position.
+   * @return a <code>Task</code> instance, or null if no result was received for a task at this position or if it was released.
    */
-  public synchronized Task<?> getResultTask(final int position) {
+  public Task<?> getResultTask(final int position) {
     return resultMap.get(position);
   }
 
@@ -82,43 +101,89 @@ public class JobResults extends ThreadSynchronization implements Serializable {
    * Add the specified results to this job.
    * @param tasks the list of tasks for which results were received.
    */
-  public synchronized void addResults(final List<Task<?>> tasks) {
+  public void addResults(final List<Task<?>> tasks) {
     if (debugEnabled) log.debug("adding {} results", tasks.size());
     for (final Task<?> task : tasks) {
       final int pos = task.getPosition();
       if (debugEnabled) log.debug("adding result at position {}", pos);
-      if (hasResult(pos)) {
+      final boolean added = received.add(pos);
+      if (!added) {
         if (jobName == null) log.warn("position {} (out of {}) already has a result", pos, tasks.size());
         else log.warn("position {} (out of {}) already has a result (job '{}')", pos, tasks.size(), jobName);
       }
       resultMap.put(pos, task);
+      final UnconsumedResults consumption = unconsumed;
+      if (consumption != null) consumption.offer(task);
+      // counted last, so that a complete count implies that all the results are available
+      if (added) receivedCount.incrementAndGet();
     }
+    wakeUp();
   }
 
   /**
    * Get all the tasks received as results for this job.
-   * @return a collection of {@link Task} instances.
+   * @return a collection of {@link Task} instances, which does not include the released results.
    */
-  public synchronized Collection<Task<?>> getAllResults() {
+  public Collection<Task<?>> getAllResults() {
     return Collections.unmodifiableCollection(resultMap.values());
   }
 
   /**
    * Get all the tasks received as results for this job.
-   * @return a collection of {@link Task} instances.
+   * @return a collection of {@link Task} instances, which does not include the released results.
    */
-  public synchronized List<Task<?>> getResultsList() {
+  public List<Task<?>> getResultsList() {
     return new ArrayList<>(resultMap.values());
   }
 
+  /**
+   * Retrieve the next result which was not yet consumed, without releasing it.
+   * This is equivalent to calling {@link #pollResult(boolean) pollResult(false)}.
+   * @return the next unconsumed result, or {@code null} if there is none currently.
+   * @since 6.2
+   */
+  public Task<?> pollResult() {
+    return pollResult(false);
+  }
+
+  /**
+   * Retrieve the next result which was not yet consumed. Each result is returned only once, even when multiple threads consume the results concurrently.
+   * The results are returned in the order in which they were received, starting with those received before the first call to this method.
+   * @param release whether to release the result, such that it is no longer held by this object. A released result is still accounted for
+   * by {@link #size()} and {@link #hasResult(int)}, but it is not returned by {@link #getResultTask(int)}, {@link #getAllResults()} or {@link #getResultsList()}.
+   * @return the next unconsumed result, or {@code null} if there is none currently.
+   * @since 6.2
+   */
+  public Task<?> pollResult(final boolean release) {
+    final Task<?> task = getUnconsumedResults().queue.poll();
+    if ((task != null) && release) resultMap.remove(task.getPosition(), task);
+    return task;
+  }
+
+  /**
+   * Get the unconsumed results, creating them if needed.
+   * @return an {@link UnconsumedResults} instance.
+   */
+  private UnconsumedResults getUnconsumedResults() {
+    UnconsumedResults consumption = unconsumed;
+    if (consumption == null) {
+      synchronized(this) {
+        if ((consumption = unconsumed) == null) {
+          unconsumed = consumption = new UnconsumedResults();
+          // the results added concurrently are either seen here or offered by addResults(), or both
+          for (final Task<?> task: resultMap.values()) consumption.offer(task);
+        }
+      }
+    }
+    return consumption;
+  }
+
   @Override
   public String toString() {
     final StringBuilder sb = new StringBuilder();
     sb.append(getClass().getSimpleName()).append('[');
     sb.append("size=").append(size());
-    synchronized (this) {
-      sb.append(", positions=").append(resultMap.keySet());
-    }
+    sb.append(", positions=").append(resultMap.keySet());
     sb.append(']');
     return sb.toString();
   }
@@ -128,7 +193,7 @@ public class JobResults extends ThreadSynchronization implements Serializable {
    * @param position the position of the task in the job it is a part of.
    * @return the task whose results were received, or null if the timeout expired before it was received.
    */
-  public synchronized Task<?> waitForTask(final int position) {
+  public Task<?> waitForTask(final int position) {
     return waitForTask(position, Long.MAX_VALUE);
   }
 
@@ -138,9 +203,14 @@ public class JobResults extends ThreadSynchronization implements Serializable {
    * @param timeout maximum number of milliseconds to wait.
    * @return the task whose results were received, or null if the timeout expired before it was received.
    */
-  public synchronized Task<?> waitForTask(final int position, final long timeout) {
-    final long start = System.nanoTime();
-    while (((System.nanoTime() - start) / 1_000_000L < timeout) && !hasResult(position)) goToSleep(1L);
+  public Task<?> waitForTask(final int position, final long timeout) {
+    if (!hasResult(position)) {
+      final long start = System.nanoTime();
+      long elapsed;
+      synchronized(this) {
+        while (!hasResult(position) && ((elapsed = (System.nanoTime() - start) / 1_000_000L) < timeout)) goToSleep(timeout - elapsed);
+      }
+    }
     return getResultTask(position);
   }
 
@@ -149,6 +219,9 @@ public class JobResults extends ThreadSynchronization implements Serializable {
    */
   public synchronized void clear() {
     resultMap.clear();
+    received.clear();
+    receivedCount.set(0);
+    unconsumed = null;
   }
 
   /**
@@ -158,4 +231,77 @@ public class JobResults extends ThreadSynchronization implements Serializable {
   void setJobName(final String name) {
     this.jobName = name;
   }
+
+  /**
+   * The results not yet consumed, in the order in which they were received.
+   */
+  private static final class UnconsumedResults {
+    /**
+     * The queue of unconsumed results.
+     */
+    final Queue<Task<?>> queue = new ConcurrentLinkedQueue<>();
+    /**
+     * The positions of the results put in the queue, to ensure each result is queued only once.
+     */
+    final PositionSet queued = new PositionSet();
+
+    /**
+     * Add the specified result to the queue, unless it was already queued.
+     * @param task the result to add.
+     */
+    void offer(final Task<?> task) {
+      if (queued.add(task.getPosition())) queue.offer(task);
+    }
+  }
+
+  /**
+   * A lock-free set of positive integers, stored as pages of bits allocated on demand.
+   */
+  private static final class PositionSet implements Serializable {
+    /**
+     * Explicit serialVersionUID.
+     */
+    private static final long serialVersionUID = 1L;
+    /**
+     * Number of bits used to compute the position within a page.
+     */
+    private static final int PAGE_BITS = 16;
+    /**
+     * The pages of bits, mapped to their index.
+     */
+    private final ConcurrentHashMap<Integer, AtomicLongArray> pages = new ConcurrentHashMap<>();
+
+    /**
+     * Add the specified position to this set.
+     * @param position the position to add.
+     * @return {@code true} if the position was added, {@code false} if it was already in this set.
+     */
+    boolean add(final int position) {
+      final AtomicLongArray page = pages.computeIfAbsent(position >>> PAGE_BITS, key -> new AtomicLongArray(1 << (PAGE_BITS - 6)));
+      final int index = (position & ((1 << PAGE_BITS) - 1)) >>> 6;
+      final long mask = 1L << position;
+      while (true) {
+        final long bits = page.get(index);
+        if ((bits & mask) != 0L) return false;
+        if (page.compareAndSet(index, bits, bits | mask)) return true;
+      }
+    }
+
+    /**
+     * Determine whether this set contains the specified position.
+     * @param position the position to check.
+     * @return {@code true} if the position is in this set, {@code false} otherwise.
+     */
+    boolean contains(final int position) {
+      final AtomicLongArray page = pages.get(position >>> PAGE_BITS);
+      return (page != null) && ((page.get((position & ((1 << PAGE_BITS) - 1)) >>> 6) & (1L << position)) != 0L);
+    }
+
+    /**
+     * Remove all the positions from this set.
+     */
+    void clear() {
+      pages.clear();
+    }
+  }
 }
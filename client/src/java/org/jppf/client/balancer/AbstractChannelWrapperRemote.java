@@ -206,6 +206,25 @@ public abstract class AbstractChannelWrapperRemote extends ChannelWrapper implem
     return bundle;
   }
 
+  /**
+   * Attach to the specified bundle the manifest of the classes and resources loaded by the nodes for previous jobs of the same kind,
+   * and start recording those loaded for this job.
+   * @param bundle the bundle header to send.
+   * @param jobUuid uuid of the job.
+   * @param tasks the tasks to send.
+   */
+  void setPrefetchManifest(final TaskBundle bundle, final String jobUuid, final List<Task<?>> tasks) {
+    String key = null;
+    for (final Task<?> task: tasks) {
+      if (task == null) continue;
+      final Object o = task.getTaskObject();
+      key = (o != null) ? o.getClass().getName() : task.getClass().getName();
+      break;
+    }
+    final String[] manifest = channel.getConnectionPool().getClient().getPrefetchManifests().jobDispatched(jobUuid, key);
+    if (manifest != null) bundle.setParameter(BundleParameter.CLASSPATH_PREFETCH_MANIFEST, manifest);
+  }
+
   /**
    * Return class loader for the specified job.
    * @param jobUuid uuid of the job used to determine class loader.
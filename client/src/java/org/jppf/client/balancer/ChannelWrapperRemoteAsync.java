@@ -151,6 +151,7 @@ public class ChannelWrapperRemoteAsync extends AbstractChannelWrapperRemote {
           }
           final Collection<ClassLoader> loaders = registerClassLoaders(clientBundle.getUuid(), tasks);
           final TaskBundle bundle = createBundle(clientBundle, bundleId);
+          setPrefetchManifest(bundle, clientBundle.getUuid(), tasks);
           bundle.setUuid(uuid);
           bundle.setInitialTaskCount(clientBundle.getClientJob().initialTaskCount);
           final ClassLoader cl = loaders.isEmpty() ? null : loaders.iterator().next();
@@ -119,8 +119,9 @@ public class ClientJob extends AbstractClientJob {
     this.jobStatus = s == null ? JobStatus.SUBMITTED : s;
     this.tasks = new TreeMap<>();
     for (final Task<?> task: tasks) this.tasks.put(task.getPosition(), task);
-    for (final Task<?> result : job.getResults().getAllResults()) {
-      if (result != null) taskStateMap.put(result.getPosition(), TaskState.RESULT);
+    for (final Task<?> task: tasks) {
+      // the results may have been released after being consumed
+      if (job.getResults().hasResult(task.getPosition())) taskStateMap.put(task.getPosition(), TaskState.RESULT);
     }
     this.taskGraph = job.hasTaskGraph() ? TaskGraphHelper.graphOf(tasks) : null;
     if (debugEnabled && (taskGraph != null)) log.debug("taskGraph = {}", taskGraph);
@@ -0,0 +1,255 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jppf.client.concurrent;
+
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+import java.util.function.IntSupplier;
+
+import org.jppf.client.JPPFJob;
+import org.slf4j.*;
+
+/**
+ * Computes the size and maximum delay of the batches of tasks sent by a {@link JPPFExecutorService} in adaptive batching mode.
+ * <p>The computation is based on three observed values:
+ * <ul>
+ * <li>the rate at which tasks are submitted to the executor, as an exponentially weighted moving average</li>
+ * <li>the round-trip time of the jobs, from their submission until all their results are received, also as a moving average</li>
+ * <li>the number of idle nodes in the grid, sampled at most once per {@link #CAPACITY_SAMPLING_INTERVAL}</li>
+ * </ul>
+ * <p>Since sampling the number of idle nodes requires remote calls, it is performed by a separate executor and its latest result is cached,
+ * such that the batch handler thread never waits for it.
+ * <p>The maximum delay of a batch is a fraction of the round-trip time: a small one when idle nodes are available, such that
+ * the tasks are sent with a low latency, and a larger one when the grid is busy, since additional queuing on the client side
+ * then costs little compared to the time the tasks would wait in the server queue. The target size of a batch is the number
+ * of tasks expected to be submitted during this delay, which means that under light load each task is sent immediately,
+ * while under heavy load the tasks are grouped in jobs sent at most once per delay.
+ * <p>The {@link #update(long, int, long)} method is only called by the batch handler thread, the other methods can be called from any thread.
+ * @author Laurent Cohen
+ * @exclude
+ */
+public class AdaptiveBatchingPolicy {
+  /**
+   * Logger for this class.
+   */
+  private static Logger log = LoggerFactory.getLogger(AdaptiveBatchingPolicy.class);
+  /**
+   * Determines whether debug-level logging is enabled.
+   */
+  private static boolean debugEnabled = log.isDebugEnabled();
+  /**
+   * The minimum delay of a batch in nanoseconds.
+   */
+  public static final long MIN_DELAY = 1_000_000L;
+  /**
+   * The maximum delay of a batch in nanoseconds, used when no batch timeout is specified.
+   */
+  public static final long DEFAULT_MAX_DELAY = 1_000_000_000L;
+  /**
+   * The maximum size of a batch, used when no batch size is specified.
+   */
+  public static final int DEFAULT_MAX_SIZE = 10_000;
+  /**
+   * Minimum interval in nanoseconds between two updates of the submission rate.
+   */
+  public static final long RATE_UPDATE_INTERVAL = 10_000_000L;
+  /**
+   * Minimum interval in nanoseconds between two samplings of the grid capacity.
+   */
+  public static final long CAPACITY_SAMPLING_INTERVAL = 1_000_000_000L;
+  /**
+   * Weight of the latest observation in the moving averages.
+   */
+  private static final double ALPHA = 0.25d;
+  /**
+   * Fraction of the round-trip time used as batch delay when there are idle nodes.
+   */
+  private static final double IDLE_DELAY_FRACTION = 0.1d;
+  /**
+   * Fraction of the round-trip time used as batch delay when all the nodes are busy.
+   */
+  private static final double BUSY_DELAY_FRACTION = 0.5d;
+  /**
+   * Provides the number of idle nodes in the grid, or a negative value if it is unknown.
+   */
+  private final IntSupplier capacitySupplier;
+  /**
+   * Executes the sampling of the grid capacity.
+   */
+  private final Executor capacitySampler;
+  /**
+   * Whether a sampling of the grid capacity is in progress.
+   */
+  private final AtomicBoolean sampling = new AtomicBoolean(false);
+  /**
+   * The number of tasks submitted since the last rate update.
+   */
+  private final LongAdder submittedTasks = new LongAdder();
+  /**
+   * Submission times of the jobs for which no result was received yet, mapped to their uuid.
+   */
+  private final Map<String, Long> submitTimes = new ConcurrentHashMap<>();
+  /**
+   * Moving average of the submission rate, in tasks per nanosecond.
+   */
+  private volatile double rate;
+  /**
+   * Moving average of the jobs round-trip time, in nanoseconds.
+   */
+  private double roundTripTime;
+  /**
+   * The latest sampled number of idle nodes.
+   */
+  private volatile int idleNodes = -1;
+  /**
+   * The time of the last rate update.
+   */
+  private long lastRateUpdate;
+  /**
+   * The time of the last capacity sampling.
+   */
+  private long lastCapacitySample;
+  /**
+   * The current target size of a batch.
+   */
+  private volatile int targetSize = 1;
+  /**
+   * The current maximum delay of a batch in nanoseconds.
+   */
+  private volatile long maxDelay = MIN_DELAY;
+
+  /**
+   * Initialize this policy with the specified provider of grid capacity.
+   * @param capacitySupplier provides the number of idle nodes in the grid, or a negative value if it is unknown.
+   * @param capacitySampler executes the sampling of the grid capacity.
+   */
+  public AdaptiveBatchingPolicy(final IntSupplier capacitySupplier, final Executor capacitySampler) {
+    this.capacitySupplier = capacitySupplier;
+    this.capacitySampler = capacitySampler;
+    lastRateUpdate = System.nanoTime();
+    lastCapacitySample = lastRateUpdate - CAPACITY_SAMPLING_INTERVAL;
+  }
+
+  /**
+   * Record that tasks were submitted to the executor.
+   * @param nbTasks the number of submitted tasks.
+   */
+  public void tasksSubmitted(final int nbTasks) {
+    submittedTasks.add(nbTasks);
+  }
+
+  /**
+   * Record the submission of a job to the grid.
+   * @param job the submitted job.
+   */
+  public void jobSubmitted(final JPPFJob job) {
+    submitTimes.put(job.getUuid(), System.nanoTime());
+  }
+
+  /**
+   * Record that all the results of a job were received.
+   * @param job the job that ended.
+   */
+  public void jobEnded(final JPPFJob job) {
+    final Long start = submitTimes.remove(job.getUuid());
+    if (start == null) return;
+    final long rtt = System.nanoTime() - start;
+    synchronized(this) {
+      roundTripTime = (roundTripTime <= 0d) ? rtt : ALPHA * rtt + (1d - ALPHA) * roundTripTime;
+    }
+  }
+
+  /**
+   * Update the moving averages and grid capacity, then recompute the batch size and delay.
+   * @param now the current time in nanoseconds.
+   * @param batchSize the upper bound for the size of a batch, ignored if &lt;= 0.
+   * @param batchTimeout the upper bound in millis for the delay of a batch, ignored if &lt;= 0.
+   */
+  public void update(final long now, final int batchSize, final long batchTimeout) {
+    final long elapsed = now - lastRateUpdate;
+    if (elapsed >= RATE_UPDATE_INTERVAL) {
+      final double instantRate = (double) submittedTasks.sumThenReset() / elapsed;
+      rate = ALPHA * instantRate + (1d - ALPHA) * rate;
+      lastRateUpdate = now;
+    }
+    if ((now - lastCapacitySample >= CAPACITY_SAMPLING_INTERVAL) && sampling.compareAndSet(false, true)) {
+      lastCapacitySample = now;
+      try {
+        capacitySampler.execute(this::sampleCapacity);
+      } catch (final RejectedExecutionException e) {
+        if (debugEnabled) log.debug("could not sample the grid capacity", e);
+        sampling.set(false);
+      }
+    }
+    final double rtt;
+    synchronized(this) {
+      rtt = roundTripTime;
+    }
+    final long upperDelay = (batchTimeout > 0L) ? Math.max(MIN_DELAY, batchTimeout * 1_000_000L) : DEFAULT_MAX_DELAY;
+    // an unknown capacity is handled like an idle grid, favoring a low latency
+    final double fraction = (idleNodes == 0) ? BUSY_DELAY_FRACTION : IDLE_DELAY_FRACTION;
+    final long delay = Math.min(upperDelay, Math.max(MIN_DELAY, (long) (fraction * rtt)));
+    final int upperSize = (batchSize > 0) ? batchSize : DEFAULT_MAX_SIZE;
+    final double expected = Math.ceil(rate * delay);
+    final int size = (expected >= upperSize) ? upperSize : Math.max(1, (int) expected);
+    if (debugEnabled && ((size != targetSize) || (delay != maxDelay)))
+      log.debug("new target size = {}, max delay = {} ns, rate = {} tasks/s, rtt = {} ns, idle nodes = {}", size, delay, rate * 1e9d, rtt, idleNodes);
+    targetSize = size;
+    maxDelay = delay;
+  }
+
+  /**
+   * Sample the number of idle nodes in the grid.
+   */
+  private void sampleCapacity() {
+    try {
+      idleNodes = capacitySupplier.getAsInt();
+    } catch (final Exception e) {
+      if (debugEnabled) log.debug("could not sample the grid capacity", e);
+      idleNodes = -1;
+    } finally {
+      sampling.set(false);
+    }
+  }
+
+  /**
+   * Get the latest sampled number of idle nodes.
+   * @return the number of idle nodes, or a negative value if it is unknown.
+   */
+  public int getIdleNodes() {
+    return idleNodes;
+  }
+
+  /**
+   * Get the current target size of a batch.
+   * @return the number of tasks above which a batch is sent.
+   */
+  public int getTargetSize() {
+    return targetSize;
+  }
+
+  /**
+   * Get the current maximum delay of a batch.
+   * @return the maximum time in nanoseconds a task waits before it is sent.
+   */
+  public long getMaxDelay() {
+    return maxDelay;
+  }
+}
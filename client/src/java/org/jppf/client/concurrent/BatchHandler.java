@@ -20,7 +20,7 @@ package org.jppf.client.concurrent;
 
 import java.util.*;
 import java.util.concurrent.*;
-import java.util.concurrent.atomic.*;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.*;
 
 import org.jppf.JPPFException;
@@ -29,13 +29,16 @@ import org.jppf.client.event.JobListener;
 import org.jppf.client.taskwrapper.JPPFAnnotatedTask;
 import org.jppf.node.protocol.Task;
 import org.jppf.utils.*;
-import org.jppf.utils.concurrent.ThreadSynchronization;
+import org.jppf.utils.concurrent.*;
 import org.slf4j.*;
 
 /**
  * This class is a processor for tasks submitted via a {@link JPPFExecutorService}.
  * It handles both normal mode and batching mode, where the tasks throughput is streamlined
  * by specifying how many tasks should be sent to the grid, and a which intervals.
+ * <p>The submitting threads only hold a short lock while adding tasks to the job being prepared. When this job is full,
+ * it is handed over to the batch handler thread via a queue of ready jobs, and the submitting thread does not wait for its submission.
+ * The batch handler thread submits the ready jobs and takes care of the time-based batching.
  * @author Laurent Cohen
  */
 class BatchHandler extends ThreadSynchronization implements Runnable {
@@ -54,43 +57,48 @@ class BatchHandler extends ThreadSynchronization implements Runnable {
   /**
    * The minimum number of tasks that must be submitted before they are sent to the server.
    */
-  private int batchSize;
+  private volatile int batchSize;
   /**
    * The maximum time to wait before the next batch of tasks is to be sent for execution.
    */
-  private long batchTimeout;
+  private volatile long batchTimeout;
   /**
-   * The JPPFExecutorService whose tasks are batched.
+   * Whether the batch size and timeout are computed from the observed throughput.
    */
-  private final JPPFExecutorService executor;
+  private volatile boolean adaptive;
+  /**
+   * Computes the batch size and timeout in adaptive mode.
+   */
+  private final AdaptiveBatchingPolicy policy;
   /**
-   * The job to send for execution. If the reference is ont null, then the job is sent immediately.
+   * Samples the number of idle nodes for the adaptive batching policy, outside of the batch handler thread.
+   * Its thread is only alive while sampling is performed.
    */
-  private final AtomicReference<JPPFJob> currentJobRef = new AtomicReference<>(null);
+  private final ThreadPoolExecutor capacitySampler;
   /**
-   * The next job being prepared. It will be assigned to <code>currentJobRef</code> when it is ready for execution, depending on the batching parameters.
+   * The JPPFExecutorService whose tasks are batched.
    */
-  private final AtomicReference<JPPFJob> nextJobRef = new AtomicReference<>(null);
+  private final JPPFExecutorService executor;
   /**
-   * The time at which we started to count for the the timeout.
+   * The jobs ready to be submitted.
    */
-  private long start;
+  private final Queue<JPPFJob> readyJobs = new ConcurrentLinkedQueue<>();
   /**
-   * Time elapsed since the start.
+   * The next job being prepared. It is added to <code>readyJobs</code> when it is ready for execution, depending on the batching parameters.
    */
-  private long elapsed;
+  private JPPFJob nextJob;
   /**
-   * Used to synchronize access to <code>currentJobRef</code> and <code>nextJobRef</code>.
+   * The time in nanos at which the first task was added to <code>nextJob</code>.
    */
-  private final ReentrantLock lock = new ReentrantLock(true);
+  private long pendingSince;
   /**
-   * Represents a condition to await for and corresponding to when <code>currentJobRef</code> is not null.
+   * Used to synchronize access to <code>nextJob</code>.
    */
-  private final Condition jobReady = lock.newCondition();
+  private final ReentrantLock lock = new ReentrantLock();
   /**
-   * Represents a condition to await for and corresponding to when <code>currentJobRef</code> is not null.
+   * The thread which submits the jobs.
    */
-  private final Condition submittingJob = lock.newCondition();
+  private volatile Thread batchThread;
   /**
    * The configuration for this batch handler.
    */
@@ -114,8 +122,9 @@ class BatchHandler extends ThreadSynchronization implements Runnable {
     this.executor = executor;
     this.batchSize = batchSize;
     this.batchTimeout = batchTimeout;
-    resetTimeout();
-    nextJobRef.set(createJob());
+    this.capacitySampler = new ThreadPoolExecutor(0, 1, 10L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), new JPPFThreadFactory("AdaptiveBatchingSampler"));
+    this.policy = new AdaptiveBatchingPolicy(executor::nbIdleNodes, capacitySampler);
+    nextJob = createJob();
   }
 
   /**
@@ -123,12 +132,7 @@ class BatchHandler extends ThreadSynchronization implements Runnable {
    * @return the batch size as an int.
    */
   int getBatchSize() {
-    lock.lock();
-    try {
-      return batchSize;
-    } finally {
-      lock.unlock();
-    }
+    return batchSize;
   }
 
   /**
@@ -136,14 +140,9 @@ class BatchHandler extends ThreadSynchronization implements Runnable {
    * @param batchSize the batch size as an int.
    */
   void setBatchSize(final int batchSize) {
-    lock.lock();
-    try {
-      if (debugEnabled) log.debug("setting batchSize = {}", batchSize);
-      this.batchSize = batchSize;
-      jobReady.signal();
-    } finally {
-      lock.unlock();
-    }
+    if (debugEnabled) log.debug("setting batchSize = {}", batchSize);
+    this.batchSize = batchSize;
+    unparkBatchThread();
   }
 
   /**
@@ -151,12 +150,7 @@ class BatchHandler extends ThreadSynchronization implements Runnable {
    * @return the timeout as a long.
    */
   long getBatchTimeout() {
-    lock.lock();
-    try {
-      return batchTimeout;
-    } finally {
-      lock.unlock();
-    }
+    return batchTimeout;
   }
 
   /**
@@ -164,115 +158,187 @@ class BatchHandler extends ThreadSynchronization implements Runnable {
    * @param batchTimeout the timeout as a long.
    */
   void setBatchTimeout(final long batchTimeout) {
-    lock.lock();
-    try {
-      if (debugEnabled) log.debug("setting batchTimeout = {}", batchTimeout);
-      if (this.batchTimeout <=0L) resetTimeout();
-      this.batchTimeout = batchTimeout;
-      jobReady.signal();
-    } finally {
-      lock.unlock();
-    }
+    if (debugEnabled) log.debug("setting batchTimeout = {}", batchTimeout);
+    this.batchTimeout = batchTimeout;
+    unparkBatchThread();
+  }
+
+  /**
+   * Determine whether the batch size and timeout are computed from the observed throughput.
+   * @return {@code true} if adaptive batching is enabled, {@code false} otherwise.
+   */
+  boolean isAdaptive() {
+    return adaptive;
+  }
+
+  /**
+   * Specify whether the batch size and timeout are computed from the observed throughput.
+   * @param adaptive {@code true} to enable adaptive batching, {@code false} to disable it.
+   */
+  void setAdaptive(final boolean adaptive) {
+    if (debugEnabled) log.debug("setting adaptive = {}", adaptive);
+    this.adaptive = adaptive;
+    unparkBatchThread();
   }
 
   @Override
   public void run() {
-    start = System.nanoTime();
+    batchThread = Thread.currentThread();
     while (!isStopped()) {
       try {
-        lock.lock();
-        try {
-          JPPFJob job = null;
-          while (!isStopped() && ((job = currentJobRef.get()) == null)) {
-            final long batchTimeout = getBatchTimeout();
-            if (batchTimeout > 0) {
-              final long n = batchTimeout - elapsed;
-              if (n > 0) jobReady.await(n, TimeUnit.MILLISECONDS);
-            }
-            else jobReady.await();
-            updateNextJob(false);
-          }
-          if (isStopped()) break;
-          if (debugEnabled) log.debug("submitting job {} with {} tasks", job.getName(), job.getJobTasks().size());
-          configureJob(job);
-          executor.submitJob(job);
-          currentJobRef.set(null);
-          elapsed = (System.nanoTime() - start) / 1_000_000L;
-          submittingJob.signal();
-        } finally {
-          lock.unlock();
+        JPPFJob job;
+        while ((job = readyJobs.poll()) != null) submitJob(job);
+        final long wait = checkNextJob();
+        if ((wait > 0L) && readyJobs.isEmpty() && !isStopped()) {
+          if (wait == Long.MAX_VALUE) LockSupport.park(this);
+          else LockSupport.parkNanos(this, wait);
         }
       } catch (final Exception e) {
         log.error(e.getMessage(), e);
       }
     }
+    // jobs handed over before the shutdown must still be submitted
+    JPPFJob job;
+    while ((job = readyJobs.poll()) != null) {
+      try {
+        submitJob(job);
+      } catch (final Exception e) {
+        log.error(e.getMessage(), e);
+      }
+    }
   }
 
   /**
-   * Update the next job to submit if one is ready.
-   * @param sendSignal true if signal is to be sent, false otherwise.
+   * Configure and submit the specified job.
+   * @param job the job to submit.
+   * @throws Exception if any error occurs.
    */
-  private void updateNextJob(final boolean sendSignal) {
-    final JPPFJob job = nextJobRef.get();
-    final int size = job.getJobTasks().size();
-    final long batchTimeout = getBatchTimeout();
-    final int batchSize = getBatchSize();
-    if (batchTimeout > 0L) elapsed = (System.nanoTime() - start) / 1_000_000L;
-    if (size == 0) {
-      if ((batchTimeout > 0L) && (elapsed >= batchTimeout)) resetTimeout();
-      return;
-    }
-    if (((batchTimeout > 0L) && (elapsed >= batchTimeout)) ||
-        ((batchSize > 0) && (size >= batchSize)) ||
-        ((batchSize <= 0) && (batchTimeout <= 0L))) {
-      if (debugEnabled) log.debug("preparing job {} for submission, batchTimeout={}, elapsed={}, batchSize={}, size={}", job.getName(), batchTimeout, elapsed, batchSize, size);
-      currentJobRef.set(job);
-      nextJobRef.set(createJob());
-      resetTimeout();
-      if (sendSignal) {
-        jobReady.signal();
-        try {
-          submittingJob.await();
-        } catch (final InterruptedException e) {
-          throw new RejectedExecutionException(e);
+  private void submitJob(final JPPFJob job) throws Exception {
+    if (debugEnabled) log.debug("submitting job {} with {} tasks", job.getName(), job.getJobTasks().size());
+    configureJob(job);
+    if (adaptive) policy.jobSubmitted(job);
+    executor.submitJob(job);
+  }
+
+  /**
+   * Submit the next job if its size or delay threshold is reached.
+   * @return the time in nanos to wait until the next check, 0 if the check should be done immediately, or {@code Long.MAX_VALUE} to wait until woken up.
+   * @throws Exception if any error occurs.
+   */
+  private long checkNextJob() throws Exception {
+    final long now = System.nanoTime();
+    final boolean adaptive = this.adaptive;
+    if (adaptive) policy.update(now, batchSize, batchTimeout);
+    JPPFJob job = null;
+    long wait;
+    lock.lock();
+    try {
+      final int size = nextJob.getJobTasks().size();
+      if (size == 0) wait = Long.MAX_VALUE;
+      else {
+        final long maxDelay = adaptive ? policy.getMaxDelay() : batchTimeout * 1_000_000L;
+        final long elapsed = now - pendingSince;
+        if (isFull(size) || ((maxDelay > 0L) && (elapsed >= maxDelay))) {
+          if (debugEnabled) log.debug("preparing job {} for submission, batchTimeout={}, elapsed={} ns, batchSize={}, size={}, adaptive={}",
+            nextJob.getName(), batchTimeout, elapsed, batchSize, size, adaptive);
+          job = nextJob;
+          nextJob = createJob();
+          executor.registerJob(job);
+          wait = 0L;
         }
+        else wait = (maxDelay > 0L) ? maxDelay - elapsed : Long.MAX_VALUE;
       }
+    } finally {
+      lock.unlock();
     }
+    if (job != null) submitJob(job);
+    // in adaptive mode, the submission rate is kept up to date even without activity
+    return adaptive ? Math.min(wait, AdaptiveBatchingPolicy.RATE_UPDATE_INTERVAL * 10L) : wait;
   }
 
   /**
-   * Reset the timeout counter.
+   * Determine whether a job with the specified number of tasks has reached the size threshold.
+   * @param size the number of tasks in the job.
+   * @return {@code true} if the job should be submitted, {@code false} otherwise.
    */
-  private void resetTimeout() {
-    start = System.nanoTime();
-    elapsed = 0L;
+  private boolean isFull(final int size) {
+    if (adaptive) return size >= policy.getTargetSize();
+    final int batchSize = this.batchSize;
+    return ((batchSize > 0) && (size >= batchSize)) || ((batchSize <= 0) && (batchTimeout <= 0L));
   }
 
   /**
-   * Submit a {@link Task} that returns the specified type of result.
-   * @param <T> the type of result returned by the task.
-   * @param task the task to submit.
-   * @param result this parameter is only here for type inference (I know, it's ugly).
-   * @return a {@link Future} representing pending completion of the task.
+   * Add tasks to the next job and hand it over to the batch handler thread if it is full.
+   * @param <R> the type of value returned by the update.
+   * @param nbTasks the number of tasks added by the update.
+   * @param update adds the tasks to the job.
+   * @return the value returned by the update.
    */
-  <T> Future<T> addTask(final Task<?> task, final T result) {
+  private <R> R addToNextJob(final int nbTasks, final JobUpdate<R> update) {
+    final R result;
+    boolean wakeUp = false;
     lock.lock();
     try {
-      if (debugEnabled) log.debug("submitting JPPF task");
-      Future<T> future = null;
-      final JPPFJob job = nextJobRef.get();
+      final JPPFJob job = nextJob;
+      final int before = job.getJobTasks().size();
       try {
-        job.add(task);
-        future = new JPPFTaskFuture<>(job, task.getPosition());
+        result = update.apply(job);
       } catch (final JPPFException e) {
         log.error(e.getMessage(), e);
         throw new RejectedExecutionException(e);
       }
-      updateNextJob(true);
-      return future;
+      final int size = job.getJobTasks().size();
+      if (before == 0) {
+        // the batch handler thread must start counting the timeout
+        pendingSince = System.nanoTime();
+        wakeUp = true;
+      }
+      // in adaptive mode, tasks keep accumulating while the batch handler thread is busy submitting jobs
+      if (isFull(size) && (!adaptive || readyJobs.isEmpty())) {
+        handOver(job);
+        wakeUp = true;
+      }
     } finally {
       lock.unlock();
     }
+    policy.tasksSubmitted(nbTasks);
+    if (wakeUp) unparkBatchThread();
+    return result;
+  }
+
+  /**
+   * Hand the specified job over to the batch handler thread and start preparing a new job.
+   * The job is registered with the executor before this method returns, such that a shutdown accounts for it
+   * even if it is not yet submitted. This method must be called while holding the lock.
+   * @param job the job to hand over, which must be the next job.
+   */
+  private void handOver(final JPPFJob job) {
+    executor.registerJob(job);
+    readyJobs.offer(job);
+    nextJob = createJob();
+  }
+
+  /**
+   * Wake up the batch handler thread.
+   */
+  private void unparkBatchThread() {
+    final Thread thread = batchThread;
+    if (thread != null) LockSupport.unpark(thread);
+  }
+
+  /**
+   * Submit a {@link Task} that returns the specified type of result.
+   * @param <T> the type of result returned by the task.
+   * @param task the task to submit.
+   * @param result this parameter is only here for type inference (I know, it's ugly).
+   * @return a {@link Future} representing pending completion of the task.
+   */
+  <T> Future<T> addTask(final Task<?> task, final T result) {
+    if (debugEnabled) log.debug("submitting JPPF task");
+    return addToNextJob(1, job -> {
+      job.add(task);
+      return new JPPFTaskFuture<>(job, task.getPosition());
+    });
   }
 
   /**
@@ -283,25 +349,13 @@ class BatchHandler extends ThreadSynchronization implements Runnable {
    * @return a {@link Future} representing pending completion of the task.
    */
   <T> Future<T> addTask(final Runnable task, final T result) {
-    lock.lock();
-    try {
-      if (debugEnabled) log.debug("submitting Runnable task with result");
-      Future<T> future = null;
-      final JPPFJob job = nextJobRef.get();
-      try {
-        final JPPFAnnotatedTask t = (JPPFAnnotatedTask) job.add(task);
-        t.setResult(result);
-        configureTask(t);
-        future = new JPPFTaskFuture<>(job, t.getPosition());
-      } catch (final JPPFException e) {
-        log.error(e.getMessage(), e);
-        throw new RejectedExecutionException(e);
-      }
-      updateNextJob(true);
-      return future;
-    } finally {
-      lock.unlock();
-    }
+    if (debugEnabled) log.debug("submitting Runnable task with result");
+    return addToNextJob(1, job -> {
+      final JPPFAnnotatedTask t = (JPPFAnnotatedTask) job.add(task);
+      t.setResult(result);
+      configureTask(t);
+      return new JPPFTaskFuture<>(job, t.getPosition());
+    });
   }
 
   /**
@@ -311,24 +365,12 @@ class BatchHandler extends ThreadSynchronization implements Runnable {
    * @return a {@link Future} representing pending completion of the task.
    */
   <T> Future<T> addTask(final Callable<T> task) {
-    lock.lock();
-    try {
-      if (debugEnabled) log.debug("submitting Callable task");
-      Future<T> future = null;
-      final JPPFJob job = nextJobRef.get();
-      try {
-        final JPPFAnnotatedTask jppfTask = (JPPFAnnotatedTask) job.add(task);
-        configureTask(jppfTask);
-        future = new JPPFTaskFuture<>(job, jppfTask.getPosition());
-      } catch (final JPPFException e) {
-        log.error(e.getMessage(), e);
-        throw new RejectedExecutionException(e);
-      }
-      updateNextJob(true);
-      return future;
-    } finally {
-      lock.unlock();
-    }
+    if (debugEnabled) log.debug("submitting Callable task");
+    return addToNextJob(1, job -> {
+      final JPPFAnnotatedTask jppfTask = (JPPFAnnotatedTask) job.add(task);
+      configureTask(jppfTask);
+      return new JPPFTaskFuture<>(job, jppfTask.getPosition());
+    });
   }
 
   /**
@@ -338,29 +380,23 @@ class BatchHandler extends ThreadSynchronization implements Runnable {
    * @return a pair representing the result collector used in the current job, along with the position of the first task.
    */
   <T> Pair<JPPFJob, Integer> addTasks(final Collection<? extends Callable<T>> tasks) {
-    lock.lock();
-    try {
-      if (debugEnabled) log.debug("submitting " + tasks.size() + " Callable tasks");
-      Pair<JPPFJob, Integer> pair = null;
-      final JPPFJob job = nextJobRef.get();
-      int start = 0;
-      try {
-        final List<Task<?>> jobTasks = job.getJobTasks();
-        start = jobTasks.size();
-        for (final Callable<?> task: tasks) {
-          final Task<?> t = job.add(task);
-          configureTask((JPPFAnnotatedTask) t);
-        }
-      } catch (final JPPFException e) {
-        log.error(e.getMessage(), e);
-        throw new RejectedExecutionException(e);
+    if (debugEnabled) log.debug("submitting " + tasks.size() + " Callable tasks");
+    return addToNextJob(tasks.size(), job -> {
+      final int start = job.getJobTasks().size();
+      for (final Callable<?> task: tasks) {
+        final Task<?> t = job.add(task);
+        configureTask((JPPFAnnotatedTask) t);
       }
-      pair = new Pair<>(job, start);
-      updateNextJob(true);
-      return pair;
-    } finally {
-      lock.unlock();
-    }
+      return new Pair<>(job, start);
+    });
+  }
+
+  /**
+   * Called when all the results of a job submitted by this batch handler have been received.
+   * @param job the job that ended.
+   */
+  void jobEnded(final JPPFJob job) {
+    policy.jobEnded(job);
   }
 
   /**
@@ -407,16 +443,42 @@ class BatchHandler extends ThreadSynchronization implements Runnable {
   }
 
   /**
-   * Close this batch handler.
+   * Close this batch handler. The tasks which were submitted but not yet sent are handed over to the batch handler thread,
+   * which submits them before it terminates.
    */
   void close() {
+    lock.lock();
+    try {
+      if (!nextJob.getJobTasks().isEmpty()) handOver(nextJob);
+    } finally {
+      lock.unlock();
+    }
     setStopped(true);
+    unparkBatchThread();
+    capacitySampler.shutdown();
+  }
+
+  /**
+   * Close this batch handler without submitting the tasks which were submitted but not yet sent, including those of the jobs
+   * already handed over to the batch handler thread but not yet picked up by it.
+   * @return the tasks which were not sent, in submission order.
+   */
+  List<Task<?>> closeNow() {
+    final List<Task<?>> tasks = new ArrayList<>();
     lock.lock();
     try {
-      jobReady.signalAll();
+      JPPFJob job;
+      while ((job = readyJobs.poll()) != null) tasks.addAll(job.getJobTasks());
+      tasks.addAll(nextJob.getJobTasks());
+      nextJob = createJob();
+      setStopped(true);
     } finally {
       lock.unlock();
     }
+    unparkBatchThread();
+    capacitySampler.shutdown();
+    if (debugEnabled) log.debug("closed with {} tasks not sent", tasks.size());
+    return tasks;
   }
 
   /**
@@ -445,4 +507,19 @@ class BatchHandler extends ThreadSynchronization implements Runnable {
     config = new ExecutorServiceConfigurationImpl();
     return config;
   }
+
+  /**
+   * Adds tasks to a job.
+   * @param <R> the type of value returned by the update.
+   */
+  @FunctionalInterface
+  private interface JobUpdate<R> {
+    /**
+     * Add tasks to the specified job.
+     * @param job the job to update.
+     * @return a value which depends on the added tasks.
+     * @throws JPPFException if the tasks could not be added.
+     */
+    R apply(JPPFJob job) throws JPPFException;
+  }
 }
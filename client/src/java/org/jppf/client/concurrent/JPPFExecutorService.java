@@ -24,6 +24,7 @@ import java.util.concurrent.atomic.*;
 
 import org.jppf.client.*;
 import org.jppf.client.event.*;
+import org.jppf.management.JMXDriverConnectionWrapper;
 import org.jppf.node.protocol.Task;
 import org.jppf.utils.*;
 import org.jppf.utils.concurrent.ThreadUtils;
@@ -31,7 +32,7 @@ import org.slf4j.*;
 
 /**
  * Implementation of an {@link ExecutorService} wrapper around a {@link JPPFClient}.
- * <p>This executor has two modes in which it functions:
+ * <p>This executor has three modes in which it functions:
  * <p>1) Standard mode: in this mode each task or set of tasks submitted via one of the
  * <code>invokeXXX()</code> or <code>submit()</code> methods is sent immediately to the server in its own JPPF job.
  * <p>2) Batch mode: the <code>JPPFExecutorService</code> can be configured to only send tasks to the server
@@ -50,8 +51,13 @@ import org.slf4j.*;
  * to be all sent together in the same JPPF job. This is the one exception to the batch size threshold.</li>
  * <li>If one of the threshold is changed while tasks are still pending execution, the behavior is unspecified</li>
  * </ul>
+ * <p>3) Adaptive batch mode: the size and timeout of the batches are computed from the observed rate of task submissions,
+ * the round-trip time of the jobs and the number of idle nodes in the grid. When the grid has idle nodes and few tasks
+ * are submitted, each task is sent immediately; as the submission rate increases or the grid becomes busy, the tasks are grouped into
+ * larger jobs. In this mode, the batch size and timeout, when they are greater than 0, are used as upper bounds.
  * @see org.jppf.client.concurrent.JPPFExecutorService#setBatchSize(int)
  * @see org.jppf.client.concurrent.JPPFExecutorService#setBatchTimeout(long)
+ * @see org.jppf.client.concurrent.JPPFExecutorService#setAdaptiveBatching(boolean)
  * @author Laurent Cohen
  */
 public class JPPFExecutorService extends JobListenerAdapter implements ExecutorService {
@@ -323,30 +329,38 @@ public class JPPFExecutorService extends JobListenerAdapter implements ExecutorS
   @Override
   public void shutdown() {
     shuttingDown.set(true);
+    // the pending tasks are registered as a job before checking for termination
+    batchHandler.close();
     synchronized (jobMap) {
       if (debugEnabled) log.debug("normal shutdown requested, " + jobMap.size() + " jobs pending");
-      terminated.compareAndSet(false, jobMap.isEmpty());
+      if (jobMap.isEmpty()) setTerminated();
     }
-    batchHandler.close();
   }
 
   /**
    * Attempts to stop all actively executing tasks, halts the processing of waiting tasks,
    * and returns a list of the tasks that were awaiting execution.<br>
-   * This implementation simply waits for all submitted tasks to terminate, due to the complexity of stopping remote tasks.
-   * @return a list of tasks that never commenced execution.
+   * This implementation does not stop the tasks already sent to the grid, due to the complexity of stopping remote tasks.
+   * The tasks which were not yet sent, because they are held by the batching mode, are not sent and are returned instead.
+   * @return a list of tasks that never commenced execution. Each element is the submitted task if it is a {@link Runnable},
+   * or the JPPF task wrapping it otherwise.
    */
   @Override
   public List<Runnable> shutdownNow() {
     shuttingDown.set(true);
+    // the tasks not yet sent are retrieved before the batch handler can submit them
+    final List<Task<?>> notSent = batchHandler.closeNow();
     synchronized (jobMap) {
-      if (debugEnabled) log.debug("immediate shutdown requested, " + jobMap.size() + " jobs pending");
+      if (debugEnabled) log.debug("immediate shutdown requested, " + jobMap.size() + " jobs pending, " + notSent.size() + " tasks not sent");
       jobMap.clear();
     }
     setTerminated();
-    batchHandler.close();
-    waitForTerminated(Long.MAX_VALUE);
-    return null;
+    final List<Runnable> result = new ArrayList<>(notSent.size());
+    for (final Task<?> task: notSent) {
+      final Object taskObject = task.getTaskObject();
+      result.add((taskObject instanceof Runnable) ? (Runnable) taskObject : task);
+    }
+    return result;
   }
 
   /**
@@ -356,12 +370,35 @@ public class JPPFExecutorService extends JobListenerAdapter implements ExecutorS
    */
   void submitJob(final JPPFJob job) throws Exception {
     if (debugEnabled) log.debug("submitting job '" + job.getName() + "' with " + job.getJobTasks().size() + " tasks");
-    client.submitAsync(job);
+    try {
+      client.submitAsync(job);
+    } catch (final Exception e) {
+      jobRemoved(job.getUuid());
+      throw e;
+    }
+  }
+
+  /**
+   * Register the specified job as pending, before it is handed over for submission.
+   * @param job the job to register.
+   */
+  void registerJob(final JPPFJob job) {
     synchronized (jobMap) {
       jobMap.put(job.getUuid(), job);
     }
   }
 
+  /**
+   * Remove the job with the specified uuid from the pending jobs, and set the terminated status if the shutdown was requested and no job remains.
+   * @param jobUuid the uuid of the job to remove.
+   */
+  private void jobRemoved(final String jobUuid) {
+    synchronized (jobMap) {
+      jobMap.remove(jobUuid);
+      if (isShutdown() && jobMap.isEmpty()) setTerminated();
+    }
+  }
+
   /**
    * Wait until this executor has terminated, or the specified timeout has expired, whichever happens first.
    * @param timeout the maximum time to wait, zero means indefinite time.
@@ -389,11 +426,40 @@ public class JPPFExecutorService extends JobListenerAdapter implements ExecutorS
    */
   @Override
   public void jobReturned(final JobEvent event) {
-    final String jobUuid = event.getJob().getUuid();
-    synchronized (jobMap) {
-      jobMap.remove(jobUuid);
-      if (isShutdown() && jobMap.isEmpty()) setTerminated();
+    jobRemoved(event.getJob().getUuid());
+  }
+
+  /**
+   * Called when a job has ended.
+   * @param event the event object.
+   * @exclude
+   */
+  @Override
+  public void jobEnded(final JobEvent event) {
+    batchHandler.jobEnded(event.getJob());
+  }
+
+  /**
+   * Compute the number of idle nodes attached to the drivers this executor's client is connected to.
+   * @return the number of idle nodes, or -1 if it could not be determined.
+   */
+  int nbIdleNodes() {
+    int total = 0;
+    boolean found = false;
+    for (final JPPFConnectionPool pool: client.findConnectionPools(JPPFClientConnectionStatus.workingStatuses())) {
+      final JMXDriverConnectionWrapper jmx = pool.getJmxConnection(true);
+      if (jmx == null) continue;
+      try {
+        final Integer n = jmx.nbIdleNodes();
+        if (n != null) {
+          total += n;
+          found = true;
+        }
+      } catch (final Exception e) {
+        if (debugEnabled) log.debug("could not get the number of idle nodes from {}", jmx, e);
+      }
     }
+    return found ? total : -1;
   }
 
   /**
@@ -434,6 +500,28 @@ public class JPPFExecutorService extends JobListenerAdapter implements ExecutorS
     return this;
   }
 
+  /**
+   * Determine whether the batch size and timeout are computed from the observed throughput.
+   * @return {@code true} if adaptive batching is enabled, {@code false} otherwise.
+   * @since 6.2
+   */
+  public boolean isAdaptiveBatching() {
+    return batchHandler.isAdaptive();
+  }
+
+  /**
+   * Specify whether the batch size and timeout are computed from the observed throughput.
+   * When adaptive batching is enabled, the batch size and timeout, if greater than 0, are used as upper bounds.
+   * @param adaptive {@code true} to enable adaptive batching, {@code false} to disable it.
+   * @return this executor service, for method chaining.
+   * @since 6.2
+   */
+  public JPPFExecutorService setAdaptiveBatching(final boolean adaptive) {
+    if (debugEnabled) log.debug("setting adaptiveBatching = {}", adaptive);
+    batchHandler.setAdaptive(adaptive);
+    return this;
+  }
+
   /**
    * Get the configuration for this executor service.
    * @return an {@link ExecutorServiceConfiguration} instance.
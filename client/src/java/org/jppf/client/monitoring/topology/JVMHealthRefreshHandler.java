@@ -58,7 +58,8 @@ class JVMHealthRefreshHandler extends AbstractRefreshHandler {
   @Override
   protected synchronized void performRefresh() {
     for (TopologyDriver driver: manager.getDrivers()) {
-      if (driver.getDiagnostics() == null) continue;
+      // the health snapshots of the subscribed drivers and of their nodes are pushed by the drivers
+      if ((driver.getDiagnostics() == null) || manager.refreshHandler.isSubscribed(driver)) continue;
       final JMXDriverConnectionWrapper jmx = driver.getJmx();
       if ((jmx == null) || !jmx.isConnected()) continue;
       try {
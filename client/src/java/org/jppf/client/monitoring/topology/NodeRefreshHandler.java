@@ -19,16 +19,22 @@
 package org.jppf.client.monitoring.topology;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.management.*;
 
 import org.jppf.client.monitoring.AbstractRefreshHandler;
 import org.jppf.management.*;
 import org.jppf.management.forwarding.*;
 import org.jppf.utils.*;
+import org.jppf.utils.configuration.JPPFProperties;
 import org.slf4j.*;
 
 /**
  * Instances of this class hold information about the associations between JPPF drivers and
  * their attached nodes, for management and monitoring purposes.
+ * <p>When a driver provides a {@link TopologyChangeFeedMBean topology change feed}, this handler subscribes to it and applies the changes
+ * it pushes, instead of polling the driver. The drivers which do not provide it are polled at regular intervals.
  * @author Laurent Cohen
  * @since 5.0
  * @exclude
@@ -50,6 +56,23 @@ class NodeRefreshHandler extends AbstractRefreshHandler {
    * Whether the system info of the nodes should be loaded.
    */
   private final boolean loadSystemInfo;
+  /**
+   * Whether to subscribe to the drivers topology change feeds.
+   */
+  private final boolean feedEnabled;
+  /**
+   * Mapping of the drivers subscribed to a topology change feed to the MBean server connection used for the subscription.
+   * A JMX connection wrapper creates a new MBean server connection each time it reconnects, which allows detecting that the subscription was lost.
+   */
+  private final Map<TopologyDriver, MBeanServerConnection> subscriptions = new ConcurrentHashMap<>();
+  /**
+   * The drivers which do not provide a topology change feed.
+   */
+  private final Set<TopologyDriver> feedNotSupported = new HashSet<>();
+  /**
+   * Receives the notifications from the topology change feeds.
+   */
+  private final NotificationListener feedListener = new FeedListener();
 
   /**
    * Initialize this node handler.
@@ -70,6 +93,7 @@ class NodeRefreshHandler extends AbstractRefreshHandler {
     super("JPPF Topology Update Timer", period);
     this.manager = manager;
     this.loadSystemInfo = loadSystemInfo;
+    this.feedEnabled = manager.getJPPFClient().getConfig().get(JPPFProperties.TOPOLOGY_FEED_ENABLED);
     startRefreshTimer();
   }
 
@@ -79,10 +103,155 @@ class NodeRefreshHandler extends AbstractRefreshHandler {
    */
   @Override
   protected synchronized void performRefresh() {
-    for (final TopologyDriver driver: manager.getDrivers()) {
+    final List<TopologyDriver> drivers = manager.getDrivers();
+    for (final TopologyDriver driver: drivers) {
+      if (feedEnabled && subscribe(driver)) continue;
       refreshNodes(driver);
       if (driver.getChildCount() > 0) refreshNodeStates(driver);
     }
+    subscriptions.keySet().retainAll(drivers);
+    feedNotSupported.retainAll(drivers);
+  }
+
+  /**
+   * Ensure this handler is subscribed to the topology change feed of the specified driver. Upon subscription,
+   * the nodes are refreshed once, to account for the changes that occurred before.
+   * <p>The subscription is renewed when the JMX connection to the driver was reestablished since it was made, including when this happened between two refreshes.
+   * @param driver the driver to subscribe to.
+   * @return {@code true} if this handler is subscribed, {@code false} if the driver must be polled.
+   */
+  private boolean subscribe(final TopologyDriver driver) {
+    final JMXDriverConnectionWrapper jmx = driver.getJmx();
+    if ((jmx == null) || !jmx.isConnected()) {
+      // the subscription is lost when the connection is
+      subscriptions.remove(driver);
+      return false;
+    }
+    final MBeanServerConnection connection = jmx.getMbeanConnection();
+    final MBeanServerConnection subscribed = subscriptions.get(driver);
+    if (subscribed != null) {
+      if (subscribed == connection) return true;
+      if (debugEnabled) log.debug("JMX connection to driver {} was reestablished, renewing the subscription to its topology change feed", driver);
+      subscriptions.remove(driver);
+    }
+    if (feedNotSupported.contains(driver)) return false;
+    try {
+      jmx.addNotificationListener(TopologyChangeFeedMBean.MBEAN_NAME, feedListener, null, driver);
+    } catch (final Exception e) {
+      if (debugEnabled) log.debug("driver {} does not provide a topology change feed, it will be polled: {}", driver, ExceptionUtils.getMessage(e));
+      feedNotSupported.add(driver);
+      return false;
+    }
+    if (debugEnabled) log.debug("subscribed to the topology change feed of driver {}", driver);
+    subscriptions.put(driver, connection);
+    refreshNodes(driver);
+    if (driver.getChildCount() > 0) refreshNodeStates(driver);
+    return true;
+  }
+
+  /**
+   * Determine whether the specified driver pushes its topology changes to this handler.
+   * @param driver the driver to check.
+   * @return {@code true} if the driver pushes its changes, {@code false} if it must be polled.
+   */
+  boolean isSubscribed(final TopologyDriver driver) {
+    return subscriptions.containsKey(driver);
+  }
+
+  /**
+   * Unsubscribe from the topology change feeds of all the drivers.
+   */
+  synchronized void unsubscribeAll() {
+    for (final Map.Entry<TopologyDriver, MBeanServerConnection> entry: subscriptions.entrySet()) {
+      final JMXDriverConnectionWrapper jmx = entry.getKey().getJmx();
+      try {
+        // a listener registered with a previous connection is already gone
+        if ((jmx != null) && jmx.isConnected() && (jmx.getMbeanConnection() == entry.getValue()))
+          jmx.removeNotificationListener(TopologyChangeFeedMBean.MBEAN_NAME, feedListener, null, entry.getKey());
+      } catch (final Exception e) {
+        if (debugEnabled) log.debug("error unsubscribing from driver {}: {}", entry.getKey(), ExceptionUtils.getMessage(e));
+      }
+    }
+    subscriptions.clear();
+  }
+
+  /**
+   * Apply the changes pushed by the topology change feed of the specified driver.
+   * @param driver the driver which pushed the changes.
+   * @param changes the changes to apply.
+   */
+  private synchronized void applyChanges(final TopologyDriver driver, final List<TopologyChange> changes) {
+    if (!subscriptions.containsKey(driver)) return;
+    // the node filter can only be evaluated by the driver
+    final boolean filtered = manager.getNodeFilter() != null;
+    boolean refreshNeeded = false;
+    final List<String> addedNodes = new ArrayList<>();
+    for (final TopologyChange change: changes) {
+      final String uuid = change.getUuid();
+      switch(change.getType()) {
+        case NODE_ADDED:
+          final JPPFManagementInfo info = change.getManagementInfo();
+          if ((info == null) || (info.getPort() < 0)) break;
+          if (filtered) refreshNeeded = true;
+          else if (driver.getChild(uuid) == null) {
+            if (debugEnabled) log.debug("adding node " + info);
+            manager.nodeAdded(driver, info.isPeer() ? new TopologyPeer(info) : new TopologyNode(info));
+            if (info.isNode()) addedNodes.add(uuid);
+          }
+          applyNodeUpdate(driver, change);
+          break;
+
+        case NODE_REMOVED:
+          final TopologyNode node = (TopologyNode) driver.getChild(uuid);
+          if (debugEnabled) log.debug("removing node " + node);
+          if (node != null) manager.nodeRemoved(driver, node);
+          break;
+
+        case NODE_UPDATED:
+          applyNodeUpdate(driver, change);
+          break;
+
+        case DRIVER_UPDATED:
+          if (change.getHealthSnapshot() != null) {
+            driver.refreshHealthSnapshot(change.getHealthSnapshot());
+            manager.driverUpdated(driver, TopologyEvent.UpdateType.JVM_HEALTH);
+          }
+          break;
+      }
+    }
+    if (refreshNeeded) refreshNodes(driver);
+    else if (!addedNodes.isEmpty() && loadSystemInfo) loadSystemInfo(driver.getJmx(), addedNodes);
+  }
+
+  /**
+   * Apply the updated states of a node pushed by a topology change feed.
+   * @param driver the driver to which the node is attached.
+   * @param change the change to apply.
+   */
+  private void applyNodeUpdate(final TopologyDriver driver, final TopologyChange change) {
+    final TopologyNode node = (TopologyNode) driver.getChild(change.getUuid());
+    if (node == null) return;
+    boolean stateChanged = false;
+    if ((change.getActive() != null) && (change.getActive() != node.getManagementInfo().isActive())) {
+      node.getManagementInfo().setIsActive(change.getActive());
+      stateChanged = true;
+    }
+    if ((change.getNodeState() != null) && !change.getNodeState().equals(node.getNodeState())) {
+      node.refreshNodeState(change.getNodeState());
+      stateChanged = true;
+    }
+    if ((change.getNbSlaves() != null) && (change.getNbSlaves() != node.getNbSlaveNodes())) {
+      node.setNbSlaveNodes(change.getNbSlaves());
+      stateChanged = true;
+    }
+    if (stateChanged) {
+      node.setStatus(TopologyNodeStatus.UP);
+      manager.nodeUpdated(driver, node, TopologyEvent.UpdateType.NODE_STATE);
+    }
+    if (change.getHealthSnapshot() != null) {
+      node.refreshHealthSnapshot(change.getHealthSnapshot());
+      manager.nodeUpdated(driver, node, TopologyEvent.UpdateType.JVM_HEALTH);
+    }
   }
 
   /**
@@ -135,20 +304,27 @@ class NodeRefreshHandler extends AbstractRefreshHandler {
           }
         }
       }
-      if (!addedNodes.isEmpty() && loadSystemInfo) {
-        try {
-          final ResultsMap<String, JPPFSystemInformation> map = jmx.getForwarder().systemInformation(new UuidSelector(addedNodes));
-          for (final Map.Entry<String, InvocationResult<JPPFSystemInformation>> ent: map.entrySet()) {
-            final JPPFSystemInformation o = ent.getValue().result();
-            if (o != null) {
-              final TopologyNode node = manager.getNode(ent.getKey());
-              if (node != null) node.getManagementInfo().setSystemInfo(o);
-            }
-          }
-        } catch(final Exception e) {
-          if (debugEnabled) log.debug(e.getMessage(), e);
+    }
+    if (!addedNodes.isEmpty() && loadSystemInfo) loadSystemInfo(jmx, addedNodes);
+  }
+
+  /**
+   * Load the system information of the specified nodes.
+   * @param jmx the JMX connection to the driver to which the nodes are attached.
+   * @param uuids the uuids of the nodes.
+   */
+  private void loadSystemInfo(final JMXDriverConnectionWrapper jmx, final List<String> uuids) {
+    try {
+      final ResultsMap<String, JPPFSystemInformation> map = jmx.getForwarder().systemInformation(new UuidSelector(uuids));
+      for (final Map.Entry<String, InvocationResult<JPPFSystemInformation>> ent: map.entrySet()) {
+        final JPPFSystemInformation o = ent.getValue().result();
+        if (o != null) {
+          final TopologyNode node = manager.getNode(ent.getKey());
+          if (node != null) node.getManagementInfo().setSystemInfo(o);
         }
       }
+    } catch(final Exception e) {
+      if (debugEnabled) log.debug(e.getMessage(), e);
     }
   }
 
@@ -228,4 +404,19 @@ class NodeRefreshHandler extends AbstractRefreshHandler {
       }
     }
   }
+
+  /**
+   * Receives the notifications from the topology change feeds, with the subscribed driver as handback.
+   */
+  private class FeedListener implements NotificationListener {
+    @SuppressWarnings("unchecked")
+    @Override
+    public void handleNotification(final Notification notification, final Object handback) {
+      try {
+        applyChanges((TopologyDriver) handback, (List<TopologyChange>) notification.getUserData());
+      } catch (final Exception e) {
+        log.error("error applying topology changes from driver " + handback, e);
+      }
+    }
+  }
 }
@@ -530,6 +530,7 @@ public class TopologyManager extends ConnectionPoolListenerAdapter implements Au
   public void close() {
     refreshHandler.stopRefreshTimer();;
     jvmHealthRefreshHandler.stopRefreshTimer();;
+    refreshHandler.unsubscribeAll();
     listeners.clear();
     client.removeConnectionPoolListener(this);
   }
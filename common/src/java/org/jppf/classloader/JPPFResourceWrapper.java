@@ -45,6 +45,11 @@ public class JPPFResourceWrapper implements Serializable {
    * Used to generate locally unique ids for the remote-computed callables.
    */
   private static final long NO_CALLABLE_ID = -1L;
+  /**
+   * The algorithm used to compute the {@link ResourceIdentifier#CONTENT_HASH hash} of the resources content.
+   * @exclude
+   */
+  public static final String CONTENT_HASH_ALGORITHM = "SHA-256";
   /**
    * Constant for an empty <code>JPPFResourceWrapper</code> array.
    */
@@ -369,6 +374,7 @@ public class JPPFResourceWrapper implements Serializable {
     } else {
       if (!uuidPath.equals(other.uuidPath)) return false;
     }
+    if (!Objects.equals(getData(CACHED_CONTENT_HASH), other.getData(CACHED_CONTENT_HASH))) return false;
     final String name = getName();
     final String otherName = other.getName();
     if (name == null) {
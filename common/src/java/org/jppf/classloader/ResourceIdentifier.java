@@ -81,4 +81,16 @@ public enum ResourceIdentifier
    * Whether lookups of resource in the file system are allowed.
    */
   FILE_LOOKUP_ALLOWED,
+  /**
+   * The hash of the content of a resource already held by the requester, which only needs the content if it has a different hash.
+   */
+  CACHED_CONTENT_HASH,
+  /**
+   * The hash of the content of a resource, sent along with the resource definition.
+   */
+  CONTENT_HASH,
+  /**
+   * Flag indicating that the content held by the requester has the same hash as the actual resource, in which case no definition is sent.
+   */
+  CONTENT_VALIDATED,
 }
@@ -0,0 +1,165 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jppf.execute;
+
+import java.util.concurrent.*;
+
+import org.jppf.utils.concurrent.JPPFThreadFactory;
+import org.slf4j.*;
+
+/**
+ * A thread manager which executes the tasks on virtual threads, when the JVM supports them (Java 21 or later).
+ * It is enabled in the node configuration with:
+ * <pre class="jppf_pre">
+ * jppf.thread.manager.class = org.jppf.execute.ThreadManagerVirtualThreads</pre>
+ * <p>The pool size, configured with {@code jppf.processing.threads}, is the maximum number of tasks executing concurrently. Since virtual threads are cheap
+ * and release their carrier thread while they are blocked, it can be set much higher than the number of cores when the tasks are mostly waiting for I/O.
+ * The tasks in excess are queued until a running task completes. A virtual thread is only kept while there are queued tasks, and is discarded afterwards.
+ * <p>The tasks can be cancelled and can time out as with the other thread managers, since virtual threads are interruptible.
+ * However, the JVM does not measure the CPU time of virtual threads, thus the CPU time of the tasks is not available with this thread manager,
+ * and the priority of the threads cannot be changed.
+ * <p>When virtual threads are not supported by the JVM, this thread manager falls back to a pool of platform threads, as {@link ThreadManagerThreadPool} does.
+ * @author Laurent Cohen
+ * @since 6.2
+ */
+public class ThreadManagerVirtualThreads extends AbstractThreadManager {
+  /**
+   * Logger for this class.
+   */
+  private static Logger log = LoggerFactory.getLogger(ThreadManagerVirtualThreads.class);
+  /**
+   * Time in millis after which an idle virtual thread terminates.
+   */
+  private static final long VIRTUAL_KEEP_ALIVE = 1L;
+  /**
+   * The thread pool that really processes the tasks
+   */
+  private final ThreadPoolExecutor threadPool;
+  /**
+   * The factory used to create platform threads when virtual threads are not supported, {@code null} otherwise.
+   */
+  private final JPPFThreadFactory platformFactory;
+
+  /**
+   * Initialized thread manager.
+   * @param poolSize the maximum number of tasks executing concurrently.
+   */
+  public ThreadManagerVirtualThreads(final int poolSize) {
+    final ThreadFactory virtualFactory = createVirtualThreadFactory(THREAD_NAME_PREFIX + "-");
+    final ThreadFactory factory;
+    final long keepAlive;
+    if (virtualFactory != null) {
+      platformFactory = null;
+      factory = virtualFactory;
+      keepAlive = VIRTUAL_KEEP_ALIVE;
+    } else {
+      log.warn("virtual threads are not supported by this JVM, using platform threads instead");
+      factory = platformFactory = new JPPFThreadFactory(THREAD_NAME_PREFIX, super.isCpuTimeEnabled());
+      keepAlive = Long.MAX_VALUE;
+    }
+    threadPool = new ThreadPoolExecutor(poolSize, poolSize, keepAlive, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), factory) {
+      @Override
+      protected <T> RunnableFuture<T> newTaskFor(final Runnable runnable, final T value) {
+        final RunnableFuture<T> future = super.newTaskFor(runnable, value);
+        if (runnable instanceof NodeTaskWrapper) ((NodeTaskWrapper) runnable).setFuture(future);
+        return future;
+      }
+    };
+    if (virtualFactory != null) threadPool.allowCoreThreadTimeOut(true);
+  }
+
+  /**
+   * Determine whether the tasks are executed on virtual threads.
+   * @return {@code true} if the tasks are executed on virtual threads, {@code false} if they are executed on platform threads.
+   */
+  public boolean isVirtual() {
+    return platformFactory == null;
+  }
+
+  @Override
+  protected long[] getThreadIds() {
+    return (platformFactory == null) ? new long[0] : platformFactory.getThreadIDs();
+  }
+
+  @Override
+  public boolean isCpuTimeEnabled() {
+    return (platformFactory != null) && super.isCpuTimeEnabled();
+  }
+
+  @Override
+  public ExecutorService getExecutorService() {
+    return threadPool;
+  }
+
+  @Override
+  public void setPoolSize(final int size) {
+    if (size <= 0) {
+      log.warn("ignored attempt to set the thread pool size to 0 or less: " + size);
+      return;
+    }
+    if (getPoolSize() == size) return;
+    if (size > threadPool.getCorePoolSize()) {
+      threadPool.setMaximumPoolSize(size);
+      threadPool.setCorePoolSize(size);
+    } else if (size < threadPool.getCorePoolSize()) {
+      threadPool.setCorePoolSize(size);
+      threadPool.setMaximumPoolSize(size);
+    }
+  }
+
+  @Override
+  public int getPoolSize() {
+    return threadPool.getMaximumPoolSize();
+  }
+
+  @Override
+  public int getPriority() {
+    return (platformFactory == null) ? Thread.NORM_PRIORITY : platformFactory.getPriority();
+  }
+
+  @Override
+  public void setPriority(final int priority) {
+    if (platformFactory != null) platformFactory.updatePriority(priority);
+  }
+
+  @Override
+  public UsedClassLoader useClassLoader(final ClassLoader classLoader) {
+    final ClassLoader oldClassLoader = Thread.currentThread().getContextClassLoader();
+    if (classLoader != null) Thread.currentThread().setContextClassLoader(classLoader);
+    return new ThreadManagerThreadPool.UsedClassLoaderThread(classLoader, oldClassLoader);
+  }
+
+  /**
+   * Create a factory of virtual threads, with the equivalent of {@code Thread.ofVirtual().name(prefix, 1L).factory()}.
+   * Reflection is used so this class can be compiled and loaded by any version of the JVM.
+   * @param prefix the prefix of the names of the threads, followed by a sequence number.
+   * @return a {@link ThreadFactory}, or {@code null} if virtual threads are not supported.
+   */
+  static ThreadFactory createVirtualThreadFactory(final String prefix) {
+    try {
+      final Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+      Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+      builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, prefix, 1L);
+      return (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+    } catch (final Exception e) {
+      if (log.isDebugEnabled()) log.debug("could not create a virtual thread factory", e);
+      return null;
+    }
+  }
+}
@@ -245,14 +245,19 @@ public abstract class AbstractAsyncExecutionManager implements AsyncExecutionMan
       final Task<?> task = taskWrapper.getTask();
 
       jobEntry.accumulatedElapsed.addAndGet(elapsedTime);
-      final int n = jobEntry.resultCount.incrementAndGet();
       synchronized(jobEntry) {
+        final int n = jobEntry.resultCount.incrementAndGet();
         bundle = jobEntry.bundle;
         final int submittedCount = jobEntry.submittedCount;
         if (traceEnabled) log.trace("sending task ended notification for {}, bundle={}", taskWrapper, bundle);
         taskNotificationDispatcher.fireTaskEnded(task, bundle.getUuid(), bundle.getName(), cpuTime, elapsedTime / 1_000_000L, task.getThrowable() != null);
         if (traceEnabled) log.trace("resultCount={} for {}", n, taskWrapper);
         if (n >= submittedCount) endJob = true;
+        else if (jobEntry.streamResults && !jobEntry.jobCancelled.get() && !((task instanceof AbstractTask) && ((AbstractTask<?>) task).isResubmit())) {
+          // streamed while holding the lock, so the remaining tasks computed in jobEnded() never include this task
+          jobEntry.streamedTasks.add(task);
+          fireTasksExecuted(bundle, Collections.<Task<?>>singletonList(task));
+        }
       }
       if (endJob) jobEnded(jobEntry);
     } catch (final RuntimeException e) {
@@ -273,6 +278,7 @@ public abstract class AbstractAsyncExecutionManager implements AsyncExecutionMan
       taskList = jobEntry.taskList;
       t = jobEntry.t;
       cleanup(jobEntry);
+      if (!jobEntry.streamedTasks.isEmpty()) taskList = removeStreamedTasks(jobEntry, taskList);
     }
     if (debugEnabled) log.debug("processing completion of {} tasks of job {}", taskList.size(), bundle);
     synchronized(jobEntries) {
@@ -373,6 +379,37 @@ public abstract class AbstractAsyncExecutionManager implements AsyncExecutionMan
     }
   }
 
+  /**
+   * Notify all listeners that some tasks of a streamed bundle have completed.
+   * @param bundle the bundle the tasks belong to.
+   * @param tasks the completed tasks.
+   */
+  protected void fireTasksExecuted(final TaskBundle bundle, final List<Task<?>> tasks) {
+    if (traceEnabled) log.trace("sending notification to listeners for completion of {} streamed tasks of job {}", tasks.size(), bundle);
+    for (final ExecutionManagerListener listener: listeners) {
+      if (listener != null) listener.tasksExecuted(bundle, tasks);
+    }
+  }
+
+  /**
+   * Compute the tasks of a streamed bundle whose results were not sent yet, and update the bundle's header accordingly.
+   * @param jobEntry the entry for the bundle.
+   * @param taskList all the tasks of the bundle.
+   * @return the tasks whose results remain to be sent, in their original order.
+   */
+  private static List<Task<?>> removeStreamedTasks(final JobProcessingEntry jobEntry, final List<Task<?>> taskList) {
+    final Set<Task<?>> streamed = Collections.newSetFromMap(new IdentityHashMap<>());
+    streamed.addAll(jobEntry.streamedTasks);
+    final List<Task<?>> remaining = new ArrayList<>(taskList.size() - streamed.size());
+    for (final Task<?> task: taskList) {
+      if (!streamed.contains(task)) remaining.add(task);
+    }
+    if (debugEnabled) log.debug("{} tasks were streamed, {} remaining for {}", streamed.size(), remaining.size(), jobEntry.bundle);
+    jobEntry.bundle.setTaskCount(remaining.size());
+    jobEntry.bundle.setParameter(BundleParameter.STREAMED_TASK_COUNT, streamed.size());
+    return remaining;
+  }
+
   @Override
   public void addPendingJobEntry(final TaskBundle bundle) {
     if (debugEnabled) log.debug("adding pending entry for {}", bundle);
@@ -34,4 +34,13 @@ public interface ExecutionManagerListener {
    * @param t a {@link Throwable} that prevented or interrupted the job processing.
    */
   void bundleExecuted(final TaskBundle bundle, final List<Task<?>> tasks, final Throwable t);
+
+  /**
+   * Called when some of the tasks of a task bundle whose results are streamed have completed, before the execution of the whole bundle has finished.
+   * The tasks passed to this method will not be part of the tasks passed to {@link #bundleExecuted(TaskBundle, List, Throwable) bundleExecuted()}.
+   * @param bundle the TaskBundle which holds information on the job.
+   * @param tasks the tasks that have completed.
+   */
+  default void tasksExecuted(final TaskBundle bundle, final List<Task<?>> tasks) {
+  }
 }
@@ -18,7 +18,7 @@
 
 package org.jppf.execute.async;
 
-import java.util.List;
+import java.util.*;
 import java.util.concurrent.atomic.*;
 
 import org.jppf.execute.NodeTaskWrapper;
@@ -71,6 +71,14 @@ public class JobProcessingEntry extends JobPendingEntry {
    * A {@link Throwable} that prevented or interrupted the job processing.
    */
   public Throwable t;
+  /**
+   * Whether the results of the tasks are sent as soon as each task completes.
+   */
+  public boolean streamResults;
+  /**
+   * The tasks whose results were already streamed.
+   */
+  public final List<Task<?>> streamedTasks = new ArrayList<>();
 
   /**
    * @return the class loader fot htis task bundle.
@@ -0,0 +1,258 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jppf.io;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.jppf.utils.stats.*;
+import org.slf4j.*;
+
+/**
+ * A pool of byte arrays organized in power-of-two size classes, used to hold the data of the messages read from NIO channels.
+ * <p>A buffer obtained from this pool is wrapped in a {@link PooledBuffersLocation}, which counts its references and returns
+ * the buffer to the pool once the last reference is released. Buffers that are never released are simply garbage collected.
+ * <p>The total size of the buffers held in the pool is bounded: a released buffer which would exceed this bound is discarded.
+ * @author Laurent Cohen
+ */
+public class BufferPool {
+  /**
+   * Logger for this class.
+   */
+  private static final Logger log = LoggerFactory.getLogger(BufferPool.class);
+  /**
+   * Determines whether DEBUG logging level is enabled.
+   */
+  private static final boolean debugEnabled = log.isDebugEnabled();
+  /**
+   * Log2 of the size of the smallest size class.
+   */
+  private static final int MIN_SHIFT = 10;
+  /**
+   * The buffers in each size class, where class {@code i} holds buffers of {@code 2^(MIN_SHIFT + i)} bytes.
+   */
+  private final Queue<byte[]>[] classes;
+  /**
+   * The size of the largest buffers handled by this pool.
+   */
+  private final int maxBufferSize;
+  /**
+   * The maximum total size of the buffers held in this pool.
+   */
+  private final long maxPooledBytes;
+  /**
+   * The current total size of the buffers held in this pool.
+   */
+  private final AtomicLong pooledBytes = new AtomicLong(0L);
+  /**
+   * Number of requests served with a pooled buffer.
+   */
+  private final AtomicLong hits = new AtomicLong(0L);
+  /**
+   * Number of requests for which a new buffer had to be allocated.
+   */
+  private final AtomicLong misses = new AtomicLong(0L);
+  /**
+   * Total size of the buffers allocated by this pool or on its behalf.
+   */
+  private final AtomicLong allocatedBytes = new AtomicLong(0L);
+  /**
+   * Number of buffers returned to this pool.
+   */
+  private final AtomicLong recycled = new AtomicLong(0L);
+  /**
+   * Number of released buffers that were discarded because the pool was full.
+   */
+  private final AtomicLong discarded = new AtomicLong(0L);
+  /**
+   * Optional statistics to update with the pool activity.
+   */
+  private volatile JPPFStatistics statistics;
+
+  /**
+   * Initialize this pool with the specified bounds.
+   * @param maxPooledBytes the maximum total size of the buffers held in this pool.
+   * @param maxBufferSize the size of the largest buffers to pool, rounded up to the next power of two.
+   * Requests for larger buffers are served with unpooled allocations.
+   */
+  @SuppressWarnings("unchecked")
+  public BufferPool(final long maxPooledBytes, final int maxBufferSize) {
+    this.maxPooledBytes = maxPooledBytes;
+    final int maxShift = Math.max(MIN_SHIFT, Math.min(30, 32 - Integer.numberOfLeadingZeros(Math.max(1, maxBufferSize) - 1)));
+    this.maxBufferSize = 1 << maxShift;
+    classes = new Queue[maxShift - MIN_SHIFT + 1];
+    for (int i=0; i<classes.length; i++) classes[i] = new ConcurrentLinkedQueue<>();
+    if (debugEnabled) log.debug("initialized buffer pool with maxPooledBytes={}, maxBufferSize={}, nbClasses={}", maxPooledBytes, this.maxBufferSize, classes.length);
+  }
+
+  /**
+   * Create an in-memory data location of the specified size, drawing its buffer from this pool if the size is in the pooled range.
+   * @param size the size of the data.
+   * @return a {@link PooledBuffersLocation} if the buffer is pooled, or a plain {@link MultipleBuffersLocation} otherwise.
+   */
+  public MultipleBuffersLocation createLocation(final int size) {
+    final int index = classIndex(size);
+    if (index < 0) {
+      onAllocation(size);
+      return new MultipleBuffersLocation(size);
+    }
+    return new PooledBuffersLocation(this, acquire(index), size);
+  }
+
+  /**
+   * Compute the size of the buffer that {@link #createLocation(int)} uses for the specified data size.
+   * @param size the size of the data.
+   * @return the size of the smallest size class that can hold the data, or the size itself if it is not in the pooled range.
+   */
+  public int allocationSize(final int size) {
+    final int index = classIndex(size);
+    return (index < 0) ? size : 1 << (index + MIN_SHIFT);
+  }
+
+  /**
+   * Get a buffer of the size class with the specified index, allocating it if none is available.
+   * @param index the index of the size class.
+   * @return a byte array whose length is the size of the class.
+   */
+  private byte[] acquire(final int index) {
+    final byte[] buffer = classes[index].poll();
+    if (buffer != null) {
+      pooledBytes.addAndGet(-buffer.length);
+      hits.incrementAndGet();
+      final JPPFStatistics stats = statistics;
+      if (stats != null) stats.addValue(JPPFStatisticsHelper.BUFFER_POOL_HITS, 1);
+      return buffer;
+    }
+    final int length = 1 << (index + MIN_SHIFT);
+    misses.incrementAndGet();
+    final JPPFStatistics stats = statistics;
+    if (stats != null) stats.addValue(JPPFStatisticsHelper.BUFFER_POOL_MISSES, 1);
+    onAllocation(length);
+    return new byte[length];
+  }
+
+  /**
+   * Return the specified buffer to this pool. It is discarded if the pool is full.
+   * @param buffer the buffer to return.
+   */
+  void release(final byte[] buffer) {
+    final int index = classIndex(buffer.length);
+    boolean pooled = false;
+    if ((index >= 0) && (buffer.length == (1 << (index + MIN_SHIFT)))) {
+      if (pooledBytes.addAndGet(buffer.length) <= maxPooledBytes) pooled = true;
+      else pooledBytes.addAndGet(-buffer.length);
+    }
+    if (pooled) {
+      classes[index].offer(buffer);
+      recycled.incrementAndGet();
+      final JPPFStatistics stats = statistics;
+      if (stats != null) stats.addValue(JPPFStatisticsHelper.BUFFER_POOL_RECYCLED, 1);
+    } else {
+      discarded.incrementAndGet();
+      final JPPFStatistics stats = statistics;
+      if (stats != null) stats.addValue(JPPFStatisticsHelper.BUFFER_POOL_DISCARDED, 1);
+    }
+  }
+
+  /**
+   * Record the allocation of a new buffer.
+   * @param length the size of the allocated buffer.
+   */
+  private void onAllocation(final int length) {
+    allocatedBytes.addAndGet(length);
+    final JPPFStatistics stats = statistics;
+    if (stats != null) stats.addValue(JPPFStatisticsHelper.BUFFER_POOL_ALLOCATED, length);
+  }
+
+  /**
+   * Compute the index of the smallest size class that can hold the specified size.
+   * @param size the size to compute for.
+   * @return the index of the size class, or -1 if the size is not in the pooled range.
+   */
+  private int classIndex(final int size) {
+    if ((size <= 0) || (size > maxBufferSize)) return -1;
+    final int shift = 32 - Integer.numberOfLeadingZeros(size - 1);
+    return (shift <= MIN_SHIFT) ? 0 : shift - MIN_SHIFT;
+  }
+
+  /**
+   * Set the statistics to update with the activity of this pool.
+   * @param statistics a {@link JPPFStatistics} object in which the buffer pool snapshots were created, or {@code null} to stop updating.
+   */
+  public void setStatistics(final JPPFStatistics statistics) {
+    this.statistics = statistics;
+  }
+
+  /**
+   * @return the number of requests served with a pooled buffer.
+   */
+  public long getHits() {
+    return hits.get();
+  }
+
+  /**
+   * @return the number of requests for which a new buffer had to be allocated.
+   */
+  public long getMisses() {
+    return misses.get();
+  }
+
+  /**
+   * @return the total size of the buffers allocated by this pool or on its behalf.
+   */
+  public long getAllocatedBytes() {
+    return allocatedBytes.get();
+  }
+
+  /**
+   * @return the number of buffers returned to this pool.
+   */
+  public long getRecycled() {
+    return recycled.get();
+  }
+
+  /**
+   * @return the number of released buffers that were discarded because the pool was full.
+   */
+  public long getDiscarded() {
+    return discarded.get();
+  }
+
+  /**
+   * @return the current total size of the buffers held in this pool.
+   */
+  public long getPooledBytes() {
+    return pooledBytes.get();
+  }
+
+  @Override
+  public String toString() {
+    return new StringBuilder(getClass().getSimpleName()).append('[')
+      .append("maxPooledBytes=").append(maxPooledBytes)
+      .append(", maxBufferSize=").append(maxBufferSize)
+      .append(", pooledBytes=").append(pooledBytes.get())
+      .append(", hits=").append(hits.get())
+      .append(", misses=").append(misses.get())
+      .append(", allocatedBytes=").append(allocatedBytes.get())
+      .append(", recycled=").append(recycled.get())
+      .append(", discarded=").append(discarded.get())
+      .append(']').toString();
+  }
+}
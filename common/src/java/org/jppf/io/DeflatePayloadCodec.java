@@ -0,0 +1,135 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jppf.io;
+
+import java.io.OutputStream;
+import java.util.zip.*;
+
+import org.jppf.utils.pooling.AbstractBoundedObjectPoolQueue;
+
+/**
+ * A payload codec based on the ZLIB compression provided by the JDK.
+ * <p>Unlike {@link org.jppf.serialization.ZLIBSerialization ZLIBSerialization}, the {@link Deflater} and {@link Inflater} instances,
+ * along with their native buffers, are pooled and reset between uses instead of being created for each object.
+ * @author Laurent Cohen
+ */
+public class DeflatePayloadCodec extends PayloadCodec {
+  /**
+   * The identifier of this codec.
+   */
+  public static final int ID = 1;
+  /**
+   * The name of this codec.
+   */
+  public static final String NAME = "deflate";
+  /**
+   * The maximum number of idle compressors and decompressors kept in each pool.
+   */
+  private static final int MAX_POOLED = 2 * Runtime.getRuntime().availableProcessors();
+  /**
+   * The pool of compressors.
+   */
+  private final AbstractBoundedObjectPoolQueue<Deflater> deflaters = new AbstractBoundedObjectPoolQueue<Deflater>(MAX_POOLED) {
+    @Override
+    protected Deflater create() {
+      return new Deflater(Deflater.BEST_SPEED);
+    }
+
+    @Override
+    public void put(final Deflater deflater) {
+      deflater.reset();
+      if (size() >= maxSize) deflater.end(); // release the native buffers right away
+      else super.put(deflater);
+    }
+  };
+  /**
+   * The pool of decompressors.
+   */
+  private final AbstractBoundedObjectPoolQueue<Inflater> inflaters = new AbstractBoundedObjectPoolQueue<Inflater>(MAX_POOLED) {
+    @Override
+    protected Inflater create() {
+      return new Inflater();
+    }
+
+    @Override
+    public void put(final Inflater inflater) {
+      inflater.reset();
+      if (size() >= maxSize) inflater.end();
+      else super.put(inflater);
+    }
+  };
+
+  /**
+   * Initialize this codec.
+   */
+  public DeflatePayloadCodec() {
+    super(ID, NAME);
+  }
+
+  @Override
+  public int compress(final byte[] src, final int srcLen, final byte[] dest, final int destOff, final int maxLen) throws Exception {
+    final Deflater deflater = deflaters.get();
+    try {
+      deflater.setInput(src, 0, srcLen);
+      deflater.finish();
+      int len = 0;
+      while (!deflater.finished() && (len < maxLen)) len += deflater.deflate(dest, destOff + len, maxLen - len);
+      return deflater.finished() ? len : -1;
+    } finally {
+      deflaters.put(deflater);
+    }
+  }
+
+  @Override
+  public void decompress(final byte[] src, final int srcOff, final int srcLen, final byte[] dest) throws Exception {
+    final Inflater inflater = inflaters.get();
+    try {
+      inflater.setInput(src, srcOff, srcLen);
+      int len = 0;
+      while (len < dest.length) {
+        final int n = inflater.inflate(dest, len, dest.length - len);
+        if ((n == 0) && (inflater.finished() || inflater.needsInput() || inflater.needsDictionary()))
+          throw new DataFormatException("truncated " + NAME + " payload: expected " + dest.length + " bytes but got " + len);
+        len += n;
+      }
+    } finally {
+      inflaters.put(inflater);
+    }
+  }
+
+  @Override
+  public void decompress(final byte[] src, final int srcOff, final int srcLen, final int originalSize, final OutputStream out) throws Exception {
+    final Inflater inflater = inflaters.get();
+    final byte[] buffer = IO.TEMP_BUFFER_POOL.get();
+    try {
+      inflater.setInput(src, srcOff, srcLen);
+      int len = 0;
+      while (len < originalSize) {
+        final int n = inflater.inflate(buffer, 0, Math.min(buffer.length, originalSize - len));
+        if ((n == 0) && (inflater.finished() || inflater.needsInput() || inflater.needsDictionary()))
+          throw new DataFormatException("truncated " + NAME + " payload: expected " + originalSize + " bytes but got " + len);
+        out.write(buffer, 0, n);
+        len += n;
+      }
+    } finally {
+      IO.TEMP_BUFFER_POOL.put(buffer);
+      inflaters.put(inflater);
+    }
+  }
+}
@@ -82,4 +82,18 @@ public interface IO extends Closeable {
    * Whether to check for low memory and trigger disk offloading.
    */
   boolean CHECK_LOW_MEMORY = JPPFConfiguration.get(JPPFProperties.CHECK_LOW_MEMORY);
+  /**
+   * Whether messages sent over plain NIO connections are written with gathering writes and file transfers instead of intermediate copies.
+   */
+  boolean ZERO_COPY_WRITES = JPPFConfiguration.get(JPPFProperties.NIO_ZERO_COPY_WRITES);
+  /**
+   * The memory-mapped disk overflow arena, or {@code null} if overflowed data is stored in temporary files.
+   */
+  MappedOverflowArena OVERFLOW_ARENA = JPPFConfiguration.get(JPPFProperties.OVERFLOW_MMAP_ENABLED)
+    ? new MappedOverflowArena(JPPFConfiguration.get(JPPFProperties.OVERFLOW_MMAP_SEGMENT_SIZE) * 1024 * 1024, JPPFConfiguration.get(JPPFProperties.OVERFLOW_MMAP_MAX_SEGMENTS)) : null;
+  /**
+   * The pool of buffers for the node results read by the driver, or {@code null} if buffer pooling is disabled.
+   */
+  BufferPool BUFFER_POOL = JPPFConfiguration.get(JPPFProperties.BUFFER_POOL_ENABLED)
+    ? new BufferPool(JPPFConfiguration.get(JPPFProperties.BUFFER_POOL_MAX_SIZE) * 1024L * 1024L, JPPFConfiguration.get(JPPFProperties.BUFFER_POOL_MAX_BUFFER_SIZE)) : null;
 }
@@ -80,20 +80,53 @@ public final class IOHelper {
    * @throws Exception if an IO error occurs.
    */
   public static DataLocation createDataLocationMemorySensitive(final int size) throws Exception {
-    if (!IO.CHECK_LOW_MEMORY || fitsInMemory(size)) {
+    return createDataLocationMemorySensitive(size, false);
+  }
+
+  /**
+   * Create a data location object based on a comparison of the available heap memory
+   * and the data location object size, optionally drawing its buffer from the {@link BufferPool} when it is enabled.
+   * <p>A pooled location should only be requested when the lifecycle of the data guarantees that the location is eventually
+   * released with {@link #releaseDataLocation(DataLocation)}, since pooled buffers are larger than the requested size.
+   * @param size the requested size of the data location to create.
+   * @param pooled whether the buffer of an in-memory location should be obtained from the buffer pool.
+   * @return a <code>DataLocation</code> object whose content may be stored in memory
+   * or on another medium, depending on the available memory.
+   * @throws Exception if an IO error occurs.
+   * @since 6.2
+   */
+  public static DataLocation createDataLocationMemorySensitive(final int size, final boolean pooled) throws Exception {
+    final BufferPool pool = pooled ? IO.BUFFER_POOL : null;
+    // the memory actually allocated for a pooled location is the size of its buffer
+    final int allocated = (pool != null) ? pool.allocationSize(size) : size;
+    if (!IO.CHECK_LOW_MEMORY || fitsInMemory(allocated)) {
       try {
-        final DataLocation dl = new MultipleBuffersLocation(size);
+        final DataLocation dl = (pool != null) ? pool.createLocation(size) : new MultipleBuffersLocation(size);
         return dl;
       } catch (final OutOfMemoryError oome) {
         if (debugEnabled) log.debug("OOM when allocating in-memory data location, attempting disk overflow", oome);
       } finally {
-        footprint.addAndGet(-size);
+        footprint.addAndGet(-allocated);
       }
     }
+    if (IO.OVERFLOW_ARENA != null) {
+      final DataLocation dl = IO.OVERFLOW_ARENA.allocate(size);
+      if (dl != null) return dl;
+    }
     final File file = createTempFile(size);
     return new FileDataLocation(file, size);
   }
 
+  /**
+   * Release a reference to the specified data location, so that its buffer can be reused once it is no longer referenced.
+   * This method has no effect if the location does not hold a pooled buffer.
+   * @param location the location to release.
+   * @return {@code true} if the location's buffer was returned to the pool, {@code false} otherwise.
+   */
+  public static boolean releaseDataLocation(final DataLocation location) {
+    return (location instanceof PooledBuffersLocation) && ((PooledBuffersLocation) location).release();
+  }
+
   /**
    * Read a provider or task data from an input source.
    * The data may be stored in memory or on another medium depending on its size and the available memory.
@@ -193,7 +226,7 @@ public final class IOHelper {
   }
 
   /**
-   * Deserialize the specified data into an object.
+   * Deserialize the specified data into an object. The data is decompressed first if it is a {@link PayloadCodecs compressed frame}.
    * @param dl the data, stored in a memory-aware location.
    * @param ser the object serializer to use.
    * @return the transformed result as an object.
@@ -201,7 +234,7 @@ public final class IOHelper {
    */
   public static Object unwrappedData(final DataLocation dl, final ObjectSerializer ser) throws Exception {
     if (traceEnabled) log.trace("unwrapping " + dl);
-    try (InputStream is = dl.getInputStream()) {
+    try (InputStream is = PayloadCodecs.decode(dl).getInputStream()) {
       return ser.deserialize(is);
     }
   }
@@ -214,7 +247,20 @@ public final class IOHelper {
    * @throws Exception if any error occurs.
    */
   public static void sendData(final SocketWrapper socketWrapper, final Object o, final ObjectSerializer ser) throws Exception {
-    final DataLocation dl = serializeData(o, ser);
+    sendData(socketWrapper, o, ser, null, 0);
+  }
+
+  /**
+   * Serialize an object, compress it if its serialized size is at least the specified threshold, and send it to the server.
+   * @param socketWrapper the socket client used to send data to the server.
+   * @param o the object to serialize.
+   * @param ser the object serializer.
+   * @param codec the codec used to compress the serialized object, or {@code null} if it is sent uncompressed.
+   * @param threshold the size below which the serialized object is not compressed.
+   * @throws Exception if any error occurs.
+   */
+  public static void sendData(final SocketWrapper socketWrapper, final Object o, final ObjectSerializer ser, final PayloadCodec codec, final int threshold) throws Exception {
+    final DataLocation dl = PayloadCodecs.encode(serializeData(o, ser), codec, threshold);
     if (traceEnabled) log.trace("sending object with serialized size=" + dl.getSize() + " : " + o);
     socketWrapper.writeInt(dl.getSize());
     final OutputDestination od = new SocketWrapperOutputDestination(socketWrapper);
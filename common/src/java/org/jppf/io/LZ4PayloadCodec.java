@@ -0,0 +1,71 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jppf.io;
+
+import net.jpountz.lz4.*;
+
+/**
+ * A payload codec based on the LZ4 block format. It is only available when the LZ4 library is in the classpath.
+ * <p>The {@link LZ4Factory} lookup is performed once, and the resulting compressor and decompressor, which are thread-safe, are shared by all calls.
+ * <p><b>See also: <a href="https://github.com/lz4/lz4">LZ4 home</a></b>.
+ * @author Laurent Cohen
+ */
+public class LZ4PayloadCodec extends PayloadCodec {
+  /**
+   * The identifier of this codec.
+   */
+  public static final int ID = 2;
+  /**
+   * The name of this codec.
+   */
+  public static final String NAME = "lz4";
+  /**
+   * The shared compressor.
+   */
+  private final LZ4Compressor compressor;
+  /**
+   * The shared decompressor.
+   */
+  private final LZ4FastDecompressor decompressor;
+
+  /**
+   * Initialize this codec.
+   */
+  public LZ4PayloadCodec() {
+    super(ID, NAME);
+    final LZ4Factory factory = LZ4Factory.fastestInstance();
+    compressor = factory.fastCompressor();
+    decompressor = factory.fastDecompressor();
+  }
+
+  @Override
+  public int compress(final byte[] src, final int srcLen, final byte[] dest, final int destOff, final int maxLen) throws Exception {
+    try {
+      return compressor.compress(src, 0, srcLen, dest, destOff, maxLen);
+    } catch (@SuppressWarnings("unused") final LZ4Exception e) {
+      return -1; // the compressed data would not fit in maxLen bytes
+    }
+  }
+
+  @Override
+  public void decompress(final byte[] src, final int srcOff, final int srcLen, final byte[] dest) throws Exception {
+    final int n = decompressor.decompress(src, srcOff, dest, 0, dest.length);
+    if (n != srcLen) throw new LZ4Exception("malformed " + NAME + " payload: read " + n + " compressed bytes instead of " + srcLen);
+  }
+}
@@ -0,0 +1,229 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jppf.io;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.*;
+
+/**
+ * Data location backed by a block of a {@link MappedOverflowArena} segment.
+ * <p>Copies share the same block. As for {@link FileDataLocation}, the block is returned to the arena when the last copy is garbage collected.
+ * @author Laurent Cohen
+ */
+public class MappedDataLocation extends AbstractDataLocation {
+  /**
+   * Logger for this class.
+   */
+  private static Logger log = LoggerFactory.getLogger(MappedDataLocation.class);
+  /**
+   * Determines whether TRACE logging level is enabled.
+   */
+  private static boolean traceEnabled = log.isTraceEnabled();
+  /**
+   * The segment in which the data is stored.
+   */
+  private final MappedOverflowArena.Segment segment;
+  /**
+   * The mapped data, limited to this location's size. Its position is never modified.
+   */
+  private final ByteBuffer data;
+  /**
+   * The offset of the block in the segment.
+   */
+  private final int offset;
+  /**
+   * The length of the block in the segment.
+   */
+  private final int length;
+  /**
+   * The view of the data used by the current transfer.
+   */
+  private ByteBuffer transferBuffer;
+  /**
+   * The number of copies of this location sharing the same block.
+   */
+  private final AtomicLong copyCount;
+
+  /**
+   * Initialize this location.
+   * @param segment the segment in which the data is stored.
+   * @param data the mapped data.
+   * @param offset the offset of the block in the segment.
+   * @param length the length of the block in the segment.
+   * @param size the size of the data.
+   */
+  MappedDataLocation(final MappedOverflowArena.Segment segment, final ByteBuffer data, final int offset, final int length, final int size) {
+    this(segment, data, offset, length, size, new AtomicLong(0L));
+  }
+
+  /**
+   * Initialize this location as a copy sharing the same block.
+   * @param segment the segment in which the data is stored.
+   * @param data the mapped data.
+   * @param offset the offset of the block in the segment.
+   * @param length the length of the block in the segment.
+   * @param size the size of the data.
+   * @param copyCount the number of copies sharing the block.
+   */
+  private MappedDataLocation(final MappedOverflowArena.Segment segment, final ByteBuffer data, final int offset, final int length, final int size, final AtomicLong copyCount) {
+    this.segment = segment;
+    this.data = data;
+    this.offset = offset;
+    this.length = length;
+    this.size = size;
+    this.copyCount = copyCount;
+    copyCount.incrementAndGet();
+  }
+
+  @Override
+  public int transferFrom(final InputSource source, final boolean blocking) throws Exception {
+    if (!transferring) {
+      transferring = true;
+      transferBuffer = data.duplicate();
+    }
+    try {
+      int count = 0;
+      while (transferBuffer.hasRemaining()) {
+        final int n = source.read(transferBuffer);
+        if ((n < 0) || (blocking && (n == 0))) {
+          transferring = false;
+          if (blocking) throw new EOFException();
+          return -1;
+        }
+        count += n;
+        if (!blocking && (n == 0)) break;
+      }
+      if (!transferBuffer.hasRemaining()) transferring = false;
+      return count;
+    } catch (final Exception e) {
+      transferring = false;
+      throw e;
+    } finally {
+      if (!transferring) transferBuffer = null;
+    }
+  }
+
+  @Override
+  public int transferTo(final OutputDestination dest, final boolean blocking) throws Exception {
+    if (!transferring) {
+      transferring = true;
+      transferBuffer = data.duplicate();
+    }
+    try {
+      int count = 0;
+      while (transferBuffer.hasRemaining()) {
+        final int n = dest.write(transferBuffer);
+        if (n < 0) {
+          transferring = false;
+          return -1;
+        }
+        count += n;
+        if (!blocking && (n == 0)) break;
+      }
+      if (!transferBuffer.hasRemaining()) transferring = false;
+      return count;
+    } catch (final Exception e) {
+      transferring = false;
+      throw e;
+    } finally {
+      if (!transferring) transferBuffer = null;
+    }
+  }
+
+  @Override
+  public InputStream getInputStream() throws Exception {
+    final ByteBuffer buf = data.duplicate();
+    return new InputStream() {
+      @Override
+      public int read() throws IOException {
+        return buf.hasRemaining() ? buf.get() & 0xFF : -1;
+      }
+
+      @Override
+      public int read(final byte[] b, final int off, final int len) throws IOException {
+        if (len == 0) return 0;
+        if (!buf.hasRemaining()) return -1;
+        final int n = Math.min(len, buf.remaining());
+        buf.get(b, off, n);
+        return n;
+      }
+
+      @Override
+      public int available() throws IOException {
+        return buf.remaining();
+      }
+    };
+  }
+
+  @Override
+  public OutputStream getOutputStream() throws Exception {
+    final ByteBuffer buf = data.duplicate();
+    return new OutputStream() {
+      @Override
+      public void write(final int b) throws IOException {
+        if (!buf.hasRemaining()) throw new EOFException("no space left in " + MappedDataLocation.this);
+        buf.put((byte) b);
+      }
+
+      @Override
+      public void write(final byte[] b, final int off, final int len) throws IOException {
+        if (len > buf.remaining()) throw new EOFException("no space left in " + MappedDataLocation.this);
+        buf.put(b, off, len);
+      }
+    };
+  }
+
+  @Override
+  public DataLocation copy() {
+    return new MappedDataLocation(segment, data, offset, length, size, copyCount);
+  }
+
+  /**
+   * Get a read-only view of the data in this location.
+   * @return a {@link ByteBuffer} whose position is 0 and limit is the data size.
+   */
+  public ByteBuffer getData() {
+    return data.asReadOnlyBuffer();
+  }
+
+  @Override
+  protected void finalize() throws Throwable {
+    try {
+      if (copyCount.decrementAndGet() <= 0) {
+        if (traceEnabled) log.trace("freeing block of {}", this);
+        segment.free(offset, length);
+      }
+    } finally {
+      super.finalize();
+    }
+  }
+
+  @Override
+  public String toString() {
+    return new StringBuilder(getClass().getSimpleName()).append('[')
+      .append("segment=").append(segment)
+      .append(", offset=").append(offset)
+      .append(", length=").append(length)
+      .append(", size=").append(size)
+      .append(']').toString();
+  }
+}
@@ -0,0 +1,253 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jppf.io;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.FileChannel;
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.jppf.utils.FileUtils;
+import org.slf4j.*;
+
+/**
+ * A disk overflow store made of memory-mapped segment files, in which data that does not fit in the heap is held instead of one temporary file per object.
+ * <p>Each segment is a file of fixed size mapped in memory once and for all. Space is allocated in segments with a first-fit strategy,
+ * in blocks aligned on {@link #BLOCK_SIZE}, and the space released by the data locations that are no longer used is coalesced and reused.
+ * Segments are created lazily, up to a configured maximum number. When no segment has enough free space, {@link #allocate(int)} returns {@code null}
+ * and the caller is expected to fall back to another kind of storage.
+ * @author Laurent Cohen
+ */
+public class MappedOverflowArena {
+  /**
+   * Logger for this class.
+   */
+  private static final Logger log = LoggerFactory.getLogger(MappedOverflowArena.class);
+  /**
+   * Determines whether DEBUG logging level is enabled.
+   */
+  private static final boolean debugEnabled = log.isDebugEnabled();
+  /**
+   * The granularity of allocations in a segment.
+   */
+  static final int BLOCK_SIZE = 4096;
+  /**
+   * The size of each segment.
+   */
+  private final int segmentSize;
+  /**
+   * The maximum number of segments.
+   */
+  private final int maxSegments;
+  /**
+   * The directory in which the segment files are created.
+   */
+  private final File directory;
+  /**
+   * The segments created so far.
+   */
+  private final List<Segment> segments = new CopyOnWriteArrayList<>();
+
+  /**
+   * Initialize this arena with the specified segment size and maximum number of segments.
+   * @param segmentSize the size of each segment, rounded up to a multiple of {@link #BLOCK_SIZE}.
+   * @param maxSegments the maximum number of segments.
+   * @param directory the directory in which the segment files are created.
+   */
+  public MappedOverflowArena(final int segmentSize, final int maxSegments, final File directory) {
+    this.segmentSize = (int) Math.min(Integer.MAX_VALUE & ~(BLOCK_SIZE - 1), align(segmentSize));
+    this.maxSegments = maxSegments;
+    this.directory = directory;
+    if (debugEnabled) log.debug("initialized mapped overflow arena with segmentSize={}, maxSegments={}, directory={}", this.segmentSize, maxSegments, directory);
+  }
+
+  /**
+   * Initialize this arena with the specified segment size and maximum number of segments, in the JPPF temporary directory.
+   * @param segmentSize the size of each segment.
+   * @param maxSegments the maximum number of segments.
+   */
+  public MappedOverflowArena(final int segmentSize, final int maxSegments) {
+    this(segmentSize, maxSegments, FileUtils.getJPPFTempDir());
+  }
+
+  /**
+   * Allocate space for data of the specified size.
+   * @param size the size of the data.
+   * @return a new {@link MappedDataLocation}, or {@code null} if the size exceeds the segment size or if there is not enough free space in the arena.
+   */
+  public MappedDataLocation allocate(final int size) {
+    if ((size <= 0) || (size > segmentSize)) return null;
+    final int length = (int) align(size);
+    for (final Segment segment: segments) {
+      final MappedDataLocation location = segment.allocate(size, length);
+      if (location != null) return location;
+    }
+    synchronized(segments) {
+      final int n = segments.size();
+      for (int i=0; i<n; i++) {
+        final MappedDataLocation location = segments.get(i).allocate(size, length);
+        if (location != null) return location;
+      }
+      if (n >= maxSegments) {
+        if (debugEnabled) log.debug("no space left in the mapped overflow arena for size={}", size);
+        return null;
+      }
+      try {
+        final Segment segment = new Segment(n);
+        segments.add(segment);
+        return segment.allocate(size, length);
+      } catch (final IOException e) {
+        log.warn("could not create a new mapped overflow segment: {}", e.toString());
+        return null;
+      }
+    }
+  }
+
+  /**
+   * Get the total free space in the existing segments.
+   * @return the free space in bytes.
+   */
+  public long getFreeSpace() {
+    long result = 0L;
+    for (final Segment segment: segments) result += segment.getFreeSpace();
+    return result;
+  }
+
+  /**
+   * @return the number of segments created so far.
+   */
+  public int getSegmentCount() {
+    return segments.size();
+  }
+
+  /**
+   * Round the specified size up to a multiple of {@link #BLOCK_SIZE}.
+   * @param size the size to align.
+   * @return the aligned size.
+   */
+  private static long align(final long size) {
+    return (size + BLOCK_SIZE - 1) & ~((long) BLOCK_SIZE - 1);
+  }
+
+  /**
+   * A memory-mapped file with its free space.
+   */
+  final class Segment {
+    /**
+     * The mapped content of the file.
+     */
+    private final MappedByteBuffer buffer;
+    /**
+     * Mapping of the offsets of the free blocks to their length, ordered by offset.
+     */
+    private final TreeMap<Integer, Integer> freeBlocks = new TreeMap<>();
+    /**
+     * The total free space in this segment.
+     */
+    private long freeSpace;
+    /**
+     * The index of this segment.
+     */
+    private final int index;
+
+    /**
+     * Create and map the segment file.
+     * @param index the index of this segment.
+     * @throws IOException if the file could not be created or mapped.
+     */
+    private Segment(final int index) throws IOException {
+      this.index = index;
+      if (!directory.exists()) directory.mkdirs();
+      final File file = File.createTempFile("jppf-overflow-", ".seg", directory);
+      try (RandomAccessFile raf = new RandomAccessFile(file, "rw"); FileChannel channel = raf.getChannel()) {
+        raf.setLength(segmentSize);
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0L, segmentSize);
+      }
+      // the mapping remains valid after the file is closed, and on most platforms after it is deleted
+      if (!file.delete()) file.deleteOnExit();
+      freeBlocks.put(0, segmentSize);
+      freeSpace = segmentSize;
+      if (debugEnabled) log.debug("created mapped overflow segment #{} in '{}' with size={}", index, file, segmentSize);
+    }
+
+    /**
+     * Allocate a block in this segment with a first-fit strategy.
+     * @param size the size of the data.
+     * @param length the aligned length of the block to allocate.
+     * @return a new {@link MappedDataLocation}, or {@code null} if this segment has no free block large enough.
+     */
+    private MappedDataLocation allocate(final int size, final int length) {
+      final int offset;
+      synchronized(this) {
+        if (freeSpace < length) return null;
+        Map.Entry<Integer, Integer> found = null;
+        for (final Map.Entry<Integer, Integer> entry: freeBlocks.entrySet()) {
+          if (entry.getValue() >= length) {
+            found = entry;
+            break;
+          }
+        }
+        if (found == null) return null;
+        offset = found.getKey();
+        final int blockLength = found.getValue();
+        freeBlocks.remove(offset);
+        if (blockLength > length) freeBlocks.put(offset + length, blockLength - length);
+        freeSpace -= length;
+      }
+      final ByteBuffer slice = buffer.duplicate();
+      slice.limit(offset + size).position(offset);
+      return new MappedDataLocation(this, slice.slice(), offset, length, size);
+    }
+
+    /**
+     * Return the specified block to the free space of this segment, merging it with the adjacent free blocks.
+     * @param offset the offset of the block.
+     * @param length the length of the block.
+     */
+    synchronized void free(final int offset, final int length) {
+      int start = offset, len = length;
+      final Map.Entry<Integer, Integer> before = freeBlocks.floorEntry(offset);
+      if ((before != null) && (before.getKey() + before.getValue() == offset)) {
+        start = before.getKey();
+        len += before.getValue();
+        freeBlocks.remove(start);
+      }
+      final Integer afterLength = freeBlocks.remove(offset + length);
+      if (afterLength != null) len += afterLength;
+      freeBlocks.put(start, len);
+      freeSpace += length;
+    }
+
+    /**
+     * @return the total free space in this segment.
+     */
+    synchronized long getFreeSpace() {
+      return freeSpace;
+    }
+
+    @Override
+    public String toString() {
+      return new StringBuilder(getClass().getSimpleName()).append('[')
+        .append("index=").append(index)
+        .append(", freeSpace=").append(getFreeSpace())
+        .append(']').toString();
+    }
+  }
+}
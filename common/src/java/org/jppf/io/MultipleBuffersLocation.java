@@ -299,6 +299,14 @@ public class MultipleBuffersLocation extends AbstractDataLocation {
     return (n == 0) ? firstBuffer : list[n];
   }
 
+  /**
+   * Get the number of buffers that hold the data.
+   * @return the number of buffers.
+   */
+  public int getBufferCount() {
+    return list.length;
+  }
+
   /**
    * Reset the state of this location.
    * @return this location, for method call chaining.
@@ -0,0 +1,110 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jppf.io;
+
+import java.io.OutputStream;
+
+/**
+ * A block compression algorithm applied to the serialized payloads sent over the network.
+ * <p>Implementations must be thread-safe: a single instance of each codec is shared by all the connections, and the compressor
+ * and decompressor instances it relies on are reused across calls.
+ * @author Laurent Cohen
+ */
+public abstract class PayloadCodec {
+  /**
+   * The identifier of this codec in the frame headers.
+   */
+  private final byte id;
+  /**
+   * The name of this codec, used in the configuration and during the handshake.
+   */
+  private final String name;
+
+  /**
+   * Initialize this codec with the specified id and name.
+   * @param id the identifier of this codec in the frame headers, in the range [1, 31].
+   * @param name the name of this codec.
+   */
+  protected PayloadCodec(final int id, final String name) {
+    if ((id < 1) || (id > 31)) throw new IllegalArgumentException("codec id must be in the range [1, 31], but is " + id);
+    this.id = (byte) id;
+    this.name = name;
+  }
+
+  /**
+   * @return the identifier of this codec in the frame headers.
+   */
+  public byte getId() {
+    return id;
+  }
+
+  /**
+   * @return the name of this codec.
+   */
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * Compress the specified data.
+   * @param src the data to compress.
+   * @param srcLen the number of bytes to compress, starting at offset 0.
+   * @param dest the array in which to write the compressed data.
+   * @param destOff the offset at which to start writing in {@code dest}.
+   * @param maxLen the maximum size of the compressed data.
+   * @return the size of the compressed data, or -1 if it would exceed {@code maxLen}.
+   * @throws Exception if any error occurs.
+   */
+  public abstract int compress(byte[] src, int srcLen, byte[] dest, int destOff, int maxLen) throws Exception;
+
+  /**
+   * Decompress the specified data.
+   * @param src the compressed data.
+   * @param srcOff the offset of the compressed data in {@code src}.
+   * @param srcLen the size of the compressed data.
+   * @param dest the array in which to write the decompressed data, starting at offset 0. Its length is the size of the decompressed data.
+   * @throws Exception if any error occurs.
+   */
+  public abstract void decompress(byte[] src, int srcOff, int srcLen, byte[] dest) throws Exception;
+
+  /**
+   * Decompress the specified data to a stream. This is used when the decompressed data does not fit in memory.
+   * <p>This implementation decompresses the whole data into an array, then writes it to the stream. Codecs which can decompress
+   * the data incrementally should override it.
+   * @param src the compressed data.
+   * @param srcOff the offset of the compressed data in {@code src}.
+   * @param srcLen the size of the compressed data.
+   * @param originalSize the size of the decompressed data.
+   * @param out the stream to write the decompressed data to.
+   * @throws Exception if any error occurs.
+   */
+  public void decompress(final byte[] src, final int srcOff, final int srcLen, final int originalSize, final OutputStream out) throws Exception {
+    final byte[] dest = new byte[originalSize];
+    decompress(src, srcOff, srcLen, dest);
+    out.write(dest);
+  }
+
+  @Override
+  public String toString() {
+    return new StringBuilder(getClass().getSimpleName()).append('[')
+      .append("id=").append(id)
+      .append(", name=").append(name)
+      .append(']').toString();
+  }
+}
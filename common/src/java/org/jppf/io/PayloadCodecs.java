@@ -0,0 +1,295 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jppf.io;
+
+import java.io.*;
+import java.util.*;
+import java.util.regex.Pattern;
+
+import org.jppf.serialization.SerializationUtils;
+import org.jppf.utils.*;
+import org.jppf.utils.configuration.JPPFProperties;
+import org.slf4j.*;
+
+/**
+ * Registry of the available {@link PayloadCodec payload codecs}, along with the methods that encode and decode compressed frames.
+ * <p>A compressed frame is self-describing: it starts with a {@link #HEADER_SIZE 9 bytes} header made of a 4 bytes magic number,
+ * the id of the codec and the size of the uncompressed data, followed by the compressed data. Since {@link IOHelper#unwrappedData(DataLocation, org.jppf.serialization.ObjectSerializer)}
+ * recognizes and decodes compressed frames transparently, only the sender needs to know whether to compress. This is determined
+ * during the handshake of each connection, where the peers exchange the names of the codecs they support: a peer which does not advertise any codec,
+ * such as an older version, never receives compressed frames.
+ * @author Laurent Cohen
+ */
+public final class PayloadCodecs {
+  /**
+   * Logger for this class.
+   */
+  private static final Logger log = LoggerFactory.getLogger(PayloadCodecs.class);
+  /**
+   * Determines whether DEBUG logging level is enabled.
+   */
+  private static final boolean debugEnabled = log.isDebugEnabled();
+  /**
+   * Determines whether TRACE logging level is enabled.
+   */
+  private static final boolean traceEnabled = log.isTraceEnabled();
+  /**
+   * The magic number at the start of a compressed frame. It cannot be mistaken for the start of a stream produced by the JPPF or Java serialization.
+   */
+  private static final byte[] MAGIC = { (byte) 0xCA, (byte) 0xFE, 'Z', 'C' };
+  /**
+   * The size of the header of a compressed frame.
+   */
+  public static final int HEADER_SIZE = MAGIC.length + 5;
+  /**
+   * A codec mask which accepts all the codecs. It is used for the peers to which no compressed frame can be relayed, in which case
+   * {@link #decodeIfNotAccepted(DataLocation, int)} does not even need to check the data.
+   */
+  public static final int ALL_CODECS = -1;
+  /**
+   * The separator in lists of codec names.
+   */
+  private static final Pattern NAMES_SEPARATOR = Pattern.compile("[,\\s]+");
+  /**
+   * The maximum size of decompressed data. It protects against frames which declare a size much larger than what their compressed data holds.
+   */
+  private static final long MAX_DECODED_SIZE = JPPFConfiguration.get(JPPFProperties.PAYLOAD_MAX_DECODED_SIZE) * 1024L * 1024L;
+  /**
+   * The available codecs, indexed by id.
+   */
+  private static final PayloadCodec[] CODECS = new PayloadCodec[32];
+  /**
+   * The available codecs, indexed by name.
+   */
+  private static final Map<String, PayloadCodec> CODECS_BY_NAME = new LinkedHashMap<>();
+  static {
+    register(new DeflatePayloadCodec());
+    try {
+      Class.forName("net.jpountz.lz4.LZ4Factory", false, PayloadCodecs.class.getClassLoader());
+      register(new LZ4PayloadCodec());
+    } catch (final Exception | LinkageError e) {
+      if (debugEnabled) log.debug("the {} payload codec is not available: {}", LZ4PayloadCodec.NAME, e.toString());
+    }
+  }
+
+  /**
+   * Instantiation is not permitted.
+   */
+  private PayloadCodecs() {
+  }
+
+  /**
+   * Register the specified codec.
+   * @param codec the codec to register.
+   */
+  private static void register(final PayloadCodec codec) {
+    CODECS[codec.getId()] = codec;
+    CODECS_BY_NAME.put(codec.getName(), codec);
+  }
+
+  /**
+   * Get the codec with the specified name.
+   * @param name the name of the codec.
+   * @return a {@link PayloadCodec} instance, or {@code null} if the name is {@code null} or there is no available codec with this name.
+   */
+  public static PayloadCodec getCodec(final String name) {
+    return (name == null) ? null : CODECS_BY_NAME.get(name.trim().toLowerCase());
+  }
+
+  /**
+   * Get the available codecs whose names are in the specified list, in the same order.
+   * @param names a comma- or space-separated list of codec names.
+   * @return a list of {@link PayloadCodec} instances, possibly empty.
+   */
+  public static List<PayloadCodec> getCodecs(final String names) {
+    final List<PayloadCodec> result = new ArrayList<>();
+    if (names == null) return result;
+    for (final String name: NAMES_SEPARATOR.split(names.trim())) {
+      if (name.isEmpty()) continue;
+      final PayloadCodec codec = getCodec(name);
+      if (codec == null) {
+        if (debugEnabled) log.debug("ignoring unknown or unavailable payload codec '{}'", name);
+      } else if (!result.contains(codec)) result.add(codec);
+    }
+    return result;
+  }
+
+  /**
+   * Get the names of the available codecs that are enabled in the specified configuration, as advertised during a handshake.
+   * @param config the configuration to read the codec names from.
+   * @return a comma-separated list of codec names in order of preference, or {@code null} if payload compression is disabled.
+   */
+  public static String getAdvertisedCodecs(final TypedProperties config) {
+    final List<PayloadCodec> codecs = getCodecs(config.get(JPPFProperties.PAYLOAD_CODECS));
+    if (codecs.isEmpty()) return null;
+    final StringBuilder sb = new StringBuilder();
+    for (final PayloadCodec codec: codecs) {
+      if (sb.length() > 0) sb.append(',');
+      sb.append(codec.getName());
+    }
+    return sb.toString();
+  }
+
+  /**
+   * Determine the codecs that both peers of a connection support.
+   * @param local the comma-separated list of codecs enabled locally.
+   * @param remote the comma-separated list of codecs advertised by the remote peer, in its order of preference.
+   * @return the codecs supported by both peers in the order of preference of the remote peer, possibly empty.
+   */
+  public static List<PayloadCodec> negotiate(final String local, final String remote) {
+    final List<PayloadCodec> result = getCodecs(remote);
+    result.retainAll(getCodecs(local));
+    return result;
+  }
+
+  /**
+   * Compute a bit mask of the ids of the specified codecs.
+   * @param codecs the codecs to include in the mask.
+   * @return a bit mask where the bit at position {@code codec.getId()} is set for each codec.
+   */
+  public static int toMask(final Collection<PayloadCodec> codecs) {
+    int mask = 0;
+    for (final PayloadCodec codec: codecs) mask |= 1 << codec.getId();
+    return mask;
+  }
+
+  /**
+   * Compute the mask of the codecs accepted by the remote peer of a connection.
+   * @param local the comma-separated list of codecs enabled locally.
+   * @param negotiated the codecs supported by both peers, as computed by {@link #negotiate(String, String)}.
+   * @return {@link #ALL_CODECS} if no codec is enabled locally, since no compressed frame can then be received from any other peer,
+   * otherwise a bit mask of the negotiated codecs.
+   */
+  public static int acceptedMask(final String local, final List<PayloadCodec> negotiated) {
+    return getCodecs(local).isEmpty() ? ALL_CODECS : toMask(negotiated);
+  }
+
+  /**
+   * Compress the specified serialized data into a frame, if it is held in memory and its size is at least the specified threshold.
+   * @param dl the data to compress.
+   * @param codec the codec to use, may be {@code null}.
+   * @param threshold the size below which the data is not compressed.
+   * @return a location with the compressed frame, or {@code dl} itself if the data was not compressed.
+   * @throws Exception if any error occurs.
+   */
+  public static DataLocation encode(final DataLocation dl, final PayloadCodec codec, final int threshold) throws Exception {
+    if ((codec == null) || !(dl instanceof MultipleBuffersLocation)) return dl;
+    final int size = dl.getSize();
+    if ((size < threshold) || (size <= HEADER_SIZE)) return dl;
+    final byte[] src = toArray(dl);
+    byte[] dest = new byte[size];
+    // only keep the compressed form if the whole frame is smaller than the original data
+    final int n = codec.compress(src, size, dest, HEADER_SIZE, size - HEADER_SIZE - 1);
+    if (n < 0) {
+      if (traceEnabled) log.trace("{} did not reduce the size of {} bytes", codec.getName(), size);
+      return dl;
+    }
+    final int frameSize = HEADER_SIZE + n;
+    System.arraycopy(MAGIC, 0, dest, 0, MAGIC.length);
+    dest[MAGIC.length] = codec.getId();
+    SerializationUtils.writeInt(size, dest, MAGIC.length + 1);
+    if (frameSize < size - size / 4) dest = Arrays.copyOf(dest, frameSize);
+    if (traceEnabled) log.trace("{} compressed {} bytes to {}", codec.getName(), size, frameSize);
+    return new MultipleBuffersLocation(new JPPFBuffer(dest, frameSize));
+  }
+
+  /**
+   * Decompress the specified data if it is a compressed frame.
+   * @param dl the data to decompress.
+   * @return a location with the decompressed data, or {@code dl} itself if it is not a compressed frame.
+   * @throws Exception if any error occurs.
+   */
+  public static DataLocation decode(final DataLocation dl) throws Exception {
+    if (getCodecId(dl) < 0) return dl;
+    final int size = dl.getSize();
+    final byte[] src = toArray(dl);
+    final PayloadCodec codec = CODECS[src[MAGIC.length]];
+    if (codec == null) throw new IOException("unknown or unavailable payload codec with id " + src[MAGIC.length]);
+    final int originalSize = SerializationUtils.readInt(src, MAGIC.length + 1);
+    if ((originalSize < 0) || (originalSize > MAX_DECODED_SIZE))
+      throw new IOException("invalid size " + originalSize + " in " + codec.getName() + " frame header, the maximum size is " + MAX_DECODED_SIZE);
+    final DataLocation result = IOHelper.createDataLocationMemorySensitive(originalSize);
+    if ((result instanceof MultipleBuffersLocation) && (((MultipleBuffersLocation) result).getBuffer(0).buffer.length == originalSize))
+      codec.decompress(src, HEADER_SIZE, size - HEADER_SIZE, ((MultipleBuffersLocation) result).getBuffer(0).buffer);
+    else {
+      try (OutputStream os = result.getOutputStream()) {
+        codec.decompress(src, HEADER_SIZE, size - HEADER_SIZE, originalSize, os);
+      }
+    }
+    if (traceEnabled) log.trace("{} decompressed {} bytes to {}", codec.getName(), size, originalSize);
+    return result;
+  }
+
+  /**
+   * Decompress the specified data if it is a compressed frame whose codec is not in the specified set.
+   * This allows the driver to relay compressed frames as is to the peers that support their codec, and to decode them for the other peers.
+   * @param dl the data to check.
+   * @param acceptedMask a bit mask of the ids of the codecs supported by the peer the data is sent to, as computed by {@link #toMask(Collection)}.
+   * @return a location with the decompressed data, or {@code dl} itself if it can be sent as is.
+   * @throws Exception if any error occurs.
+   */
+  public static DataLocation decodeIfNotAccepted(final DataLocation dl, final int acceptedMask) throws Exception {
+    if (acceptedMask == ALL_CODECS) return dl;
+    final int id = getCodecId(dl);
+    if ((id < 0) || ((acceptedMask & (1 << id)) != 0)) return dl;
+    return decode(dl);
+  }
+
+  /**
+   * Get the id of the codec with which the specified data was compressed.
+   * @param dl the data to check.
+   * @return the codec id, or -1 if the data is not a compressed frame.
+   * @throws Exception if any error occurs.
+   */
+  public static int getCodecId(final DataLocation dl) throws Exception {
+    if ((dl == null) || (dl.getSize() <= HEADER_SIZE)) return -1;
+    final byte[] header;
+    if ((dl instanceof MultipleBuffersLocation) && (((MultipleBuffersLocation) dl).getBuffer(0).length >= HEADER_SIZE)) header = ((MultipleBuffersLocation) dl).getBuffer(0).buffer;
+    else {
+      header = new byte[HEADER_SIZE];
+      try (DataInputStream is = new DataInputStream(dl.getInputStream())) {
+        is.readFully(header);
+      }
+    }
+    for (int i=0; i<MAGIC.length; i++) {
+      if (header[i] != MAGIC[i]) return -1;
+    }
+    final int id = header[MAGIC.length];
+    return ((id > 0) && (id < CODECS.length)) ? id : -1;
+  }
+
+  /**
+   * Get the data in the specified location as a single array.
+   * @param dl the location to read.
+   * @return an array whose first {@code dl.getSize()} bytes are the data, possibly larger.
+   * @throws Exception if any error occurs.
+   */
+  private static byte[] toArray(final DataLocation dl) throws Exception {
+    final int size = dl.getSize();
+    if ((dl instanceof MultipleBuffersLocation) && (((MultipleBuffersLocation) dl).getBufferCount() == 1)) {
+      final byte[] buffer = ((MultipleBuffersLocation) dl).getBuffer(0).buffer;
+      if (buffer.length >= size) return buffer;
+    }
+    final byte[] data = new byte[size];
+    try (DataInputStream is = new DataInputStream(dl.getInputStream())) {
+      is.readFully(data);
+    }
+    return data;
+  }
+}
@@ -0,0 +1,101 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jppf.io;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jppf.utils.JPPFBuffer;
+import org.slf4j.*;
+
+/**
+ * An in-memory data location whose buffer was obtained from a {@link BufferPool}.
+ * <p>The buffer may be larger than the data it holds. It is returned to the pool when the number of references, initially 1,
+ * drops to zero. Copies obtained with {@link #copy()} share the same buffer but do not own a reference:
+ * they must not be used after the last reference has been released.
+ * @author Laurent Cohen
+ */
+public class PooledBuffersLocation extends MultipleBuffersLocation {
+  /**
+   * Logger for this class.
+   */
+  private static final Logger log = LoggerFactory.getLogger(PooledBuffersLocation.class);
+  /**
+   * Determines whether DEBUG logging level is enabled.
+   */
+  private static final boolean debugEnabled = log.isDebugEnabled();
+  /**
+   * The pool the buffer comes from.
+   */
+  private final BufferPool pool;
+  /**
+   * The pooled buffer.
+   */
+  private final byte[] buffer;
+  /**
+   * The number of references to this location.
+   */
+  private final AtomicInteger refCount = new AtomicInteger(1);
+
+  /**
+   * Initialize this location with the specified pooled buffer.
+   * @param pool the pool the buffer comes from.
+   * @param buffer the pooled buffer, whose length is at least {@code size}.
+   * @param size the size of the data.
+   */
+  PooledBuffersLocation(final BufferPool pool, final byte[] buffer, final int size) {
+    super(size, new JPPFBuffer(buffer, size));
+    this.pool = pool;
+    this.buffer = buffer;
+  }
+
+  /**
+   * Add a reference to this location.
+   * @return this location, for method call chaining.
+   * @throws IllegalStateException if this location was already released.
+   */
+  public PooledBuffersLocation retain() {
+    int n;
+    do {
+      n = refCount.get();
+      if (n <= 0) throw new IllegalStateException("location already released: " + this);
+    } while (!refCount.compareAndSet(n, n + 1));
+    return this;
+  }
+
+  /**
+   * Remove a reference to this location, and return its buffer to the pool if it was the last one.
+   * @return {@code true} if the buffer was returned to the pool, {@code false} otherwise.
+   */
+  public boolean release() {
+    final int n = refCount.decrementAndGet();
+    if (n == 0) {
+      pool.release(buffer);
+      return true;
+    }
+    if ((n < 0) && debugEnabled) log.debug("location released more than once: {}", this);
+    return false;
+  }
+
+  /**
+   * @return the current number of references to this location.
+   */
+  public int getRefCount() {
+    return refCount.get();
+  }
+}
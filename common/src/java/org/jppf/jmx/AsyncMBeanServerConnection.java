@@ -0,0 +1,57 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jppf.jmx;
+
+import java.util.concurrent.CompletableFuture;
+
+import javax.management.*;
+
+/**
+ * Implemented by the {@link MBeanServerConnection}s which can send a request without blocking the calling thread until the response arrives.
+ * The requests sent this way share the same connection with the other requests and notifications.
+ * @author Laurent Cohen
+ * @exclude
+ */
+public interface AsyncMBeanServerConnection {
+  /**
+   * Invoke an operation on a remote MBean.
+   * @param name the name of the MBean.
+   * @param operationName the name of the operation to invoke.
+   * @param params the operation parameter values.
+   * @param signature the types of the operation parameters.
+   * @return a future completed with the result of the operation, or completed exceptionally if the operation failed.
+   */
+  CompletableFuture<Object> invokeAsync(ObjectName name, String operationName, Object[] params, String[] signature);
+
+  /**
+   * Get the value of an attribute of a remote MBean.
+   * @param name the name of the MBean.
+   * @param attribute the name of the attribute.
+   * @return a future completed with the value of the attribute, or completed exceptionally if the operation failed.
+   */
+  CompletableFuture<Object> getAttributeAsync(ObjectName name, String attribute);
+
+  /**
+   * Set the value of an attribute of a remote MBean.
+   * @param name the name of the MBean.
+   * @param attribute the attribute to set.
+   * @return a future completed with {@code null} when the attribute is set, or completed exceptionally if the operation failed.
+   */
+  CompletableFuture<Object> setAttributeAsync(ObjectName name, Attribute attribute);
+}
@@ -156,6 +156,10 @@ public class JMXHelper {
    * Identifier for a notification.
    */
   public static final byte NOTIFICATION = 28;
+  /**
+   * Identifier for a batch of notifications.
+   */
+  public static final byte NOTIFICATION_BATCH = 29;
   /**
    * A non-modifiable mapping of type values to readable names.
    */
@@ -211,6 +215,7 @@ public class JMXHelper {
     map.put(SET_ATTRIBUTES, "SET_ATTRIBUTES");
     map.put(UNREGISTER_MBEAN, "UNREGISTER_MBEAN");
     map.put(NOTIFICATION, "NOTIFICATION");
+    map.put(NOTIFICATION_BATCH, "NOTIFICATION_BATCH");
     return map;
   }
 }
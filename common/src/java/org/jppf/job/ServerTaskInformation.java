@@ -133,12 +133,13 @@ public class ServerTaskInformation implements Serializable {
 
   /**
    * Get an input stream of the task's result data, which can be desrialized as a {@link Task}.
+   * If the result was compressed by the node, the stream provides the decompressed data.
    * @return an {@link InputStream}, or {@code null} if no result could be obtained.
    * @throws Exception if any error occurs getting the stream.
    */
   public InputStream getResultAsStream() throws Exception {
     if (result == null) return null;
-    return result.getInputStream();
+    return PayloadCodecs.decode(result).getInputStream();
   }
 
   /**
@@ -21,6 +21,7 @@ package org.jppf.job.persistence.impl;
 import java.io.InputStream;
 import java.util.*;
 import java.util.concurrent.*;
+import java.util.concurrent.locks.*;
 
 import org.jppf.job.persistence.*;
 import org.jppf.utils.*;
@@ -46,6 +47,14 @@ import org.slf4j.*;
  * <span style="color: green"># asynchronous database persistence with pool of 4 threads,</span>
  * <span style="color: green"># a table named 'JPPF_TEST' and datasource named 'JobDS'</span>
  * jppf.job.persistence = ${pkg}.AsynchronousPersistence 4 ${pkg}.DefaultDatabasePersistence JPPF_TEST JobDS</pre>
+ *
+ * <p>The store and delete operations are queued per job and performed in the order in which they were requested, by at most one thread at a time for a given job.
+ * Elements of a job that are stored again before a previous version was written are coalesced, such that only their latest version is written, and all the
+ * elements of a job waiting to be written are passed to the wrapped persistence in a single store operation. The operations which read the persisted jobs
+ * wait until the pending writes for the corresponding jobs are done.
+ * <p>The number of job elements waiting to be written is bounded by the {@code jppf.job.persistence.max.pending.writes} configuration property: when this limit is
+ * reached, store operations block until enough pending elements are written. Additionally, when the heap usage exceeds the {@code jppf.job.persistence.memory.threshold}
+ * percentage, store and delete operations block until they are performed.
  * @author Laurent Cohen
  */
 public class AsynchronousPersistence implements JobPersistence {
@@ -74,6 +83,26 @@ public class AsynchronousPersistence implements JobPersistence {
    * When the used heap passes below this threshold, the asynchronous mode resumes.
    */
   private static final double MEMORY_THRESHOLD = JPPFConfiguration.get(JPPFProperties.JOB_PERSISTENCE_MEMORY_THRESHOLD);
+  /**
+   * Maximum number of job elements waiting to be written, above which the store operations block.
+   */
+  private static final int MAX_PENDING_WRITES = JPPFConfiguration.get(JPPFProperties.JOB_PERSISTENCE_MAX_PENDING_WRITES);
+  /**
+   * The pending write operations, mapped to the uuid of their job.
+   */
+  private final Map<String, JobWrites> pendingWrites = new HashMap<>();
+  /**
+   * Guards the access to {@link #pendingWrites} and {@link #pendingCount}.
+   */
+  private final Lock lock = new ReentrantLock();
+  /**
+   * Signalled each time pending write operations are performed.
+   */
+  private final Condition writesDone = lock.newCondition();
+  /**
+   * The number of job elements waiting to be written or being written.
+   */
+  private int pendingCount;
 
   /**
    * Initialize this persistence with the specified parameters.
@@ -101,20 +130,27 @@ public class AsynchronousPersistence implements JobPersistence {
   @Override
   public void store(final Collection<PersistenceInfo> infos) throws JobPersistenceException {
     if (debugEnabled) log.debug("storing {}", infos);
-    if (SystemUtils.heapUsagePct() >= MEMORY_THRESHOLD) delegate.store(infos);
-    else {
-      execute(new PersistenceTask<Void>(false) {
-        @Override
-        public Void execute() throws JobPersistenceException {
-          delegate.store(infos);
-          return null;
-        }
-      });
+    if (infos.isEmpty()) return;
+    final String uuid = infos.iterator().next().getJobUuid();
+    lock.lock();
+    try {
+      while (pendingCount >= MAX_PENDING_WRITES) writesDone.await();
+      final JobWrites writes = getJobWrites(uuid);
+      for (final PersistenceInfo info: infos) {
+        if (writes.infos.put(key(info), info) == null) pendingCount++;
+      }
+      schedule(writes);
+      if (SystemUtils.heapUsagePct() >= MEMORY_THRESHOLD) awaitCompletion(writes);
+    } catch (final InterruptedException e) {
+      throw new JobPersistenceException(e);
+    } finally {
+      lock.unlock();
     }
   }
 
   @Override
   public List<InputStream> load(final Collection<PersistenceInfo> infos) throws JobPersistenceException {
+    if (!infos.isEmpty()) awaitWrites(infos.iterator().next().getJobUuid());
     if (SystemUtils.heapUsagePct() >= MEMORY_THRESHOLD) return delegate.load(infos);
     return submit(new PersistenceTask<List<InputStream>>(true) {
       @Override
@@ -126,6 +162,7 @@ public class AsynchronousPersistence implements JobPersistence {
 
   @Override
   public List<String> getPersistedJobUuids() throws JobPersistenceException {
+    awaitWrites(null);
     if (SystemUtils.heapUsagePct() >= MEMORY_THRESHOLD) return delegate.getPersistedJobUuids();
     return submit(new PersistenceTask<List<String>>(true) {
       @Override
@@ -153,6 +190,7 @@ public class AsynchronousPersistence implements JobPersistence {
    * @throws JobPersistenceException if any error occurs.
    */
   private int[] getPositions(final String jobUuid, final PersistenceObjectType type) throws JobPersistenceException {
+    awaitWrites(jobUuid);
     if (SystemUtils.heapUsagePct() >= MEMORY_THRESHOLD) return (type == PersistenceObjectType.TASK) ? delegate.getTaskPositions(jobUuid) : delegate.getTaskResultPositions(jobUuid);
     return submit(new PersistenceTask<int[]>(true) {
       @Override
@@ -164,18 +202,27 @@ public class AsynchronousPersistence implements JobPersistence {
 
   @Override
   public void deleteJob(final String jobUuid) throws JobPersistenceException {
-    if (SystemUtils.heapUsagePct() >= MEMORY_THRESHOLD) delegate.deleteJob(jobUuid);
-    else execute(new PersistenceTask<Void>(false) {
-      @Override
-      public Void execute() throws JobPersistenceException {
-        delegate.deleteJob(jobUuid);
-        return null;
-      }
-    });
+    if (debugEnabled) log.debug("deleting job with uuid = {}", jobUuid);
+    lock.lock();
+    try {
+      final JobWrites writes = getJobWrites(jobUuid);
+      // the elements not yet written would be deleted anyway
+      pendingCount -= writes.infos.size();
+      writes.infos.clear();
+      writes.delete = true;
+      writesDone.signalAll();
+      schedule(writes);
+      if (SystemUtils.heapUsagePct() >= MEMORY_THRESHOLD) awaitCompletion(writes);
+    } catch (final InterruptedException e) {
+      throw new JobPersistenceException(e);
+    } finally {
+      lock.unlock();
+    }
   }
 
   @Override
   public boolean isJobPersisted(final String jobUuid) throws JobPersistenceException {
+    awaitWrites(jobUuid);
     if (SystemUtils.heapUsagePct() >= MEMORY_THRESHOLD) return delegate.isJobPersisted(jobUuid);
     return submit(new PersistenceTask<Boolean>(true) {
       @Override
@@ -191,7 +238,73 @@ public class AsynchronousPersistence implements JobPersistence {
    */
   private static ExecutorService createExecutor(final int max) {
     final LinkedBlockingQueue<Runnable> queue = new LinkedBlockingQueue<>();
-    return new ThreadPoolExecutor(1, max, 0L, TimeUnit.MILLISECONDS, queue, new JPPFThreadFactory("AsyncPersistence"));
+    // with an unbounded queue, the pool never grows beyond its core size
+    final ThreadPoolExecutor executor = new ThreadPoolExecutor(max, max, 15L, TimeUnit.SECONDS, queue, new JPPFThreadFactory("AsyncPersistence"));
+    executor.allowCoreThreadTimeOut(true);
+    return executor;
+  }
+
+  /**
+   * Get the pending write operations for the specified job, creating them if needed. This method must be called while holding {@link #lock}.
+   * @param uuid the uuid of the job.
+   * @return a {@link JobWrites} instance.
+   */
+  private JobWrites getJobWrites(final String uuid) {
+    JobWrites writes = pendingWrites.get(uuid);
+    if (writes == null) pendingWrites.put(uuid, writes = new JobWrites(uuid));
+    writes.submitted++;
+    return writes;
+  }
+
+  /**
+   * Schedule the execution of the pending write operations for a job, unless it is already scheduled. This method must be called while holding {@link #lock}.
+   * @param writes the pending write operations.
+   */
+  private void schedule(final JobWrites writes) {
+    if (!writes.scheduled) {
+      writes.scheduled = true;
+      executor.execute(new WriteTask(writes));
+    }
+  }
+
+  /**
+   * Wait until the write operations requested so far for the specified job are performed.
+   * @param uuid the uuid of the job, or {@code null} to wait for the write operations of all the jobs.
+   * @throws JobPersistenceException if the current thread is interrupted while waiting.
+   */
+  private void awaitWrites(final String uuid) throws JobPersistenceException {
+    lock.lock();
+    try {
+      if (uuid != null) {
+        final JobWrites writes = pendingWrites.get(uuid);
+        if (writes != null) awaitCompletion(writes);
+      } else {
+        for (final JobWrites writes: new ArrayList<>(pendingWrites.values())) awaitCompletion(writes);
+      }
+    } catch (final InterruptedException e) {
+      throw new JobPersistenceException(e);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Wait until the write operations requested so far for a job are performed. This method must be called while holding {@link #lock}.
+   * @param writes the pending write operations of the job.
+   * @throws InterruptedException if the current thread is interrupted while waiting.
+   */
+  private void awaitCompletion(final JobWrites writes) throws InterruptedException {
+    final long target = writes.submitted;
+    while (writes.completed < target) writesDone.await();
+  }
+
+  /**
+   * Compute the key of a job element within its job.
+   * @param info the information on the job element.
+   * @return a key combining the type and position of the job element.
+   */
+  private static Long key(final PersistenceInfo info) {
+    return ((long) info.getType().ordinal() << 32) | (info.getPosition() & 0xFFFF_FFFFL);
   }
 
   /**
@@ -220,12 +333,102 @@ public class AsynchronousPersistence implements JobPersistence {
   }
 
   /**
-   * Submit the specified persistence task for execution some time in the future.
-   * @param task the task to execute.
-   * @param <T> the type of result the task returns.
+   * The write operations of a job that are not yet performed.
+   */
+  private static final class JobWrites {
+    /**
+     * The uuid of the job.
+     */
+    private final String uuid;
+    /**
+     * The elements to store, mapped to their {@linkplain AsynchronousPersistence#key(PersistenceInfo) key}, in the order in which they were first stored.
+     */
+    private final Map<Long, PersistenceInfo> infos = new LinkedHashMap<>();
+    /**
+     * Whether the job must be deleted before the elements are stored.
+     */
+    private boolean delete;
+    /**
+     * Whether a {@link WriteTask} is scheduled or running for the job.
+     */
+    private boolean scheduled;
+    /**
+     * The number of store and delete operations requested for the job.
+     */
+    private long submitted;
+    /**
+     * The number of store and delete operations performed for the job.
+     */
+    private long completed;
+
+    /**
+     * Initialize with the specified job uuid.
+     * @param uuid the uuid of the job.
+     */
+    private JobWrites(final String uuid) {
+      this.uuid = uuid;
+    }
+  }
+
+  /**
+   * Performs the pending write operations of a job, until there are none left.
    */
-  private <T> void execute(final PersistenceTask<T> task) {
-    executor.execute(task);
+  private final class WriteTask implements Runnable {
+    /**
+     * The pending write operations of the job.
+     */
+    private final JobWrites writes;
+
+    /**
+     * Initialize with the specified pending write operations.
+     * @param writes the pending write operations of the job.
+     */
+    private WriteTask(final JobWrites writes) {
+      this.writes = writes;
+    }
+
+    @Override
+    public void run() {
+      while (true) {
+        final boolean delete;
+        final List<PersistenceInfo> batch;
+        final long target;
+        lock.lock();
+        try {
+          if (!writes.delete && writes.infos.isEmpty()) {
+            writes.scheduled = false;
+            pendingWrites.remove(writes.uuid);
+            writesDone.signalAll();
+            return;
+          }
+          delete = writes.delete;
+          writes.delete = false;
+          batch = new ArrayList<>(writes.infos.values());
+          writes.infos.clear();
+          target = writes.submitted;
+        } finally {
+          lock.unlock();
+        }
+        try {
+          if (delete) delegate.deleteJob(writes.uuid);
+          if (!batch.isEmpty()) {
+            if (traceEnabled) log.trace("writing {} elements of job uuid={}", batch.size(), writes.uuid);
+            delegate.store(batch);
+          }
+        } catch (final Exception e) {
+          log.error(e.getMessage(), e);
+        } finally {
+          lock.lock();
+          try {
+            pendingCount -= batch.size();
+            writes.completed = target;
+            writesDone.signalAll();
+          } finally {
+            lock.unlock();
+          }
+        }
+      }
+    }
   }
 
   /**
@@ -26,6 +26,7 @@ import org.jppf.job.persistence.*;
 import org.jppf.persistence.AbstractDatabasePersistence;
 import org.jppf.utils.*;
 import org.jppf.utils.configuration.JPPFProperties;
+import org.jppf.utils.streams.StreamUtils;
 import org.slf4j.*;
 
 /**
@@ -87,6 +88,10 @@ import org.slf4j.*;
  * jppf.datasource.jobs.maximumPoolSize = 10
  * jppf.datasource.jobs.connectionTimeout = 30000
  * jppf.datasource.jobs.idleTimeout = 600000</pre>
+ *
+ * <p>Job elements are stored with JDBC batches of at most {@code jppf.persistence.jdbc.batch.size} rows. When loading job elements, those whose size
+ * exceeds {@code jppf.job.persistence.stream.threshold} bytes are not read in memory: the returned stream reads them directly from the database,
+ * using a connection obtained upon the first read and released once the stream is closed or fully read.
  * @author Laurent Cohen
  */
 public class DefaultDatabasePersistence extends AbstractDatabasePersistence<PersistenceInfo> implements JobPersistence {
@@ -110,6 +115,10 @@ public class DefaultDatabasePersistence extends AbstractDatabasePersistence<Pers
    * Whether to wrap input streams into buffered input streams.
    */
   private final boolean bufferStreams = JPPFConfiguration.getProperties().getBoolean("jppf.job.persistence.bufferStreams", true);
+  /**
+   * Size in bytes above which a job element is streamed from the database instead of being loaded in memory.
+   */
+  private final int streamThreshold = JPPFConfiguration.get(JPPFProperties.JOB_PERSISTENCE_STREAM_THRESHOLD);
 
   /**
    * Intialize this persistence with the {@linkplain #DEFAULT_TABLE default table name}.
@@ -141,7 +150,7 @@ public class DefaultDatabasePersistence extends AbstractDatabasePersistence<Pers
       connection.setAutoCommit(false);
       try {
         connection.setTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
-        for (PersistenceInfo info: infos) storeElement(connection, info, null);
+        storeElements(connection, (infos instanceof List) ? (List<PersistenceInfo>) infos : new ArrayList<>(infos), null);
         connection.commit();
         if (debugEnabled) log.debug("commit done");
       } catch(final Exception e) {
@@ -166,10 +175,11 @@ public class DefaultDatabasePersistence extends AbstractDatabasePersistence<Pers
       connection.setAutoCommit(false);
       try {
         final List<InputStream> result = new ArrayList<>(infos.size());
-        for (PersistenceInfo info: infos) {
-          try (PreparedStatement ps = prepareLoadStatement(connection, info)) {
+        try (PreparedStatement ps = connection.prepareStatement(getSQL("load.sql"))) {
+          for (PersistenceInfo info: infos) {
+            setLoadParameters(ps, info);
             try (ResultSet rs= ps.executeQuery()) {
-              if (rs.next()) result.add(getInputStream(rs.getBinaryStream(1)));
+              if (rs.next()) result.add(loadElement(rs.getBlob(1), info));
             }
           }
         }
@@ -291,12 +301,8 @@ public class DefaultDatabasePersistence extends AbstractDatabasePersistence<Pers
   /** @exclude */
   @Override
   protected void insertElement(final Connection connection, final PersistenceInfo info, final byte[] bytes) throws Exception {
-    try (final PreparedStatement ps = connection.prepareStatement(getSQL("store.insert.sql"))) {
-      final InputStream is = getInputStream(info.getInputStream());
-      ps.setString(1, info.getJobUuid());
-      ps.setString(2, info.getType().name());
-      ps.setInt(3, info.getPosition());
-      ps.setBlob(4, is);
+    try (final PreparedStatement ps = connection.prepareStatement(getInsertSQL())) {
+      setInsertParameters(ps, info, bytes);
       ps.executeUpdate();
     }
   }
@@ -304,29 +310,76 @@ public class DefaultDatabasePersistence extends AbstractDatabasePersistence<Pers
   /** @exclude */
   @Override
   protected void updateElement(final Connection connection, final PersistenceInfo info, final byte[] bytes) throws Exception {
-    try (PreparedStatement ps2 = connection.prepareStatement(getSQL("store.update.sql"))) {
-      final InputStream is = getInputStream(info.getInputStream());
-      ps2.setBlob(1, is);
-      ps2.setString(2, info.getJobUuid());
-      ps2.setString(3, info.getType().name());
-      ps2.setInt(4, info.getPosition());
+    try (PreparedStatement ps2 = connection.prepareStatement(getUpdateSQL())) {
+      setUpdateParameters(ps2, info, bytes);
       ps2.executeUpdate();
     }
   }
 
+  /** @exclude */
+  @Override
+  protected String getInsertSQL() {
+    return getSQL("store.insert.sql");
+  }
+
+  /** @exclude */
+  @Override
+  protected String getUpdateSQL() {
+    return getSQL("store.update.sql");
+  }
+
+  /** @exclude */
+  @Override
+  protected void setInsertParameters(final PreparedStatement ps, final PersistenceInfo info, final byte[] bytes) throws Exception {
+    final InputStream is = getInputStream(info.getInputStream());
+    ps.setString(1, info.getJobUuid());
+    ps.setString(2, info.getType().name());
+    ps.setInt(3, info.getPosition());
+    ps.setBlob(4, is);
+  }
+
+  /** @exclude */
+  @Override
+  protected void setUpdateParameters(final PreparedStatement ps, final PersistenceInfo info, final byte[] bytes) throws Exception {
+    final InputStream is = getInputStream(info.getInputStream());
+    ps.setBlob(1, is);
+    ps.setString(2, info.getJobUuid());
+    ps.setString(3, info.getType().name());
+    ps.setInt(4, info.getPosition());
+  }
+
   /**
-   * Create a prepared statement which will insert or update an object n the database.
-   * @param connection the JDBC connection with which to create an dexecute the statement.
-   * @param info the information on the object to persist.
-   * @return a {@link PreparedStatement}.
+   * Set the parameters of a prepared statement which loads an object from the database.
+   * @param ps the statement whose parameters to set.
+   * @param info the information on the object to load.
    * @throws Exception if any error occurs.
    */
-  private PreparedStatement prepareLoadStatement(final Connection connection, final PersistenceInfo info) throws Exception {
-    final PreparedStatement ps = connection.prepareStatement(getSQL("load.sql"));
+  private static void setLoadParameters(final PreparedStatement ps, final PersistenceInfo info) throws Exception {
     ps.setString(1, info.getJobUuid());
     ps.setString(2, info.getType().name());
     ps.setInt(3, info.getPosition());
-    return ps;
+  }
+
+  /**
+   * Get a stream for the content of a loaded object. If the size of the content is at most {@link #streamThreshold}, then it is read in memory.
+   * Otherwise, a stream which reads the content directly from the database is returned.
+   * @param blob the content of the object.
+   * @param info the information on the loaded object.
+   * @return an {@link InputStream} providing the content.
+   * @throws Exception if any error occurs.
+   */
+  private InputStream loadElement(final Blob blob, final PersistenceInfo info) throws Exception {
+    try {
+      final long length = blob.length();
+      if (length <= streamThreshold) return new ByteArrayInputStream(blob.getBytes(1L, (int) length));
+      if (debugEnabled) log.debug("content of size {} will be streamed from the database for {}", length, info);
+      return new DatabaseInputStream(info);
+    } finally {
+      try {
+        blob.free();
+      } catch (@SuppressWarnings("unused") final SQLException | AbstractMethodError e) {
+      }
+    }
   }
 
   /**
@@ -390,4 +443,108 @@ public class DefaultDatabasePersistence extends AbstractDatabasePersistence<Pers
   private InputStream getInputStream(final InputStream is) throws Exception {
     return !bufferStreams || (is instanceof BufferedInputStream) ? is : new BufferedInputStream(is);
   }
+
+  /**
+   * An input stream which reads the content of a persisted object directly from the database. The JDBC connection is only obtained upon the first read,
+   * and is released as soon as the end of the content is reached or the stream is closed.
+   */
+  private final class DatabaseInputStream extends InputStream {
+    /**
+     * The information on the persisted object.
+     */
+    private final PersistenceInfo info;
+    /**
+     * The connection from which the content is read.
+     */
+    private ConnectionWrapper wrapper;
+    /**
+     * The statement which queries the content.
+     */
+    private PreparedStatement statement;
+    /**
+     * The result of the query.
+     */
+    private ResultSet resultSet;
+    /**
+     * The stream from which the content is read.
+     */
+    private InputStream delegate;
+    /**
+     * Whether this stream is closed.
+     */
+    private boolean closed;
+
+    /**
+     * Initialize this stream with the specified persisted object.
+     * @param info the information on the persisted object.
+     */
+    private DatabaseInputStream(final PersistenceInfo info) {
+      this.info = info;
+    }
+
+    @Override
+    public int read() throws IOException {
+      if (closed) return -1;
+      final int n = getDelegate().read();
+      if (n < 0) close();
+      return n;
+    }
+
+    @Override
+    public int read(final byte[] b, final int off, final int len) throws IOException {
+      if (closed) return -1;
+      final int n = getDelegate().read(b, off, len);
+      if (n < 0) close();
+      return n;
+    }
+
+    @Override
+    public long skip(final long n) throws IOException {
+      return closed ? 0L : getDelegate().skip(n);
+    }
+
+    @Override
+    public int available() throws IOException {
+      return (closed || (delegate == null)) ? 0 : delegate.available();
+    }
+
+    @Override
+    public void close() throws IOException {
+      if (closed) return;
+      closed = true;
+      StreamUtils.close(delegate, log);
+      StreamUtils.close(resultSet, log);
+      StreamUtils.close(statement, log);
+      if (wrapper != null) {
+        try {
+          wrapper.getConnection().commit();
+        } catch (final SQLException e) {
+          if (debugEnabled) log.debug("error committing after reading {}", info, e);
+        }
+        StreamUtils.close(wrapper, log);
+      }
+    }
+
+    /**
+     * Get the stream from which the content is read, querying the database if needed.
+     * @return an {@link InputStream} providing the content.
+     * @throws IOException if any error occurs.
+     */
+    private InputStream getDelegate() throws IOException {
+      if (delegate == null) {
+        try {
+          wrapper = getConnection(false, Connection.TRANSACTION_READ_COMMITTED);
+          statement = wrapper.getConnection().prepareStatement(getSQL("load.sql"));
+          setLoadParameters(statement, info);
+          resultSet = statement.executeQuery();
+          if (!resultSet.next()) throw new IOException("persisted object not found: " + info);
+          delegate = getInputStream(resultSet.getBinaryStream(1));
+        } catch (final Exception e) {
+          close();
+          throw (e instanceof IOException) ? (IOException) e : new IOException(e);
+        }
+      }
+      return delegate;
+    }
+  }
 }
@@ -0,0 +1,798 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jppf.job.persistence.impl;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.locks.*;
+import java.util.zip.CRC32;
+
+import org.jppf.job.persistence.*;
+import org.jppf.persistence.AbstractFilePersistence;
+import org.jppf.utils.StringUtils;
+import org.jppf.utils.streams.StreamUtils;
+import org.slf4j.*;
+
+/**
+ * A file-based persistent store for jobs, where all the elements of a job are appended to a single segment file.
+ * The store's structure is made of a root directory, under which there is one file per job, named <code><i>job_uuid</i>.log</code>.
+ * Each file starts with a short header, followed by a sequence of records. A record is made of the type of the job element,
+ * the task position when applicable, the length and CRC-32 checksum of the element's serialized data, followed by the data itself.
+ * Storing an element that was already stored appends a new record, which supersedes the previous one.
+ * <p>The location of the latest record of each element is kept in an in-memory index, which is built by scanning the record headers when a job
+ * is first accessed, for instance after a driver restart. An incomplete record at the end of a file, left by an interrupted store operation, is discarded by the scan.
+ * <p>When all the tasks of a job have a result, or when superseded records take more space than the live ones, the file is compacted: the latest record
+ * of each element is copied to a new file, in the order header, data provider, tasks and results, which then atomically replaces the old one.
+ * <p>Unless disabled, each store operation forces the file to the storage device before returning. Concurrent store operations on the same job
+ * share the same call to {@link FileChannel#force(boolean)}.
+ * <p>The number of segment files kept open is bounded: when it is exceeded, the files of the least recently used jobs are closed,
+ * while their index is kept in memory, and they are reopened when the jobs are accessed again.
+ * <p>This implementation is configured as follows:<br/>
+ * {@code jppf.job.persistence = org.jppf.job.persistence.impl.SegmentLogPersistence [<root_dir> [<sync> [<max_open_files>]]]}<br/>
+ * where {@code root_dir} defaults to "persistence", {@code sync} is either {@code true} (the default) or {@code false},
+ * and {@code max_open_files} is the maximum number of segment files kept open, which defaults to 64.
+ * @author Laurent Cohen
+ * @since 6.2
+ */
+public class SegmentLogPersistence extends AbstractFilePersistence<PersistenceInfo, JobPersistenceException> implements JobPersistence {
+  /**
+   * Logger for this class.
+   */
+  private static Logger log = LoggerFactory.getLogger(SegmentLogPersistence.class);
+  /**
+   * Determines whether the debug level is enabled in the log configuration, without the cost of a method call.
+   */
+  private static boolean debugEnabled = log.isDebugEnabled();
+  /**
+   * The default root path if none is specified.
+   */
+  private static final String DEFAULT_ROOT = "persistence";
+  /**
+   * Extension of the segment files.
+   */
+  private static final String LOG_EXTENSION = ".log";
+  /**
+   * Identifies the segment files.
+   */
+  private static final int MAGIC = 0x4A50534C;
+  /**
+   * Version of the segment file format.
+   */
+  private static final int VERSION = 1;
+  /**
+   * Size of the segment file header: magic number and version.
+   */
+  private static final int FILE_HEADER_SIZE = 8;
+  /**
+   * Size of a record header: type, position, length and checksum.
+   */
+  private static final int RECORD_HEADER_SIZE = 13;
+  /**
+   * Minimum space taken by superseded records before the file is compacted, when the job is not complete.
+   */
+  private static final long MIN_COMPACTION_SIZE = 1024L * 1024L;
+  /**
+   * The possible types of job elements, indexed by ordinal.
+   */
+  private static final PersistenceObjectType[] TYPES = PersistenceObjectType.values();
+  /**
+   * The default maximum number of segment files kept open.
+   */
+  private static final int DEFAULT_MAX_OPEN_FILES = 64;
+  /**
+   * Whether the files are forced to the storage device after each store operation.
+   */
+  private final boolean sync;
+  /**
+   * The maximum number of segment files kept open.
+   */
+  private final int maxOpenFiles;
+  /**
+   * Mapping of job uuids to the corresponding segment.
+   */
+  private final Map<String, JobLog> logs = new HashMap<>();
+  /**
+   * The segments whose file is open, from the least to the most recently used. Synchronized on {@link #logs}.
+   */
+  private final Map<JobLog, Boolean> openLogs = new LinkedHashMap<>(16, 0.75f, true);
+
+  /**
+   * Initialize this persistence with the root path {@link #DEFAULT_ROOT} under the current user directory.
+   */
+  public SegmentLogPersistence() {
+    this(DEFAULT_ROOT);
+  }
+
+  /**
+   * Initialize this persistence with the specified parameters.
+   * @param params the root directory for this persistence, optionally followed by whether to force the files to the storage device after each store operation,
+   * and by the maximum number of segment files kept open.
+   */
+  public SegmentLogPersistence(final String... params) {
+    super(params.length > 0 ? params : new String[] { DEFAULT_ROOT });
+    sync = (params.length < 2) || Boolean.valueOf(params[1]);
+    maxOpenFiles = (params.length < 3) ? DEFAULT_MAX_OPEN_FILES : Math.max(1, Integer.valueOf(params[2]));
+  }
+
+  @Override
+  public void store(final Collection<PersistenceInfo> infos) throws JobPersistenceException {
+    if ((infos == null) || infos.isEmpty()) return;
+    final String uuid = infos.iterator().next().getJobUuid();
+    final JobLog jobLog;
+    final long seq;
+    try {
+      jobLog = lockLog(uuid, true);
+    } catch (final IOException e) {
+      throw new JobPersistenceException(e);
+    }
+    try {
+      if (debugEnabled) log.debug("storing {}", infos);
+      seq = jobLog.append(infos);
+      try {
+        jobLog.compactIfNeeded();
+      } catch (final IOException e) {
+        // the elements are stored, compaction will be attempted again with the next store operation
+        log.warn("error compacting {} : {}", jobLog.path, e.toString());
+      }
+    } catch (final Exception e) {
+      throw convertException(e);
+    } finally {
+      jobLog.lock.unlock();
+    }
+    if (sync) {
+      try {
+        jobLog.sync(seq);
+      } catch (final IOException e) {
+        throw new JobPersistenceException(e);
+      }
+    }
+  }
+
+  @Override
+  public List<InputStream> load(final Collection<PersistenceInfo> infos) throws JobPersistenceException {
+    if ((infos == null) || infos.isEmpty()) return null;
+    final String uuid = infos.iterator().next().getJobUuid();
+    final List<InputStream> result = new ArrayList<>(infos.size());
+    try {
+      final JobLog jobLog = lockLog(uuid, false);
+      if (jobLog == null) return result;
+      try {
+        if (debugEnabled) log.debug("loading {}", infos);
+        for (final PersistenceInfo info: infos) result.add(new ByteArrayInputStream(jobLog.read(info.getType(), info.getPosition())));
+      } finally {
+        jobLog.lock.unlock();
+      }
+      return result;
+    } catch (final Exception e) {
+      throw convertException(e);
+    }
+  }
+
+  @Override
+  public List<String> getPersistedJobUuids() throws JobPersistenceException {
+    try {
+      final List<String> result = new ArrayList<>();
+      if (Files.exists(rootPath)) {
+        try (DirectoryStream<Path> ds = Files.newDirectoryStream(rootPath, "*" + LOG_EXTENSION)) {
+          for (final Path path : ds) {
+            final String name = pathname(path.getFileName());
+            result.add(name.substring(0, name.length() - LOG_EXTENSION.length()));
+          }
+        }
+      }
+      if (debugEnabled) log.debug("uuids of persisted jobs: {}", result);
+      return result;
+    } catch (final Exception e) {
+      throw new JobPersistenceException(e);
+    }
+  }
+
+  @Override
+  public int[] getTaskPositions(final String jobUuid) throws JobPersistenceException {
+    final int[] result = getPositions(jobUuid, PersistenceObjectType.TASK);
+    if (debugEnabled) log.debug("positions of tasks for job uuid={} : {}", jobUuid, StringUtils.buildString(", ", "{", "}", result));
+    return result;
+  }
+
+  @Override
+  public int[] getTaskResultPositions(final String jobUuid) throws JobPersistenceException {
+    final int[] result = getPositions(jobUuid, PersistenceObjectType.TASK_RESULT);
+    if (debugEnabled) log.debug("positions of results for job uuid={} : {}", jobUuid, StringUtils.buildString(", ", "{", "}", result));
+    return result;
+  }
+
+  @Override
+  public void deleteJob(final String jobUuid) throws JobPersistenceException {
+    try {
+      final JobLog jobLog = lockLog(jobUuid, false);
+      if (jobLog == null) return;
+      try {
+        if (debugEnabled) log.debug("deleting job with uuid = {}", jobUuid);
+        jobLog.close();
+        Files.deleteIfExists(jobLog.path);
+      } finally {
+        synchronized(logs) {
+          logs.remove(jobUuid);
+          openLogs.remove(jobLog);
+        }
+        jobLog.lock.unlock();
+      }
+    } catch (final Exception e) {
+      throw convertException(e);
+    }
+  }
+
+  @Override
+  public boolean isJobPersisted(final String jobUuid) throws JobPersistenceException {
+    try {
+      final JobLog jobLog = lockLog(jobUuid, false);
+      if (jobLog == null) return false;
+      try {
+        return jobLog.header != null;
+      } finally {
+        jobLog.lock.unlock();
+      }
+    } catch (final IOException e) {
+      throw new JobPersistenceException(e);
+    }
+  }
+
+  /**
+   * Close the segment files of all the jobs. Their index is kept in memory, and the files are reopened if the jobs are accessed again.
+   * @throws JobPersistenceException if any error occurs while closing a file.
+   */
+  public void close() throws JobPersistenceException {
+    final List<JobLog> openedLogs;
+    synchronized(logs) {
+      openedLogs = new ArrayList<>(openLogs.keySet());
+      openLogs.clear();
+    }
+    JobPersistenceException exception = null;
+    for (final JobLog jobLog: openedLogs) {
+      jobLog.lock.lock();
+      try {
+        jobLog.release();
+      } catch (final IOException e) {
+        if (exception == null) exception = new JobPersistenceException(e);
+      } finally {
+        jobLog.lock.unlock();
+      }
+    }
+    if (exception != null) throw exception;
+  }
+
+  /**
+   * Get the positions of the tasks or task results of the specified job.
+   * @param jobUuid the job uuid for which to get the positions.
+   * @param type the type of element for which to get the positions.
+   * Must be one of {@link PersistenceObjectType#TASK} or {@link PersistenceObjectType#TASK_RESULT}.
+   * @return the positions as an array of {@code int}.
+   * @throws JobPersistenceException if any error occurs.
+   */
+  private int[] getPositions(final String jobUuid, final PersistenceObjectType type) throws JobPersistenceException {
+    try {
+      final JobLog jobLog = lockLog(jobUuid, false);
+      if (jobLog == null) return new int[0];
+      try {
+        final Map<Integer, Entry> map = (type == PersistenceObjectType.TASK) ? jobLog.tasks : jobLog.results;
+        final int[] positions = new int[map.size()];
+        int count = 0;
+        for (final int pos: map.keySet()) positions[count++] = pos;
+        return positions;
+      } finally {
+        jobLog.lock.unlock();
+      }
+    } catch (final IOException e) {
+      throw new JobPersistenceException(e);
+    }
+  }
+
+  /**
+   * Get the segment of the specified job, opening it if needed, and acquire its lock.
+   * @param uuid the uuid of the job.
+   * @param create whether to create the segment if it does not exist.
+   * @return the locked segment, or {@code null} if it does not exist and {@code create} is {@code false}.
+   * @throws IOException if the segment could not be opened.
+   */
+  private JobLog lockLog(final String uuid, final boolean create) throws IOException {
+    while (true) {
+      JobLog jobLog;
+      synchronized(logs) {
+        jobLog = logs.get(uuid);
+        if (jobLog == null) {
+          final Path path = Paths.get(pathname(rootPath), uuid + LOG_EXTENSION);
+          if (!create && !Files.exists(path)) return null;
+          if (create) Files.createDirectories(rootPath);
+          jobLog = new JobLog(path);
+          logs.put(uuid, jobLog);
+        }
+      }
+      jobLog.lock.lock();
+      // the segment may have been deleted while waiting for the lock
+      if (!jobLog.closed) {
+        try {
+          jobLog.open();
+        } catch (final IOException | RuntimeException e) {
+          jobLog.lock.unlock();
+          throw e;
+        }
+        releaseIdleLogs(jobLog);
+        return jobLog;
+      }
+      jobLog.lock.unlock();
+    }
+  }
+
+  /**
+   * Mark the specified segment as the most recently used, then close the files of the least recently used segments
+   * until there are no more than {@link #maxOpenFiles} open files. The segments currently in use are skipped.
+   * @param current the segment being accessed, whose lock is held by the current thread.
+   */
+  private void releaseIdleLogs(final JobLog current) {
+    final List<JobLog> idleLogs = new ArrayList<>();
+    synchronized(logs) {
+      openLogs.put(current, Boolean.TRUE);
+      int excess = openLogs.size() - maxOpenFiles;
+      for (final Iterator<JobLog> it = openLogs.keySet().iterator(); (excess > 0) && it.hasNext();) {
+        final JobLog jobLog = it.next();
+        // a segment locked by another thread is in use, trying to lock it must not block
+        if ((jobLog == current) || !jobLog.lock.tryLock()) continue;
+        it.remove();
+        idleLogs.add(jobLog);
+        excess--;
+      }
+    }
+    for (final JobLog jobLog: idleLogs) {
+      try {
+        jobLog.release();
+      } catch (final IOException e) {
+        log.warn("error closing {} : {}", jobLog.path, e.toString());
+      } finally {
+        jobLog.lock.unlock();
+      }
+    }
+  }
+
+  /** @exclude */
+  @Override
+  protected JobPersistenceException convertException(final Exception e) {
+    return (e instanceof JobPersistenceException) ? (JobPersistenceException) e : new JobPersistenceException(e);
+  }
+
+  /**
+   * The location of a record in a segment file.
+   */
+  private static final class Entry {
+    /**
+     * The offset of the record in the file.
+     */
+    final long offset;
+    /**
+     * The length of the record's data.
+     */
+    final int length;
+    /**
+     * The checksum of the record's data.
+     */
+    final int crc;
+
+    /**
+     * Initialize this entry.
+     * @param offset the offset of the record in the file.
+     * @param length the length of the record's data.
+     * @param crc the checksum of the record's data.
+     */
+    Entry(final long offset, final int length, final int crc) {
+      this.offset = offset;
+      this.length = length;
+      this.crc = crc;
+    }
+
+    /**
+     * @return the size of the record, including its header.
+     */
+    long recordSize() {
+      return RECORD_HEADER_SIZE + length;
+    }
+  }
+
+  /**
+   * The segment file of a job and its index. All methods must be called while holding the segment's lock, except {@link #sync(long)}.
+   */
+  private final class JobLog {
+    /**
+     * The path of the segment file.
+     */
+    final Path path;
+    /**
+     * Used to synchronize the operations on this segment.
+     */
+    final Lock lock = new ReentrantLock();
+    /**
+     * Used to synchronize the calls to {@code force()}.
+     */
+    final Object syncLock = new Object();
+    /**
+     * The channel used to access the segment file.
+     */
+    volatile FileChannel channel;
+    /**
+     * Whether this segment was closed after the job was deleted.
+     */
+    volatile boolean closed;
+    /**
+     * Whether the index was built from the existing records.
+     */
+    boolean indexed;
+    /**
+     * The size of the segment file.
+     */
+    long size;
+    /**
+     * The total size of the latest records of each job element.
+     */
+    long liveBytes;
+    /**
+     * Whether the segment was compacted since all the tasks have a result.
+     */
+    boolean compactedOnCompletion;
+    /**
+     * Sequence number of the latest append operation.
+     */
+    volatile long writeSeq;
+    /**
+     * Sequence number of the latest append operation forced to the storage device.
+     */
+    volatile long syncedSeq;
+    /**
+     * The latest job header record.
+     */
+    Entry header;
+    /**
+     * The latest data provider record.
+     */
+    Entry dataProvider;
+    /**
+     * The latest task records, mapped to their position.
+     */
+    Map<Integer, Entry> tasks = new HashMap<>();
+    /**
+     * The latest task result records, mapped to their position.
+     */
+    Map<Integer, Entry> results = new HashMap<>();
+
+    /**
+     * Initialize this segment with the specified file path.
+     * @param path the path of the segment file.
+     */
+    JobLog(final Path path) {
+      this.path = path;
+    }
+
+    /**
+     * Open the segment file if needed, and build the index from the existing records when it is first opened.
+     * @throws IOException if any I/O error occurs.
+     */
+    void open() throws IOException {
+      if (channel != null) return;
+      if (indexed) {
+        // the file was closed while the job was idle, the index is still valid
+        channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        return;
+      }
+      Files.deleteIfExists(getTempPath());
+      channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+      if (channel.size() < FILE_HEADER_SIZE) {
+        channel.truncate(0L);
+        writeFileHeader(channel);
+        size = FILE_HEADER_SIZE;
+      } else recover();
+      indexed = true;
+    }
+
+    /**
+     * Scan the record headers to build the index, and discard the incomplete or corrupted record at the end of the file, if any.
+     * @throws IOException if any I/O error occurs.
+     */
+    private void recover() throws IOException {
+      final long fileSize = channel.size();
+      long offset = FILE_HEADER_SIZE;
+      try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path), 64 * 1024))) {
+        if ((in.readInt() != MAGIC) || (in.readInt() != VERSION)) throw new IOException("unknown format for segment file " + path);
+        while (offset + RECORD_HEADER_SIZE <= fileSize) {
+          final int type = in.readUnsignedByte(), position = in.readInt(), length = in.readInt(), crc = in.readInt();
+          if ((type >= TYPES.length) || (length < 0) || (offset + RECORD_HEADER_SIZE + length > fileSize)) break;
+          final Entry entry = new Entry(offset, length, crc);
+          // the last record is the one most likely to have been partially written
+          if ((offset + entry.recordSize() == fileSize) && (checksum(readData(entry)) != crc)) break;
+          skipFully(in, length);
+          index(TYPES[type], position, entry);
+          offset += entry.recordSize();
+        }
+      }
+      if (offset < fileSize) {
+        log.warn("discarding {} bytes of incomplete data at the end of {}", fileSize - offset, path);
+        channel.truncate(offset);
+      }
+      size = offset;
+      if (debugEnabled) log.debug("recovered {} : size={}, tasks={}, results={}", path, size, tasks.size(), results.size());
+    }
+
+    /**
+     * Append the specified job elements to the segment file and update the index.
+     * @param infos the job elements to store.
+     * @return the sequence number of this append operation.
+     * @throws Exception if any error occurs.
+     */
+    long append(final Collection<PersistenceInfo> infos) throws Exception {
+      final ByteBuffer[] buffers = new ByteBuffer[2 * infos.size()];
+      final Entry[] entries = new Entry[infos.size()];
+      long offset = size;
+      int i = 0;
+      for (final PersistenceInfo info: infos) {
+        final InputStream is = info.getInputStream();
+        final byte[] data = (is == null) ? new byte[0] : StreamUtils.getInputStreamAsByte(is);
+        final Entry entry = new Entry(offset, data.length, checksum(data));
+        final ByteBuffer header = ByteBuffer.allocate(RECORD_HEADER_SIZE);
+        header.put((byte) info.getType().ordinal()).putInt(info.getPosition()).putInt(data.length).putInt(entry.crc).flip();
+        buffers[2 * i] = header;
+        buffers[2 * i + 1] = ByteBuffer.wrap(data);
+        entries[i++] = entry;
+        offset += entry.recordSize();
+      }
+      channel.position(size);
+      long remaining = offset - size;
+      while (remaining > 0L) remaining -= channel.write(buffers);
+      size = offset;
+      i = 0;
+      for (final PersistenceInfo info: infos) index(info.getType(), info.getPosition(), entries[i++]);
+      return ++writeSeq;
+    }
+
+    /**
+     * Read the data of the specified job element.
+     * @param type the type of job element.
+     * @param position the position of the task or task result, if applicable.
+     * @return the data as an array of bytes.
+     * @throws Exception if the element is not found or its data is corrupted.
+     */
+    byte[] read(final PersistenceObjectType type, final int position) throws Exception {
+      final Entry entry;
+      switch (type) {
+        case JOB_HEADER: entry = header; break;
+        case DATA_PROVIDER: entry = dataProvider; break;
+        case TASK: entry = tasks.get(position); break;
+        default: entry = results.get(position); break;
+      }
+      if (entry == null) throw new JobPersistenceException(String.format("%s at position %d not found in %s", type, position, path));
+      final byte[] data = readData(entry);
+      if (checksum(data) != entry.crc) throw new JobPersistenceException(String.format("checksum error for %s at position %d in %s", type, position, path));
+      return data;
+    }
+
+    /**
+     * Read the data of the specified record.
+     * @param entry the location of the record.
+     * @return the data as an array of bytes.
+     * @throws IOException if any I/O error occurs.
+     */
+    private byte[] readData(final Entry entry) throws IOException {
+      final ByteBuffer buf = ByteBuffer.allocate(entry.length);
+      long pos = entry.offset + RECORD_HEADER_SIZE;
+      while (buf.hasRemaining()) {
+        final int n = channel.read(buf, pos);
+        if (n < 0) throw new EOFException("unexpected end of file " + path);
+        pos += n;
+      }
+      return buf.array();
+    }
+
+    /**
+     * Record the location of the latest record of a job element.
+     * @param type the type of job element.
+     * @param position the position of the task or task result, if applicable.
+     * @param entry the location of the record.
+     */
+    private void index(final PersistenceObjectType type, final int position, final Entry entry) {
+      final Entry previous;
+      switch (type) {
+        case JOB_HEADER: previous = header; header = entry; break;
+        case DATA_PROVIDER: previous = dataProvider; dataProvider = entry; break;
+        case TASK: previous = tasks.put(position, entry); break;
+        default: previous = results.put(position, entry); break;
+      }
+      if (previous != null) liveBytes -= previous.recordSize();
+      liveBytes += entry.recordSize();
+    }
+
+    /**
+     * Compact the segment file when all the tasks have a result, or when superseded records take more space than the live ones.
+     * @throws IOException if any I/O error occurs.
+     */
+    void compactIfNeeded() throws IOException {
+      final long garbage = size - FILE_HEADER_SIZE - liveBytes;
+      if (garbage <= 0L) return;
+      final boolean completed = !tasks.isEmpty() && results.keySet().containsAll(tasks.keySet());
+      if ((completed && !compactedOnCompletion) || ((garbage >= MIN_COMPACTION_SIZE) && (garbage > liveBytes))) {
+        compact();
+        if (completed) compactedOnCompletion = true;
+      }
+    }
+
+    /**
+     * Copy the latest record of each job element to a new file which then replaces the segment file.
+     * @throws IOException if any I/O error occurs.
+     */
+    private void compact() throws IOException {
+      if (debugEnabled) log.debug("compacting {} : size={}, live bytes={}", path, size, liveBytes);
+      final Path tmpPath = getTempPath();
+      Entry newHeader = null, newDataProvider = null;
+      final Map<Integer, Entry> newTasks = new HashMap<>(), newResults = new HashMap<>();
+      long offset = FILE_HEADER_SIZE;
+      try (FileChannel out = FileChannel.open(tmpPath, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+        writeFileHeader(out);
+        if (header != null) {
+          newHeader = copy(header, out, offset);
+          offset += header.recordSize();
+        }
+        if (dataProvider != null) {
+          newDataProvider = copy(dataProvider, out, offset);
+          offset += dataProvider.recordSize();
+        }
+        for (final Map.Entry<Integer, Entry> mapEntry: new TreeMap<>(tasks).entrySet()) {
+          newTasks.put(mapEntry.getKey(), copy(mapEntry.getValue(), out, offset));
+          offset += mapEntry.getValue().recordSize();
+        }
+        for (final Map.Entry<Integer, Entry> mapEntry: new TreeMap<>(results).entrySet()) {
+          newResults.put(mapEntry.getKey(), copy(mapEntry.getValue(), out, offset));
+          offset += mapEntry.getValue().recordSize();
+        }
+        if (sync) out.force(true);
+      }
+      synchronized(syncLock) {
+        channel.close();
+        try {
+          Files.move(tmpPath, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+          channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        }
+        // all the live records were forced to the storage device with the new file
+        syncedSeq = writeSeq;
+      }
+      header = newHeader;
+      dataProvider = newDataProvider;
+      tasks = newTasks;
+      results = newResults;
+      size = offset;
+      liveBytes = offset - FILE_HEADER_SIZE;
+    }
+
+    /**
+     * Copy the specified record to another file.
+     * @param entry the location of the record to copy.
+     * @param out the file to copy to.
+     * @param offset the offset of the copy in the other file.
+     * @return the location of the copy.
+     * @throws IOException if any I/O error occurs.
+     */
+    private Entry copy(final Entry entry, final FileChannel out, final long offset) throws IOException {
+      long pos = entry.offset, remaining = entry.recordSize();
+      while (remaining > 0L) {
+        final long n = channel.transferTo(pos, remaining, out);
+        pos += n;
+        remaining -= n;
+      }
+      return new Entry(offset, entry.length, entry.crc);
+    }
+
+    /**
+     * Force the segment file to the storage device, unless this was already done after the specified append operation.
+     * Since all the appended records are forced at once, a single call to {@code force()} serves all the concurrent store operations.
+     * @param seq the sequence number of the append operation.
+     * @throws IOException if any I/O error occurs.
+     */
+    void sync(final long seq) throws IOException {
+      if (syncedSeq >= seq) return;
+      synchronized(syncLock) {
+        if ((syncedSeq >= seq) || closed || (channel == null)) return;
+        final long target = writeSeq;
+        channel.force(false);
+        syncedSeq = target;
+      }
+    }
+
+    /**
+     * Close the segment file while the job is idle, after forcing the pending records to the storage device if needed.
+     * The index is kept, so that the file does not need to be scanned again when it is reopened.
+     * @throws IOException if any I/O error occurs.
+     */
+    void release() throws IOException {
+      synchronized(syncLock) {
+        if ((channel == null) || closed) return;
+        try {
+          if (sync && (syncedSeq < writeSeq)) channel.force(false);
+          syncedSeq = writeSeq;
+        } finally {
+          channel.close();
+          channel = null;
+        }
+      }
+    }
+
+    /**
+     * Close the segment file.
+     * @throws IOException if any I/O error occurs.
+     */
+    void close() throws IOException {
+      synchronized(syncLock) {
+        closed = true;
+        if (channel != null) channel.close();
+      }
+    }
+
+    /**
+     * @return the path of the temporary file used for compaction.
+     */
+    private Path getTempPath() {
+      return Paths.get(pathname(path) + TEMP_EXTENSION);
+    }
+  }
+
+  /**
+   * Write the header of a segment file.
+   * @param channel the channel to write to.
+   * @throws IOException if any I/O error occurs.
+   */
+  private static void writeFileHeader(final FileChannel channel) throws IOException {
+    final ByteBuffer buf = ByteBuffer.allocate(FILE_HEADER_SIZE);
+    buf.putInt(MAGIC).putInt(VERSION).flip();
+    while (buf.hasRemaining()) channel.write(buf);
+  }
+
+  /**
+   * Compute the CRC-32 checksum of the specified data.
+   * @param data the data to checksum.
+   * @return the checksum as an int.
+   */
+  private static int checksum(final byte[] data) {
+    final CRC32 crc = new CRC32();
+    crc.update(data, 0, data.length);
+    return (int) crc.getValue();
+  }
+
+  /**
+   * Skip the specified number of bytes in a stream.
+   * @param in the stream to read from.
+   * @param n the number of bytes to skip.
+   * @throws IOException if the end of the stream is reached, or any other I/O error occurs.
+   */
+  private static void skipFully(final InputStream in, final long n) throws IOException {
+    long remaining = n;
+    while (remaining > 0L) {
+      final long skipped = in.skip(remaining);
+      if (skipped <= 0L) {
+        if (in.read() < 0) throw new EOFException();
+        remaining--;
+      } else remaining -= skipped;
+    }
+  }
+}
@@ -252,7 +252,7 @@ public class AsynchronousLoadBalancerPersistence implements LoadBalancerPersiste
   }
 
   /**
-   * Polls the pending tasks map and submits a persistence task for each entry in the map.
+   * Polls the pending tasks map and submits the entries in the map as at most {@link #nbThreads} persistence tasks, each storing its entries in a single operation.
    */
   private class PendingTasksThread implements Runnable {
     @Override
@@ -262,19 +262,22 @@ public class AsynchronousLoadBalancerPersistence implements LoadBalancerPersiste
           synchronized(pendingTasks) {
             while (pendingTasks.isEmpty()) pendingTasks.wait(50L);
             if (debugEnabled) log.debug("PendingTasksThread processing {} pending tasks", pendingTasks.size());
-            final Map<Pair<String, String>, LoadBalancerPersistenceInfo> temp = new HashMap<>(pendingTasks);
+            final List<Map.Entry<Pair<String, String>, LoadBalancerPersistenceInfo>> temp = new ArrayList<>(new HashMap<>(pendingTasks).entrySet());
             pendingTasks.clear();
-            for (Map.Entry<Pair<String, String>, LoadBalancerPersistenceInfo> entry: temp.entrySet()) {
-              final Pair<String, String> id = entry.getKey();
-              final LoadBalancerPersistenceInfo info = entry.getValue();
+            final int chunkSize = (temp.size() + nbThreads - 1) / nbThreads;
+            for (int i=0; i<temp.size(); i+=chunkSize) {
+              final List<Map.Entry<Pair<String, String>, LoadBalancerPersistenceInfo>> chunk = temp.subList(i, Math.min(temp.size(), i + chunkSize));
               execute(new PersistenceTask<Void>(false) {
                 @Override
                 protected Void execute() throws LoadBalancerPersistenceException {
-                  LoadBalancerPersistenceInfo newInfo = null;
+                  final List<LoadBalancerPersistenceInfo> infos = new ArrayList<>(chunk.size());
                   synchronized(pendingTasks) {
-                    newInfo = pendingTasks.remove(id);
+                    for (final Map.Entry<Pair<String, String>, LoadBalancerPersistenceInfo> entry: chunk) {
+                      final LoadBalancerPersistenceInfo newInfo = pendingTasks.remove(entry.getKey());
+                      infos.add(newInfo == null ? entry.getValue() : newInfo);
+                    }
                   }
-                  delegate.store(newInfo == null ? info : newInfo);
+                  delegate.store(infos);
                   return null;
                 }
               });
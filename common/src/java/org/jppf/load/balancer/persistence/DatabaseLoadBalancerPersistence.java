@@ -189,6 +189,31 @@ public class DatabaseLoadBalancerPersistence extends AbstractDatabasePersistence
     }
   }
 
+  @Override
+  public void store(final Collection<LoadBalancerPersistenceInfo> infos) throws LoadBalancerPersistenceException {
+    uncompletedOperations.incrementAndGet();
+    if (debugEnabled) log.debug("storing {} elements", infos.size());
+    try (ConnectionWrapper wrapper = getConnection(false, Connection.TRANSACTION_READ_COMMITTED)) {
+      final Connection connection = wrapper.getConnection();
+      try {
+        final List<LoadBalancerPersistenceInfo> list = new ArrayList<>(infos);
+        final List<byte[]> bytes = new ArrayList<>(list.size());
+        for (final LoadBalancerPersistenceInfo info: list) bytes.add(info.getStateAsBytes());
+        storeElements(connection, list, bytes);
+        connection.commit();
+      } catch(final Exception e) {
+        connection.rollback();
+        throw e;
+      }
+    } catch(final LoadBalancerPersistenceException e) {
+      throw e;
+    } catch(final Exception e) {
+      throw new LoadBalancerPersistenceException(e);
+    } finally {
+      uncompletedOperations.decrementAndGet();
+    }
+  }
+
   @Override
   public void delete(final LoadBalancerPersistenceInfo info) throws LoadBalancerPersistenceException {
     uncompletedOperations.incrementAndGet();
@@ -288,15 +313,11 @@ public class DatabaseLoadBalancerPersistence extends AbstractDatabasePersistence
   /** @exclude */
   @Override
   protected void insertElement(final Connection connection, final LoadBalancerPersistenceInfo info, final byte[] bytes) throws Exception {
-    final String sql = getSQL("insert.sql");
+    final String sql = getInsertSQL();
     if (debugEnabled) log.debug("before performing SQL update = \"{}\" with params = [{}, {}, blob(length={})]", sql, info.getChannelID(), info.getAlgorithmID(), bytes.length);
     try (final PreparedStatement ps = connection.prepareStatement(sql)) {
-      try (final InputStream is = new ByteArrayInputStream(bytes)) {
-        ps.setString(1, info.getChannelID());
-        ps.setString(2, info.getAlgorithmID());
-        ps.setBlob(3, is);
-        ps.executeUpdate();
-      }
+      setInsertParameters(ps, info, bytes);
+      ps.executeUpdate();
     } catch(final SQLException e) {
       final String message = "error performing SQL update = \"" + sql + "\" with params = [" + info.getChannelID() + ", " + info.getAlgorithmID() + ", blob(length=" + bytes.length + ")]";
       throw new LoadBalancerPersistenceException(message, e);
@@ -306,21 +327,45 @@ public class DatabaseLoadBalancerPersistence extends AbstractDatabasePersistence
   /** @exclude */
   @Override
   protected void updateElement(final Connection connection, final LoadBalancerPersistenceInfo info, final byte[] bytes) throws Exception {
-    final String sql = getSQL("update.sql");
+    final String sql = getUpdateSQL();
     if (debugEnabled) log.debug("before performing SQL update = \"{}\" with params = [blob(length={}), {}, {}]", sql, bytes.length, info.getChannelID(), info.getAlgorithmID());
     try (PreparedStatement ps2 = connection.prepareStatement(sql)) {
-      try (InputStream is = new ByteArrayInputStream(bytes)) {
-        ps2.setBlob(1, is);
-        ps2.setString(2, info.getChannelID());
-        ps2.setString(3, info.getAlgorithmID());
-        ps2.executeUpdate();
-      }
+      setUpdateParameters(ps2, info, bytes);
+      ps2.executeUpdate();
     } catch(final SQLException e) {
       final String message = "error performing SQL update = \"" + sql + "\" with params = [blob(length=" + bytes.length + "), " + info.getChannelID() + ", " + info.getAlgorithmID() + "]";
       throw new LoadBalancerPersistenceException(message, e);
     }
   }
 
+  /** @exclude */
+  @Override
+  protected String getInsertSQL() {
+    return getSQL("insert.sql");
+  }
+
+  /** @exclude */
+  @Override
+  protected String getUpdateSQL() {
+    return getSQL("update.sql");
+  }
+
+  /** @exclude */
+  @Override
+  protected void setInsertParameters(final PreparedStatement ps, final LoadBalancerPersistenceInfo info, final byte[] bytes) throws Exception {
+    ps.setString(1, info.getChannelID());
+    ps.setString(2, info.getAlgorithmID());
+    ps.setBlob(3, new ByteArrayInputStream(bytes));
+  }
+
+  /** @exclude */
+  @Override
+  protected void setUpdateParameters(final PreparedStatement ps, final LoadBalancerPersistenceInfo info, final byte[] bytes) throws Exception {
+    ps.setBlob(1, new ByteArrayInputStream(bytes));
+    ps.setString(2, info.getChannelID());
+    ps.setString(3, info.getAlgorithmID());
+  }
+
   @Override
   public int getUncompletedOperations() {
     return uncompletedOperations.get();
@@ -18,7 +18,7 @@
 
 package org.jppf.load.balancer.persistence;
 
-import java.util.List;
+import java.util.*;
 
 /**
  * This interface must be implemented by services that perform persistence of load-balancers state.
@@ -47,6 +47,17 @@ public interface LoadBalancerPersistence {
    */
   void store(LoadBalancerPersistenceInfo info) throws LoadBalancerPersistenceException;
 
+  /**
+   * Store the specified load balancers to the persistence sstore. This default implementation calls {@link #store(LoadBalancerPersistenceInfo)} for each element,
+   * implementations may override it to store all the elements in fewer operations.
+   * @param infos a collection of {@link LoadBalancerPersistenceInfo} objects representing the load balancers and their state.
+   * @throws LoadBalancerPersistenceException if any erorr occurs during the persistence operation.
+   * @since 6.2
+   */
+  default void store(final Collection<LoadBalancerPersistenceInfo> infos) throws LoadBalancerPersistenceException {
+    for (final LoadBalancerPersistenceInfo info: infos) store(info);
+  }
+
   /**
    * Delete the specified load-balancer state(s) from the persistence store.
    * <p>The {@code info} parameter embeds both the scope and identifiers for the artifacts to delete:
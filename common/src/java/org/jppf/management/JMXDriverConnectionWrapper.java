@@ -23,6 +23,7 @@ import java.util.*;
 
 import javax.management.*;
 
+import org.jppf.JPPFException;
 import org.jppf.job.JobInformation;
 import org.jppf.job.persistence.PersistedJobsManagerMBean;
 import org.jppf.load.balancer.LoadBalancingInformation;
@@ -30,6 +31,7 @@ import org.jppf.load.balancer.persistence.*;
 import org.jppf.management.diagnostics.DiagnosticsMBean;
 import org.jppf.management.forwarding.*;
 import org.jppf.server.job.management.*;
+import org.jppf.utils.JPPFUuid;
 import org.jppf.utils.stats.JPPFStatistics;
 import org.slf4j.*;
 
@@ -51,6 +53,11 @@ public class JMXDriverConnectionWrapper extends JMXConnectionWrapper implements
    * Signature of the method that registers a node forwarding listener.
    */
   private static final String[] FORWARDING_LISTENER_SIGNATURE = {NodeSelector.class.getName(), String.class.getName()};
+  /**
+   * Signature of the method that forwards a request to the nodes and emits the results as notifications.
+   */
+  private static final String[] FORWARD_ASYNC_SIGNATURE = {String.class.getName(), NodeSelector.class.getName(), String.class.getName(), String.class.getName(),
+    Object[].class.getName(), String[].class.getName(), long.class.getName()};
   /**
    *
    */
@@ -205,6 +212,11 @@ public class JMXDriverConnectionWrapper extends JMXConnectionWrapper implements
     invoke(MBEAN_NAME, "resetStatistics");
   }
 
+  @Override
+  public Double statisticsPercentile(final String label, final Double percentile) throws Exception {
+    return (Double) invoke(MBEAN_NAME, "statisticsPercentile", new Object[] {label, percentile}, new String[] {String.class.getName(), Double.class.getName()});
+  }
+
   @Override
   public JPPFSystemInformation systemInformation() throws Exception {
     return (JPPFSystemInformation) invoke(MBEAN_NAME, "systemInformation");
@@ -339,6 +351,57 @@ public class JMXDriverConnectionWrapper extends JMXConnectionWrapper implements
     return result;
   }
 
+  /**
+   * Invoke a method on the specified MBean of the selected nodes, and receive the result of each node as soon as it arrives.
+   * <p>This method returns without waiting for the results. The listener is notified of each node result, then once all the selected nodes have
+   * responded or timed out, after which it is automatically unregistered.
+   * @param selector a filter on the nodes attached to the driver, determines the nodes to which this method applies.
+   * @param name the name of the MBean.
+   * @param methodName the name of the method to invoke.
+   * @param params the method parameter values.
+   * @param signature the types of the method parameters.
+   * @param timeout the maximum time in millis to wait for the result of each node. A value less than or equal to 0 means no timeout.
+   * @param listener receives the results.
+   * @return the number of nodes to which the request was forwarded.
+   * @throws Exception if the invocation failed.
+   * @since 6.2
+   */
+  public int forwardInvokeAsync(final NodeSelector selector, final String name, final String methodName, final Object[] params, final String[] signature,
+    final long timeout, final ForwardingResultListener listener) throws Exception {
+    final String requestID = JPPFUuid.normalUUID();
+    final NotificationFilter filter = ForwardingResultNotification.filter(requestID);
+    final NotificationListener notificationListener = new NotificationListener() {
+      @Override
+      public void handleNotification(final Notification notification, final Object handback) {
+        final ForwardingResultNotification notif = (ForwardingResultNotification) notification;
+        if (!notif.isComplete()) {
+          listener.resultReceived(notif.getNodeUuid(), notif.getResult());
+          return;
+        }
+        try {
+          removeNotificationListener(NodeForwardingMBean.MBEAN_NAME, this, filter, null);
+        } catch (final Exception e) {
+          log.error("error removing the listener for forwarding request {}", requestID, e);
+        }
+        listener.requestComplete(notif.getTimeoutCount());
+      }
+    };
+    // register the listener first, so no result can be missed
+    addNotificationListener(NodeForwardingMBean.MBEAN_NAME, notificationListener, filter, null);
+    final Integer nbNodes;
+    try {
+      nbNodes = (Integer) invoke(NodeForwardingMBean.MBEAN_NAME, "forwardInvokeAsync", new Object[] {requestID, selector, name, methodName, params, signature, timeout}, FORWARD_ASYNC_SIGNATURE);
+    } catch (final Exception e) {
+      removeNotificationListener(NodeForwardingMBean.MBEAN_NAME, notificationListener, filter, null);
+      throw e;
+    }
+    if (nbNodes == null) {
+      removeNotificationListener(NodeForwardingMBean.MBEAN_NAME, notificationListener, filter, null);
+      throw new JPPFException("could not forward the request to the nodes, the connection to the driver is not available");
+    }
+    return nbNodes;
+  }
+
   /**
    * Invoke a method on the specified MBean of all nodes attached to the driver.
    * @param selector a filter on the nodes attached tot he driver, determines the nodes to which this method applies.
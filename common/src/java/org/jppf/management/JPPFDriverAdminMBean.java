@@ -130,6 +130,17 @@ public interface JPPFDriverAdminMBean extends JPPFAdminMBean {
   @MBeanDescription("reste the server statistics")
   void resetStatistics() throws Exception;
 
+  /**
+   * Get a percentile of the values of a server statistics snapshot, without retrieving all the statistics.
+   * @param label the label of the snapshot, for instance {@link org.jppf.utils.stats.JPPFStatisticsHelper#EXECUTION JPPFStatisticsHelper.EXECUTION}.
+   * @param percentile the percentile to compute, in the range [0, 100].
+   * @return an approximation of the value at the specified percentile, or {@code Double.NaN} if there is no snapshot with the specified label.
+   * @throws Exception if any error occurs.
+   * @since 6.2
+   */
+  @MBeanDescription("get a percentile of the values of a server statistics snapshot")
+  Double statisticsPercentile(@MBeanParamName("label") String label, @MBeanParamName("percentile") Double percentile) throws Exception;
+
   /**
    * Get the number of nodes currently idle.
    * Note that this method is equivalent to calling {@link #nbIdleNodes(NodeSelector) nbIdleNodes(null)}.
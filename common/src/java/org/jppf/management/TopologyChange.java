@@ -0,0 +1,232 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jppf.management;
+
+import java.io.Serializable;
+
+import org.jppf.management.diagnostics.HealthSnapshot;
+
+/**
+ * Instances of this class represent a change in the topology of a driver, as pushed by the {@link TopologyChangeFeedMBean}.
+ * Only the attributes which changed are set, the others are {@code null}.
+ * @author Laurent Cohen
+ * @since 6.2
+ */
+public class TopologyChange implements Serializable {
+  /**
+   * Explicit serialVersionUID.
+   */
+  private static final long serialVersionUID = 1L;
+
+  /**
+   * The possible types of changes.
+   */
+  public enum Type {
+    /**
+     * A node or peer driver was added.
+     */
+    NODE_ADDED,
+    /**
+     * A node or peer driver was removed.
+     */
+    NODE_REMOVED,
+    /**
+     * The state of a node was updated.
+     */
+    NODE_UPDATED,
+    /**
+     * The state of the driver was updated.
+     */
+    DRIVER_UPDATED
+  }
+
+  /**
+   * The uuid of the node or driver which changed.
+   */
+  private final String uuid;
+  /**
+   * The type of this change.
+   */
+  private final Type type;
+  /**
+   * The management information of an added node.
+   */
+  private JPPFManagementInfo managementInfo;
+  /**
+   * The new active state of the node.
+   */
+  private Boolean active;
+  /**
+   * The new execution state of the node.
+   */
+  private JPPFNodeState nodeState;
+  /**
+   * The new number of slaves of a master node.
+   */
+  private Integer nbSlaves;
+  /**
+   * The new JVM health snapshot of the node or driver.
+   */
+  private HealthSnapshot healthSnapshot;
+
+  /**
+   * Initialize this change.
+   * @param uuid the uuid of the node or driver which changed.
+   * @param type the type of this change.
+   */
+  public TopologyChange(final String uuid, final Type type) {
+    this.uuid = uuid;
+    this.type = type;
+  }
+
+  /**
+   * Get the uuid of the node or driver which changed.
+   * @return the uuid as a string.
+   */
+  public String getUuid() {
+    return uuid;
+  }
+
+  /**
+   * Get the type of this change.
+   * @return a {@link Type} enum value.
+   */
+  public Type getType() {
+    return type;
+  }
+
+  /**
+   * Get the management information of an added node.
+   * @return a {@link JPPFManagementInfo}, or {@code null} if this change is not of type {@link Type#NODE_ADDED NODE_ADDED}.
+   */
+  public JPPFManagementInfo getManagementInfo() {
+    return managementInfo;
+  }
+
+  /**
+   * Set the management information of an added node.
+   * @param managementInfo a {@link JPPFManagementInfo} object.
+   * @return this change, for method call chaining.
+   */
+  public TopologyChange setManagementInfo(final JPPFManagementInfo managementInfo) {
+    this.managementInfo = managementInfo;
+    return this;
+  }
+
+  /**
+   * Get the new active state of the node.
+   * @return the active state, or {@code null} if it did not change.
+   */
+  public Boolean getActive() {
+    return active;
+  }
+
+  /**
+   * Set the new active state of the node.
+   * @param active the active state.
+   * @return this change, for method call chaining.
+   */
+  public TopologyChange setActive(final Boolean active) {
+    this.active = active;
+    return this;
+  }
+
+  /**
+   * Get the new execution state of the node.
+   * @return a {@link JPPFNodeState}, or {@code null} if it did not change.
+   */
+  public JPPFNodeState getNodeState() {
+    return nodeState;
+  }
+
+  /**
+   * Set the new execution state of the node.
+   * @param nodeState a {@link JPPFNodeState} object.
+   * @return this change, for method call chaining.
+   */
+  public TopologyChange setNodeState(final JPPFNodeState nodeState) {
+    this.nodeState = nodeState;
+    return this;
+  }
+
+  /**
+   * Get the new number of slaves of a master node.
+   * @return the number of slaves, or {@code null} if it did not change.
+   */
+  public Integer getNbSlaves() {
+    return nbSlaves;
+  }
+
+  /**
+   * Set the new number of slaves of a master node.
+   * @param nbSlaves the number of slaves.
+   * @return this change, for method call chaining.
+   */
+  public TopologyChange setNbSlaves(final Integer nbSlaves) {
+    this.nbSlaves = nbSlaves;
+    return this;
+  }
+
+  /**
+   * Get the new JVM health snapshot of the node or driver.
+   * @return a {@link HealthSnapshot}, or {@code null} if it did not change.
+   */
+  public HealthSnapshot getHealthSnapshot() {
+    return healthSnapshot;
+  }
+
+  /**
+   * Set the new JVM health snapshot of the node or driver.
+   * @param healthSnapshot a {@link HealthSnapshot} object.
+   * @return this change, for method call chaining.
+   */
+  public TopologyChange setHealthSnapshot(final HealthSnapshot healthSnapshot) {
+    this.healthSnapshot = healthSnapshot;
+    return this;
+  }
+
+  /**
+   * Coalesce a newer change for the same node or driver into this one, so that only the latest state is kept.
+   * @param newer the newer change.
+   * @return the change which results from the coalescing, either this one, updated, or {@code newer}.
+   * @exclude
+   */
+  public TopologyChange coalesce(final TopologyChange newer) {
+    if ((newer.type == Type.NODE_ADDED) || (newer.type == Type.NODE_REMOVED)) return newer;
+    // updates received after a removal are stale
+    if (type == Type.NODE_REMOVED) return this;
+    if (newer.active != null) active = newer.active;
+    if (newer.nodeState != null) nodeState = newer.nodeState;
+    if (newer.nbSlaves != null) nbSlaves = newer.nbSlaves;
+    if (newer.healthSnapshot != null) healthSnapshot = newer.healthSnapshot;
+    return this;
+  }
+
+  @Override
+  public String toString() {
+    return new StringBuilder(getClass().getSimpleName()).append('[')
+      .append("uuid=").append(uuid)
+      .append(", type=").append(type)
+      .append(", active=").append(active)
+      .append(", nodeState=").append(nodeState)
+      .append(", nbSlaves=").append(nbSlaves)
+      .append(", healthSnapshot=").append(healthSnapshot)
+      .append(']').toString();
+  }
+}
@@ -0,0 +1,45 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jppf.management;
+
+import java.util.List;
+
+import javax.management.NotificationEmitter;
+
+import org.jppf.management.doc.*;
+
+/**
+ * This MBean pushes the changes in the topology of a JPPF driver to its subscribers: nodes added or removed, changes to the nodes states
+ * and sampled JVM health snapshots. The changes are coalesced per node and sent in batches at regular intervals, so that a subscriber only
+ * receives the latest state of each node, regardless of how many changes occurred in the meantime.
+ * @author Laurent Cohen
+ * @since 6.2
+ */
+@MBeanDescription("push-based feed of the changes in the topology of a JPPF driver")
+@MBeanNotif(description = "a batch of topology changes", userDataType = List.class, userDataDescritpion = "a list of TopologyChange objects, at most one per node or driver")
+public interface TopologyChangeFeedMBean extends NotificationEmitter {
+  /**
+   * The name of this MBean, used when it is registered with an MBean server.
+   */
+  String MBEAN_NAME = "org.jppf:name=topologyChangeFeed,type=driver";
+  /**
+   * The type of the notifications sent by this MBean.
+   */
+  String TOPOLOGY_CHANGES = "topology.changes";
+}
@@ -22,7 +22,7 @@ import java.io.Serializable;
 import java.time.*;
 import java.time.format.*;
 import java.time.temporal.ChronoField;
-import java.util.Map;
+import java.util.*;
 
 import org.jppf.management.diagnostics.provider.MonitoringConstants;
 import org.jppf.utils.TypedProperties;
@@ -222,6 +222,76 @@ public class HealthSnapshot implements Serializable {
     return properties.getLong(MonitoringConstants.RAM_USAGE_MB);
   }
 
+  /**
+   * {@inheritDoc}
+   * <p>The JVM uptime is not taken into account, since it differs between any two snapshots of a running JVM.
+   */
+  @Override
+  public int hashCode() {
+    return comparedProperties().hashCode();
+  }
+
+  /**
+   * Determine whether this snapshot has the same values as the specified object.
+   * The JVM uptime is not compared, since it differs between any two snapshots of a running JVM.
+   * @param obj the object to compare with.
+   * @return {@code true} if the specified object is a snapshot with the same values, {@code false} otherwise.
+   */
+  @Override
+  public boolean equals(final Object obj) {
+    if (this == obj) return true;
+    if ((obj == null) || (getClass() != obj.getClass())) return false;
+    return comparedProperties().equals(((HealthSnapshot) obj).comparedProperties());
+  }
+
+  /**
+   * Determine whether this snapshot has approximately the same values as the specified one.
+   * Two numeric values are considered the same when their difference is at most {@code threshold} times the largest of their absolute values,
+   * while other values must be equal. As with {@link #equals(Object)}, the JVM uptime is not compared.
+   * @param other the snapshot to compare with, may be {@code null}.
+   * @param threshold the maximum relative difference between two numeric values, 0 to require equal values.
+   * @return {@code true} if the specified snapshot has approximately the same values, {@code false} otherwise.
+   */
+  public boolean isSimilar(final HealthSnapshot other, final double threshold) {
+    if (other == null) return false;
+    if (this == other) return true;
+    final Map<Object, Object> values = comparedProperties(), otherValues = other.comparedProperties();
+    if (!values.keySet().equals(otherValues.keySet())) return false;
+    for (final Map.Entry<Object, Object> entry: values.entrySet()) {
+      final Object value = entry.getValue(), otherValue = otherValues.get(entry.getKey());
+      if (!Objects.equals(value, otherValue) && !isWithinThreshold(value, otherValue, threshold)) return false;
+    }
+    return true;
+  }
+
+  /**
+   * Determine whether the specified values are numbers whose relative difference is at most the specified threshold.
+   * @param value1 the first value.
+   * @param value2 the second value.
+   * @param threshold the maximum relative difference.
+   * @return {@code true} if both values are numbers within the threshold, {@code false} otherwise.
+   */
+  private static boolean isWithinThreshold(final Object value1, final Object value2, final double threshold) {
+    if ((threshold <= 0d) || (value1 == null) || (value2 == null)) return false;
+    final double d1, d2;
+    try {
+      d1 = Double.parseDouble(value1.toString());
+      d2 = Double.parseDouble(value2.toString());
+    } catch (@SuppressWarnings("unused") final NumberFormatException e) {
+      return false;
+    }
+    return Math.abs(d1 - d2) <= threshold * Math.max(Math.abs(d1), Math.abs(d2));
+  }
+
+  /**
+   * @return the properties of this snapshot which are compared by {@link #equals(Object)}.
+   */
+  private Map<Object, Object> comparedProperties() {
+    final Map<Object, Object> map = new HashMap<>(properties);
+    map.remove(MonitoringConstants.JVM_UPTIME);
+    return map;
+  }
+
   @Override
   public String toString() {
     final StringBuilder sb = new StringBuilder(getClass().getSimpleName()).append('[');
@@ -0,0 +1,45 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jppf.management.forwarding;
+
+import java.util.EventListener;
+
+import org.jppf.utils.InvocationResult;
+
+/**
+ * Receives the results of a request forwarded to the nodes as they arrive, rather than all at once.
+ * @author Laurent Cohen
+ * @since 6.2
+ * @see org.jppf.management.JMXDriverConnectionWrapper#forwardInvokeAsync(NodeSelector, String, String, Object[], String[], long, ForwardingResultListener)
+ */
+public interface ForwardingResultListener extends EventListener {
+  /**
+   * Called when the result from a node is received.
+   * @param nodeUuid the uuid of the node.
+   * @param result the result or exception returned by the node. The exception is a {@link org.jppf.JPPFTimeoutException} if the node did not respond in time.
+   */
+  void resultReceived(String nodeUuid, InvocationResult<?> result);
+
+  /**
+   * Called once all the selected nodes have responded or timed out.
+   * @param timeoutCount the number of nodes which did not respond in time.
+   */
+  default void requestComplete(final int timeoutCount) {
+  }
+}
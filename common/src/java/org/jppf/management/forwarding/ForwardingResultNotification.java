@@ -0,0 +1,186 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jppf.management.forwarding;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.management.*;
+
+import org.jppf.utils.InvocationResult;
+
+/**
+ * Notification emitted by the node forwarding MBean for each node result of a request made with
+ * {@link NodeForwardingMBean#forwardInvokeAsync(String, NodeSelector, String, String, Object[], String[], long) forwardInvokeAsync()},
+ * as soon as the result is received. A last notification of type {@link #COMPLETE_TYPE} is emitted when all the selected nodes have responded or timed out.
+ * @author Laurent Cohen
+ * @since 6.2
+ */
+public class ForwardingResultNotification extends Notification {
+  /**
+   * Explicit serialVersionUID.
+   */
+  private static final long serialVersionUID = 1L;
+  /**
+   * The type of the notifications which hold the result from a node.
+   */
+  public static final String RESULT_TYPE = "NodeForwardingResult";
+  /**
+   * The type of the notification emitted once all the results of a request have been emitted.
+   */
+  public static final String COMPLETE_TYPE = "NodeForwardingComplete";
+  /**
+   * Internal notification sequence number.
+   */
+  private final static AtomicLong sequence = new AtomicLong(0L);
+  /**
+   * The id of the request.
+   */
+  private final String requestID;
+  /**
+   * The uuid of the node, or {@code null} for the completion notification.
+   */
+  private final String nodeUuid;
+  /**
+   * The result or exception returned by the node, or {@code null} for the completion notification.
+   */
+  private final InvocationResult<?> result;
+  /**
+   * The number of nodes which did not respond before the timeout, for the completion notification.
+   */
+  private final int timeoutCount;
+
+  /**
+   * Initialize this notification with the result from a node.
+   * @param requestID the id of the request.
+   * @param nodeUuid the uuid of the node.
+   * @param result the result or exception returned by the node.
+   */
+  public ForwardingResultNotification(final String requestID, final String nodeUuid, final InvocationResult<?> result) {
+    this(RESULT_TYPE, requestID, nodeUuid, result, 0);
+  }
+
+  /**
+   * Initialize this notification as the last one for a request.
+   * @param requestID the id of the request.
+   * @param timeoutCount the number of nodes which did not respond before the timeout.
+   */
+  public ForwardingResultNotification(final String requestID, final int timeoutCount) {
+    this(COMPLETE_TYPE, requestID, null, null, timeoutCount);
+  }
+
+  /**
+   * Initialize this notification.
+   * @param type the type of notification.
+   * @param requestID the id of the request.
+   * @param nodeUuid the uuid of the node.
+   * @param result the result or exception returned by the node.
+   * @param timeoutCount the number of nodes which did not respond before the timeout.
+   */
+  private ForwardingResultNotification(final String type, final String requestID, final String nodeUuid, final InvocationResult<?> result, final int timeoutCount) {
+    super(type, NodeForwardingMBean.MBEAN_NAME, sequence.incrementAndGet());
+    this.requestID = requestID;
+    this.nodeUuid = nodeUuid;
+    this.result = result;
+    this.timeoutCount = timeoutCount;
+  }
+
+  /**
+   * Get the id of the request this notification is for.
+   * @return the request id as a string.
+   */
+  public String getRequestID() {
+    return requestID;
+  }
+
+  /**
+   * Get the uuid of the node which sent the result.
+   * @return the node uuid as a string, or {@code null} if this is the completion notification.
+   */
+  public String getNodeUuid() {
+    return nodeUuid;
+  }
+
+  /**
+   * Get the result or exception returned by the node.
+   * @return an {@link InvocationResult}, or {@code null} if this is the completion notification.
+   */
+  public InvocationResult<?> getResult() {
+    return result;
+  }
+
+  /**
+   * Determine whether this is the last notification for the request.
+   * @return {@code true} if all the results of the request were emitted, {@code false} otherwise.
+   */
+  public boolean isComplete() {
+    return COMPLETE_TYPE.equals(getType());
+  }
+
+  /**
+   * Get the number of nodes which did not respond before the timeout.
+   * @return the number of timed out nodes, always 0 for a notification which is not the completion notification.
+   */
+  public int getTimeoutCount() {
+    return timeoutCount;
+  }
+
+  /**
+   * Create a filter which only accepts the notifications for the specified request.
+   * @param requestID the id of the request.
+   * @return a {@link NotificationFilter} instance.
+   */
+  public static NotificationFilter filter(final String requestID) {
+    return new RequestFilter(requestID);
+  }
+
+  @Override
+  public String toString() {
+    return new StringBuilder(getClass().getSimpleName())
+      .append("[type=").append(getType()).append(", requestID=").append(requestID).append(", nodeUuid=").append(nodeUuid)
+      .append(", sequenceNumber=").append(getSequenceNumber()).append(", timeoutCount=").append(timeoutCount)
+      .append(", result=").append(result).append(']').toString();
+  }
+
+  /**
+   * Accepts only the notifications for a given request.
+   */
+  private static class RequestFilter implements NotificationFilter {
+    /**
+     * Explicit serialVersionUID.
+     */
+    private static final long serialVersionUID = 1L;
+    /**
+     * The id of the request.
+     */
+    private final String requestID;
+
+    /**
+     * Initialize with the specified request id.
+     * @param requestID the id of the request.
+     */
+    private RequestFilter(final String requestID) {
+      this.requestID = requestID;
+    }
+
+    @Override
+    public boolean isNotificationEnabled(final Notification notification) {
+      return (notification instanceof ForwardingResultNotification) && requestID.equals(((ForwardingResultNotification) notification).getRequestID());
+    }
+  }
+}
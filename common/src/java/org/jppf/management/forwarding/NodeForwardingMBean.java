@@ -104,6 +104,28 @@ public interface NodeForwardingMBean extends Serializable, NotificationEmitter,
   ResultsMap<String, Void> forwardSetAttribute(@MBeanParamName("nodeSelector") NodeSelector selector, @MBeanParamName("mbeanName") String mbeanName, @MBeanParamName("attribute") String attribute,
     @MBeanParamName("value") Object value) throws Exception;
 
+  /**
+   * Invoke a method on the specified MBean of the selected nodes attached to the driver, without waiting for the results.
+   * <p>The result from each node is emitted as a {@link ForwardingResultNotification} as soon as it is received, followed by a last notification
+   * once all the selected nodes have responded or timed out. To receive them, a listener should be registered with the filter
+   * {@link ForwardingResultNotification#filter(String) ForwardingResultNotification.filter(requestID)} before calling this method.
+   * @param requestID an identifier for this request, chosen by the caller and carried by the result notifications.
+   * @param selector a filter on the nodes attached to the driver, determines the nodes to which this method applies.
+   * @param mbeanName the name of the MBean.
+   * @param methodName the name of the method to invoke.
+   * @param params the method parameter values.
+   * @param signature the types of the method parameters.
+   * @param timeout the maximum time in millis to wait for the result of each node, after which the result for the node is a {@link org.jppf.JPPFTimeoutException}.
+   * A value less than or equal to 0 means no timeout.
+   * @return the number of nodes to which the request was forwarded, that is, the number of result notifications to expect.
+   * @throws Exception if the invocation failed.
+   * @since 6.2
+   */
+  @MBeanDescription("invoke a method on the specified MBean of the selected nodes and emit each node result as a notification")
+  int forwardInvokeAsync(@MBeanParamName("requestID") String requestID, @MBeanParamName("nodeSelector") NodeSelector selector, @MBeanParamName("mbeanName") String mbeanName,
+    @MBeanParamName("methodName") String methodName, @MBeanParamName("params") Object[] params, @MBeanParamName("signature") String[] signature,
+    @MBeanParamName("timeout") long timeout) throws Exception;
+
   /**
    * Get the latest state information from the node.
    * @param selector a filter on the nodes attached to the driver, determines the nodes to which this method applies.
@@ -42,6 +42,10 @@ public abstract class AbstractNioMessage extends AbstractNioMessageBase {
    * The number of objects to read or write.
    */
   protected int nbObjects = -1;
+  /**
+   * Writes the whole message without intermediate copies, when the channel and the data locations allow it.
+   */
+  private GatheringChannelWriter gatheringWriter;
 
   /**
    * Initialize this nio message.
@@ -74,6 +78,11 @@ public abstract class AbstractNioMessage extends AbstractNioMessageBase {
   @Override
   public boolean write() throws Exception {
     if (nbObjects <= 0) beforeFirstWrite();
+    if ((position == 0) && resetCurrentLength && (gatheringWriter == null) && IO.ZERO_COPY_WRITES && !ssl && (nbObjects > 0) && (nbObjects <= locations.size())) {
+      final List<DataLocation> toWrite = locations.subList(0, nbObjects);
+      if (GatheringChannelWriter.isSupported(toWrite)) gatheringWriter = new GatheringChannelWriter(channel.getSocketChannel(), toWrite);
+    }
+    if (gatheringWriter != null) return writeGathered();
     while (position < nbObjects) {
       if (!writeNextObject()) return false;
     }
@@ -107,7 +116,7 @@ public abstract class AbstractNioMessage extends AbstractNioMessageBase {
     }
     if (currentLength > 0) {
       if (currentObject == null) {
-        final DataLocation location = IOHelper.createDataLocationMemorySensitive(currentLength);
+        final DataLocation location = IOHelper.createDataLocationMemorySensitive(currentLength, isPooled(position));
         currentObject = ssl ? new SSLNioObject(location, sslHandler) : new PlainNioObject(channel.getSocketChannel(), location);
       }
       try {
@@ -171,6 +180,21 @@ public abstract class AbstractNioMessage extends AbstractNioMessageBase {
     return true;
   }
 
+  /**
+   * Write the message with the gathering writer.
+   * @return true if the message has been completely written the channel, false otherwise.
+   * @throws Exception if an IO error occurs.
+   */
+  private boolean writeGathered() throws Exception {
+    final boolean done = gatheringWriter.write(n -> {
+      count += n;
+      updateCounts(n, WRITE);
+    });
+    position = gatheringWriter.getCompletedLocations();
+    if (done) gatheringWriter = null;
+    return done;
+  }
+
   /**
    * Get the data location objects abstracting the data to send or receive.
    * @return a list of <code>DataLocation</code> objects.
@@ -186,6 +210,16 @@ public abstract class AbstractNioMessage extends AbstractNioMessageBase {
   protected void afterFirstRead() throws Exception {
   }
 
+  /**
+   * Determine whether the buffer of the object at the specified position can be obtained from the buffer pool.
+   * This is only the case when the object's location is released once it is no longer used. This implementation returns {@code false}.
+   * @param position the position of the object in the message.
+   * @return {@code true} if the object is read into a pooled buffer, {@code false} otherwise.
+   */
+  protected boolean isPooled(final int position) {
+    return false;
+  }
+
   /**
    * Actions to take before the first object in the message is written.
    * @throws Exception if an IO error occurs.
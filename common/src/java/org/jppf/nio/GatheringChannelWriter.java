@@ -0,0 +1,317 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jppf.nio;
+
+import java.io.FileInputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.*;
+import java.util.*;
+
+import org.jppf.io.*;
+import org.jppf.serialization.SerializationUtils;
+import org.jppf.utils.JPPFBuffer;
+import org.slf4j.*;
+
+/**
+ * Writes a sequence of data locations to a plain socket channel, each preceded by its length, without copying their content into intermediate buffers.
+ * <p>Consecutive in-memory and memory-mapped buffers, including the length prefixes, are sent with gathering writes, while the content
+ * of file locations is sent with {@link FileChannel#transferTo(long, long, WritableByteChannel) FileChannel.transferTo()}.
+ * <p>The data locations are only read from: their own transfer state is left untouched, so they can be sent concurrently over several channels.
+ * @author Laurent Cohen
+ * @exclude
+ */
+public class GatheringChannelWriter {
+  /**
+   * Logger for this class.
+   */
+  private static final Logger log = LoggerFactory.getLogger(GatheringChannelWriter.class);
+  /**
+   * Determines whether TRACE logging level is enabled.
+   */
+  private static final boolean traceEnabled = log.isTraceEnabled();
+  /**
+   * Maximum number of bytes passed to a single gathering write. Since the JDK copies heap buffers into temporary direct buffers
+   * before writing them, this bounds the size of these temporary buffers.
+   */
+  private static final int MAX_BYTES_PER_WRITE = 256 * 1024;
+  /**
+   * Maximum number of buffers passed to a single gathering write.
+   */
+  private static final int MAX_BUFFERS_PER_WRITE = 64;
+  /**
+   * The channel to write to.
+   */
+  private final SocketChannel channel;
+  /**
+   * The segments of data to write, in order.
+   */
+  private final List<Segment> segments = new ArrayList<>();
+  /**
+   * Reusable array of buffer views passed to the gathering writes.
+   */
+  private final ByteBuffer[] views = new ByteBuffer[MAX_BUFFERS_PER_WRITE];
+  /**
+   * Index of the segment currently being written.
+   */
+  private int segmentIndex;
+  /**
+   * Number of bytes already written in the current segment.
+   */
+  private long segmentOffset;
+  /**
+   * The file channel used to send the current file segment, if any.
+   */
+  private FileChannel fileChannel;
+  /**
+   * The number of data locations that were fully written.
+   */
+  private int completedLocations;
+
+  /**
+   * Initialize this writer with the specified channel and data locations.
+   * @param channel the channel to write to.
+   * @param locations the data locations to write.
+   */
+  public GatheringChannelWriter(final SocketChannel channel, final List<DataLocation> locations) {
+    this.channel = channel;
+    for (final DataLocation location: locations) {
+      final byte[] length = new byte[4];
+      SerializationUtils.writeInt(location.getSize(), length, 0);
+      segments.add(new Segment(length, 4));
+      if (location instanceof MultipleBuffersLocation) {
+        final MultipleBuffersLocation mbl = (MultipleBuffersLocation) location;
+        final int n = mbl.getBufferCount();
+        int remaining = mbl.getSize();
+        for (int i=0; (i<n) && (remaining > 0); i++) {
+          final JPPFBuffer buf = mbl.getBuffer(i);
+          final int len = Math.min(buf.length, remaining);
+          if (len > 0) segments.add(new Segment(buf.buffer, len));
+          remaining -= len;
+        }
+      } else if (location instanceof MappedDataLocation) {
+        if (location.getSize() > 0) segments.add(new Segment(((MappedDataLocation) location).getData()));
+      } else if (location.getSize() > 0) segments.add(new Segment(location, location.getSize()));
+      segments.get(segments.size() - 1).lastOfLocation = true;
+    }
+  }
+
+  /**
+   * Determine whether all the specified locations can be written by this class.
+   * @param locations the data locations to check.
+   * @return {@code true} if each location is either held in memory, in a mapped overflow segment or in a file, {@code false} otherwise.
+   */
+  public static boolean isSupported(final List<DataLocation> locations) {
+    for (final DataLocation location: locations) {
+      if (!(location instanceof MultipleBuffersLocation) && !(location instanceof MappedDataLocation) && !(location instanceof FileDataLocation)) return false;
+    }
+    return true;
+  }
+
+  /**
+   * Write as much data as the channel accepts without blocking.
+   * @param callback called with the number of bytes written by each write operation.
+   * @return {@code true} if all the data was written, {@code false} otherwise.
+   * @throws Exception if any I/O error occurs.
+   */
+  public boolean write(final WriteCallback callback) throws Exception {
+    try {
+      while (segmentIndex < segments.size()) {
+        final Segment segment = segments.get(segmentIndex);
+        final long n = (segment.location != null) ? transferFile(segment) : writeGathered();
+        if (n <= 0) return false;
+        callback.bytesWritten(n);
+      }
+      return true;
+    } catch (final Exception e) {
+      close();
+      throw e;
+    }
+  }
+
+  /**
+   * Write the content of the current file segment with {@link FileChannel#transferTo(long, long, WritableByteChannel)}.
+   * @param segment the segment to write.
+   * @return the number of bytes written.
+   * @throws Exception if any I/O error occurs.
+   */
+  private long transferFile(final Segment segment) throws Exception {
+    if (fileChannel == null) {
+      @SuppressWarnings("resource")
+      final FileInputStream fis = new FileInputStream(((FileDataLocation) segment.location).getFilePath());
+      fileChannel = fis.getChannel();
+    }
+    long total = 0L;
+    while (segmentOffset < segment.length) {
+      final long n = fileChannel.transferTo(segmentOffset, segment.length - segmentOffset, channel);
+      if (n <= 0) break;
+      segmentOffset += n;
+      total += n;
+    }
+    if (segmentOffset >= segment.length) {
+      close();
+      nextSegment();
+    }
+    if (traceEnabled) log.trace("transferred {} bytes from {}", total, segment.location);
+    return total;
+  }
+
+  /**
+   * Write the consecutive in-memory segments starting at the current one with a single gathering write.
+   * @return the number of bytes written.
+   * @throws Exception if any I/O error occurs.
+   */
+  private long writeGathered() throws Exception {
+    int count = 0, budget = MAX_BYTES_PER_WRITE;
+    long offset = segmentOffset;
+    for (int i=segmentIndex; (i<segments.size()) && (count < MAX_BUFFERS_PER_WRITE) && (budget > 0); i++) {
+      final Segment segment = segments.get(i);
+      if (segment.location != null) break;
+      if (segment.direct != null) {
+        // direct buffers are written as is by the JDK, they don't count against the budget
+        final ByteBuffer view = segment.direct.duplicate();
+        view.position((int) offset);
+        views[count++] = view;
+      } else {
+        final int len = (int) Math.min(segment.length - offset, budget);
+        views[count++] = ByteBuffer.wrap(segment.data, (int) offset, len);
+        budget -= len;
+      }
+      offset = 0L;
+    }
+    final long n = channel.write(views, 0, count);
+    Arrays.fill(views, 0, count, null);
+    long remaining = n;
+    while ((remaining > 0L) && (segmentIndex < segments.size())) {
+      final Segment segment = segments.get(segmentIndex);
+      final long left = segment.length - segmentOffset;
+      if (remaining < left) {
+        segmentOffset += remaining;
+        remaining = 0L;
+      } else {
+        remaining -= left;
+        nextSegment();
+      }
+    }
+    if (traceEnabled) log.trace("gathering write of {} bytes in {} buffers", n, count);
+    return n;
+  }
+
+  /**
+   * Move to the next segment.
+   */
+  private void nextSegment() {
+    if (segments.get(segmentIndex).lastOfLocation) completedLocations++;
+    segmentIndex++;
+    segmentOffset = 0L;
+  }
+
+  /**
+   * @return the number of data locations that were fully written so far.
+   */
+  public int getCompletedLocations() {
+    return completedLocations;
+  }
+
+  /**
+   * Release the resources held by this writer.
+   */
+  public void close() {
+    if (fileChannel != null) {
+      try {
+        fileChannel.close();
+      } catch (final Exception e) {
+        log.debug("error closing file channel", e);
+      }
+      fileChannel = null;
+    }
+  }
+
+  /**
+   * Callback notified of the bytes written by this writer.
+   */
+  @FunctionalInterface
+  public interface WriteCallback {
+    /**
+     * Called after a write operation.
+     * @param n the number of bytes written.
+     */
+    void bytesWritten(long n);
+  }
+
+  /**
+   * A contiguous block of data to write, either an array of bytes or the content of a file.
+   */
+  private static final class Segment {
+    /**
+     * The in-memory data, if any.
+     */
+    private final byte[] data;
+    /**
+     * The memory-mapped data, if any.
+     */
+    private final ByteBuffer direct;
+    /**
+     * The file location, if any.
+     */
+    private final DataLocation location;
+    /**
+     * The number of bytes to write.
+     */
+    private final long length;
+    /**
+     * Whether this is the last segment of a data location.
+     */
+    private boolean lastOfLocation;
+
+    /**
+     * Create an in-memory segment.
+     * @param data the data to write.
+     * @param length the number of bytes to write.
+     */
+    private Segment(final byte[] data, final int length) {
+      this.data = data;
+      this.direct = null;
+      this.location = null;
+      this.length = length;
+    }
+
+    /**
+     * Create a memory-mapped segment.
+     * @param direct the data to write, from position 0 to its limit.
+     */
+    private Segment(final ByteBuffer direct) {
+      this.data = null;
+      this.direct = direct;
+      this.location = null;
+      this.length = direct.limit();
+    }
+
+    /**
+     * Create a file segment.
+     * @param location the file location to write.
+     * @param length the number of bytes to write.
+     */
+    private Segment(final DataLocation location, final long length) {
+      this.data = null;
+      this.direct = null;
+      this.location = location;
+      this.length = length;
+    }
+  }
+}
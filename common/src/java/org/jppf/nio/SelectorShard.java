@@ -0,0 +1,156 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jppf.nio;
+
+import java.nio.channels.*;
+import java.util.Set;
+
+import org.jppf.utils.ExceptionUtils;
+import org.slf4j.*;
+
+/**
+ * A selector which handles a subset of the channels of a {@link StatelessNioServer}.
+ * <p>Each shard runs its own selection loop and performs the accept, read and write operations on its selected keys
+ * in the selecting thread, so that a slow channel only delays the other channels of the same shard.
+ * @param <C> the type of connection context handled by the server.
+ * @author Laurent Cohen
+ */
+class SelectorShard<C extends AbstractNioContext> implements Runnable {
+  /**
+   * Logger for this class.
+   */
+  private static final Logger log = LoggerFactory.getLogger(SelectorShard.class);
+  /**
+   * Determines whether DEBUG logging level is enabled.
+   */
+  private static final boolean debugEnabled = log.isDebugEnabled();
+  /**
+   * The server this shard belongs to.
+   */
+  private final StatelessNioServer<C> server;
+  /**
+   * The index of this shard in the server.
+   */
+  private final int index;
+  /**
+   * The selector for the channels of this shard.
+   */
+  final Selector selector;
+  /**
+   * Used to synchronize on the selector for blocking operations.
+   */
+  final SelectorSynchronizer sync;
+
+  /**
+   * Create a shard with the specified selector.
+   * @param server the server this shard belongs to.
+   * @param index the index of this shard in the server.
+   * @param selector the selector for the channels of this shard.
+   * @param sync used to synchronize on the selector for blocking operations.
+   */
+  SelectorShard(final StatelessNioServer<C> server, final int index, final Selector selector, final SelectorSynchronizer sync) {
+    this.server = server;
+    this.index = index;
+    this.selector = selector;
+    this.sync = sync;
+  }
+
+  @Override
+  public void run() {
+    try {
+      final boolean hasTimeout = server.selectTimeout > 0L;
+      int n = 0;
+      while (!server.isStopped() && !server.externalStopCondition()) {
+        sync.waitForZeroAndSetToMinusOne();
+        try {
+          n = hasTimeout ? selector.select(server.selectTimeout) : selector.select();
+        } finally {
+          sync.setToZeroIfNegative();
+        }
+        if (n > 0) process(selector.selectedKeys());
+      }
+    } catch (final ClosedSelectorException e) {
+      if (debugEnabled) log.debug("selector closed for {}", this);
+    } catch (final Throwable t) {
+      if (!server.isStopped()) log.error("error in selector loop for {} : {}", this, ExceptionUtils.getStackTrace(t));
+    }
+  }
+
+  /**
+   * Process the keys selected by this shard's selector for I/O operations.
+   * @param selectedKeys the set of keys that were selected by the latest <code>select()</code> invocation.
+   */
+  private void process(final Set<SelectionKey> selectedKeys) {
+    try {
+      if (server.acceptHandler != null) server.acceptHandler.handle(server, selectedKeys);
+      if (server.readHandler   != null) server.readHandler.handle(server, selectedKeys);
+      if (server.writeHandler  != null) server.writeHandler.handle(server, selectedKeys);
+    } finally {
+      selectedKeys.clear();
+    }
+  }
+
+  /**
+   * Register the specified channel with this shard's selector.
+   * @param channelHandler the context associated with the channel.
+   * @param channel the channel to register.
+   * @param ops the initial interest operations.
+   * @return the resulting selection key.
+   * @throws Exception if any error occurs.
+   */
+  SelectionKey register(final NioChannelHandler channelHandler, final SocketChannel channel, final int ops) throws Exception {
+    sync.wakeUpAndSetOrIncrement();
+    try {
+      return channel.register(selector, ops, channelHandler);
+    } finally {
+      sync.decrement();
+    }
+  }
+
+  /**
+   * Get the approximate number of channels registered with this shard.
+   * @return the number of registered keys.
+   */
+  int getLoad() {
+    try {
+      return selector.keys().size();
+    } catch (final ClosedSelectorException e) {
+      return Integer.MAX_VALUE;
+    }
+  }
+
+  /**
+   * Close this shard's selector.
+   */
+  void close() {
+    sync.wakeUpAndSetOrIncrement();
+    try {
+      selector.close();
+    } catch (final Exception e) {
+      log.error(e.getMessage(), e);
+    } finally {
+      sync.decrement();
+    }
+  }
+
+  @Override
+  public String toString() {
+    return server.getName() + "-shard-" + index;
+  }
+}
@@ -21,8 +21,11 @@ package org.jppf.nio;
 import java.nio.channels.*;
 import java.util.*;
 import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.jppf.utils.*;
+import org.jppf.utils.concurrent.ThreadUtils;
+import org.jppf.utils.configuration.JPPFProperties;
 import org.slf4j.*;
 
 /**
@@ -51,6 +54,18 @@ public abstract class StatelessNioServer<C extends AbstractNioContext> extends N
    * 
    */
   protected KeysetHandler<C> acceptHandler, readHandler, writeHandler;
+  /**
+   * The selector shards of this server, or {@code null} if all channels are handled by the single selector of this server.
+   */
+  private SelectorShard<C>[] shards;
+  /**
+   * Whether new channels are assigned to the shard with the fewest channels rather than in round-robin fashion.
+   */
+  private boolean leastLoadedAssignment;
+  /**
+   * Used to assign channels to the shards in round-robin fashion.
+   */
+  private final AtomicInteger shardSequence = new AtomicInteger(0);
 
   /**
    * @param identifier the channel identifier for channels handled by this server.
@@ -113,8 +128,43 @@ public abstract class StatelessNioServer<C extends AbstractNioContext> extends N
    */
   protected abstract void initReaderAndWriter();
 
+  /**
+   * Split the channels handled by this server across the specified number of selectors, each running its own selection loop.
+   * The first shard uses the selector of this server and runs in this server's thread.
+   * This method must be called before this server is started, and has no effect if {@code nbShards <= 1}.
+   * @param nbShards the number of selector shards.
+   * @param assignment how new channels are assigned to the shards, either {@code "round_robin"} or {@code "least_loaded"}.
+   * Any other value is reported and replaced with {@code "round_robin"}.
+   * @throws Exception if a selector could not be opened.
+   */
+  @SuppressWarnings("unchecked")
+  protected void initSelectorShards(final int nbShards, final String assignment) throws Exception {
+    if (nbShards <= 1) return;
+    final SelectorShard<C>[] array = new SelectorShard[nbShards];
+    array[0] = new SelectorShard<>(this, 0, selector, sync);
+    for (int i=1; i<nbShards; i++) {
+      final Selector sel = Selector.open();
+      array[i] = new SelectorShard<>(this, i, sel, new SelectorSynchronizerLock(sel));
+    }
+    final String value = (assignment == null) ? "" : assignment.trim();
+    leastLoadedAssignment = "least_loaded".equalsIgnoreCase(value);
+    if (!leastLoadedAssignment && !"round_robin".equalsIgnoreCase(value))
+      log.warn("invalid value '{}' for property '{}', using 'round_robin' instead", assignment, JPPFProperties.SELECTOR_SHARD_ASSIGNMENT.getName());
+    shards = array;
+    log.info("{} will use {} selector shards with {} assignment", getName(), nbShards, leastLoadedAssignment ? "least_loaded" : "round_robin");
+  }
+
   @Override
   public void run() {
+    if (shards != null) {
+      try {
+        for (int i=1; i<shards.length; i++) ThreadUtils.startDaemonThread(shards[i], shards[i].toString());
+        shards[0].run();
+      } finally {
+        end();
+      }
+      return;
+    }
     try {
       final boolean hasTimeout = selectTimeout > 0L;
       int n = 0;
@@ -258,11 +308,12 @@ public abstract class StatelessNioServer<C extends AbstractNioContext> extends N
     if (newOps != ops) {
       if (traceEnabled) log.trace(String.format("updating interestOps from %d to %d for %s", ops, newOps, key.attachment()));
       context.setInterestOps(newOps);
-      sync.wakeUpAndSetOrIncrement();
+      final SelectorSynchronizer keySync = getSynchronizer(key);
+      keySync.wakeUpAndSetOrIncrement();
       try {
         key.interestOps(newOps);
       } finally {
-        sync.decrement();
+        keySync.decrement();
       }
     }
   }
@@ -276,6 +327,10 @@ public abstract class StatelessNioServer<C extends AbstractNioContext> extends N
   public void registerChannel(final NioChannelHandler channelHandler, final SocketChannel channel) throws Exception {
     final int ops = SelectionKey.OP_READ;
     channelHandler.setInterestOps(ops);
+    if (shards != null) {
+      channelHandler.setSelectionKey(nextShard().register(channelHandler, channel, ops));
+      return;
+    }
     sync.wakeUpAndSetOrIncrement();
     try {
       channelHandler.setSelectionKey(channel.register(selector, ops, channelHandler));
@@ -284,6 +339,62 @@ public abstract class StatelessNioServer<C extends AbstractNioContext> extends N
     }
   }
 
+  /**
+   * Get the selection key of the specified channel, whichever selector shard it is registered with.
+   * @param channel the channel for which to get the key.
+   * @return the channel's key, or {@code null} if the channel is not registered with this server.
+   */
+  public SelectionKey getSelectionKey(final SocketChannel channel) {
+    if (shards == null) return channel.keyFor(selector);
+    for (final SelectorShard<C> shard: shards) {
+      final SelectionKey key = channel.keyFor(shard.selector);
+      if (key != null) return key;
+    }
+    return null;
+  }
+
+  /**
+   * Choose the shard to which a new channel is assigned.
+   * @return a {@link SelectorShard} instance.
+   */
+  private SelectorShard<C> nextShard() {
+    if (!leastLoadedAssignment) return shards[Math.floorMod(shardSequence.getAndIncrement(), shards.length)];
+    SelectorShard<C> result = shards[0];
+    int min = result.getLoad();
+    for (int i=1; i<shards.length; i++) {
+      final int load = shards[i].getLoad();
+      if (load < min) {
+        min = load;
+        result = shards[i];
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Get the synchronizer for the selector the specified key is registered with.
+   * @param key the key to lookup.
+   * @return a {@link SelectorSynchronizer} instance.
+   */
+  private SelectorSynchronizer getSynchronizer(final SelectionKey key) {
+    if (shards != null) {
+      final Selector keySelector = key.selector();
+      for (final SelectorShard<C> shard: shards) {
+        if (shard.selector == keySelector) return shard.sync;
+      }
+    }
+    return sync;
+  }
+
+  @Override
+  public void removeAllConnections() {
+    if (!isStopped()) return;
+    if (shards != null) {
+      for (int i=1; i<shards.length; i++) shards[i].close();
+    }
+    super.removeAllConnections();
+  }
+
   /**
    * Set the interest ops of a specified selection key.
    * This method is proposed as a convenience, to encapsulate the inner locking mechanism.
@@ -327,13 +438,27 @@ public abstract class StatelessNioServer<C extends AbstractNioContext> extends N
    */
   public Map<String, C> performContextAction(final ContextFilter<C> filter, final ContextAction<C> action) {
     Set<SelectionKey> keys = null;
-    sync.wakeUpAndSetOrIncrement();
-    try {
-      keys  = new HashSet<>(selector.keys());
-    } catch (final Exception e) {
-      log.error(e.getMessage(), e);
-    } finally {
-      sync.decrement();
+    if (shards != null) {
+      keys = new HashSet<>();
+      for (final SelectorShard<C> shard: shards) {
+        shard.sync.wakeUpAndSetOrIncrement();
+        try {
+          keys.addAll(shard.selector.keys());
+        } catch (final Exception e) {
+          log.error(e.getMessage(), e);
+        } finally {
+          shard.sync.decrement();
+        }
+      }
+    } else {
+      sync.wakeUpAndSetOrIncrement();
+      try {
+        keys  = new HashSet<>(selector.keys());
+      } catch (final Exception e) {
+        log.error(e.getMessage(), e);
+      } finally {
+        sync.decrement();
+      }
     }
     if (keys == null) return Collections.emptyMap();
     final Map<String, C> channels = new HashMap<>(keys.size());
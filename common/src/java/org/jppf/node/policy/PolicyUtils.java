@@ -95,4 +95,24 @@ public class PolicyUtils {
     }
     return reader;
   }
+
+  /**
+   * Determine whether the outcome of the specified policy only depends on the properties it is evaluated against.
+   * This is the case when neither the policy nor any of its descendants is a scripted, custom or {@link NodesMatching} policy,
+   * in which case the result of an evaluation against a given set of properties can be safely cached.
+   * @param policy the policy to check.
+   * @return {@code true} if the policy is {@code null} or context-independent, {@code false} otherwise.
+   */
+  public static boolean isContextIndependent(final ExecutionPolicy policy) {
+    if (policy == null) return true;
+    if ((policy instanceof ScriptedPolicy) || (policy instanceof NodesMatching)) return false;
+    if (policy.getClass().getPackage() != ExecutionPolicy.class.getPackage()) return false;
+    final ExecutionPolicy[] children = policy.getChildren();
+    if (children != null) {
+      for (final ExecutionPolicy child: children) {
+        if (!isContextIndependent(child)) return false;
+      }
+    }
+    return true;
+  }
 }
@@ -171,5 +171,26 @@ public enum BundleParameter {
   /**
    * Whether a job graph is already being handled by a driver.
    */
-  JOB_GRAPH_ALREADY_HANDLED
+  JOB_GRAPH_ALREADY_HANDLED,
+  /**
+   * An array of ints that holds the positions of the tasks in a partial results message sent by a node for a job whose results are streamed.
+   */
+  PARTIAL_RESULTS_POSITIONS,
+  /**
+   * The number of tasks whose results were streamed by a node before it sent the results of the remaining tasks in a bundle.
+   */
+  STREAMED_TASK_COUNT,
+  /**
+   * The comma-separated names of the payload codecs supported by a node or client, sent in its handshake.
+   */
+  PAYLOAD_CODECS,
+  /**
+   * The name of the payload codec to use for the task payloads sent to the driver, as negotiated during the handshake.
+   */
+  PAYLOAD_CODEC,
+  /**
+   * An array of the names of the classes and resources loaded remotely by the tasks of previous jobs of the same kind,
+   * which a node fetches in a single request before deserializing the tasks.
+   */
+  CLASSPATH_PREFETCH_MANIFEST
 }
@@ -102,6 +102,10 @@ public class JobSLA extends JobCommonSLA<JobSLA> {
    * The specification of dependencies for the job.
    */
   private JobDependencySpec dependencySpec = new JobDependencySpec();
+  /**
+   * Whether the nodes send the results of the tasks as soon as they complete, instead of when the whole node bundle has completed.
+   */
+  private boolean streamResults;
 
   /**
    * Default constructor.
@@ -445,6 +449,7 @@ public class JobSLA extends JobCommonSLA<JobSLA> {
     sla.setSuspended(suspended);
     sla.setMaxDriverDepth(maxDriverDepth);
     sla.dependencySpec = dependencySpec;
+    sla.setStreamResults(streamResults);
     return sla;
   }
 
@@ -478,4 +483,28 @@ public class JobSLA extends JobCommonSLA<JobSLA> {
   public JobDependencySpec getDependencySpec() {
     return dependencySpec;
   }
+
+  /**
+   * Determine whether the nodes send the results of the job's tasks as soon as each task completes.
+   * The default value, when not specified via {@link #setStreamResults(boolean)}, is {@code false}.
+   * @return {@code true} if the task results are streamed, {@code false} if they are sent when all the tasks dispatched to a node have completed.
+   * @since 6.2
+   */
+  public boolean isStreamResults() {
+    return streamResults;
+  }
+
+  /**
+   * Specify whether the nodes send the results of the job's tasks as soon as each task completes,
+   * instead of waiting for all the tasks dispatched to the same node to complete.
+   * This allows results to reach the client earlier when a few tasks take much longer than the others, at the cost of more network round trips.
+   * <p>This setting is ignored for broadcast jobs and by offline nodes.
+   * @param streamResults {@code true} to stream the task results, {@code false} otherwise.
+   * @return this SLA, for method call chaining.
+   * @since 6.2
+   */
+  public JobSLA setStreamResults(final boolean streamResults) {
+    this.streamResults = streamResults;
+    return this;
+  }
 }
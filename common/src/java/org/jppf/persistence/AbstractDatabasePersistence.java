@@ -20,12 +20,12 @@ package org.jppf.persistence;
 
 import java.io.*;
 import java.sql.*;
-import java.util.Locale;
+import java.util.*;
 
 import javax.sql.DataSource;
 
 import org.jppf.utils.*;
-import org.jppf.utils.configuration.JPPFProperty;
+import org.jppf.utils.configuration.*;
 import org.slf4j.*;
 
 /**
@@ -91,6 +91,11 @@ public abstract class AbstractDatabasePersistence<I> {
    * @exclude
    */
   protected final JPPFProperty<String> ddlProp;
+  /**
+   * The maximum number of rows written in a single JDBC batch.
+   * @exclude
+   */
+  protected final int batchSize = JPPFConfiguration.get(JPPFProperties.PERSISTENCE_JDBC_BATCH_SIZE);
 
   /**
    * Intialize this persistence with a table name specified in the first string parameter.
@@ -155,7 +160,7 @@ public abstract class AbstractDatabasePersistence<I> {
       try {
         insertElement(connection, info, bytes);
       } catch (final SQLException e) {
-        if ((e instanceof SQLIntegrityConstraintViolationException) || ((e.getMessage() != null) && e.getMessage().toLowerCase(Locale.US).contains("violation"))) {
+        if (isConstraintViolation(e)) {
           if (traceEnabled) log.trace("Insert of element failed with constraint violation, attempting update instead, element={}", info);
           updateElement(connection, info, bytes);
         } else throw e;
@@ -163,6 +168,106 @@ public abstract class AbstractDatabasePersistence<I> {
     }
   }
 
+  /**
+   * Insert or update the specified elements in the database, using JDBC batches of at most {@link #batchSize} rows.
+   * <p>For each batch, all the elements are first inserted in a single round-trip, since new elements are the most common case.
+   * If some inserts fail with a constraint violation because the element already exists, then only these elements are updated, in a second round-trip.
+   * This way, the content of each element is sent only once. When the JDBC driver stops processing the batch at the first failure,
+   * the remaining elements of the batch are {@linkplain #storeElement(Connection, Object, byte[]) stored one at a time} instead.
+   * @param connection the JDBC connection with which to create and execute the statements.
+   * @param infos the information on the objects to persist.
+   * @param bytes the serialized objects, in the same order as {@code infos}. May be {@code null}, in which case {@code null} is passed for each object.
+   * @throws Exception if any error occurs.
+   * @exclude
+   */
+  protected void storeElements(final Connection connection, final List<I> infos, final List<byte[]> bytes) throws Exception {
+    final int size = infos.size();
+    if (size == 1) {
+      storeElement(connection, infos.get(0), (bytes == null) ? null : bytes.get(0));
+      return;
+    }
+    try (final PreparedStatement insert = connection.prepareStatement(getInsertSQL()); final PreparedStatement update = connection.prepareStatement(getUpdateSQL())) {
+      for (int start=0; start<size; start+=batchSize) {
+        final int end = Math.min(size, start + batchSize);
+        for (int i=start; i<end; i++) {
+          setInsertParameters(insert, infos.get(i), (bytes == null) ? null : bytes.get(i));
+          insert.addBatch();
+        }
+        final int[] counts;
+        try {
+          insert.executeBatch();
+          continue;
+        } catch (final BatchUpdateException e) {
+          if (!isConstraintViolation(e)) throw e;
+          counts = e.getUpdateCounts();
+        } catch (final SQLException e) {
+          if (!isConstraintViolation(e)) throw e;
+          counts = null;
+        }
+        insert.clearBatch();
+        // the elements whose insert failed already exist and are updated
+        final int processed = (counts == null) ? 0 : Math.min(counts.length, end - start);
+        int nbUpdates = 0;
+        for (int i=0; i<processed; i++) {
+          if (counts[i] != Statement.EXECUTE_FAILED) continue;
+          setUpdateParameters(update, infos.get(start + i), (bytes == null) ? null : bytes.get(start + i));
+          update.addBatch();
+          nbUpdates++;
+        }
+        if (traceEnabled) log.trace("batch insert of {} elements failed with constraint violation, {} elements updated, {} stored one at a time", end - start, nbUpdates, end - start - processed);
+        if (nbUpdates > 0) update.executeBatch();
+        // the elements not processed by the JDBC driver after the first failure
+        for (int i=start + processed; i<end; i++) storeElement(connection, infos.get(i), (bytes == null) ? null : bytes.get(i));
+      }
+    }
+  }
+
+  /**
+   * Determine whether the specified exception, or one of the exceptions chained to it, represents an integrity constraint violation.
+   * @param e the exception to check.
+   * @return {@code true} if a constraint violation is detected, {@code false} otherwise.
+   */
+  private static boolean isConstraintViolation(final SQLException e) {
+    for (SQLException ex = e; ex != null; ex = ex.getNextException()) {
+      if ((ex instanceof SQLIntegrityConstraintViolationException) || ((ex.getMessage() != null) && ex.getMessage().toLowerCase(Locale.US).contains("violation"))) return true;
+    }
+    return false;
+  }
+
+  /**
+   * Get the SQL statement which inserts an element in the database.
+   * @return an SQL statement with the parameters set by {@link #setInsertParameters(PreparedStatement, Object, byte[])}.
+   * @exclude
+   */
+  protected abstract String getInsertSQL();
+
+  /**
+   * Get the SQL statement which updates an existing element in the database.
+   * @return an SQL statement with the parameters set by {@link #setUpdateParameters(PreparedStatement, Object, byte[])}.
+   * @exclude
+   */
+  protected abstract String getUpdateSQL();
+
+  /**
+   * Set the parameters of the statement which inserts an element in the database.
+   * @param ps the statement whose parameters to set.
+   * @param info the information on the object to persist.
+   * @param bytes the serialized object to persist, may be null.
+   * @throws Exception if any error occurs.
+   * @exclude
+   */
+  protected abstract void setInsertParameters(final PreparedStatement ps, final I info, final byte[] bytes) throws Exception;
+
+  /**
+   * Set the parameters of the statement which updates an existing element in the database.
+   * @param ps the statement whose parameters to set.
+   * @param info the information on the object to persist.
+   * @param bytes the serialized object to persist, may be null.
+   * @throws Exception if any error occurs.
+   * @exclude
+   */
+  protected abstract void setUpdateParameters(final PreparedStatement ps, final I info, final byte[] bytes) throws Exception;
+
   /**
    * Create a prepared statement which will insert or update an object in the database.
    * @param connection the JDBC connection with which to create an dexecute the statement.
@@ -84,6 +84,10 @@ class ClassDescriptor {
    * 
    */
   boolean populated;
+  /**
+   * The descriptors of the class hierarchy, from the topmost superclass down to the described class.
+   */
+  private ClassDescriptor[] hierarchy;
 
   /**
    * Initialize an empty class descriptor.
@@ -138,6 +142,22 @@ class ClassDescriptor {
     return found;
   }
 
+  /**
+   * Get the descriptors of the class hierarchy, in the order in which the fields of the described class are serialized.
+   * The result is computed once and reused, instead of building a new stack of descriptors for each serialized object.
+   * @return an array of descriptors, from the topmost superclass other than {@code Object} down to the described class.
+   */
+  ClassDescriptor[] getHierarchy() {
+    if (hierarchy == null) {
+      int n = 0;
+      for (ClassDescriptor desc = this; desc != null; desc = desc.superClass) n++;
+      final ClassDescriptor[] result = new ClassDescriptor[n];
+      for (ClassDescriptor desc = this; desc != null; desc = desc.superClass) result[--n] = desc;
+      hierarchy = result;
+    }
+    return hierarchy;
+  }
+
   /**
    * Write this class descriptor to an object output stream.
    * @param serializer the stream to write to.
@@ -31,14 +31,35 @@ public class DefaultJPPFSerialization implements JPPFSerialization {
    * 
    */
   private SoftReference<ClassLoader> ref = new SoftReference<>(null);
+  /**
+   * Whether the fields of serialized objects are accessed through method handles instead of reflection.
+   */
+  private final boolean methodHandles;
   /**
    * A fast dynamic pool of {@link Serializer} instances.
    */
-  private ObjectPool<Serializer> serializerPool = new SerializerPool();
+  private ObjectPool<Serializer> serializerPool;
   /**
    * A fast dynamic pool of {@link Deserializer} instances.
    */
-  private ObjectPool<Deserializer> deserializerPool =  new DeserializerPool();
+  private ObjectPool<Deserializer> deserializerPool;
+
+  /**
+   * Initialize this serialization scheme, with a field access mode specified by the {@code jppf.serialization.method.handles} configuration property.
+   */
+  public DefaultJPPFSerialization() {
+    this(SerializationReflectionHelper.USE_METHOD_HANDLES);
+  }
+
+  /**
+   * Initialize this serialization scheme with the specified field access mode.
+   * @param methodHandles {@code true} to access the fields of serialized objects through cached method handles, {@code false} to use reflection.
+   */
+  public DefaultJPPFSerialization(final boolean methodHandles) {
+    this.methodHandles = methodHandles;
+    serializerPool = new SerializerPool(methodHandles);
+    deserializerPool = new DeserializerPool(methodHandles);
+  }
 
   @SuppressWarnings("resource")
   @Override
@@ -49,7 +70,7 @@ public class DefaultJPPFSerialization implements JPPFSerialization {
       final ClassLoader cl = Thread.currentThread().getContextClassLoader();
       if ((refCl == null) || (cl != refCl)) {
         ref = new SoftReference<>(cl);
-        serializerPool = new SerializerPool();
+        serializerPool = new SerializerPool(methodHandles);
       }
     }
     Serializer serializer = null;
@@ -71,7 +92,7 @@ public class DefaultJPPFSerialization implements JPPFSerialization {
       final ClassLoader cl = Thread.currentThread().getContextClassLoader();
       if ((refCl == null) || (cl != refCl)) {
         ref = new SoftReference<>(cl);
-        deserializerPool = new DeserializerPool();
+        deserializerPool = new DeserializerPool(methodHandles);
       }
     }
     Deserializer deserializer = null;
@@ -88,9 +109,21 @@ public class DefaultJPPFSerialization implements JPPFSerialization {
    * A fast dynamic pool of {@link Serializer} instances.
    */
   private static class SerializerPool extends AbstractObjectPoolQueue<Serializer> {
+    /**
+     * Whether the created serializers use method handles.
+     */
+    private final boolean methodHandles;
+
+    /**
+     * @param methodHandles whether the created serializers use method handles.
+     */
+    SerializerPool(final boolean methodHandles) {
+      this.methodHandles = methodHandles;
+    }
+
     @Override
     protected Serializer create() {
-      return new Serializer(null);
+      return new Serializer(null, methodHandles);
     }
 
     @Override
@@ -104,9 +137,21 @@ public class DefaultJPPFSerialization implements JPPFSerialization {
    * A fast dynamic pool of {@link Deserializer} instances.
    */
   private static class DeserializerPool extends AbstractObjectPoolQueue<Deserializer> {
+    /**
+     * Whether the created deserializers use method handles.
+     */
+    private final boolean methodHandles;
+
+    /**
+     * @param methodHandles whether the created deserializers use method handles.
+     */
+    DeserializerPool(final boolean methodHandles) {
+      this.methodHandles = methodHandles;
+    }
+
     @Override
     protected Deserializer create() {
-      final Deserializer deserializer = new Deserializer(null);
+      final Deserializer deserializer = new Deserializer(null, methodHandles);
       return deserializer;
     }
 
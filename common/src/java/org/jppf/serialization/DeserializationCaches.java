@@ -37,7 +37,7 @@ class DeserializationCaches {
   /**
    * Mapping of handles to corresponding objects.
    */
-  final Map<Integer, Object> handleToObjectMap = new HashMap<>();
+  final HandleObjectMap handleToObjectMap = new HandleObjectMap();
 
   /**
    * Default constructor.
@@ -19,9 +19,8 @@
 package org.jppf.serialization;
 
 import java.io.*;
+import java.lang.invoke.MethodHandle;
 import java.lang.reflect.*;
-import java.util.Deque;
-import java.util.concurrent.LinkedBlockingDeque;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import org.jppf.serialization.SerializationUtils.StringLengthDesc;
@@ -78,13 +77,27 @@ class Deserializer {
    * Temporary buffer used to read arrays of primitive values from the stream.
    */
   byte[] buf = new byte[SerializationUtils.TEMP_BUFFER_SIZE];
+  /**
+   * Whether the fields are set through method handles instead of reflection.
+   */
+  final boolean methodHandles;
 
   /**
    * Initialize this deserializer with the specified input stream.
    * @param in the stream from which objects are read.
    */
   Deserializer(final ObjectInputStream in) {
+    this(in, SerializationReflectionHelper.USE_METHOD_HANDLES);
+  }
+
+  /**
+   * Initialize this deserializer with the specified input stream and field access mode.
+   * @param in the stream from which objects are read.
+   * @param methodHandles whether the fields are set through method handles instead of reflection.
+   */
+  Deserializer(final ObjectInputStream in, final boolean methodHandles) {
     this.in = in;
+    this.methodHandles = methodHandles;
   }
 
   /**
@@ -161,21 +174,15 @@ class Deserializer {
    * @throws Exception if any error occurs.
    */
   void readFields(final ClassDescriptor cd, final Object obj) throws Exception {
-    ClassDescriptor tmpDesc = cd;
     if (traceEnabled) try { log.trace("reading fields for object = {}, class = {}", StringUtils.toIdentityString(obj), cd); } catch(@SuppressWarnings("unused") final Exception e) {}
-    final Deque<ClassDescriptor> stack = new LinkedBlockingDeque<>();
-    while (tmpDesc != null) {
-      stack.addFirst(tmpDesc);
-      tmpDesc = tmpDesc.superClass;
-    }
-    for (ClassDescriptor desc: stack) {
+    for (ClassDescriptor desc: cd.getHierarchy()) {
       /*final SerializationHandler handler = SerializationReflectionHelper.getSerializationHandler(desc.clazz);
       if (handler != null) handler.readDeclaredFields(this, desc, obj);
       else*/ if (desc.hasReadWriteObject) {
         final Method m = desc.readObjectMethod;
         if (traceEnabled) try { log.trace("invoking readObject() for object = {}, class = {}", StringUtils.toIdentityString(obj), desc); } catch(@SuppressWarnings("unused") final Exception e) {}
+        final ClassDescriptor tmpDesc = currentClassDescriptor;
         try {
-          tmpDesc = currentClassDescriptor;
           currentClassDescriptor = desc;
           m.invoke(obj, in);
         } finally {
@@ -196,23 +203,23 @@ class Deserializer {
   @SuppressWarnings("unchecked")
   void readDeclaredFields(final ClassDescriptor cd, final Object obj) throws Exception {
     if (traceEnabled) try { log.trace("reading declared fields for object = {}, class = {}", StringUtils.toIdentityString(obj), cd); } catch(@SuppressWarnings("unused") final Exception e) {}
+    if (methodHandles) {
+      try {
+        readDeclaredFieldsWithHandles(cd, obj);
+      } catch (final Exception | Error e) {
+        throw e;
+      } catch (final Throwable t) {
+        throw new UndeclaredThrowableException(t);
+      }
+      return;
+    }
     for (FieldDescriptor fd: cd.fields) {
       //if (traceEnabled) try { log.trace("reading field '{}' of object {}", fd, obj); } catch(@SuppressWarnings("unused") Exception e) {}
       final ClassDescriptor typeDesc = fd.type;
       if (fd.field == null) fd.field = cd.clazz.getDeclaredField(fd.name);
       final Field field = fd.field;
-      if (typeDesc.primitive) {
-        switch(typeDesc.signature.charAt(0)) {
-          case 'B': field.setByte(obj, (byte) in.read()); break;
-          case 'S': field.setShort(obj, in.readShort()); break;
-          case 'I': field.setInt(obj, readInt()); break;
-          case 'J': field.setLong(obj, readLong()); break;
-          case 'F': field.setFloat(obj, readFloat()); break;
-          case 'D': field.setDouble(obj, readDouble()); break;
-          case 'C': field.setChar(obj, in.readChar()); break;
-          case 'Z': field.setBoolean(obj, in.readBoolean()); break;
-        }
-      } else if (typeDesc.enumType) {
+      if (typeDesc.primitive) readPrimitiveField(field, typeDesc.signature.charAt(0), obj);
+      else if (typeDesc.enumType) {
         final String name = (String) readObject();
         if (traceEnabled) try { log.trace("reading enum[" + typeDesc.signature + "] : " + name); } catch(@SuppressWarnings("unused") final Exception e) {}
         @SuppressWarnings("rawtypes")
@@ -225,6 +232,70 @@ class Deserializer {
     }
   }
 
+  /**
+   * Read the fields declared by the class described by the specified class descriptor, setting their values through method handles.
+   * Fields which cannot be set with a method handle, such as final fields on some JVMs, are set through reflection.
+   * @param cd the class descriptor to use.
+   * @param obj the object to set the field values on.
+   * @throws Throwable if any error occurs.
+   */
+  @SuppressWarnings("unchecked")
+  private void readDeclaredFieldsWithHandles(final ClassDescriptor cd, final Object obj) throws Throwable {
+    for (final FieldDescriptor fd: cd.fields) {
+      final ClassDescriptor typeDesc = fd.type;
+      if (fd.field == null) fd.field = cd.clazz.getDeclaredField(fd.name);
+      final MethodHandle setter = fd.setter();
+      if (typeDesc.primitive) {
+        final char c = typeDesc.signature.charAt(0);
+        if (setter == null) {
+          readPrimitiveField(fd.field, c, obj);
+          continue;
+        }
+        switch(c) {
+          case 'B': setter.invokeExact(obj, (byte) in.read()); break;
+          case 'S': setter.invokeExact(obj, in.readShort()); break;
+          case 'I': setter.invokeExact(obj, readInt()); break;
+          case 'J': setter.invokeExact(obj, readLong()); break;
+          case 'F': setter.invokeExact(obj, readFloat()); break;
+          case 'D': setter.invokeExact(obj, readDouble()); break;
+          case 'C': setter.invokeExact(obj, in.readChar()); break;
+          case 'Z': setter.invokeExact(obj, in.readBoolean()); break;
+        }
+      } else {
+        final Object val;
+        if (typeDesc.enumType) {
+          final String name = (String) readObject();
+          @SuppressWarnings("rawtypes")
+          final Object tmp = (name == null) ? null : Enum.valueOf((Class<? extends Enum>) fd.field.getType(), name);
+          val = tmp;
+        }
+        else val = readObject();
+        if (setter == null) fd.field.set(obj, val);
+        else setter.invokeExact(obj, val);
+      }
+    }
+  }
+
+  /**
+   * Read the value of a primitive field and set it through reflection.
+   * @param field the field to set.
+   * @param c the first character of the field type's signature.
+   * @param obj the object to set the field value on.
+   * @throws Exception if any error occurs.
+   */
+  private void readPrimitiveField(final Field field, final char c, final Object obj) throws Exception {
+    switch(c) {
+      case 'B': field.setByte(obj, (byte) in.read()); break;
+      case 'S': field.setShort(obj, in.readShort()); break;
+      case 'I': field.setInt(obj, readInt()); break;
+      case 'J': field.setLong(obj, readLong()); break;
+      case 'F': field.setFloat(obj, readFloat()); break;
+      case 'D': field.setDouble(obj, readDouble()); break;
+      case 'C': field.setChar(obj, in.readChar()); break;
+      case 'Z': field.setBoolean(obj, in.readBoolean()); break;
+    }
+  }
+
   /**
    * Create and read an array from the stream.
    * @param handle the handle of the array.
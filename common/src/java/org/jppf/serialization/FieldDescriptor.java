@@ -18,14 +18,25 @@
 
 package org.jppf.serialization;
 
+import java.lang.invoke.*;
 import java.lang.reflect.Field;
 
+import org.slf4j.*;
+
 /**
  * Instances of this class describe a non-transient field of a Java class with in order ot enable serialization and deserialization of this field.
  * @author Laurent Cohen
  * @exclude
  */
 class FieldDescriptor {
+  /**
+   * Logger for this class.
+   */
+  private static final Logger log = LoggerFactory.getLogger(FieldDescriptor.class);
+  /**
+   * Determines whether the debug level is enabled in the log configuration, without the cost of a method call.
+   */
+  private static final boolean debugEnabled = log.isDebugEnabled();
   /**
    * The name of this field.
    */
@@ -38,6 +49,18 @@ class FieldDescriptor {
    * Descriptor for the type of this field.
    */
   ClassDescriptor type;
+  /**
+   * Handle which reads the value of the field, of type {@code (Object)T}, where {@code T} is the type of the field if it is primitive, or {@code Object} otherwise.
+   */
+  private MethodHandle getter;
+  /**
+   * Handle which sets the value of the field, of type {@code (Object, T)void}.
+   */
+  private MethodHandle setter;
+  /**
+   * Whether the creation of the method handles was attempted.
+   */
+  private volatile boolean handlesResolved;
 
   /**
    * Initialize an empty field descriptor.
@@ -55,6 +78,49 @@ class FieldDescriptor {
     name = field.getName();
   }
 
+  /**
+   * Get the method handle which reads the value of this field, creating it if needed.
+   * @return a {@link MethodHandle} of type {@code (Object)T}, where {@code T} is the type of the field if it is primitive, or {@code Object} otherwise,
+   * or {@code null} if the field cannot be read through a method handle.
+   */
+  MethodHandle getter() {
+    if (!handlesResolved) resolveHandles();
+    return getter;
+  }
+
+  /**
+   * Get the method handle which sets the value of this field, creating it if needed.
+   * @return a {@link MethodHandle} of type {@code (Object, T)void}, where {@code T} is the type of the field if it is primitive, or {@code Object} otherwise,
+   * or {@code null} if the field cannot be set through a method handle.
+   */
+  MethodHandle setter() {
+    if (!handlesResolved) resolveHandles();
+    return setter;
+  }
+
+  /**
+   * Create the method handles for this field. Since field descriptors are cached and shared, this method may be called concurrently, in which case
+   * equivalent handles are created by each caller.
+   */
+  private void resolveHandles() {
+    if (field != null) {
+      final Class<?> fieldType = field.getType();
+      final Class<?> valueType = fieldType.isPrimitive() ? fieldType : Object.class;
+      final MethodHandles.Lookup lookup = MethodHandles.lookup();
+      try {
+        getter = lookup.unreflectGetter(field).asType(MethodType.methodType(valueType, Object.class));
+      } catch (final Exception e) {
+        if (debugEnabled) log.debug("could not create getter handle for {} : {}", field, e.toString());
+      }
+      try {
+        setter = lookup.unreflectSetter(field).asType(MethodType.methodType(void.class, Object.class, valueType));
+      } catch (final Exception e) {
+        if (debugEnabled) log.debug("could not create setter handle for {} : {}", field, e.toString());
+      }
+    }
+    handlesResolved = true;
+  }
+
   @Override
   public String toString() {
     final StringBuilder sb = new StringBuilder();
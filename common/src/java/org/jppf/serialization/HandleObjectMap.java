@@ -0,0 +1,157 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jppf.serialization;
+
+import java.util.Arrays;
+
+/**
+ * Mapping of the handles read by a deserializer to the corresponding objects.
+ * <p>Unlike a {@code HashMap<Integer, Object>}, this map uses open addressing over parallel arrays and does not box the handles,
+ * so that adding an object does not allocate anything, except when the map grows. Handles are strictly positive, 0 denotes an empty slot.
+ * @author Laurent Cohen
+ * @exclude
+ */
+final class HandleObjectMap {
+  /**
+   * Default initial capacity, must be a power of 2.
+   */
+  private static final int DEFAULT_CAPACITY = 256;
+  /**
+   * Capacity above which the arrays are reallocated with the default capacity when the map is cleared,
+   * so that a pooled deserializer does not hold on to large arrays after reading a large object graph.
+   */
+  private static final int MAX_RETAINED_CAPACITY = 64 * 1024;
+  /**
+   * The handles.
+   */
+  private int[] keys;
+  /**
+   * The objects, at the same index as their handle.
+   */
+  private Object[] values;
+  /**
+   * The number of entries in this map.
+   */
+  private int size;
+  /**
+   * The number of entries above which this map grows.
+   */
+  private int threshold;
+
+  /**
+   * Initialize this map with the default capacity.
+   */
+  HandleObjectMap() {
+    allocate(DEFAULT_CAPACITY);
+  }
+
+  /**
+   * Get the object with the specified handle.
+   * @param handle the handle to lookup.
+   * @return the object, or {@code null} if there is none for this handle.
+   */
+  Object get(final int handle) {
+    final int[] k = keys;
+    final int mask = k.length - 1;
+    for (int i = hash(handle, mask); ; i = (i + 1) & mask) {
+      final int h = k[i];
+      if (h == handle) return values[i];
+      if (h == 0) return null;
+    }
+  }
+
+  /**
+   * Associate the specified handle with an object, replacing any previous association.
+   * @param handle the handle of the object, strictly positive.
+   * @param value the object to add.
+   */
+  void put(final int handle, final Object value) {
+    if (size >= threshold) grow();
+    final int mask = keys.length - 1;
+    int i = hash(handle, mask);
+    while ((keys[i] != 0) && (keys[i] != handle)) i = (i + 1) & mask;
+    if (keys[i] == 0) {
+      keys[i] = handle;
+      size++;
+    }
+    values[i] = value;
+  }
+
+  /**
+   * Remove all the entries in this map.
+   */
+  void clear() {
+    if (keys.length > MAX_RETAINED_CAPACITY) allocate(DEFAULT_CAPACITY);
+    else if (size > 0) {
+      Arrays.fill(keys, 0);
+      Arrays.fill(values, null);
+      size = 0;
+    }
+  }
+
+  /**
+   * @return the number of entries in this map.
+   */
+  int size() {
+    return size;
+  }
+
+  /**
+   * Double the capacity of this map and rehash its entries.
+   */
+  private void grow() {
+    final int[] oldKeys = keys;
+    final Object[] oldValues = values;
+    final int oldSize = size;
+    allocate(2 * oldKeys.length);
+    final int mask = keys.length - 1;
+    for (int j=0; j<oldKeys.length; j++) {
+      final int handle = oldKeys[j];
+      if (handle == 0) continue;
+      int i = hash(handle, mask);
+      while (keys[i] != 0) i = (i + 1) & mask;
+      keys[i] = handle;
+      values[i] = oldValues[j];
+    }
+    size = oldSize;
+  }
+
+  /**
+   * Allocate empty arrays with the specified capacity.
+   * @param capacity the new capacity, a power of 2.
+   */
+  private void allocate(final int capacity) {
+    keys = new int[capacity];
+    values = new Object[capacity];
+    threshold = capacity / 2;
+    size = 0;
+  }
+
+  /**
+   * Compute the start index of the probe sequence for the specified handle.
+   * @param handle the handle to hash.
+   * @param mask the capacity minus 1.
+   * @return an index in the arrays.
+   */
+  private static int hash(final int handle, final int mask) {
+    int h = handle * 0x85EBCA6B;
+    h ^= h >>> 16;
+    return h & mask;
+  }
+}
@@ -0,0 +1,156 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jppf.serialization;
+
+import java.util.Arrays;
+
+/**
+ * Mapping of the objects written by a serializer to their handle, based on object identity.
+ * <p>Unlike an {@code IdentityHashMap<Object, Integer>}, this map uses open addressing over parallel arrays and does not box the handles,
+ * so that adding an object does not allocate anything, except when the map grows.
+ * @author Laurent Cohen
+ * @exclude
+ */
+final class IdentityHandleMap {
+  /**
+   * Default initial capacity, must be a power of 2.
+   */
+  private static final int DEFAULT_CAPACITY = 256;
+  /**
+   * Capacity above which the arrays are reallocated with the default capacity when the map is cleared,
+   * so that a pooled serializer does not hold on to large arrays after writing a large object graph.
+   */
+  private static final int MAX_RETAINED_CAPACITY = 64 * 1024;
+  /**
+   * The keys.
+   */
+  private Object[] keys;
+  /**
+   * The handles, at the same index as their key.
+   */
+  private int[] values;
+  /**
+   * The number of entries in this map.
+   */
+  private int size;
+  /**
+   * The number of entries above which this map grows.
+   */
+  private int threshold;
+
+  /**
+   * Initialize this map with the default capacity.
+   */
+  IdentityHandleMap() {
+    allocate(DEFAULT_CAPACITY);
+  }
+
+  /**
+   * Get the handle of the specified object.
+   * @param key the object to lookup.
+   * @return the handle, or -1 if the object is not in this map.
+   */
+  int get(final Object key) {
+    final Object[] k = keys;
+    final int mask = k.length - 1;
+    for (int i = hash(key, mask); ; i = (i + 1) & mask) {
+      final Object o = k[i];
+      if (o == key) return values[i];
+      if (o == null) return -1;
+    }
+  }
+
+  /**
+   * Associate the specified object with a handle. The object is assumed not to be already in this map.
+   * @param key the object to add.
+   * @param handle the object's handle.
+   */
+  void put(final Object key, final int handle) {
+    if (size >= threshold) grow();
+    final int mask = keys.length - 1;
+    int i = hash(key, mask);
+    while (keys[i] != null) i = (i + 1) & mask;
+    keys[i] = key;
+    values[i] = handle;
+    size++;
+  }
+
+  /**
+   * Remove all the entries in this map.
+   */
+  void clear() {
+    if (keys.length > MAX_RETAINED_CAPACITY) allocate(DEFAULT_CAPACITY);
+    else if (size > 0) {
+      Arrays.fill(keys, null);
+      size = 0;
+    }
+  }
+
+  /**
+   * @return the number of entries in this map.
+   */
+  int size() {
+    return size;
+  }
+
+  /**
+   * Double the capacity of this map and rehash its entries.
+   */
+  private void grow() {
+    final Object[] oldKeys = keys;
+    final int[] oldValues = values;
+    final int oldSize = size;
+    allocate(2 * oldKeys.length);
+    final int mask = keys.length - 1;
+    for (int j=0; j<oldKeys.length; j++) {
+      final Object key = oldKeys[j];
+      if (key == null) continue;
+      int i = hash(key, mask);
+      while (keys[i] != null) i = (i + 1) & mask;
+      keys[i] = key;
+      values[i] = oldValues[j];
+    }
+    size = oldSize;
+  }
+
+  /**
+   * Allocate empty arrays with the specified capacity.
+   * @param capacity the new capacity, a power of 2.
+   */
+  private void allocate(final int capacity) {
+    keys = new Object[capacity];
+    values = new int[capacity];
+    threshold = capacity / 2;
+    size = 0;
+  }
+
+  /**
+   * Compute the start index of the probe sequence for the specified object.
+   * @param key the object to hash.
+   * @param mask the capacity minus 1.
+   * @return an index in the arrays.
+   */
+  private static int hash(final Object key, final int mask) {
+    int h = System.identityHashCode(key);
+    h ^= h >>> 16;
+    h *= 0x85EBCA6B;
+    h ^= h >>> 13;
+    return h & mask;
+  }
+}
@@ -56,7 +56,7 @@ class SerializationCaches {
   /**
    * Mapping of objects to their handle.
    */
-  final Map<Object, Integer> objectHandleMap = new IdentityHashMap<>(256);
+  final IdentityHandleMap objectHandleMap = new IdentityHandleMap();
   /**
    * Counter for the class handles.
    */
@@ -104,7 +104,7 @@ class SerializationCaches {
   /**
    * Get the descriptor for the specified class, and created it if needed.
    * @param clazz the class for which to get a descriptor.
-   * @param map a temporary association map.
+   * @param map a temporary association map, may be {@code null}.
    * @return a {@link ClassDescriptor} object.
    * @throws Exception if nay error occurs.
    */
@@ -24,8 +24,9 @@ import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 
 import org.jppf.JPPFException;
-import org.jppf.utils.Pair;
+import org.jppf.utils.*;
 import org.jppf.utils.collections.ConcurrentSoftReferenceValuesMap;
+import org.jppf.utils.configuration.JPPFProperties;
 import org.slf4j.*;
 
 /**
@@ -98,6 +99,10 @@ public final class SerializationReflectionHelper {
    *
    */
   private static final Set<Class<?>> TRANSIENT_EXCEPTION_CLASSES = initTransientExceptionClasses();
+  /**
+   * Whether the fields of the serialized objects are accessed through method handles by default, instead of reflection.
+   */
+  static final boolean USE_METHOD_HANDLES = JPPFConfiguration.get(JPPFProperties.SERIALIZATION_METHOD_HANDLES);
   /**
    * Handler for java.time.* classes.
    */
@@ -19,9 +19,8 @@
 package org.jppf.serialization;
 
 import java.io.*;
+import java.lang.invoke.MethodHandle;
 import java.lang.reflect.*;
-import java.util.*;
-import java.util.concurrent.LinkedBlockingDeque;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import org.jppf.utils.StringUtils;
@@ -93,13 +92,27 @@ class Serializer {
    * Temporary buffer used to write arrays of primitive values to the stream.
    */
   private final byte[] buf = new byte[SerializationUtils.TEMP_BUFFER_SIZE];
+  /**
+   * Whether the fields are accessed through method handles instead of reflection.
+   */
+  final boolean methodHandles;
 
   /**
    * Initialize this serializer with the specified output stream, and write the header.
    * @param out the stream to which the serialized data is written.
    */
   Serializer(final ObjectOutputStream out) {
+    this(out, SerializationReflectionHelper.USE_METHOD_HANDLES);
+  }
+
+  /**
+   * Initialize this serializer with the specified output stream and field access mode.
+   * @param out the stream to which the serialized data is written.
+   * @param methodHandles whether the fields are accessed through method handles instead of reflection.
+   */
+  Serializer(final ObjectOutputStream out, final boolean methodHandles) {
     this.out = out;
+    this.methodHandles = methodHandles;
   }
 
   /**
@@ -111,9 +124,9 @@ class Serializer {
     if (obj == null) out.writeByte(NULL_OBJECT_HEADER);
     else if (obj instanceof Class) writeClassObject((Class<?>) obj);
     else {
-      Integer handle = caches.objectHandleMap.get(obj);
+      int handle = caches.objectHandleMap.get(obj);
       final boolean isString = obj instanceof String;
-      if (handle == null) {
+      if (handle < 0) {
         handle = caches.newObjectHandle(obj);
         if (traceEnabled) try { log.trace("writing handle = {}, object = {}", handle, StringUtils.toIdentityString(obj)); } catch(@SuppressWarnings("unused") final Exception e) {}
         if (isString) {
@@ -133,8 +146,7 @@ class Serializer {
    * @throws Exception if any error occurs.
    */
   private void writeObject(final Object obj, final int handle) throws Exception {
-    final Map<Class<?>, ClassDescriptor> cdMap = SerializationCaches.createClassKeyMap();
-    final ClassDescriptor cd = caches.getClassDescriptor(obj.getClass(), cdMap);
+    final ClassDescriptor cd = caches.getClassDescriptor(obj.getClass(), null);
     currentObject = obj;
     currentClassDescriptor = cd;
     writeHeaderAndHandle(OBJECT_HEADER, handle);
@@ -155,9 +167,7 @@ class Serializer {
    * @throws Exception if any error occurs.
    */
   private void writeClassObject(final Class<?> obj) throws Exception {
-    final Map<Class<?>, ClassDescriptor> cdMap = new IdentityHashMap<>();
-    final ClassDescriptor cd = caches.getClassDescriptor(obj, cdMap);
-    caches.objectHandleMap.get(obj);
+    final ClassDescriptor cd = caches.getClassDescriptor(obj, null);
     currentObject = obj;
     currentClassDescriptor = cd;
     out.writeByte(CLASS_OBJECT_HEADER);
@@ -171,20 +181,14 @@ class Serializer {
    * @throws Exception if any error occurs.
    */
   void writeFields(final Object obj, final ClassDescriptor cd) throws Exception {
-    ClassDescriptor tmpDesc = cd;
-    final Deque<ClassDescriptor> stack = new LinkedBlockingDeque<>();
-    while (tmpDesc != null) {
-      stack.addFirst(tmpDesc);
-      tmpDesc = tmpDesc.superClass;
-    }
-    for (final ClassDescriptor desc: stack) {
+    for (final ClassDescriptor desc: cd.getHierarchy()) {
       /*final SerializationHandler handler = SerializationReflectionHelper.getSerializationHandler(desc.clazz);
       if (handler != null) handler.writeDeclaredFields(this, desc, obj);
       else*/ if (desc.hasReadWriteObject) {
         final Method m = desc.writeObjectMethod;
         //if (traceEnabled) try { log.trace("invoking writeObject() for class=" + desc + " on object " + obj.hashCode()); } catch(Exception e) { log.trace(e.getMessage(), e); }
+        final ClassDescriptor tmpDesc = currentClassDescriptor;
         try {
-          tmpDesc = currentClassDescriptor;
           currentClassDescriptor = desc;
           m.invoke(obj, out);
         } finally {
@@ -203,24 +207,76 @@ class Serializer {
    * @throws Exception if any error occurs.
    */
   void writeDeclaredFields(final Object obj, final ClassDescriptor cd) throws Exception {
+    if (methodHandles) {
+      try {
+        writeDeclaredFieldsWithHandles(obj, cd);
+      } catch (final Exception | Error e) {
+        throw e;
+      } catch (final Throwable t) {
+        throw new UndeclaredThrowableException(t);
+      }
+      return;
+    }
     for (FieldDescriptor fd: cd.fields) {
       //if (traceEnabled) try { log.trace("writing field '" + fd.name + "' of object " + obj); } catch(Exception e) {}
-      final Object val = fd.field.get(obj);
+      writeFieldValue(fd, fd.field.get(obj));
+    }
+  }
+
+  /**
+   * Write the fields for the specified object and class descriptor, reading their values through method handles.
+   * Unlike {@link Field#get(Object)}, this does not box the values of primitive fields.
+   * @param obj the object whose fields are to be written.
+   * @param cd the object's class descriptor.
+   * @throws Throwable if any error occurs.
+   */
+  private void writeDeclaredFieldsWithHandles(final Object obj, final ClassDescriptor cd) throws Throwable {
+    for (final FieldDescriptor fd: cd.fields) {
+      final MethodHandle getter = fd.getter();
+      if (getter == null) {
+        writeFieldValue(fd, fd.field.get(obj));
+        continue;
+      }
       if (fd.type.primitive) {
         switch(fd.type.signature.charAt(0)) {
-          case 'B': out.write(((Byte) val).intValue()); break;
-          case 'S': out.writeShort((Short) val); break;
-          case 'I': writeInt((Integer) val); break;
-          case 'J': writeLong((Long) val); break;
-          case 'F': writeFloat((Float) val); break;
-          case 'D': writeDouble((Double) val); break;
-          case 'C': out.writeChar((Character) val); break;
-          case 'Z': out.writeBoolean((Boolean) val); break;
+          case 'B': out.write((byte) getter.invokeExact(obj)); break;
+          case 'S': out.writeShort((short) getter.invokeExact(obj)); break;
+          case 'I': writeInt((int) getter.invokeExact(obj)); break;
+          case 'J': writeLong((long) getter.invokeExact(obj)); break;
+          case 'F': writeFloat((float) getter.invokeExact(obj)); break;
+          case 'D': writeDouble((double) getter.invokeExact(obj)); break;
+          case 'C': out.writeChar((char) getter.invokeExact(obj)); break;
+          case 'Z': out.writeBoolean((boolean) getter.invokeExact(obj)); break;
         }
+      } else {
+        final Object val = (Object) getter.invokeExact(obj);
+        if (fd.type.enumType) writeObject(val == null ? null : ((Enum<?>) val).name());
+        else writeObject(val);
+      }
+    }
+  }
+
+  /**
+   * Write the value of a field obtained through reflection.
+   * @param fd the descriptor of the field.
+   * @param val the value of the field, boxed if the field is primitive.
+   * @throws Exception if any error occurs.
+   */
+  private void writeFieldValue(final FieldDescriptor fd, final Object val) throws Exception {
+    if (fd.type.primitive) {
+      switch(fd.type.signature.charAt(0)) {
+        case 'B': out.write(((Byte) val).intValue()); break;
+        case 'S': out.writeShort((Short) val); break;
+        case 'I': writeInt((Integer) val); break;
+        case 'J': writeLong((Long) val); break;
+        case 'F': writeFloat((Float) val); break;
+        case 'D': writeDouble((Double) val); break;
+        case 'C': out.writeChar((Character) val); break;
+        case 'Z': out.writeBoolean((Boolean) val); break;
       }
-      else if (fd.type.enumType) writeObject(val == null ? null : ((Enum<?>) val).name());
-      else writeObject(val);
     }
+    else if (fd.type.enumType) writeObject(val == null ? null : ((Enum<?>) val).name());
+    else writeObject(val);
   }
 
   /**
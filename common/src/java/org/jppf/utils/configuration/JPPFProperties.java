@@ -390,7 +390,7 @@ public class JPPFProperties {
   public static final JPPFProperty<String> NOTIFICATION_OFFLOAD_MEMORY_THRESHOLD = new StringProperty("jppf.notification.offload.memory.threshold", "" + (long) (0.8d * Runtime.getRuntime().maxMemory()) + "b" );
   /** Determines the frequency at which the JVM's cpu load is recomputed, in ms. */
   public static final JPPFProperty<Long> CPU_LOAD_COMPUTATION_INTERVAL = new LongProperty("jppf.cpu.load.computation.interval", 1000L);
-  /** Type of thread pool to use in the node: either 'default' or 'org.jppf.server.node.fj.ThreadManagerForkJoin'. */
+  /** Type of thread pool to use in the node: either 'default', 'org.jppf.execute.ThreadManagerForkJoin' or 'org.jppf.execute.ThreadManagerVirtualThreads'. */
   public static final JPPFProperty<String> THREAD_MANAGER_CLASS = new StringProperty("jppf.thread.manager.class", "default");
   /** Internal use. The class of node to instantiate upon node startup. For instance Java and Android nodes use a different class. */
   public static final JPPFProperty<String> NODE_CLASS = new StringProperty("jppf.node.class", "org.jppf.server.node.remote.JPPFRemoteNode");
@@ -454,6 +454,94 @@ public class JPPFProperties {
   public static final JPPFProperty<Integer> JMX_NOTIF_QUEUE_SIZE = new IntProperty("jppf.jmx.notifications.queue.size", JMXHelper.DEFAULT_MAX_NOTIFICATIONS_QUEUE_SIZE);
   /** Whether the client should print connection events to stdout. */
   public static final JPPFProperty<Boolean> CLIENT_SYSOUT_ENABLED = new BooleanProperty("jppf.client.sysout.enabled", true);
+  /** Whether the driver caches the results of job execution policies evaluated against nodes, to avoid re-evaluating them on every dispatch. */
+  public static final JPPFProperty<Boolean> JOB_MATCHING_INDEX_ENABLED = new BooleanProperty("jppf.job.matching.index.enabled", true);
+  /** Whether the driver fills as many idle nodes as it can in a single scheduling pass, instead of dispatching one job at a time. */
+  public static final JPPFProperty<Boolean> JOB_DISPATCH_BATCH_ENABLED = new BooleanProperty("jppf.job.dispatch.batch.enabled", false);
+  /** Maximum number of job dispatches performed in a single scheduling pass when batch dispatch is enabled. */
+  public static final JPPFProperty<Integer> JOB_DISPATCH_BATCH_MAX_SIZE = new IntProperty("jppf.job.dispatch.batch.max.size", Integer.MAX_VALUE, 1, Integer.MAX_VALUE);
+  /** Number of selector shards, each with its own selection loop, among which the driver distributes the node connections. */
+  public static final JPPFProperty<Integer> NODE_SERVER_SELECTOR_SHARDS = new IntProperty("jppf.node.server.selector.shards", 1, 1, 1024);
+  /** Number of selector shards, each with its own selection loop, among which the driver distributes the client connections. */
+  public static final JPPFProperty<Integer> CLIENT_SERVER_SELECTOR_SHARDS = new IntProperty("jppf.client.server.selector.shards", 1, 1, 1024);
+  /** How new connections are assigned to the selector shards, either 'round_robin' or 'least_loaded'. */
+  public static final JPPFProperty<String> SELECTOR_SHARD_ASSIGNMENT = new StringProperty("jppf.selector.shard.assignment", "round_robin");
+  /** Whether the node results read by the driver from NIO channels are held in pooled buffers, which are recycled once the results are sent to the client. */
+  public static final JPPFProperty<Boolean> BUFFER_POOL_ENABLED = new BooleanProperty("jppf.buffer.pool.enabled", false);
+  /** Maximum total size in megabytes of the buffers held in the NIO buffer pool. */
+  public static final JPPFProperty<Integer> BUFFER_POOL_MAX_SIZE = new IntProperty("jppf.buffer.pool.max.size", 128, 1, 64*1024);
+  /** Size in bytes of the largest buffers held in the NIO buffer pool, rounded up to a power of two. */
+  public static final JPPFProperty<Integer> BUFFER_POOL_MAX_BUFFER_SIZE = new IntProperty("jppf.buffer.pool.max.buffer.size", 16*1024*1024, 1024, 1024*1024*1024);
+  /** Whether messages sent over plain NIO connections are written with gathering writes and file transfers instead of intermediate copies. */
+  public static final JPPFProperty<Boolean> NIO_ZERO_COPY_WRITES = new BooleanProperty("jppf.nio.zero.copy.writes", true);
+  /** Whether data that does not fit in memory overflows to a memory-mapped arena instead of one temporary file per object. */
+  public static final JPPFProperty<Boolean> OVERFLOW_MMAP_ENABLED = new BooleanProperty("jppf.overflow.mmap.enabled", false);
+  /** Size in megabytes of each segment file of the memory-mapped overflow arena. Larger data still overflows to temporary files. */
+  public static final JPPFProperty<Integer> OVERFLOW_MMAP_SEGMENT_SIZE = new IntProperty("jppf.overflow.mmap.segment.size", 256, 1, 1024);
+  /** Maximum number of segment files in the memory-mapped overflow arena. */
+  public static final JPPFProperty<Integer> OVERFLOW_MMAP_MAX_SEGMENTS = new IntProperty("jppf.overflow.mmap.max.segments", 64, 1, 64*1024);
+  /** Names of the codecs used to compress the task payloads sent over the network, in order of preference. Payloads are not compressed if empty. */
+  public static final JPPFProperty<String> PAYLOAD_CODECS = new StringProperty("jppf.payload.codecs", "");
+  /** Size in bytes of the serialized tasks below which they are not compressed. */
+  public static final JPPFProperty<Integer> PAYLOAD_COMPRESSION_THRESHOLD = new IntProperty("jppf.payload.compression.threshold", 8192, 0, Integer.MAX_VALUE);
+  /** Maximum size in megabytes of a decompressed task payload. A compressed frame which declares a larger size is rejected. */
+  public static final JPPFProperty<Integer> PAYLOAD_MAX_DECODED_SIZE = new IntProperty("jppf.payload.max.decoded.size", 1024, 1, 2047);
+  /** Whether the JPPF serialization accesses the fields of the serialized objects through cached method handles instead of reflection. */
+  public static final JPPFProperty<Boolean> SERIALIZATION_METHOD_HANDLES = new BooleanProperty("jppf.serialization.method.handles", false);
+  /** Whether the client sends, with each job, a manifest of the classes and resources loaded by the tasks of previous jobs of the same kind. */
+  public static final JPPFProperty<Boolean> CLASSLOADER_PREFETCH_ENABLED = new BooleanProperty("jppf.classloader.prefetch.enabled", true);
+  /** Maximum number of class and resource names in a classpath prefetch manifest, and maximum number of prefetched class definitions held by a node class loader. */
+  public static final JPPFProperty<Integer> CLASSLOADER_PREFETCH_MAX_SIZE = new IntProperty("jppf.classloader.prefetch.max.size", 2000, 1, Integer.MAX_VALUE);
+  /** Maximum total size in bytes of the class and resource definitions held in memory by the driver's class cache. */
+  public static final JPPFProperty<Long> CLASS_CACHE_MAX_SIZE = new LongProperty("jppf.class.cache.max.size", 32L * 1024L * 1024L, 0L, Long.MAX_VALUE);
+  /** Whether the driver's class cache also stores the class and resource definitions on disk, where they persist across driver restarts. */
+  public static final JPPFProperty<Boolean> CLASS_CACHE_DISK_ENABLED = new BooleanProperty("jppf.class.cache.disk.enabled", false);
+  /** The directory where the driver's class cache stores the class and resource definitions on disk. */
+  public static final JPPFProperty<String> CLASS_CACHE_DISK_DIR = new StringProperty("jppf.class.cache.disk.dir", "class_cache");
+  /** Maximum total size in bytes of the class and resource definitions stored on disk by the driver's class cache. */
+  public static final JPPFProperty<Long> CLASS_CACHE_DISK_MAX_SIZE = new LongProperty("jppf.class.cache.disk.max.size", 1024L * 1024L * 1024L, 0L, Long.MAX_VALUE);
+  /** Whether the nodes store the class definitions they download in a persistent store shared by all the nodes on the same host. */
+  public static final JPPFProperty<Boolean> RESOURCE_STORE_ENABLED = new BooleanProperty("jppf.resource.store.enabled", true);
+  /** The directory of the nodes' persistent class definitions store, defaults to the 'store' folder in the JPPF temp folder. */
+  public static final JPPFProperty<String> RESOURCE_STORE_DIR = new StringProperty("jppf.resource.store.dir", null);
+  /** Maximum total size in bytes of the class definitions in the nodes' persistent store. */
+  public static final JPPFProperty<Long> RESOURCE_STORE_MAX_SIZE = new LongProperty("jppf.resource.store.max.size", 256L * 1024L * 1024L, 0L, Long.MAX_VALUE);
+  /** Interval in millis at which the driver's topology change feed sends the coalesced changes to its subscribers. */
+  public static final JPPFProperty<Long> TOPOLOGY_FEED_INTERVAL = new LongProperty("jppf.topology.feed.interval", 500L, 10L, Long.MAX_VALUE);
+  /** Interval in millis at which the driver's topology change feed samples the states and JVM health of the nodes, 0 or less to disable sampling. */
+  public static final JPPFProperty<Long> TOPOLOGY_FEED_SAMPLING_INTERVAL = new LongProperty("jppf.topology.feed.sampling.interval", 1000L);
+  /** Maximum number of changes in each notification sent by the driver's topology change feed. */
+  public static final JPPFProperty<Integer> TOPOLOGY_FEED_MAX_BATCH_SIZE = new IntProperty("jppf.topology.feed.max.batch.size", 1000, 1, Integer.MAX_VALUE);
+  /** Maximum relative difference between two sampled numeric JVM health values for which the driver's topology change feed does not report a change, 0 to report any change. */
+  public static final JPPFProperty<Double> TOPOLOGY_FEED_HEALTH_THRESHOLD = new DoubleProperty("jppf.topology.feed.health.threshold", 0.05d, 0d, Double.MAX_VALUE);
+  /** Whether the topology managers subscribe to the drivers' topology change feeds instead of polling the drivers. */
+  public static final JPPFProperty<Boolean> TOPOLOGY_FEED_ENABLED = new BooleanProperty("jppf.topology.feed.enabled", true);
+  /** Maximum number of rows written in a single JDBC batch by the database job and load-balancer persistence implementations. */
+  public static final JPPFProperty<Integer> PERSISTENCE_JDBC_BATCH_SIZE = new IntProperty("jppf.persistence.jdbc.batch.size", 500, 1, Integer.MAX_VALUE);
+  /** Size in bytes above which the database job persistence streams an element from the database instead of loading it in memory. */
+  public static final JPPFProperty<Integer> JOB_PERSISTENCE_STREAM_THRESHOLD = new IntProperty("jppf.job.persistence.stream.threshold", 1024 * 1024, 0, Integer.MAX_VALUE);
+  /** Maximum number of job elements waiting to be written by the async job persistence, above which the store operations block. */
+  public static final JPPFProperty<Integer> JOB_PERSISTENCE_MAX_PENDING_WRITES = new IntProperty("jppf.job.persistence.max.pending.writes", 10_000, 1, Integer.MAX_VALUE);
+  /** Class name of the implementation of the job queue ordering in the driver, with optional parameters. */
+  public static final JPPFProperty<String[]> JOB_QUEUE_ORDERING = new StringArrayProperty("jppf.job.queue.ordering", " ", (String[]) null);
+  /** Half-life in millis of the node time consumed by each share of the fair-share job queue ordering. */
+  public static final JPPFProperty<Long> JOB_QUEUE_FAIR_SHARE_HALF_LIFE = new LongProperty("jppf.job.queue.fair.share.half.life", 300_000L, 1L, Long.MAX_VALUE);
+  /** Weight of a share in the fair-share job queue ordering. */
+  public static final JPPFProperty<Double> JOB_QUEUE_FAIR_SHARE_WEIGHT = new DoubleProperty("jppf.job.queue.fair.share.weight.<share>", 1d);
+  /** Number of threads which deliver the JMX notifications received by the remote connectors of this JVM. */
+  public static final JPPFProperty<Integer> JMX_NOTIF_DISPATCH_THREADS = new IntProperty("jppf.jmx.notifications.dispatch.threads", Runtime.getRuntime().availableProcessors(), 1, 1024);
+  /** Number of pending notifications of a JMX connection above which the notifications with a 'drop' policy are discarded. */
+  public static final JPPFProperty<Integer> JMX_NOTIF_DISPATCH_MAX_PENDING = new IntProperty("jppf.jmx.notifications.dispatch.max.pending", 10_000, 1, Integer.MAX_VALUE);
+  /** Delivery policy of the received JMX notifications with a given type: one of 'queue', 'drop' or 'coalesce'. */
+  public static final JPPFProperty<String> JMX_NOTIF_POLICY = new StringProperty("jppf.jmx.notifications.policy.<type>", "queue");
+  /** Time in millis during which the JMX notifications sent to a connection are accumulated into a single message, 0 to send them one by one. */
+  public static final JPPFProperty<Long> JMX_NOTIF_BATCH_WINDOW = new LongProperty("jppf.jmx.notifications.batch.window", 0L, 0L, Long.MAX_VALUE);
+  /** Maximum number of JMX notifications accumulated into a single message. */
+  public static final JPPFProperty<Integer> JMX_NOTIF_BATCH_MAX_SIZE = new IntProperty("jppf.jmx.notifications.batch.max.size", 256, 1, Integer.MAX_VALUE);
+  /** Whether node forwarding requests are sent without blocking a thread per node, when the node JMX connections support it. */
+  public static final JPPFProperty<Boolean> NODE_FORWARDING_ASYNC = new BooleanProperty("jppf.node.forwarding.async", true);
+  /** Maximum time in millis to wait for the result of a forwarded request from each node, 0 means no timeout. */
+  public static final JPPFProperty<Long> NODE_FORWARDING_TIMEOUT = new LongProperty("jppf.node.forwarding.timeout", 0L, 0L, Long.MAX_VALUE);
   /** The list of all predefined properties. */
   private static List<JPPFProperty<?>> properties;
 
@@ -17,23 +17,27 @@
  */
 package org.jppf.utils.stats;
 
+import java.io.*;
+import java.util.concurrent.atomic.DoubleAdder;
+
 /**
  * Convenience class for collecting time or size statistics.
- * Instances of this class are thread-safe.
+ * Instances of this class are thread-safe and lock-free: the updates are accumulated in striped counters, which avoids
+ * contention between the threads updating the same snapshot.
  */
 public abstract class AbstractBaseJPPFSnapshot implements JPPFSnapshot {
   /**
    * Explicit serialVersionUID.
    */
-  private static final long serialVersionUID = 1L;
+  private static final long serialVersionUID = 2L;
   /**
    * Label for this snapshot, used in the {@link #toString()} method.
    */
   final String label;
   /**
-   * The total cumulated values.
+   * The total cumulated values. It is serialized as a {@code double}, since the JPPF serialization does not support the serialization proxy of {@link DoubleAdder}.
    */
-  double total;
+  transient DoubleAdder total = new DoubleAdder();
   /**
    * The creation time of this snapshot, as the result of calling {@code System.nanoTime()}.
    */
@@ -41,7 +45,7 @@ public abstract class AbstractBaseJPPFSnapshot implements JPPFSnapshot {
   /**
    * The last update time of this snapshot, as the result of calling {@code System.nanoTime() - creationTimeNanos}.
    */
-  long updateNanos;
+  volatile long updateNanos;
 
   /**
    * Initialize this time snapshot with a specified title.
@@ -53,17 +57,17 @@ public abstract class AbstractBaseJPPFSnapshot implements JPPFSnapshot {
   }
 
   @Override
-  public synchronized double getTotal() {
-    return total;
+  public double getTotal() {
+    return total.sum();
   }
 
   @Override
-  public synchronized String getLabel() {
+  public String getLabel() {
     return label;
   }
 
   @Override
-  public synchronized long getLastUpdateNanos() {
+  public long getLastUpdateNanos() {
     return updateNanos;
   }
 
@@ -73,4 +77,26 @@ public abstract class AbstractBaseJPPFSnapshot implements JPPFSnapshot {
   void computeUpdateNanos() {
     updateNanos = System.nanoTime() - creationNanos;
   }
+
+  /**
+   * Save the state of this object to a stream.
+   * @param out the stream to write to.
+   * @throws IOException if an I/O error occurs.
+   */
+  private void writeObject(final ObjectOutputStream out) throws IOException {
+    out.defaultWriteObject();
+    out.writeDouble(total.sum());
+  }
+
+  /**
+   * Restore the state of this object from a stream.
+   * @param in the stream to read from.
+   * @throws IOException if an I/O error occurs.
+   * @throws ClassNotFoundException if a class cannot be found or initialized during deserialization.
+   */
+  private void readObject(final ObjectInputStream in) throws IOException, ClassNotFoundException {
+    in.defaultReadObject();
+    total = new DoubleAdder();
+    total.add(in.readDouble());
+  }
 }
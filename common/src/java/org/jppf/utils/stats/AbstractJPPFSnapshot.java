@@ -17,35 +17,39 @@
  */
 package org.jppf.utils.stats;
 
+import java.io.*;
+import java.util.concurrent.atomic.*;
+
 /**
  * Convenience class for collecting time or size statistics.
- * Instances of this class are thread-safe.
+ * Instances of this class are thread-safe and lock-free. In addition to the latest, minimum, maximum and average values,
+ * they maintain a {@link LogLinearHistogram histogram} of the values, from which percentiles are computed.
  */
 public abstract class AbstractJPPFSnapshot extends AbstractBaseJPPFSnapshot {
   /**
    * Explicit serialVersionUID.
    */
-  private static final long serialVersionUID = 1L;
+  private static final long serialVersionUID = 2L;
   /**
-   * The most recent value.
+   * The most recent value, stored as the bits of a double.
    */
-  double latest;
+  transient AtomicLong latest = new AtomicLong(Double.doubleToLongBits(0d));
   /**
-   * The minimum value.
+   * The minimum value, stored as the bits of a double.
    */
-  double min = Double.POSITIVE_INFINITY;
+  transient AtomicLong min = new AtomicLong(Double.doubleToLongBits(Double.POSITIVE_INFINITY));
   /**
-   * The maximum value.
+   * The maximum value, stored as the bits of a double.
    */
-  double max;
+  transient AtomicLong max = new AtomicLong(Double.doubleToLongBits(0d));
   /**
-   * The average value.
+   * Count of values added to this snapshot.
    */
-  double avg;
+  transient LongAdder valueCount = new LongAdder();
   /**
-   * Count of values added to this snapshot.
+   * The distribution of the values added to this snapshot.
    */
-  long valueCount;
+  final LogLinearHistogram histogram = new LogLinearHistogram();
 
   /**
    * Initialize this time snapshot with a specified title.
@@ -60,29 +64,31 @@ public abstract class AbstractJPPFSnapshot extends AbstractBaseJPPFSnapshot {
    * @param ts a new snapshot into which values will be copied
    * @return a <code>TimeSnapshot</code> instance.
    */
-  synchronized AbstractJPPFSnapshot copy(final AbstractJPPFSnapshot ts) {
-    ts.total = total;
-    ts.latest = latest;
-    ts.min = min;
-    ts.max = max;
-    ts.avg = avg;
-    ts.valueCount = valueCount;
+  AbstractJPPFSnapshot copy(final AbstractJPPFSnapshot ts) {
+    ts.updateNanos = updateNanos;
+    ts.total.add(total.sum());
+    ts.latest.set(latest.get());
+    ts.min.set(min.get());
+    ts.max.set(max.get());
+    ts.valueCount.add(valueCount.sum());
+    ts.histogram.merge(histogram);
     return ts;
   }
 
   /**
    * {@inheritDoc}
+   * <p>This method is not atomic with regards to concurrent updates of this snapshot.
    * @exclude
    */
   @Override
-  public synchronized void reset() {
+  public void reset() {
     computeUpdateNanos();
-    total = 0d;
-    latest = 0d;
-    min = Double.POSITIVE_INFINITY;
-    max = 0d;
-    avg = 0d;
-    valueCount = 0L;
+    total.reset();
+    latest.set(Double.doubleToLongBits(0d));
+    min.set(Double.doubleToLongBits(Double.POSITIVE_INFINITY));
+    max.set(Double.doubleToLongBits(0d));
+    valueCount.reset();
+    histogram.reset();
   }
 
   /**
@@ -92,41 +98,122 @@ public abstract class AbstractJPPFSnapshot extends AbstractBaseJPPFSnapshot {
   public abstract void assignLatestToMax();
 
   @Override
-  public synchronized String toString() {
+  public String toString() {
     final StringBuilder sb = new StringBuilder();
     sb.append(JPPFStatisticsHelper.getLocalizedLabel(this)).append(": type=").append(getClass().getSimpleName());
-    sb.append(": total=").append(total);
-    sb.append(", latest=").append(latest);
-    sb.append(", min=").append(min);
-    sb.append(", max=").append(max);
-    sb.append(", avg=").append(avg);
-    sb.append(", valueCount=").append(valueCount);
+    sb.append(": total=").append(getTotal());
+    sb.append(", latest=").append(getLatest());
+    sb.append(", min=").append(getMin());
+    sb.append(", max=").append(getMax());
+    sb.append(", avg=").append(getAvg());
+    sb.append(", valueCount=").append(getValueCount());
+    sb.append(", p50=").append(getPercentile(50d));
+    sb.append(", p99=").append(getPercentile(99d));
     return sb.toString();
   }
 
   @Override
-  public synchronized double getLatest() {
-    return latest;
+  public double getLatest() {
+    return Double.longBitsToDouble(latest.get());
   }
 
   @Override
-  public synchronized double getMin() {
-    if (Double.compare(min, Double.POSITIVE_INFINITY) == 0) return latest;
-    else return min;
+  public double getMin() {
+    final double value = Double.longBitsToDouble(min.get());
+    if (Double.compare(value, Double.POSITIVE_INFINITY) == 0) return getLatest();
+    else return value;
   }
 
   @Override
-  public synchronized double getMax() {
-    return max;
+  public double getMax() {
+    return Double.longBitsToDouble(max.get());
   }
 
   @Override
-  public synchronized double getAvg() {
-    return avg;
+  public double getAvg() {
+    final long count = valueCount.sum();
+    return (count == 0L) ? 0d : total.sum() / count;
   }
 
   @Override
-  public synchronized long getValueCount() {
-    return valueCount;
+  public long getValueCount() {
+    return valueCount.sum();
+  }
+
+  /**
+   * {@inheritDoc}
+   * <p>The returned value has a relative error of at most 1/{@value LogLinearHistogram#SUB_BUCKETS} and is bounded by the minimum and maximum values.
+   */
+  @Override
+  public double getPercentile(final double percentile) {
+    if (histogram.getCount() == 0L) return 0d;
+    final double value = histogram.getValueAtPercentile(percentile);
+    return Math.max(getMin(), Math.min(getMax(), value));
+  }
+
+  /**
+   * Get the distribution of the values added to this snapshot.
+   * @return a {@link LogLinearHistogram} which can be merged with the histograms of other snapshots.
+   * @exclude
+   */
+  public LogLinearHistogram getHistogram() {
+    return histogram;
+  }
+
+  /**
+   * Atomically add the specified value to the latest value.
+   * @param value the value to add.
+   * @return the new latest value.
+   */
+  double addToLatest(final double value) {
+    while (true) {
+      final long current = latest.get();
+      final double newValue = Double.longBitsToDouble(current) + value;
+      if (latest.compareAndSet(current, Double.doubleToLongBits(newValue))) return newValue;
+    }
+  }
+
+  /**
+   * Update the minimum and maximum with the specified value. In the most common case where the value
+   * is within the current bounds, this method does not perform any write.
+   * @param value the value to compare with the minimum and maximum.
+   */
+  void updateMinMax(final double value) {
+    long current;
+    while (value < Double.longBitsToDouble(current = min.get())) {
+      if (min.compareAndSet(current, Double.doubleToLongBits(value))) break;
+    }
+    while (value > Double.longBitsToDouble(current = max.get())) {
+      if (max.compareAndSet(current, Double.doubleToLongBits(value))) break;
+    }
+  }
+
+  /**
+   * Save the state of this object to a stream. The concurrent counters are written as primitive values,
+   * since the JPPF serialization does not support the serialization proxy of {@link LongAdder}.
+   * @param out the stream to write to.
+   * @throws IOException if an I/O error occurs.
+   */
+  private void writeObject(final ObjectOutputStream out) throws IOException {
+    out.defaultWriteObject();
+    out.writeDouble(getLatest());
+    out.writeDouble(Double.longBitsToDouble(min.get()));
+    out.writeDouble(getMax());
+    out.writeLong(valueCount.sum());
+  }
+
+  /**
+   * Restore the state of this object from a stream.
+   * @param in the stream to read from.
+   * @throws IOException if an I/O error occurs.
+   * @throws ClassNotFoundException if a class cannot be found or initialized during deserialization.
+   */
+  private void readObject(final ObjectInputStream in) throws IOException, ClassNotFoundException {
+    in.defaultReadObject();
+    latest = new AtomicLong(Double.doubleToLongBits(in.readDouble()));
+    min = new AtomicLong(Double.doubleToLongBits(in.readDouble()));
+    max = new AtomicLong(Double.doubleToLongBits(in.readDouble()));
+    valueCount = new LongAdder();
+    valueCount.add(in.readLong());
   }
 }
@@ -78,6 +78,15 @@ public interface JPPFSnapshot extends Serializable {
    */
   double getAvg();
 
+  /**
+   * Get the value below which the specified percentage of the values added to this snapshot fall.
+   * For instance, {@code getPercentile(99d)} returns the 99th percentile of the values.
+   * @param percentile the percentile to compute, in the range [0, 100].
+   * @return an approximation of the value at the specified percentile, or 0 if no value was added or if this snapshot does not track the distribution of its values.
+   * @since 6.2
+   */
+  double getPercentile(final double percentile);
+
   /**
    * Get the label for this snapshot.
    * @return the label as a string.
@@ -76,6 +76,18 @@ public class JPPFStatistics implements Serializable, Iterable<JPPFSnapshot> {
     return snapshots.get(label);
   }
 
+  /**
+   * Get a percentile of the values of the snapshot with the specified label.
+   * @param label the label of the snapshot to look up.
+   * @param percentile the percentile to compute, in the range [0, 100].
+   * @return an approximation of the value at the specified percentile, or {@code Double.NaN} if no snapshot could be found with the specified label.
+   * @since 6.2
+   */
+  public double getPercentile(final String label, final double percentile) {
+    final JPPFSnapshot snapshot = snapshots.get(label);
+    return (snapshot == null) ? Double.NaN : snapshot.getPercentile(percentile);
+  }
+
   /**
    * Create a snapshot with the specified label if it doesn't exist.
    * If a snapshot with this label already exists, it is returned.
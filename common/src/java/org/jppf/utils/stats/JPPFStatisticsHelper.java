@@ -97,6 +97,10 @@ public final class JPPFStatisticsHelper {
    * Number of tasks in job dispatches.
    */
   public static final String JOB_DISPATCH_TASKS = "job.dispatch.tasks";
+  /**
+   * Time in milliseconds between a node becoming idle and a job being dispatched to it.
+   */
+  public static final String NODE_DISPATCH_LATENCY = "node.dispatch.latency";
   /**
    * Number of connected nodes.
    */
@@ -157,6 +161,26 @@ public final class JPPFStatisticsHelper {
    * Bytes sent to unidentified remote peers.
    */
   public static final String UNKNOWN_OUT_TRAFFIC = "unknwon.traffic.out";
+  /**
+   * Number of NIO message buffers served from the buffer pool.
+   */
+  public static final String BUFFER_POOL_HITS = "buffer.pool.hits";
+  /**
+   * Number of NIO message buffers that had to be allocated because none was available in the buffer pool.
+   */
+  public static final String BUFFER_POOL_MISSES = "buffer.pool.misses";
+  /**
+   * Bytes allocated for NIO message buffers outside of the buffer pool.
+   */
+  public static final String BUFFER_POOL_ALLOCATED = "buffer.pool.allocated";
+  /**
+   * Number of NIO message buffers returned to the buffer pool.
+   */
+  public static final String BUFFER_POOL_RECYCLED = "buffer.pool.recycled";
+  /**
+   * Number of NIO message buffers discarded because the buffer pool was full.
+   */
+  public static final String BUFFER_POOL_DISCARDED = "buffer.pool.discarded";
 
   /**
    * Determine wether the specified snapshot is a single value snapshot.
@@ -219,6 +243,9 @@ public final class JPPFStatisticsHelper {
       statsProperties.setDouble(label + "max", snapshot.getMax());
       statsProperties.setDouble(label + "avg", snapshot.getAvg());
       statsProperties.setDouble(label + "count", snapshot.getValueCount());
+      statsProperties.setDouble(label + "p50", snapshot.getPercentile(50d));
+      statsProperties.setDouble(label + "p90", snapshot.getPercentile(90d));
+      statsProperties.setDouble(label + "p99", snapshot.getPercentile(99d));
     }
   }
 
@@ -232,10 +259,11 @@ public final class JPPFStatisticsHelper {
     new ServiceFinder().findProviders(JPPFFilteredStatisticsListener.class)
       .forEach(listener -> statistics.addListener(listener, listener.getFilter()));
     statistics.createSnapshots(false, EXECUTION, NODE_EXECUTION, TRANSPORT_TIME, TASK_QUEUE_TIME, JOB_TIME, JOB_TASKS, JOB_DISPATCH_TIME, JOB_DISPATCH_TASKS, DISPATCH_PER_JOB_COUNT, TASK_DISPATCH,
-        NODE_CLASS_REQUESTS_TIME, CLIENT_CLASS_REQUESTS_TIME);
+        NODE_DISPATCH_LATENCY, NODE_CLASS_REQUESTS_TIME, CLIENT_CLASS_REQUESTS_TIME);
     statistics.createSnapshots(true, TASK_QUEUE_COUNT, JOB_COUNT, JOB_DISPATCH_COUNT, NODES, IDLE_NODES, CLIENTS);
     statistics.createSingleValueSnapshots(TASK_QUEUE_TOTAL, JOB_TOTAL, JOB_DISPATCH_TOTAL, NODE_IN_TRAFFIC, NODE_OUT_TRAFFIC, CLIENT_IN_TRAFFIC, CLIENT_OUT_TRAFFIC,
-        PEER_IN_TRAFFIC, PEER_OUT_TRAFFIC, JMX_IN_TRAFFIC, JMX_OUT_TRAFFIC, UNKNOWN_IN_TRAFFIC, UNKNOWN_OUT_TRAFFIC);
+        PEER_IN_TRAFFIC, PEER_OUT_TRAFFIC, JMX_IN_TRAFFIC, JMX_OUT_TRAFFIC, UNKNOWN_IN_TRAFFIC, UNKNOWN_OUT_TRAFFIC,
+        BUFFER_POOL_HITS, BUFFER_POOL_MISSES, BUFFER_POOL_ALLOCATED, BUFFER_POOL_RECYCLED, BUFFER_POOL_DISCARDED);
     return statistics;
   }
 }
@@ -0,0 +1,203 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jppf.utils.stats;
+
+import java.io.*;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A lock-free histogram of positive values, with buckets whose width grows exponentially with the magnitude of the values.
+ * <p>Each power of 2 is split into {@value #SUB_BUCKETS} linear sub-buckets, such that the values computed from the histogram,
+ * for instance the percentiles, have a relative error of at most 1/{@value #SUB_BUCKETS}. Values smaller than 2<sup>{@value #MIN_EXPONENT}</sup>,
+ * including zero and negative values, are all counted in the first bucket, and values greater than or equal to 2<sup>{@value #MAX_EXPONENT} + 1</sup>
+ * are counted in the last one.
+ * <p>Histograms can be merged, which allows aggregating the distribution of values from multiple sources, and only the non-empty buckets are serialized.
+ * @author Laurent Cohen
+ * @since 6.2
+ */
+public class LogLinearHistogram implements Serializable {
+  /**
+   * Explicit serialVersionUID.
+   */
+  private static final long serialVersionUID = 1L;
+  /**
+   * Number of bits of the mantissa used to determine the linear sub-bucket.
+   */
+  private static final int SUB_BUCKET_BITS = 5;
+  /**
+   * Number of linear sub-buckets in each power of 2.
+   */
+  public static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+  /**
+   * The exponent of the smallest value distinguished by the histogram.
+   */
+  public static final int MIN_EXPONENT = -20;
+  /**
+   * The exponent of the largest value distinguished by the histogram.
+   */
+  public static final int MAX_EXPONENT = 43;
+  /**
+   * The total number of buckets, including the one for the values lower than 2<sup>{@value #MIN_EXPONENT}</sup>.
+   */
+  static final int NB_BUCKETS = 1 + (MAX_EXPONENT - MIN_EXPONENT + 1) * SUB_BUCKETS;
+  /**
+   * The smallest value distinguished by the histogram.
+   */
+  private static final double MIN_VALUE = Math.scalb(1d, MIN_EXPONENT);
+  /**
+   * The count of values in each bucket.
+   */
+  private transient AtomicLongArray counts = new AtomicLongArray(NB_BUCKETS);
+
+  /**
+   * Record the specified value.
+   * @param value the value to record.
+   */
+  public void recordValue(final double value) {
+    counts.incrementAndGet(bucketIndex(value));
+  }
+
+  /**
+   * Record the specified value a given number of times.
+   * @param value the value to record.
+   * @param count the number of occurrences of the value.
+   */
+  public void recordValue(final double value, final long count) {
+    if (count > 0L) counts.addAndGet(bucketIndex(value), count);
+  }
+
+  /**
+   * Add the counts of the specified histogram to this one.
+   * @param other the histogram to merge into this one.
+   */
+  public void merge(final LogLinearHistogram other) {
+    for (int i=0; i<NB_BUCKETS; i++) {
+      final long n = other.counts.get(i);
+      if (n != 0L) counts.addAndGet(i, n);
+    }
+  }
+
+  /**
+   * Get the total number of recorded values.
+   * @return the count of values.
+   */
+  public long getCount() {
+    long total = 0L;
+    for (int i=0; i<NB_BUCKETS; i++) total += counts.get(i);
+    return total;
+  }
+
+  /**
+   * Get the value below which the specified percentage of the recorded values fall.
+   * @param percentile the percentile to compute, in the range [0, 100].
+   * @return an approximation of the value at the percentile, or 0 if no value was recorded.
+   */
+  public double getValueAtPercentile(final double percentile) {
+    final long[] values = new long[NB_BUCKETS];
+    long total = 0L;
+    for (int i=0; i<NB_BUCKETS; i++) total += (values[i] = counts.get(i));
+    if (total == 0L) return 0d;
+    final double p = Math.min(Math.max(percentile, 0d), 100d);
+    final long rank = Math.max(1L, (long) Math.ceil(p / 100d * total));
+    long cumulated = 0L;
+    for (int i=0; i<NB_BUCKETS; i++) {
+      cumulated += values[i];
+      if (cumulated >= rank) return (i == 0) ? 0d : (lowerBound(i) + lowerBound(i + 1)) / 2d;
+    }
+    return lowerBound(NB_BUCKETS);
+  }
+
+  /**
+   * Reset all the counts to zero.
+   */
+  public void reset() {
+    for (int i=0; i<NB_BUCKETS; i++) counts.set(i, 0L);
+  }
+
+  /**
+   * Make a copy of this histogram.
+   * @return a new {@link LogLinearHistogram} with the same counts as this one.
+   */
+  public LogLinearHistogram copy() {
+    final LogLinearHistogram histogram = new LogLinearHistogram();
+    histogram.merge(this);
+    return histogram;
+  }
+
+  /**
+   * Compute the index of the bucket in which the specified value is counted.
+   * @param value the value to locate.
+   * @return the bucket index.
+   */
+  static int bucketIndex(final double value) {
+    // also handles NaN and negative values
+    if (!(value >= MIN_VALUE)) return 0;
+    final int exponent = Math.getExponent(value);
+    if (exponent > MAX_EXPONENT) return NB_BUCKETS - 1;
+    final int subBucket = (int) (Double.doubleToRawLongBits(value) >>> (52 - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+    return 1 + (exponent - MIN_EXPONENT) * SUB_BUCKETS + subBucket;
+  }
+
+  /**
+   * Compute the lowest value counted in the specified bucket.
+   * @param index the bucket index, possibly equal to the number of buckets to get the upper bound of the last bucket.
+   * @return the lower bound of the bucket.
+   */
+  static double lowerBound(final int index) {
+    if (index == 0) return 0d;
+    final int n = index - 1;
+    return Math.scalb(1d + (double) (n % SUB_BUCKETS) / SUB_BUCKETS, MIN_EXPONENT + n / SUB_BUCKETS);
+  }
+
+  /**
+   * Save the state of this object to a stream, writing only the non-empty buckets.
+   * @param out the stream to write to.
+   * @throws IOException if an I/O error occurs.
+   */
+  private void writeObject(final ObjectOutputStream out) throws IOException {
+    out.defaultWriteObject();
+    final long[] values = new long[NB_BUCKETS];
+    int nbNonEmpty = 0;
+    for (int i=0; i<NB_BUCKETS; i++) {
+      if ((values[i] = counts.get(i)) != 0L) nbNonEmpty++;
+    }
+    out.writeShort(nbNonEmpty);
+    for (int i=0; i<NB_BUCKETS; i++) {
+      if (values[i] == 0L) continue;
+      out.writeShort(i);
+      out.writeLong(values[i]);
+    }
+  }
+
+  /**
+   * Restore the state of this object from a stream.
+   * @param in the stream to read from.
+   * @throws IOException if an I/O error occurs.
+   * @throws ClassNotFoundException if a class cannot be found or initialized during deserialization.
+   */
+  private void readObject(final ObjectInputStream in) throws IOException, ClassNotFoundException {
+    in.defaultReadObject();
+    counts = new AtomicLongArray(NB_BUCKETS);
+    final int nbNonEmpty = in.readUnsignedShort();
+    for (int i=0; i<nbNonEmpty; i++) {
+      final int index = in.readUnsignedShort();
+      counts.set(index, in.readLong());
+    }
+  }
+}
@@ -42,15 +42,15 @@ public class NonCumulativeSnapshot extends AbstractJPPFSnapshot {
    * @exclude
    */
   @Override
-  public synchronized void addValues(final double accumulatedValues, final long count) {
+  public void addValues(final double accumulatedValues, final long count) {
     computeUpdateNanos();
-    total += accumulatedValues;
+    total.add(accumulatedValues);
     if (count > 0L) {
-      valueCount += count;
-      latest = (count == 1L) ? accumulatedValues : accumulatedValues / count;
-      if (latest > max) max = latest;
-      if (latest < min) min = latest;
-      if (valueCount != 0d) avg = total / valueCount;
+      valueCount.add(count);
+      final double value = (count == 1L) ? accumulatedValues : accumulatedValues / count;
+      latest.set(Double.doubleToLongBits(value));
+      updateMinMax(value);
+      histogram.recordValue(value, count);
     }
   }
 
@@ -59,13 +59,15 @@ public class NonCumulativeSnapshot extends AbstractJPPFSnapshot {
    * @exclude
    */
   @Override
-  public synchronized void assignLatestToMax() {
+  public void assignLatestToMax() {
     computeUpdateNanos();
-    max = latest;
-    total = latest;
-    valueCount = 0L;
-    avg = 0d;
-    min = (latest < min) ? latest : Double.POSITIVE_INFINITY;
+    final double value = getLatest();
+    max.set(Double.doubleToLongBits(value));
+    total.reset();
+    total.add(value);
+    valueCount.reset();
+    min.set(Double.doubleToLongBits((value < Double.longBitsToDouble(min.get())) ? value : Double.POSITIVE_INFINITY));
+    histogram.reset();
   }
 
   /**
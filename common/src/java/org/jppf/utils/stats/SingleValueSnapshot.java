@@ -45,9 +45,9 @@ public class SingleValueSnapshot extends AbstractBaseJPPFSnapshot {
    * @exclude
    */
   @Override
-  public synchronized void addValues(final double accumulatedValues, final long count) {
+  public void addValues(final double accumulatedValues, final long count) {
     computeUpdateNanos();
-    total += accumulatedValues;
+    total.add(accumulatedValues);
   }
 
   /**
@@ -55,9 +55,10 @@ public class SingleValueSnapshot extends AbstractBaseJPPFSnapshot {
    * @exclude
    */
   @Override
-  public synchronized JPPFSnapshot copy() {
+  public JPPFSnapshot copy() {
     final SingleValueSnapshot svs = new SingleValueSnapshot(label);
-    svs.total = total;
+    svs.updateNanos = updateNanos;
+    svs.total.add(total.sum());
     return svs;
   }
 
@@ -66,9 +67,9 @@ public class SingleValueSnapshot extends AbstractBaseJPPFSnapshot {
    * @exclude
    */
   @Override
-  public synchronized void reset() {
+  public void reset() {
     computeUpdateNanos();
-    total = 0d;
+    total.reset();
   }
 
   @Override
@@ -97,7 +98,12 @@ public class SingleValueSnapshot extends AbstractBaseJPPFSnapshot {
   }
 
   @Override
-  public synchronized String toString() {
-    return new StringBuilder(JPPFStatisticsHelper.getLocalizedLabel(this)).append(": type=").append(getClass().getSimpleName()).append(", total=").append(total).toString();
+  public double getPercentile(final double percentile) {
+    return 0;
+  }
+
+  @Override
+  public String toString() {
+    return new StringBuilder(JPPFStatisticsHelper.getLocalizedLabel(this)).append(": type=").append(getClass().getSimpleName()).append(", total=").append(getTotal()).toString();
   }
 }
@@ -0,0 +1,42 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jppf.jmxremote;
+
+import java.util.List;
+
+import javax.management.*;
+
+/**
+ * A notification listener which can receive multiple notifications in a single call.
+ * <p>When a listener registered through a JPPF JMX connector implements this interface, the notifications received together by the connector,
+ * for instance in a batch sent by the server when {@code jppf.jmx.notifications.batch.window} is set, are delivered with a single call
+ * to {@link #handleNotifications(List, Object)}, in the order in which they were emitted.
+ * Other notification listeners still receive the notifications one by one.
+ * @author Laurent Cohen
+ * @since 6.2
+ */
+public interface BatchNotificationListener extends NotificationListener {
+  /**
+   * Invoked when one or more notifications are received.
+   * @param notifications the received notifications, in the order in which they were emitted.
+   * @param handback an opaque object which helps the listener to associate information regarding the MBean emitter. This object is passed to the
+   * {@code addNotificationListener()} call and resent, without modification, to the listener.
+   */
+  void handleNotifications(List<Notification> notifications, Object handback);
+}
@@ -248,15 +248,34 @@ public class JPPFJMXConnector implements JMXConnector {
    * @throws Exception if any error occurs.
    */
   public void handleNotification(final JMXNotification jmxNotification) throws Exception {
-    if (debugEnabled) log.debug("received notification {}", jmxNotification);
-    final List<ClientListenerInfo> infos = new ArrayList<>(jmxNotification.getListenerIDs().length);
-    synchronized(notificationListenerMap) {
-      for (final Integer listenerID: jmxNotification.getListenerIDs()) {
-        final ClientListenerInfo info = notificationListenerMap.get(listenerID);
-        if (info != null) infos.add(info);
+    handleNotifications(Collections.singletonList(jmxNotification));
+  }
+
+  /**
+   * Handle new received notifications. The listeners which implement {@link BatchNotificationListener} receive all their notifications in a single call.
+   * @param jmxNotifications the notification messages to process, in the order in which they were received.
+   * @throws Exception if any error occurs.
+   */
+  public void handleNotifications(final List<JMXNotification> jmxNotifications) throws Exception {
+    final Map<ClientListenerInfo, List<Notification>> batches = new LinkedHashMap<>();
+    for (final JMXNotification jmxNotification: jmxNotifications) {
+      if (debugEnabled) log.debug("received notification {}", jmxNotification);
+      final List<ClientListenerInfo> infos = new ArrayList<>(jmxNotification.getListenerIDs().length);
+      synchronized(notificationListenerMap) {
+        for (final Integer listenerID: jmxNotification.getListenerIDs()) {
+          final ClientListenerInfo info = notificationListenerMap.get(listenerID);
+          if (info != null) infos.add(info);
+        }
       }
+      for  (final ClientListenerInfo info: infos) {
+        if (info.getListener() instanceof BatchNotificationListener) batches.computeIfAbsent(info, k -> new ArrayList<>()).add(jmxNotification.getNotification());
+        else info.getListener().handleNotification(jmxNotification.getNotification(), info.getHandback());
+      }
+    }
+    for (final Map.Entry<ClientListenerInfo, List<Notification>> entry: batches.entrySet()) {
+      final ClientListenerInfo info = entry.getKey();
+      ((BatchNotificationListener) info.getListener()).handleNotifications(entry.getValue(), info.getHandback());
     }
-    for  (final ClientListenerInfo info: infos) info.getListener().handleNotification(jmxNotification.getNotification(), info.getHandback());
   }
 
   /**
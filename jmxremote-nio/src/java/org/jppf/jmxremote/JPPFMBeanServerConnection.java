@@ -23,9 +23,11 @@ import static org.jppf.jmx.JMXHelper.*;
 import java.io.*;
 import java.nio.channels.*;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 import javax.management.*;
 
+import org.jppf.jmx.AsyncMBeanServerConnection;
 import org.jppf.jmxremote.message.*;
 import org.jppf.jmxremote.nio.ChannelsPair;
 import org.slf4j.*;
@@ -34,7 +36,7 @@ import org.slf4j.*;
  * Implementation of the {@link MBeanServerConnection} interface for JPPF JMX remote connectors.
  * @author Laurent Cohen
  */
-public class JPPFMBeanServerConnection implements MBeanServerConnection, Closeable {
+public class JPPFMBeanServerConnection implements MBeanServerConnection, AsyncMBeanServerConnection, Closeable {
   /**
    * Logger for this class.
    */
@@ -243,6 +245,21 @@ public class JPPFMBeanServerConnection implements MBeanServerConnection, Closeab
     }
   }
 
+  @Override
+  public CompletableFuture<Object> invokeAsync(final ObjectName name, final String operationName, final Object[] params, final String[] signature) {
+    return messageHandler.sendRequestAsync(INVOKE, name, operationName, params, signature);
+  }
+
+  @Override
+  public CompletableFuture<Object> getAttributeAsync(final ObjectName name, final String attribute) {
+    return messageHandler.sendRequestAsync(GET_ATTRIBUTE, name, attribute);
+  }
+
+  @Override
+  public CompletableFuture<Object> setAttributeAsync(final ObjectName name, final Attribute attribute) {
+    return messageHandler.sendRequestAsync(SET_ATTRIBUTE, name, attribute);
+  }
+
   @Override
   public String getDefaultDomain() throws IOException {
     try {
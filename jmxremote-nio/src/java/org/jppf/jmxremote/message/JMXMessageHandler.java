@@ -21,12 +21,13 @@ package org.jppf.jmxremote.message;
 import java.io.IOException;
 import java.nio.channels.SelectionKey;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.atomic.*;
 
 import org.jppf.JPPFTimeoutException;
 import org.jppf.jmx.*;
 import org.jppf.jmxremote.nio.*;
-import org.jppf.utils.JPPFConfiguration;
+import org.jppf.utils.*;
 import org.jppf.utils.configuration.JPPFProperties;
 import org.slf4j.*;
 
@@ -67,6 +68,10 @@ public class JMXMessageHandler {
    * Whether this handler was closed.
    */
   private final AtomicBoolean closed = new AtomicBoolean(false);
+  /**
+   * Batches the notifications sent through this handler, or {@code null} if batching is disabled.
+   */
+  private final NotificationBatcher batcher;
 
   /**
    * Initialize with the specified pair of reading and writing channels.
@@ -76,7 +81,10 @@ public class JMXMessageHandler {
   public JMXMessageHandler(final ChannelsPair channels, final Map<String, ?> env) {
     this.channels = channels;
     channels.setMessageHandler(this);
-    this.requestTimeout = JMXEnvHelper.getLong(JPPFProperties.JMX_REMOTE_REQUEST_TIMEOUT, env, JPPFConfiguration.getProperties());
+    final TypedProperties config = JPPFConfiguration.getProperties();
+    this.requestTimeout = JMXEnvHelper.getLong(JPPFProperties.JMX_REMOTE_REQUEST_TIMEOUT, env, config);
+    final long batchWindow = JMXEnvHelper.getLong(JPPFProperties.JMX_NOTIF_BATCH_WINDOW, env, config);
+    this.batcher = (batchWindow > 0L) ? new NotificationBatcher(batchWindow, JMXEnvHelper.getInt(JPPFProperties.JMX_NOTIF_BATCH_MAX_SIZE, env, config), this::doSendMessage) : null;
   }
 
   /**
@@ -97,6 +105,33 @@ public class JMXMessageHandler {
     return receiveResponse(new JMXRequest((type == JMXHelper.CONNECT) ? CONNECTION_MESSAGE_ID: messageSequence.incrementAndGet(), type, params), true);
   }
 
+  /**
+   * Send a request without waiting for its response.
+   * @param type the type of request to send.
+   * @param params the request's parameters.
+   * @return a future completed with the result of the request when its response arrives, or completed exceptionally
+   * if the request failed or the connection was closed.
+   */
+  public CompletableFuture<Object> sendRequestAsync(final byte type, final Object...params) {
+    final CompletableFuture<Object> future = new CompletableFuture<>();
+    if (closed.get()) {
+      future.completeExceptionally(new IOException("could not send request, connection is closed: " + channels));
+      return future;
+    }
+    final JMXRequest request = new JMXRequest(messageSequence.incrementAndGet(), type, params);
+    if (debugEnabled) log.debug("sending async request {}, channels={}", request, channels);
+    request.setFuture(future);
+    putRequest(request);
+    // also releases the request when the future is completed or cancelled by the caller, for instance upon a timeout
+    future.whenComplete((result, error) -> removeRequest(request.getMessageID()));
+    try {
+      sendMessage(request);
+    } catch (final Exception e) {
+      future.completeExceptionally(e);
+    }
+    return future;
+  }
+
   /**
    * Wait for a response message form the server.
    * @param request the request to wat a response for.
@@ -130,9 +165,15 @@ public class JMXMessageHandler {
     final JMXRequest request = removeRequest(response.getMessageID());
     if (request != null) {
       if (debugEnabled) log.debug("found matching request {}", request);
-      synchronized(request) {
-        request.setResponse(response);
-        request.notify();
+      final CompletableFuture<Object> future = request.getFuture();
+      if (future != null) {
+        if (response.getException() != null) future.completeExceptionally(response.getException());
+        else future.complete(response.getResult());
+      } else {
+        synchronized(request) {
+          request.setResponse(response);
+          request.notify();
+        }
       }
     } else {
       log.warn("no matching request for {}, channels={}", response, channels);
@@ -182,6 +223,17 @@ public class JMXMessageHandler {
    * @throws Exception if any error occurs.
    */
   public void sendMessage(final JMXMessage message) throws Exception {
+    if (closed.get()) return;
+    if ((batcher != null) && (message instanceof JMXNotification)) batcher.add((JMXNotification) message);
+    else doSendMessage(message);
+  }
+
+  /**
+   * Queue the specified message for writing to the channel.
+   * @param message the message to send.
+   * @throws Exception if any error occurs.
+   */
+  private void doSendMessage(final JMXMessage message) throws Exception {
     if (closed.get()) return;
     if (debugEnabled) log.debug("sending message {}", message);
     final JMXContext context = channels.writingContext();
@@ -194,15 +246,21 @@ public class JMXMessageHandler {
    */
   public void close() {
     if (closed.compareAndSet(false, true)) {
+      if (batcher != null) batcher.close();
+      final List<JMXRequest> requests;
       synchronized(requestMap) {
-        for (Map.Entry<Long, JMXRequest> entry: requestMap.entrySet()) {
-          final JMXRequest request = entry.getValue();
+        requests = new ArrayList<>(requestMap.values());
+        requestMap.clear();
+      }
+      for (final JMXRequest request: requests) {
+        final CompletableFuture<Object> future = request.getFuture();
+        if (future != null) future.completeExceptionally(new IOException("connection closed before a response was received: " + channels));
+        else {
           synchronized(request) {
             request.setResponse(new JMXResponse(request, null, false));
             request.notify();
           }
         }
-        requestMap.clear();
       }
     }
   }
@@ -0,0 +1,100 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jppf.jmxremote.message;
+
+import java.io.*;
+import java.util.*;
+
+import javax.management.Notification;
+
+import org.jppf.jmx.JMXHelper;
+
+/**
+ * A message which holds multiple notifications, such that they are serialized and sent as a single frame.
+ * Since they are written to the same object stream, the class descriptors and the objects shared by the notifications, such as their source, are only written once.
+ * @author Laurent Cohen
+ */
+public class JMXNotificationBatch extends AbstractJMXMessage {
+  /**
+   * Explicit serialVersionUID.
+   */
+  private static final long serialVersionUID = 1L;
+  /**
+   * The notifications in this batch.
+   */
+  private List<JMXNotification> notifications;
+
+  /**
+   * Initialize this batch with the specified notifications.
+   * @param messageID the message id.
+   * @param notifications the notifications to send, in the order in which they are to be delivered.
+   */
+  public JMXNotificationBatch(final long messageID, final List<JMXNotification> notifications) {
+    super(messageID, JMXHelper.NOTIFICATION_BATCH);
+    this.notifications = notifications;
+  }
+
+  /**
+   * @return the notifications in this batch, in the order in which they are to be delivered.
+   */
+  public List<JMXNotification> getNotifications() {
+    return notifications;
+  }
+
+  @Override
+  public String toString() {
+    return new StringBuilder(getClass().getSimpleName()).append('[')
+      .append("messageID=").append(getMessageID())
+      .append(", messageType=").append(JMXHelper.name(getMessageType()))
+      .append(", size=").append(notifications.size())
+      .append(']').toString();
+  }
+
+  /**
+   * Save the state of this object to a stream (i.e.,serialize it).
+   * @param out the output stream to which to write this object.
+   * @throws IOException if any I/O error occurs.
+   */
+  private void writeObject(final ObjectOutputStream out) throws IOException {
+    out.writeInt(notifications.size());
+    for (final JMXNotification notification: notifications) {
+      out.writeObject(notification.getNotification());
+      final Integer[] listenerIDs = notification.getListenerIDs();
+      out.writeInt(listenerIDs.length);
+      for (final int id: listenerIDs) out.writeInt(id);
+    }
+  }
+
+  /**
+   * Reconstitute this object from a stream (i.e., deserialize it).
+   * @param in the input stream from which to read the object.
+   * @throws IOException if any I/O error occurs.
+   * @throws ClassNotFoundException if the class of an object in the object graph can not be found.
+   */
+  private void readObject(final ObjectInputStream in) throws IOException, ClassNotFoundException {
+    final int size = in.readInt();
+    notifications = new ArrayList<>(size);
+    for (int i=0; i<size; i++) {
+      final Notification notification = (Notification) in.readObject();
+      final Integer[] listenerIDs = new Integer[in.readInt()];
+      for (int j=0; j<listenerIDs.length; j++) listenerIDs[j] = in.readInt();
+      notifications.add(new JMXNotification(-1L, notification, listenerIDs));
+    }
+  }
+}
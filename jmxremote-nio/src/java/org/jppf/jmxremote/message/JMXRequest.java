@@ -20,6 +20,7 @@ package org.jppf.jmxremote.message;
 
 import java.io.*;
 import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
 
 import javax.management.ObjectName;
 
@@ -46,6 +47,10 @@ public class JMXRequest extends AbstractJMXMessage {
    * The response to this reqquest.
    */
   private transient JMXResponse response;
+  /**
+   * Completed when the response arrives, for a request whose sender does not wait for the response.
+   */
+  private transient CompletableFuture<Object> future;
 
   /**
    * Initialize this request with the specified ID, request type and parameters.
@@ -80,6 +85,21 @@ public class JMXRequest extends AbstractJMXMessage {
     this.response = response;
   }
 
+  /**
+   * @return the future completed when the response arrives, or {@code null} if the sender waits for the response.
+   */
+  public CompletableFuture<Object> getFuture() {
+    return future;
+  }
+
+  /**
+   * Set the future completed when the response arrives.
+   * @param future a {@code CompletableFuture} instance.
+   */
+  public void setFuture(final CompletableFuture<Object> future) {
+    this.future = future;
+  }
+
   @Override
   public String toString() {
     return new StringBuilder(getClass().getSimpleName()).append('[')
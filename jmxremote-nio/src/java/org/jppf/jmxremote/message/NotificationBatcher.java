@@ -0,0 +1,196 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jppf.jmxremote.message;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.jppf.utils.concurrent.JPPFThreadFactory;
+import org.jppf.utils.concurrent.QueueHandler.ElementHandler;
+import org.slf4j.*;
+
+/**
+ * Accumulates the notifications sent to a connection, and sends them as a single {@link JMXNotificationBatch} message
+ * when the batching window has elapsed since the first accumulated notification, or when the maximum batch size is reached.
+ * <p>The batches are sent in order by a thread dedicated to the connection, outside of this batcher's monitor: a connection whose queue of
+ * outgoing messages is full only blocks its own sending thread, and neither the thread which times the windows of all the connections
+ * nor the threads which add notifications. The threads which add notifications are only blocked while too many batches are waiting to be sent.
+ * @author Laurent Cohen
+ * @exclude
+ */
+public class NotificationBatcher {
+  /**
+   * Logger for this class.
+   */
+  private static final Logger log = LoggerFactory.getLogger(NotificationBatcher.class);
+  /**
+   * Determines whether the debug level is enabled in the log configuration, without the cost of a method call.
+   */
+  private static final boolean debugEnabled = log.isDebugEnabled();
+  /**
+   * Times the batching windows of all the connections. It only hands the batches over to the connections' sending threads, and never blocks.
+   */
+  private static final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(new JPPFThreadFactory("JMXNotificationBatcher"));
+  /**
+   * Maximum number of batches waiting to be sent before the threads which add notifications are blocked.
+   */
+  public static final int MAX_PENDING_BATCHES = 16;
+  /**
+   * The batching window in millis.
+   */
+  private final long window;
+  /**
+   * The maximum number of notifications in a batch.
+   */
+  private final int maxSize;
+  /**
+   * Sends the messages to the connection.
+   */
+  private final ElementHandler<JMXMessage> sender;
+  /**
+   * Sends the batches of this connection in the order they were completed. Its thread terminates when the connection is idle.
+   */
+  private final ExecutorService sendExecutor = new ThreadPoolExecutor(0, 1, 10L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), new JPPFThreadFactory("JMXNotificationSender"));
+  /**
+   * Used to wait until the number of pending batches is below {@link #MAX_PENDING_BATCHES}.
+   */
+  private final Object pendingLock = new Object();
+  /**
+   * The number of batches waiting to be sent. Synchronized on {@link #pendingLock}.
+   */
+  private int pendingBatches;
+  /**
+   * Whether this batcher was closed. Synchronized on {@link #pendingLock}.
+   */
+  private boolean closed;
+  /**
+   * The accumulated notifications.
+   */
+  private List<JMXNotification> batch;
+
+  /**
+   * Initialize with the specified window, size and sender.
+   * @param window the batching window in millis.
+   * @param maxSize the maximum number of notifications in a batch.
+   * @param sender sends the messages to the connection.
+   */
+  public NotificationBatcher(final long window, final int maxSize, final ElementHandler<JMXMessage> sender) {
+    this.window = window;
+    this.maxSize = maxSize;
+    this.sender = sender;
+  }
+
+  /**
+   * Add a notification to the current batch, and hand the batch over to the sending thread if it is full.
+   * @param notification the notification to add.
+   * @throws InterruptedException if the current thread is interrupted while waiting for pending batches to be sent.
+   */
+  public void add(final JMXNotification notification) throws InterruptedException {
+    boolean full = false;
+    synchronized(this) {
+      if (batch == null) {
+        batch = new ArrayList<>(Math.min(maxSize, 64));
+        if (maxSize > 1) scheduler.schedule(this::flush, window, TimeUnit.MILLISECONDS);
+      }
+      batch.add(notification);
+      if (batch.size() >= maxSize) {
+        handOver();
+        full = true;
+      }
+    }
+    // wait outside of the monitor, so the window of the next batch can still elapse
+    if (full) awaitPendingBatches();
+  }
+
+  /**
+   * Hand the current batch, if any, over to the sending thread. This method does not block.
+   * If the batch was already handed over because it was full, this sends the next batch earlier than its window, which does not affect the ordering.
+   */
+  public synchronized void flush() {
+    handOver();
+  }
+
+  /**
+   * Hand the current batch, if any, over to the sending thread. Must be called while holding this batcher's monitor,
+   * so that the batches are submitted in the order they were accumulated.
+   */
+  private void handOver() {
+    if (batch == null) return;
+    final List<JMXNotification> notifications = batch;
+    batch = null;
+    synchronized(pendingLock) {
+      if (closed) return;
+      pendingBatches++;
+    }
+    try {
+      sendExecutor.execute(() -> send(notifications));
+    } catch (final RejectedExecutionException e) {
+      batchDone();
+    }
+  }
+
+  /**
+   * Send the specified batch. A batch with a single notification is sent as a {@link JMXNotification} message.
+   * @param notifications the notifications to send.
+   */
+  private void send(final List<JMXNotification> notifications) {
+    try {
+      if (debugEnabled) log.debug("sending batch of {} notifications", notifications.size());
+      sender.handle((notifications.size() == 1) ? notifications.get(0) : new JMXNotificationBatch(-1L, notifications));
+    } catch (final Exception e) {
+      log.error("error sending notifications batch", e);
+    } finally {
+      batchDone();
+    }
+  }
+
+  /**
+   * Called when a batch was sent or could not be sent.
+   */
+  private void batchDone() {
+    synchronized(pendingLock) {
+      pendingBatches--;
+      pendingLock.notifyAll();
+    }
+  }
+
+  /**
+   * Wait until the number of batches waiting to be sent is below {@link #MAX_PENDING_BATCHES}, or this batcher is closed.
+   * @throws InterruptedException if the current thread is interrupted while waiting.
+   */
+  private void awaitPendingBatches() throws InterruptedException {
+    synchronized(pendingLock) {
+      while (!closed && (pendingBatches >= MAX_PENDING_BATCHES)) pendingLock.wait();
+    }
+  }
+
+  /**
+   * Discard the current and pending batches and stop the sending thread.
+   */
+  public void close() {
+    synchronized(pendingLock) {
+      closed = true;
+      pendingLock.notifyAll();
+    }
+    synchronized(this) {
+      batch = null;
+    }
+    sendExecutor.shutdownNow();
+  }
+}
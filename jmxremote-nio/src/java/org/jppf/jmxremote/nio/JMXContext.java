@@ -52,6 +52,10 @@ public class JMXContext extends AbstractNioContext {
    * The queue of pending messages to send.
    */
   private final QueueHandler<MessageWrapper> pendingJmxMessages;
+  /**
+   * The queue of received notifications waiting to be delivered, only used by the reading contexts.
+   */
+  private final NotificationDispatcher.ConnectionQueue notificationQueue;
   /**
    * The JMX nio server to use.
    */
@@ -84,7 +88,9 @@ public class JMXContext extends AbstractNioContext {
     this.server = server;
     if (reading) {
       pendingJmxMessages = null;
+      notificationQueue = JMXMessageReader.newNotificationQueue(this);
     } else {
+      notificationQueue = null;
       int size = JMXEnvHelper.getInt(JPPFJMXProperties.NOTIF_QUEUE_SIZE, env, null);
       if (size <= 0) size = JPPFJMXProperties.NOTIF_QUEUE_SIZE.getDefaultValue();
       pendingJmxMessages = QueueHandler.<MessageWrapper>builder()
@@ -149,6 +155,13 @@ public class JMXContext extends AbstractNioContext {
     return !pendingJmxMessages.isEmpty();
   }
 
+  /**
+   * @return the queue of received notifications waiting to be delivered.
+   */
+  NotificationDispatcher.ConnectionQueue getNotificationQueue() {
+    return notificationQueue;
+  }
+
   /**
    * @return the object that handles messages correlations.
    */
@@ -21,6 +21,7 @@ package org.jppf.jmxremote.nio;
 import static org.jppf.jmx.JMXHelper.*;
 
 import java.io.IOException;
+import java.util.List;
 import java.util.concurrent.ExecutorService;
 
 import javax.management.*;
@@ -32,7 +33,6 @@ import org.jppf.jmxremote.JMXAuthorizationChecker;
 import org.jppf.jmxremote.message.*;
 import org.jppf.nio.*;
 import org.jppf.utils.*;
-import org.jppf.utils.concurrent.*;
 import org.slf4j.*;
 
 /**
@@ -50,13 +50,9 @@ class JMXMessageReader {
    */
   private static final boolean debugEnabled = log.isDebugEnabled();
   /**
-   * Handles the JMX notifications in a separate thread.
+   * Delivers the JMX notifications in separate threads, in order for each connection.
    */
-  private static QueueHandler<Pair<JMXContext, JMXMessage>> queueHandler = QueueHandler.<Pair<JMXContext, JMXMessage>>builder()
-    .named("JMXNotificationsHandler")
-    .handlingElementsAs(pair -> handleMessage(pair.first(), pair.second()))
-    .usingSingleDequuerThread()
-    .build();
+  private static final NotificationDispatcher notificationDispatcher = new NotificationDispatcher(JPPFConfiguration.getProperties());
 
   /**
    * Read from the channel until no more data is available (i.e. socket receive buffer is empty).
@@ -92,12 +88,28 @@ class JMXMessageReader {
         if (debugEnabled) log.debug("read message from {}", context);
         context.setReadMessage(null);
         final JMXMessage msg = context.deserializeMessage(nioMessage);
-        if (msg instanceof JMXNotification) queueHandler.put(new Pair<>(context, msg));
+        if (msg instanceof JMXNotification) context.getNotificationQueue().offer((JMXNotification) msg);
+        else if (msg instanceof JMXNotificationBatch) context.getNotificationQueue().offerAll(((JMXNotificationBatch) msg).getNotifications());
         else executor.execute(() -> handleMessage(context, msg));
       } else if (context.readByteCount <= 0L) break;
     }
   }
 
+  /**
+   * Create a queue for the notifications received by the specified context.
+   * @param context the context which receives the notifications.
+   * @return a new {@link NotificationDispatcher.ConnectionQueue} instance.
+   */
+  static NotificationDispatcher.ConnectionQueue newNotificationQueue(final JMXContext context) {
+    return notificationDispatcher.newQueue(notifications -> {
+      try {
+        handleNotifications(context, notifications);
+      } catch(final Exception|Error e) {
+        handleError(context, e);
+      }
+    });
+  }
+
   /**
    * Deserialize the specified message and route it to the specialized handling method.
    * @param context the context associated with the channel.
@@ -108,18 +120,26 @@ class JMXMessageReader {
       if (debugEnabled) log.debug("read message = {} from context = {}", msg, context);
       if (msg instanceof JMXRequest) handleRequest(context, (JMXRequest) msg);
       else if (msg instanceof JMXResponse) handleResponse(context, (JMXResponse) msg);
-      else if (msg instanceof JMXNotification) handleNotification(context, (JMXNotification) msg);
     } catch(final Exception|Error e) {
-      try {
-        if (debugEnabled) log.debug("error on channel {} :\n{}", context, ExceptionUtils.getStackTrace(e));
-        else log.warn("error on channel {} : {}", context, ExceptionUtils.getMessage(e));
-      } catch (final Exception e2) {
-        if (debugEnabled) log.debug("error on channel: {}", ExceptionUtils.getStackTrace(e2));
-        else log.warn("error on channel: {}", ExceptionUtils.getMessage(e2));
-      }
-      if (e instanceof Exception) context.handleException((Exception) e);
-      else throw (Error) e;
+      handleError(context, e);
+    }
+  }
+
+  /**
+   * Log the specified error and notify the context.
+   * @param context the context associated with the channel.
+   * @param e the error to handle.
+   */
+  private static void handleError(final JMXContext context, final Throwable e) {
+    try {
+      if (debugEnabled) log.debug("error on channel {} :\n{}", context, ExceptionUtils.getStackTrace(e));
+      else log.warn("error on channel {} : {}", context, ExceptionUtils.getMessage(e));
+    } catch (final Exception e2) {
+      if (debugEnabled) log.debug("error on channel: {}", ExceptionUtils.getStackTrace(e2));
+      else log.warn("error on channel: {}", ExceptionUtils.getMessage(e2));
     }
+    if (e instanceof Exception) context.handleException((Exception) e);
+    else throw (Error) e;
   }
 
   /**
@@ -305,14 +325,14 @@ class JMXMessageReader {
   }
 
   /**
-   * Handle a received notification.
+   * Handle received notifications.
    * @param context the JMX nio context.
-   * @param jmxNotification the notification message to process.
+   * @param notifications the notification messages to process, in the order in which they were received.
    * @throws Exception if any error occurs.
    */
-  private static void handleNotification(final JMXContext context, final JMXNotification jmxNotification) throws Exception {
-    if (debugEnabled) log.debug("received notification {} from context = {}", jmxNotification, context);
-    context.getChannels().getJMXConnector().handleNotification(jmxNotification);
+  private static void handleNotifications(final JMXContext context, final List<JMXNotification> notifications) throws Exception {
+    if (debugEnabled) log.debug("received {} notifications from context = {}", notifications.size(), context);
+    context.getChannels().getJMXConnector().handleNotifications(notifications);
   }
 
   /**
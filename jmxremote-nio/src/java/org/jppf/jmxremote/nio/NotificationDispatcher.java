@@ -0,0 +1,338 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jppf.jmxremote.nio;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.management.Notification;
+
+import org.jppf.jmxremote.message.JMXNotification;
+import org.jppf.management.forwarding.JPPFNodeForwardingNotification;
+import org.jppf.utils.TypedProperties;
+import org.jppf.utils.concurrent.*;
+import org.jppf.utils.configuration.JPPFProperties;
+import org.slf4j.*;
+
+/**
+ * Delivers the JMX notifications received by the connections to their listeners, using a pool of threads shared by all the connections.
+ * <p>Each connection has its own queue of pending notifications, which is processed by at most one thread at a time, such that the notifications
+ * of a connection are delivered in the order in which they were received, while the notifications of distinct connections are delivered in parallel.
+ * <p>The delivery of high-rate notification types can be relaxed with {@code jppf.jmx.notifications.policy.<type>}:
+ * <ul>
+ * <li>{@code queue}: the notifications are always delivered, this is the default</li>
+ * <li>{@code drop}: the notifications are discarded while the connection has {@code jppf.jmx.notifications.dispatch.max.pending} or more pending notifications</li>
+ * <li>{@code coalesce}: a notification replaces the pending notification, if any, with the same type and source and for the same listeners</li>
+ * </ul>
+ * For the notifications forwarded by the node forwarding MBean, the type and source are those of the forwarded notification.
+ * <p>The notifications of a connection are handed to its handler in runs of up to {@value #MAX_RUN_LENGTH} notifications, such that listeners which
+ * support batch delivery can process them together.
+ * @author Laurent Cohen
+ * @exclude
+ */
+public class NotificationDispatcher {
+  /**
+   * Logger for this class.
+   */
+  private static final Logger log = LoggerFactory.getLogger(NotificationDispatcher.class);
+  /**
+   * Determines whether the debug level is enabled in the log configuration, without the cost of a method call.
+   */
+  private static final boolean debugEnabled = log.isDebugEnabled();
+  /**
+   * Maximum number of notifications of a connection delivered in a row, before giving a chance to the other connections.
+   */
+  private static final int MAX_RUN_LENGTH = 64;
+  /**
+   * The possible delivery policies of the notifications.
+   */
+  public enum Policy {
+    /**
+     * The notifications are always delivered.
+     */
+    QUEUE,
+    /**
+     * The notifications are discarded when the connection has too many pending notifications.
+     */
+    DROP,
+    /**
+     * Only the latest pending notification from the same source is delivered.
+     */
+    COALESCE
+  }
+
+  /**
+   * The threads which deliver the notifications.
+   */
+  private final ExecutorService executor;
+  /**
+   * Number of pending notifications of a connection above which the notifications with a {@link Policy#DROP drop} policy are discarded.
+   */
+  private final int maxPending;
+  /**
+   * The configuration from which the policies are read.
+   */
+  private final TypedProperties config;
+  /**
+   * The policies, mapped to the notification types they apply to.
+   */
+  private final Map<String, Policy> policies = new ConcurrentHashMap<>();
+  /**
+   * Number of discarded notifications.
+   */
+  private final AtomicLong dropped = new AtomicLong();
+  /**
+   * Number of notifications replaced by a more recent one.
+   */
+  private final AtomicLong coalesced = new AtomicLong();
+
+  /**
+   * Initialize with the specified configuration.
+   * @param config the configuration to read the dispatch properties from.
+   */
+  public NotificationDispatcher(final TypedProperties config) {
+    this.config = config;
+    this.maxPending = config.get(JPPFProperties.JMX_NOTIF_DISPATCH_MAX_PENDING);
+    this.executor = ConcurrentUtils.newFixedExecutor(config.get(JPPFProperties.JMX_NOTIF_DISPATCH_THREADS), "JMXNotificationsHandler");
+  }
+
+  /**
+   * Create a queue for the notifications of a connection.
+   * @param handler the handler which delivers the notifications of the connection, in the order in which they were received.
+   * @return a new {@link ConnectionQueue} instance.
+   */
+  public ConnectionQueue newQueue(final QueueHandler.ElementHandler<List<JMXNotification>> handler) {
+    return new ConnectionQueue(handler);
+  }
+
+  /**
+   * @return the number of notifications discarded because of a {@link Policy#DROP drop} policy.
+   */
+  public long getDroppedCount() {
+    return dropped.get();
+  }
+
+  /**
+   * @return the number of notifications replaced by a more recent one because of a {@link Policy#COALESCE coalesce} policy.
+   */
+  public long getCoalescedCount() {
+    return coalesced.get();
+  }
+
+  /**
+   * Get the delivery policy for the specified notification type.
+   * @param type the type of notification.
+   * @return the {@link Policy} that applies to the type.
+   */
+  Policy getPolicy(final String type) {
+    if (type == null) return Policy.QUEUE;
+    return policies.computeIfAbsent(type, t -> {
+      final String value = config.get(JPPFProperties.JMX_NOTIF_POLICY, t);
+      try {
+        return Policy.valueOf(value.trim().toUpperCase());
+      } catch (@SuppressWarnings("unused") final Exception e) {
+        log.warn("invalid notification policy '{}' for type '{}', using '{}' instead", value, t, Policy.QUEUE.name().toLowerCase());
+        return Policy.QUEUE;
+      }
+    });
+  }
+
+  /**
+   * The queue of pending notifications of a connection.
+   * @exclude
+   */
+  public final class ConnectionQueue implements Runnable {
+    /**
+     * The handler which delivers the notifications.
+     */
+    private final QueueHandler.ElementHandler<List<JMXNotification>> handler;
+    /**
+     * The pending notifications.
+     */
+    private final Deque<PendingNotification> pending = new ArrayDeque<>();
+    /**
+     * The pending notifications with a {@link Policy#COALESCE coalesce} policy, mapped to their coalescing key.
+     */
+    private final Map<List<Object>, PendingNotification> coalescable = new HashMap<>();
+    /**
+     * Whether the delivery of the pending notifications is scheduled or in progress.
+     */
+    private boolean scheduled;
+
+    /**
+     * Initialize with the specified handler.
+     * @param handler the handler which delivers the notifications.
+     */
+    private ConnectionQueue(final QueueHandler.ElementHandler<List<JMXNotification>> handler) {
+      this.handler = handler;
+    }
+
+    /**
+     * Add a received notification to this queue, applying the delivery policy of its type.
+     * @param notification the notification to add.
+     */
+    public synchronized void offer(final JMXNotification notification) {
+      enqueue(notification);
+    }
+
+    /**
+     * Add the notifications received in a batch to this queue, applying the delivery policy of their type.
+     * @param notifications the notifications to add, in the order in which they were sent.
+     */
+    public synchronized void offerAll(final List<JMXNotification> notifications) {
+      for (final JMXNotification notification: notifications) enqueue(notification);
+    }
+
+    /**
+     * Add a received notification to this queue. Must be called while holding the monitor on this queue.
+     * @param notification the notification to add.
+     */
+    private void enqueue(final JMXNotification notification) {
+      final Notification notif = getEffectiveNotification(notification);
+      final Policy policy = getPolicy(notif.getType());
+      switch(policy) {
+        case DROP:
+          if (pending.size() >= maxPending) {
+            final long n = dropped.incrementAndGet();
+            if (debugEnabled) log.debug("dropped notification {}, total dropped = {}", notification, n);
+            return;
+          }
+          break;
+        case COALESCE:
+          final List<Object> key = Arrays.asList(notif.getType(), getSourceKey(notification), Arrays.asList(notification.getListenerIDs()));
+          final PendingNotification existing = coalescable.get(key);
+          if (existing != null) {
+            // keep the position of the pending notification, so the order relative to the other notifications is preserved
+            existing.notification = notification;
+            coalesced.incrementAndGet();
+            return;
+          }
+          final PendingNotification entry = new PendingNotification(notification, key);
+          coalescable.put(key, entry);
+          pending.offer(entry);
+          schedule();
+          return;
+        default:
+          break;
+      }
+      pending.offer(new PendingNotification(notification, null));
+      schedule();
+    }
+
+    /**
+     * @return the number of pending notifications.
+     */
+    public synchronized int size() {
+      return pending.size();
+    }
+
+    /**
+     * Submit this queue for processing if it is not already scheduled. Must be called while holding the monitor on this queue.
+     */
+    private void schedule() {
+      if (!scheduled) {
+        scheduled = true;
+        executor.execute(this);
+      }
+    }
+
+    @Override
+    public void run() {
+      final List<JMXNotification> notifications = new ArrayList<>(MAX_RUN_LENGTH);
+      synchronized(this) {
+        PendingNotification entry;
+        while ((notifications.size() < MAX_RUN_LENGTH) && ((entry = pending.poll()) != null)) {
+          notifications.add(entry.notification);
+          if (entry.key != null) coalescable.remove(entry.key);
+        }
+        if (notifications.isEmpty()) {
+          scheduled = false;
+          return;
+        }
+      }
+      try {
+        handler.handle(notifications);
+      } catch (final Exception e) {
+        log.error("error delivering {} notifications", notifications.size(), e);
+      } catch (final Error e) {
+        endRun();
+        throw e;
+      }
+      // let the other connections proceed before delivering more notifications from this one
+      endRun();
+    }
+
+    /**
+     * Terminate the current processing of this queue, and submit it again if there are pending notifications.
+     */
+    private synchronized void endRun() {
+      if (pending.isEmpty()) scheduled = false;
+      else executor.execute(this);
+    }
+  }
+
+  /**
+   * A pending notification of a connection.
+   */
+  private static final class PendingNotification {
+    /**
+     * The notification to deliver, replaced with a more recent one when coalesced.
+     */
+    private JMXNotification notification;
+    /**
+     * The coalescing key, or {@code null} if the notification cannot be coalesced.
+     */
+    private final List<Object> key;
+
+    /**
+     * Initialize with the specified notification and coalescing key.
+     * @param notification the notification to deliver.
+     * @param key the coalescing key, may be {@code null}.
+     */
+    private PendingNotification(final JMXNotification notification, final List<Object> key) {
+      this.notification = notification;
+      this.key = key;
+    }
+  }
+
+  /**
+   * Get the notification which determines the type and source used by the delivery policies.
+   * @param notification the received notification.
+   * @return the forwarded notification for a notification from the node forwarding MBean, otherwise the notification itself.
+   */
+  private static Notification getEffectiveNotification(final JMXNotification notification) {
+    final Notification notif = notification.getNotification();
+    return (notif instanceof JPPFNodeForwardingNotification) ? ((JPPFNodeForwardingNotification) notif).getNotification() : notif;
+  }
+
+  /**
+   * Get a key which identifies the source of the specified notification.
+   * @param notification the received notification.
+   * @return the source key.
+   */
+  private static Object getSourceKey(final JMXNotification notification) {
+    final Notification notif = notification.getNotification();
+    if (notif instanceof JPPFNodeForwardingNotification) {
+      final JPPFNodeForwardingNotification fwd = (JPPFNodeForwardingNotification) notif;
+      return Arrays.asList(fwd.getNodeUuid(), fwd.getMBeanName());
+    }
+    return String.valueOf(notif.getSource());
+  }
+}
@@ -34,9 +34,15 @@ import org.slf4j.*;
 /**
  * This class is a custom class loader serving the purpose of dynamically loading the JPPF classes and the client
  * application classes, to avoid costly redeployment system-wide.
+ * <p>This class loader is parallel capable: class loading is synchronized on a lock specific to each class name rather than on
+ * the class loader instance, so that concurrent remote lookups for distinct classes are batched together by the connection
+ * instead of being performed one after the other.
  * @author Laurent Cohen
  */
 public abstract class AbstractJPPFClassLoader extends AbstractJPPFClassLoaderLifeCycle {
+  static {
+    ClassLoader.registerAsParallelCapable();
+  }
   /**
    * Logger for this class.
    */
@@ -52,11 +58,32 @@ public abstract class AbstractJPPFClassLoader extends AbstractJPPFClassLoaderLif
   /**
    * System classloader for URL_FIRST delegation model.
    */
-  private ClassLoader systemClassLoader = null;
+  private volatile ClassLoader systemClassLoader = null;
   /**
    * Determines whether system classloader was initialized.
    */
-  private boolean systemClassLoaderInitialized = false;
+  private volatile boolean systemClassLoaderInitialized = false;
+  /**
+   * Maximum number of prefetched class definitions held in memory.
+   */
+  private final int maxPrefetchedDefinitions = JPPFConfiguration.get(JPPFProperties.CLASSLOADER_PREFETCH_MAX_SIZE);
+  /**
+   * Class definitions obtained with {@link #prefetch(String...)}, mapped to the corresponding resource names.
+   * A definition is removed from this map when the class is defined, when the oldest definitions exceed the maximum size,
+   * or when the definitions are {@link #releasePrefetchedDefinitions() released}. Since this class loader is shared by all the jobs
+   * of the same client, the definitions are only released when it is closed, that is when its container is evicted or when it is reset.
+   */
+  private final Map<String, byte[]> prefetchedDefinitions = Collections.synchronizedMap(new LinkedHashMap<String, byte[]>() {
+    /**
+     * Explicit serialVersionUID.
+     */
+    private static final long serialVersionUID = 1L;
+
+    @Override
+    protected boolean removeEldestEntry(final Map.Entry<String, byte[]> eldest) {
+      return size() > maxPrefetchedDefinitions;
+    }
+  });
 
   /**
    * Initialize this class loader with a parent class loader.
@@ -87,12 +114,15 @@ public abstract class AbstractJPPFClassLoader extends AbstractJPPFClassLoaderLif
    * @throws ClassNotFoundException if the class could not be found
    * @exclude
    */
-  public synchronized Class<?> loadJPPFClass(final String name) throws ClassNotFoundException {
+  public Class<?> loadJPPFClass(final String name) throws ClassNotFoundException {
     if (debugEnabled) log.debug(build("looking up resource [", name, "]"));
-    Class<?> c = findLoadedClass(name);
-    if (c == null) {
-      if (debugEnabled) log.debug(build("resource [", name, "] not already loaded"));
-      c = isRemoteClassLoadingDisabled() ? Class.forName(name, true, this) : findClass(name, false);
+    Class<?> c;
+    synchronized (getClassLoadingLock(name)) {
+      c = findLoadedClass(name);
+      if (c == null) {
+        if (debugEnabled) log.debug(build("resource [", name, "] not already loaded"));
+        c = isRemoteClassLoadingDisabled() ? Class.forName(name, true, this) : findClass(name, false);
+      }
     }
     if (debugEnabled) log.debug(build("definition for resource [", name, "] : ", c));
     if ((c != null) && debugEnabled) log.debug("class '" + name + "' loaded by " + c.getClassLoader());
@@ -120,14 +150,30 @@ public abstract class AbstractJPPFClassLoader extends AbstractJPPFClassLoaderLif
    * @see java.lang.ClassLoader#findClass(java.lang.String)
    * @exclude
    */
-  protected synchronized Class<?> findClass(final String name, final boolean lookupClasspath) throws ClassNotFoundException {
-    Class<?> c = null;
+  protected Class<?> findClass(final String name, final boolean lookupClasspath) throws ClassNotFoundException {
     if (notFoundCache.has(name)) throw new ClassNotFoundException(build("Could not load class '", name, "'"));
-    c = findLoadedClass(name);
+    synchronized (getClassLoadingLock(name)) {
+      return findClassLocked(name, lookupClasspath);
+    }
+  }
+
+  /**
+   * Find a class in this class loader's classpath, while holding the class loading lock for the class name.
+   * @param name binary name of the resource to find.
+   * @param lookupClasspath specifies whether the class should be looked up in the URL classpath as well.
+   * @return a defined <code>Class</code> instance.
+   * @throws ClassNotFoundException if the class could not be loaded.
+   */
+  private Class<?> findClassLocked(final String name, final boolean lookupClasspath) throws ClassNotFoundException {
+    Class<?> c = findLoadedClass(name);
     if (c != null) return c;
+    // another thread may have failed to find the class while this one was waiting for the lock
+    if (notFoundCache.has(name)) throw new ClassNotFoundException(build("Could not load class '", name, "'"));
+    final String resName = name.replace('.', '/') + ".class";
     if (lookupClasspath) {
       c = findClassInURLClasspath(name, false);
       if (c != null) {
+        prefetchedDefinitions.remove(resName);
         fireEvent(c, null, true);
         return c;
       }
@@ -139,16 +185,28 @@ public abstract class AbstractJPPFClassLoader extends AbstractJPPFClassLoaderLif
     final int i = name.lastIndexOf('.');
     if (i >= 0) {
       final String pkgName = name.substring(0, i);
-      final Package pkg = getPackage(pkgName);
-      if (pkg == null) definePackage(pkgName, null, null, null, null, null, null, null);
+      definePackageIfAbsent(pkgName);
     }
     if (debugEnabled) log.debug(build("looking up definition for resource [", name, "]"));
-    byte[] b = null;
-    final String resName = name.replace('.', '/') + ".class";
-    final Map<ResourceIdentifier, Object> map = new EnumMap<>(ResourceIdentifier.class);
-    map.put(ResourceIdentifier.NAME, resName);
-    final JPPFResourceWrapper resource = loadResource(map);
-    if (resource != null) b = resource.getDefinition();
+    byte[] b = prefetchedDefinitions.remove(resName);
+    JPPFResourceWrapper resource = null;
+    if (b != null) {
+      if (debugEnabled) log.debug(build("found prefetched definition for resource [", name, "]"));
+      if (resourceStore != null) resourceStore.store(resName, null, b);
+    } else {
+      final String cachedHash = (resourceStore == null) ? null : resourceStore.getHash(resName);
+      resource = loadDefinition(resName, cachedHash);
+      if (resource != null) b = resource.getDefinition();
+      boolean validated = false;
+      if ((b == null) && (cachedHash != null) && (resource != null) && Boolean.TRUE.equals(resource.getData(ResourceIdentifier.CONTENT_VALIDATED))) {
+        b = resourceStore.read(cachedHash);
+        validated = b != null;
+        if (debugEnabled) log.debug(build("stored definition for resource [", name, "] was validated", validated ? "" : " but could not be read"));
+        // the stored content was evicted or corrupted after it was validated
+        if (!validated && ((resource = loadDefinition(resName, null)) != null)) b = resource.getDefinition();
+      }
+      if ((b != null) && !validated && (resourceStore != null)) resourceStore.store(resName, (String) resource.getData(ResourceIdentifier.CONTENT_HASH), b);
+    }
     if ((b == null) || (b.length == 0)) {
       if (debugEnabled) log.debug("definition for resource [" + name + "] not found");
       if ((resource != null) && (resource.getState() != JPPFResourceWrapper.State.NODE_RESPONSE_ERROR)) notFoundCache.add(name);
@@ -162,6 +220,93 @@ public abstract class AbstractJPPFClassLoader extends AbstractJPPFClassLoaderLif
     return c;
   }
 
+  /**
+   * Request the definition of a class from the remote peer.
+   * @param resName the name of the class, expressed as a resource name such as {@code "a/b/C.class"}.
+   * @param cachedHash the hash of the definition held in the persistent store, if any, which the remote peer validates instead of sending the definition.
+   * @return the response from the remote peer.
+   * @throws ClassNotFoundException if the class could not be loaded from the remote peer.
+   */
+  private JPPFResourceWrapper loadDefinition(final String resName, final String cachedHash) throws ClassNotFoundException {
+    final Map<ResourceIdentifier, Object> map = new EnumMap<>(ResourceIdentifier.class);
+    map.put(ResourceIdentifier.NAME, resName);
+    if (cachedHash != null) map.put(ResourceIdentifier.CACHED_CONTENT_HASH, cachedHash);
+    return loadResource(map);
+  }
+
+  /**
+   * Define the package with the specified name, unless it is already defined.
+   * Another thread may define the same package concurrently while loading another class, which is not an error.
+   * @param pkgName the name of the package to define.
+   */
+  private void definePackageIfAbsent(final String pkgName) {
+    if (getPackage(pkgName) != null) return;
+    try {
+      definePackage(pkgName, null, null, null, null, null, null, null);
+    } catch (@SuppressWarnings("unused") final IllegalArgumentException e) {
+      if (debugEnabled) log.debug(build("package ", pkgName, " was concurrently defined by another thread"));
+    }
+  }
+
+  /**
+   * Fetch the specified classes and resources from the remote peer in a single request, ahead of their actual lookup.
+   * The class definitions are kept in memory until the corresponding classes are defined or the definitions are released,
+   * up to the maximum size of a prefetch manifest, while the other resources are stored in the resource cache. Names which are already loaded, cached or known to be missing are not requested.
+   * @param names the names of the classes and resources to fetch, classes being expressed as resource names such as {@code "a/b/C.class"}.
+   * @return the number of classes and resources that were found remotely.
+   * @exclude
+   */
+  @SuppressWarnings("unchecked")
+  public int prefetch(final String...names) {
+    if ((names == null) || (names.length <= 0) || isRemoteClassLoadingDisabled()) return 0;
+    final List<String> toFetch = new ArrayList<>(names.length);
+    for (final String name: names) {
+      if ((name == null) || notFoundCache.has(name) || prefetchedDefinitions.containsKey(name)) continue;
+      if (name.endsWith(".class")) {
+        if (findLoadedClass(name.substring(0, name.length() - 6).replace('/', '.')) != null) continue;
+      } else if (resourceCache.isEnabled() && (resourceCache.getResourcesLocations(name) != null)) continue;
+      toFetch.add(name);
+    }
+    if (toFetch.isEmpty()) return 0;
+    final String[] namesToFetch = toFetch.toArray(new String[toFetch.size()]);
+    int count = 0;
+    try {
+      final Map<ResourceIdentifier, Object> map = new EnumMap<>(ResourceIdentifier.class);
+      map.put(ResourceIdentifier.NAME, StringUtils.arrayToString(", ", null, null, namesToFetch));
+      map.put(ResourceIdentifier.MULTIPLE_NAMES, namesToFetch);
+      final JPPFResourceWrapper resource = loadResource(map);
+      final Map<String, List<byte[]>> dataMap = (resource == null) ? null : (Map<String, List<byte[]>>) resource.getData(ResourceIdentifier.RESOURCE_MAP);
+      if (dataMap == null) return 0;
+      for (final String name: namesToFetch) {
+        final List<byte[]> dataList = dataMap.get(name);
+        if ((dataList == null) || dataList.isEmpty()) continue;
+        count++;
+        if (name.endsWith(".class")) prefetchedDefinitions.put(name, dataList.get(0));
+        else if (resourceCache.isEnabled()) resourceCache.registerResources(name, dataList);
+      }
+    } catch(final Exception e) {
+      if (debugEnabled) log.debug(e.getMessage(), e);
+      else log.warn(ExceptionUtils.getMessage(e));
+    }
+    if (debugEnabled) log.debug(build(this, " prefetched ", count, " out of ", namesToFetch.length, " requested resources"));
+    return count;
+  }
+
+  /**
+   * Release the prefetched class definitions that were not used. A class whose definition was released is looked up remotely if it is needed later on.
+   * @return the number of released definitions.
+   * @exclude
+   */
+  public int releasePrefetchedDefinitions() {
+    final int count;
+    synchronized(prefetchedDefinitions) {
+      count = prefetchedDefinitions.size();
+      prefetchedDefinitions.clear();
+    }
+    if (debugEnabled && (count > 0)) log.debug(build(this, " released ", count, " unused prefetched definitions"));
+    return count;
+  }
+
   /**
    * Compute a value on the client-side, as the result of the execution of a {@link JPPFCallable}.
    * <p>Any {@link Throwable} raised in the callable's <code>call()</code> method will be thrown as the result of this method.
@@ -324,10 +469,13 @@ public abstract class AbstractJPPFClassLoader extends AbstractJPPFClassLoaderLif
    * @exclude
    */
   @Override
-  protected synchronized Class<?> loadClass(final String name, final boolean resolve) throws ClassNotFoundException {
+  protected Class<?> loadClass(final String name, final boolean resolve) throws ClassNotFoundException {
     final DelegationModel model = getDelegationModel();
     switch(model) {
-      case URL_FIRST: return loadClassLocalFirst(name, resolve);
+      case URL_FIRST:
+        synchronized (getClassLoadingLock(name)) {
+          return loadClassLocalFirst(name, resolve);
+        }
       case PARENT_FIRST: return super.loadClass(name, resolve);
     }
     throw new IllegalStateException("unknown class loader delegation model " + model);
@@ -381,12 +529,12 @@ public abstract class AbstractJPPFClassLoader extends AbstractJPPFClassLoaderLif
    */
   private ClassLoader initSystemClassLoader() {
     if(!systemClassLoaderInitialized) {
-      systemClassLoaderInitialized = true;
       try {
         systemClassLoader = getSystemClassLoader();
       } catch (final Exception e) {
         if (debugEnabled) log.debug(e.getMessage(), e);
       }
+      systemClassLoaderInitialized = true;
     }
     return systemClassLoader;
   }
@@ -398,17 +546,20 @@ public abstract class AbstractJPPFClassLoader extends AbstractJPPFClassLoaderLif
    * @return a <code>Class</code> instance, or null if the class could not be found in the URL classpath.
    * @exclude
    */
-  private synchronized Class<?> findClassInURLClasspath(final String name, final boolean recursive){
+  private Class<?> findClassInURLClasspath(final String name, final boolean recursive){
     if (debugEnabled) log.debug("looking up resource [{}] in the URL classpath for {}", name, this);
-    Class<?> c = findLoadedClass(name);
-    if (c == null) {
-      if (recursive && (getParent() instanceof AbstractJPPFClassLoader)) {
-        c = ((AbstractJPPFClassLoader) getParent()).findClassInURLClasspath(name, recursive);
-      }
+    Class<?> c;
+    synchronized (getClassLoadingLock(name)) {
+      c = findLoadedClass(name);
       if (c == null) {
-        try {
-          c = super.findClass(name);
-        } catch(@SuppressWarnings("unused") final ClassNotFoundException ignore) {
+        if (recursive && (getParent() instanceof AbstractJPPFClassLoader)) {
+          c = ((AbstractJPPFClassLoader) getParent()).findClassInURLClasspath(name, recursive);
+        }
+        if (c == null) {
+          try {
+            c = super.findClass(name);
+          } catch(@SuppressWarnings("unused") final ClassNotFoundException ignore) {
+          }
         }
       }
     }
@@ -456,6 +607,7 @@ public abstract class AbstractJPPFClassLoader extends AbstractJPPFClassLoaderLif
   public void close() {
     resourceCache.close();
     notFoundCache.clear();
+    releasePrefetchedDefinitions();
     super.close();
   }
 
@@ -26,7 +26,7 @@ import java.util.concurrent.atomic.*;
 
 import org.jppf.JPPFNodeReconnectionNotification;
 import org.jppf.caching.*;
-import org.jppf.classloader.resource.ResourceCache;
+import org.jppf.classloader.resource.*;
 import org.jppf.node.connection.ConnectionReason;
 import org.jppf.node.protocol.TaskThreadLocals;
 import org.jppf.utils.*;
@@ -40,6 +40,9 @@ import org.slf4j.*;
  * @author Laurent Cohen
  */
 public abstract class AbstractJPPFClassLoaderLifeCycle extends URLClassLoader {
+  static {
+    ClassLoader.registerAsParallelCapable();
+  }
   /**
    * Logger for this class.
    */
@@ -72,6 +75,11 @@ public abstract class AbstractJPPFClassLoaderLifeCycle extends URLClassLoader {
    * @exclude
    */
   protected ResourceCache resourceCache = createResourceCache();
+  /**
+   * The persistent store of class definitions shared by the nodes on the same host, or {@code null} if it is disabled.
+   * @exclude
+   */
+  protected final PersistentResourceStore resourceStore = PersistentResourceStore.getInstance();
   /**
    * The cache handling resources that were not found by this class loader.
    * @exclude
@@ -20,7 +20,7 @@ package org.jppf.classloader;
 
 import static org.jppf.utils.StringUtils.build;
 
-import java.util.Map;
+import java.util.*;
 import java.util.concurrent.Future;
 
 import org.jppf.utils.*;
@@ -54,6 +54,11 @@ public class ClassLoaderRequestHandler {
    * The batch request to which resource requests are added.
    */
   private CompositeResourceWrapper nextRequest;
+  /**
+   * The futures of the requests whose response has not yet been received, whether they are part of the next batch
+   * or of the batch being sent. This map is only accessed while holding the lock on {@code periodicTask}.
+   */
+  private final Map<JPPFResourceWrapper, Future<JPPFResourceWrapper>> pendingRequests = new HashMap<>();
   /**
    * Object which sends the class loading requets to the driver and receives the response.
    */
@@ -83,16 +88,23 @@ public class ClassLoaderRequestHandler {
   }
 
   /**
-   * Add a resource request.
+   * Add a resource request. If an identical request is still waiting for its response, whether it is part of the next batch
+   * or of a batch already sent to the server, then the future of that request is returned and no new request is sent.
    * @param resource the resource request to add.
    * @return a future for getting the respone at a later time.
    */
   public Future<JPPFResourceWrapper> addRequest(final JPPFResourceWrapper resource) {
     if (resource == null) throw new IllegalArgumentException("resource is null");
     resource.preProcess();
-    final Future<JPPFResourceWrapper> f;
+    Future<JPPFResourceWrapper> f;
     synchronized (periodicTask) {
+      f = pendingRequests.get(resource);
+      if (f != null) {
+        if (debugEnabled) log.debug(build("coalescing ", resource, " with a pending identical request"));
+        return f;
+      }
       f = nextRequest.addResource(resource);
+      pendingRequests.put(resource, f);
     }
     periodicTask.wakeUp();
     return f;
@@ -145,6 +157,9 @@ public class ClassLoaderRequestHandler {
           final Throwable t = requestRunner.getThrowable();
           final CompositeResourceWrapper response = (CompositeResourceWrapper) requestRunner.getResponse();
           if (debugEnabled) log.debug(build("got response ", response));
+          synchronized (this) {
+            pendingRequests.keySet().removeAll(futureMap.keySet());
+          }
           if (response != null) {
             for (final JPPFResourceWrapper rw : response.getResources()) {
               final ResourceFuture<JPPFResourceWrapper> f = (ResourceFuture<JPPFResourceWrapper>) futureMap.remove(rw);
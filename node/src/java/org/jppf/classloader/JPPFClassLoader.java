@@ -26,6 +26,9 @@ import org.slf4j.*;
  * @author Laurent Cohen
  */
 public class JPPFClassLoader extends AbstractJPPFClassLoader {
+  static {
+    ClassLoader.registerAsParallelCapable();
+  }
   /**
    * Logger for this class.
    */
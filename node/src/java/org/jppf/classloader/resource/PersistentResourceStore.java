@@ -0,0 +1,342 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jppf.classloader.resource;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.FileTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.jppf.classloader.JPPFResourceWrapper;
+import org.jppf.utils.*;
+import org.jppf.utils.concurrent.JPPFThreadFactory;
+import org.jppf.utils.configuration.JPPFProperties;
+import org.slf4j.*;
+
+/**
+ * A persistent, content-addressed store of the resource definitions downloaded by the nodes.
+ * <p>Each content is stored in a file named after its hash, and an index maps each resource name to the hash of the last content
+ * downloaded for it. Since the store is on disk, it survives node restarts and is shared by all the nodes on the same host,
+ * including the slave nodes started by a master node. The hash of a stored content is sent along with the requests for
+ * the same resource, so that the server only needs to validate it instead of sending the content again.
+ * <p>Files are written to a temporary file then atomically renamed, which allows multiple processes to share the store without locking.
+ * Lookups use a lock-free in-memory index, backed by the on-disk index for the entries written by other processes.
+ * @author Laurent Cohen
+ * @exclude
+ */
+public class PersistentResourceStore {
+  /**
+   * Logger for this class.
+   */
+  private static Logger log = LoggerFactory.getLogger(PersistentResourceStore.class);
+  /**
+   * Determines whether the debug level is enabled in the log configuration, without the cost of a method call.
+   */
+  private static boolean debugEnabled = log.isDebugEnabled();
+  /**
+   * Extension of the temporary files, renamed once completely written.
+   */
+  private static final String TMP_EXTENSION = ".tmp";
+  /**
+   * Minimum age of a temporary file before it is considered abandoned, in millis. Younger temporary files may be being written by another process.
+   */
+  private static final long TMP_FILE_MAX_AGE = 60_000L;
+  /**
+   * The store used by the nodes in this JVM.
+   */
+  private static PersistentResourceStore instance;
+  /**
+   * Whether {@link #instance} was initialized.
+   */
+  private static boolean instanceInitialized;
+  /**
+   * The directory where the contents are stored.
+   */
+  private final Path contentDir;
+  /**
+   * The directory where the index entries are stored.
+   */
+  private final Path indexDir;
+  /**
+   * Maximum total size of the stored contents.
+   */
+  private final long maxSize;
+  /**
+   * Mapping of resource names to the hash of their content.
+   */
+  private final Map<String, String> index = new ConcurrentHashMap<>();
+  /**
+   * Estimated total size of the stored contents. Since other processes may write to the store, the actual size is only computed when eviction is considered.
+   */
+  private final AtomicLong totalSize = new AtomicLong(0L);
+  /**
+   * Size of the contents written by this store since the actual total size was last computed.
+   */
+  private long writtenSinceScan;
+  /**
+   * Unique suffix of the temporary files written by this store, to avoid conflicts with other processes.
+   */
+  private final String tmpSuffix = '.' + JPPFUuid.normalUUID() + TMP_EXTENSION;
+  /**
+   * Writes the files.
+   */
+  private final ExecutorService writer = Executors.newSingleThreadExecutor(new JPPFThreadFactory("ResourceStoreWriter"));
+
+  /**
+   * Initialize this store in the specified directory.
+   * @param dir the directory where the files are stored.
+   * @param maxSize the maximum total size of the stored contents.
+   * @throws IOException if the directory cannot be created or read.
+   */
+  public PersistentResourceStore(final Path dir, final long maxSize) throws IOException {
+    this.contentDir = dir.resolve("content");
+    this.indexDir = dir.resolve("index");
+    this.maxSize = maxSize;
+    Files.createDirectories(contentDir);
+    Files.createDirectories(indexDir);
+    totalSize.set(scan(null));
+    if (debugEnabled) log.debug("found {} bytes of stored content in {}", totalSize.get(), dir);
+    evictIfNeeded();
+  }
+
+  /**
+   * Get the store used by the nodes in this JVM, as specified in the configuration.
+   * @return a {@link PersistentResourceStore}, or {@code null} if the store is disabled or could not be initialized.
+   */
+  public static synchronized PersistentResourceStore getInstance() {
+    if (!instanceInitialized) {
+      instanceInitialized = true;
+      final TypedProperties config = JPPFConfiguration.getProperties();
+      if (config.get(JPPFProperties.RESOURCE_STORE_ENABLED)) {
+        String dir = config.get(JPPFProperties.RESOURCE_STORE_DIR);
+        if (dir == null) dir = new File(FileUtils.getJPPFTempDir(), "store").getPath();
+        try {
+          instance = new PersistentResourceStore(Paths.get(dir), config.get(JPPFProperties.RESOURCE_STORE_MAX_SIZE));
+        } catch (final Exception e) {
+          log.error("could not initialize the resource store in {}, it will be disabled: {}", dir, ExceptionUtils.getMessage(e));
+        }
+      }
+    }
+    return instance;
+  }
+
+  /**
+   * Get the hash of the stored content of the specified resource.
+   * @param name the name of the resource.
+   * @return the hash of the content, or {@code null} if the resource is not stored.
+   */
+  public String getHash(final String name) {
+    String hash = index.get(name);
+    if (hash == null) {
+      hash = readIndexEntry(name);
+      if (hash != null) index.putIfAbsent(name, hash);
+    }
+    if ((hash != null) && !Files.exists(contentDir.resolve(hash))) {
+      index.remove(name, hash);
+      return null;
+    }
+    return hash;
+  }
+
+  /**
+   * Read the content with the specified hash. The content is checked against its hash, and deleted if it does not match.
+   * @param hash the hash of the content to read.
+   * @return the content, or {@code null} if it is not stored or could not be read.
+   */
+  public byte[] read(final String hash) {
+    final Path file = contentDir.resolve(hash);
+    try {
+      final byte[] content = Files.readAllBytes(file);
+      if (!hash.equals(CryptoUtils.computeHash(content, JPPFResourceWrapper.CONTENT_HASH_ALGORITHM))) {
+        log.warn("content of {} does not match its hash, deleting it", file);
+        Files.deleteIfExists(file);
+        return null;
+      }
+      Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+      return content;
+    } catch (@SuppressWarnings("unused") final NoSuchFileException e) {
+      if (debugEnabled) log.debug("content with hash {} was evicted", hash);
+    } catch (final IOException e) {
+      log.warn("could not read content with hash {} from {}: {}", hash, contentDir, ExceptionUtils.getMessage(e));
+    }
+    return null;
+  }
+
+  /**
+   * Asynchronously store the specified content of a resource.
+   * @param name the name of the resource.
+   * @param hash the hash of the content, computed if {@code null}.
+   * @param content the content to store.
+   */
+  public void store(final String name, final String hash, final byte[] content) {
+    if ((content == null) || (content.length > maxSize)) return;
+    try {
+      writer.execute(() -> doStore(name, (hash != null) ? hash : CryptoUtils.computeHash(content, JPPFResourceWrapper.CONTENT_HASH_ALGORITHM), content));
+    } catch (@SuppressWarnings("unused") final RejectedExecutionException e) {
+      if (debugEnabled) log.debug("could not store resource {}: store is closed", name);
+    }
+  }
+
+  /**
+   * Store the specified content of a resource.
+   * @param name the name of the resource.
+   * @param hash the hash of the content.
+   * @param content the content to store.
+   */
+  private void doStore(final String name, final String hash, final byte[] content) {
+    if (hash == null) return;
+    try {
+      final Path file = contentDir.resolve(hash);
+      if (!Files.exists(file)) {
+        write(file, content);
+        totalSize.addAndGet(content.length);
+        writtenSinceScan += content.length;
+      }
+      if (!hash.equals(index.put(name, hash))) write(indexDir.resolve(indexKey(name)), hash.getBytes(StandardCharsets.UTF_8));
+      // also account for the contents written by the other processes sharing the store
+      if ((totalSize.get() > maxSize) || (writtenSinceScan > maxSize / 10L)) evictIfNeeded();
+    } catch (final IOException e) {
+      log.warn("could not store resource {} in {}: {}", name, contentDir, ExceptionUtils.getMessage(e));
+    }
+  }
+
+  /**
+   * Write the specified data to a temporary file, then atomically rename it to the specified file.
+   * @param file the file to write.
+   * @param data the data to write.
+   * @throws IOException if any I/O error occurs.
+   */
+  private void write(final Path file, final byte[] data) throws IOException {
+    final Path tmp = file.resolveSibling(file.getFileName() + tmpSuffix);
+    Files.write(tmp, data);
+    try {
+      Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } catch (@SuppressWarnings("unused") final AtomicMoveNotSupportedException e) {
+      Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+    }
+  }
+
+  /**
+   * Read the on-disk index entry for the specified resource, which may have been written by another process.
+   * @param name the name of the resource.
+   * @return the hash of the stored content, or {@code null} if there is no entry.
+   */
+  private String readIndexEntry(final String name) {
+    final Path file = indexDir.resolve(indexKey(name));
+    try {
+      return new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+    } catch (@SuppressWarnings("unused") final NoSuchFileException e) {
+    } catch (final IOException e) {
+      if (debugEnabled) log.debug("could not read index entry for {}: {}", name, ExceptionUtils.getMessage(e));
+    }
+    return null;
+  }
+
+  /**
+   * Compute the name of the index file for the specified resource.
+   * @param name the name of the resource.
+   * @return a file name which does not depend on the characters allowed by the file system.
+   */
+  private static String indexKey(final String name) {
+    return CryptoUtils.computeHash(name.getBytes(StandardCharsets.UTF_8), JPPFResourceWrapper.CONTENT_HASH_ALGORITHM);
+  }
+
+  /**
+   * Scan the content directory, deleting the abandoned temporary files.
+   * @param entries if not {@code null}, receives the hash and last modification time of each content file.
+   * @return the total size of the content files.
+   * @throws IOException if the directory cannot be read.
+   */
+  private long scan(final List<Pair<String, Long>> entries) throws IOException {
+    long size = 0L;
+    final long now = System.currentTimeMillis();
+    try (final DirectoryStream<Path> stream = Files.newDirectoryStream(contentDir)) {
+      for (final Path file: stream) {
+        try {
+          final long lastModified = Files.getLastModifiedTime(file).toMillis();
+          if (file.getFileName().toString().endsWith(TMP_EXTENSION)) {
+            if (now - lastModified > TMP_FILE_MAX_AGE) Files.deleteIfExists(file);
+          } else {
+            size += Files.size(file);
+            if (entries != null) entries.add(new Pair<>(file.getFileName().toString(), lastModified));
+          }
+        } catch (@SuppressWarnings("unused") final NoSuchFileException e) {
+          // deleted by another process
+        }
+      }
+    }
+    return size;
+  }
+
+  /**
+   * Delete the least recently used contents until the total size is less than 90% of the maximum size.
+   * The actual total size is computed first, since other processes may have written to the store.
+   */
+  private void evictIfNeeded() {
+    try {
+      final List<Pair<String, Long>> entries = new ArrayList<>();
+      long size = scan(entries);
+      if (size > maxSize) {
+        final long target = maxSize - maxSize / 10L;
+        entries.sort((p1, p2) -> Long.compare(p1.second(), p2.second()));
+        int count = 0;
+        for (final Pair<String, Long> entry: entries) {
+          if (size <= target) break;
+          final Path file = contentDir.resolve(entry.first());
+          try {
+            final long fileSize = Files.size(file);
+            Files.delete(file);
+            size -= fileSize;
+            count++;
+          } catch (@SuppressWarnings("unused") final NoSuchFileException e) {
+            // deleted by another process
+          }
+        }
+        if (debugEnabled) log.debug("evicted {} entries, total size is now {} bytes", count, size);
+      }
+      totalSize.set(size);
+      writtenSinceScan = 0L;
+    } catch (final IOException e) {
+      log.warn("error evicting contents from {}: {}", contentDir, ExceptionUtils.getMessage(e));
+    }
+  }
+
+  /**
+   * Get the estimated total size of the stored contents.
+   * @return the size in bytes.
+   */
+  public long getTotalSize() {
+    return totalSize.get();
+  }
+
+  /**
+   * Stop accepting new contents and wait for the pending writes to complete.
+   */
+  public void close() {
+    writer.shutdown();
+    try {
+      writer.awaitTermination(5000L, TimeUnit.MILLISECONDS);
+    } catch (@SuppressWarnings("unused") final InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -22,14 +22,15 @@ import java.io.File;
 import java.net.URL;
 import java.security.AccessController;
 import java.util.*;
+import java.util.concurrent.*;
 
 import org.jppf.location.*;
 import org.jppf.utils.*;
-import org.jppf.utils.collections.*;
 import org.slf4j.*;
 
 /**
  * Instances of this class are used as cache for resources downloaded from a driver or client, using the JPPF class loader APIs.
+ * <p>Lookups do not require any locking, only the saving of new resources to the file system is serialized.
  * @author Laurent Cohen
  * @exclude
  */
@@ -49,15 +50,15 @@ public class ResourceCache {
   /**
    * A map of all resource caches to their uuid.
    */
-  private static final Map<String, ResourceCache> cacheMap = new Hashtable<>();
+  private static final Map<String, ResourceCache> cacheMap = new ConcurrentHashMap<>();
   /**
    * Map of resource names to temporary file names to which their content is stored.
    */
-  private CollectionMap<String, Location<?>> cache = new VectorHashtable<>();
+  private final Map<String, List<Location<?>>> cache = new ConcurrentHashMap<>();
   /**
    * List of temp folders used by this cache.
    */
-  private List<String> tempFolders = new LinkedList<>();
+  private final List<String> tempFolders = new CopyOnWriteArrayList<>();
   /**
    * The unique identifier for this resource cache.
    */
@@ -92,8 +93,8 @@ public class ResourceCache {
    * @param name the name of the resource to lookup.
    * @return a list of file paths, or null if the resource is not found in the cache.
    */
-  public synchronized List<Location<?>> getResourcesLocations(final String name) {
-    return enabled ? (List<Location<?>>) cache.getValues(name) : null;
+  public List<Location<?>> getResourcesLocations(final String name) {
+    return enabled ? cache.get(name) : null;
   }
 
   /**
@@ -101,19 +102,19 @@ public class ResourceCache {
    * @param name the name of the resource to lookup.
    * @return a file path, or null if the resource is not found in the cache.
    */
-  private synchronized Location<?> getResourceLocation(final String name) {
-    final Collection<Location<?>> locations = cache.getValues(name);
+  private Location<?> getResourceLocation(final String name) {
+    final List<Location<?>> locations = cache.get(name);
     if ((locations == null) || locations.isEmpty()) return null;
-    return locations.iterator().next();
+    return locations.get(0);
   }
 
   /**
-   * Set the list of locations for the resource with the specified name.
+   * Add to the list of locations for the resource with the specified name.
    * @param name the name of the resource to lookup.
    * @param locations a list of file paths.
    */
-  private synchronized void setResourcesLocations(final String name, final List<Location<?>> locations) {
-    cache.addValues(name, locations);
+  private void addResourcesLocations(final String name, final Collection<Location<?>> locations) {
+    cache.computeIfAbsent(name, k -> new CopyOnWriteArrayList<>()).addAll(locations);
   }
 
   /**
@@ -121,7 +122,7 @@ public class ResourceCache {
    * @param name the name of the resource to lookup.
    * @return a list of {@link URL}s, or null if the resource is not found in the cache.
    */
-  public synchronized List<URL> getResourcesURLs(final String name) {
+  public List<URL> getResourcesURLs(final String name) {
     if (!enabled) return null;
     final Collection<Location<?>> resources = getResourcesLocations(name);
     if (resources == null) return null;
@@ -150,7 +151,7 @@ public class ResourceCache {
    * @param id the position of the url to fetch.
    * @return resource location expressed as a URL.
    */
-  private synchronized URL getResourceURL(final String name, final Location<?> res, final int id) {
+  private URL getResourceURL(final String name, final Location<?> res, final int id) {
     if (res instanceof FileLocation) {
       final String path = ((FileLocation) res).getPath();
       if (path == null) return null;
@@ -171,7 +172,7 @@ public class ResourceCache {
    * @param name the name of the resource to register.
    * @param definitions a list of byte array definitions.
    */
-  public synchronized void registerResources(final String name, final List<byte[]> definitions) {
+  public void registerResources(final String name, final List<byte[]> definitions) {
     if (!enabled) return;
     if (isAbsolutePath(name)) return;
     final List<Location<?>> locations = new LinkedList<>();
@@ -184,7 +185,7 @@ public class ResourceCache {
         else log.warn(s + ExceptionUtils.getMessage(e));
       }
     }
-    if (!locations.isEmpty()) setResourcesLocations(name, locations);
+    if (!locations.isEmpty()) addResourcesLocations(name, locations);
   }
 
   /**
@@ -192,8 +193,8 @@ public class ResourceCache {
    * @param name the name of the resource to register.
    * @param location a Location object holding or pointing to the resource defintion.
    */
-  public synchronized void registerResource(final String name, final Location<?> location) {
-    if (enabled) cache.putValue(name, location);
+  public void registerResource(final String name, final Location<?> location) {
+    if (enabled) addResourcesLocations(name, Collections.<Location<?>>singletonList(location));
   }
 
   /**
@@ -205,7 +206,11 @@ public class ResourceCache {
    */
   private Location<?> saveToTempFile(final String name, final byte[] definition) throws Exception {
     final SaveResourceAction action = new SaveResourceAction(tempFolders, name, definition);
-    final Location<?> file = AccessController.doPrivileged(action);
+    final Location<?> file;
+    // the action looks up and creates the temp folders and files
+    synchronized(tempFolders) {
+      file = AccessController.doPrivileged(action);
+    }
     if (action.getException() != null) throw action.getException();
     if (traceEnabled) log.trace("saved resource [" + name + "] to file " + file);
     return file;
@@ -23,6 +23,7 @@ import static org.jppf.node.protocol.BundleParameter.NODE_EXCEPTION_PARAM;
 import java.io.InvalidClassException;
 import java.util.*;
 
+import org.jppf.classloader.AbstractJPPFClassLoader;
 import org.jppf.node.protocol.*;
 import org.jppf.node.protocol.graph.*;
 import org.jppf.utils.collections.CollectionMap;
@@ -109,10 +110,19 @@ public abstract class AbstractNodeIO<N extends AbstractCommonNode> implements No
       bundle.setMetadata(null);
       sendResults(bundle, tasks);
     } finally {
-      postSendResults(bundle);
+      if (!isPartialResults(bundle)) postSendResults(bundle);
     }
   }
 
+  /**
+   * Determine whether the specified bundle header is for a partial results message, sent for a job whose results are streamed.
+   * @param bundle the bundle header to check.
+   * @return {@code true} if the bundle only holds the results of some of the dispatched tasks, {@code false} otherwise.
+   */
+  public static boolean isPartialResults(final TaskBundle bundle) {
+    return bundle.getParameter(BundleParameter.PARTIAL_RESULTS_POSITIONS, null) != null;
+  }
+
   /**
    * Performs the actions required if reloading the classes is necessary.
    * @throws Exception if any error occurs.
@@ -170,6 +180,19 @@ public abstract class AbstractNodeIO<N extends AbstractCommonNode> implements No
     return result;
   }
 
+  /**
+   * Fetch, in a single request, the classes and resources listed in the prefetch manifest of the specified bundle, if any,
+   * so that the deserialization of the tasks does not need one remote request for each missing class.
+   * @param bundle the bundle header, which may hold a {@link BundleParameter#CLASSPATH_PREFETCH_MANIFEST manifest}.
+   * @param cl the class loader with which the tasks are deserialized.
+   */
+  protected void prefetchClasspath(final TaskBundle bundle, final AbstractJPPFClassLoader cl) {
+    final String[] manifest = bundle.getParameter(BundleParameter.CLASSPATH_PREFETCH_MANIFEST, null);
+    if ((manifest == null) || node.isOffline() || cl.isRemoteClassLoadingDisabled()) return;
+    final int count = cl.prefetch(manifest);
+    if (debugEnabled) log.debug("prefetched {} out of {} classpath entries for {}", count, manifest.length, bundle);
+  }
+
   /**
    * Perform some cleanup after sending the results.
    * @param bundle the task wrapper that was sent.
@@ -198,7 +221,7 @@ public abstract class AbstractNodeIO<N extends AbstractCommonNode> implements No
    * @param tasks the list of tasks after they have been executed.
    */
   protected void finalizeBundleData(final TaskBundle bundle, final List<Task<?>> tasks) {
-    if (bundle.isNotification()) return;
+    if (bundle.isNotification() || isPartialResults(bundle)) return;
     final long elapsed = System.nanoTime() - bundle.getNodeExecutionTime();
     bundle.setNodeExecutionTime(elapsed);
     final Set<Integer> resubmitSet = new HashSet<>();
@@ -70,6 +70,9 @@ public class AsyncNodeExecutionManager extends AbstractAsyncExecutionManager {
     jobEntry.taskWrapperList = new ArrayList<>(taskList.size());
     jobEntry.dataProvider = taskList.get(0).getDataProvider();
     jobEntry.uuidList = bundle.getUuidPath().getList();
+    // offline nodes cannot send anything before the whole bundle has been executed
+    final boolean offline = (node instanceof AbstractCommonNode) && ((AbstractCommonNode) node).isOffline();
+    jobEntry.streamResults = !offline && (bundle.getSLA() != null) && bundle.getSLA().isStreamResults() && !bundle.getSLA().isBroadcastJob();
     ClassLoader taskClassLoader = null;
     try {
       taskClassLoader = node instanceof ClassLoaderProvider ? ((ClassLoaderProvider) node).getClassLoader(jobEntry.uuidList) : taskList.get(0).getTaskClassLoader();
@@ -26,6 +26,7 @@ import java.util.*;
 import org.jppf.*;
 import org.jppf.classloader.AbstractJPPFClassLoader;
 import org.jppf.execute.async.ExecutionManagerListener;
+import org.jppf.io.PayloadCodecs;
 import org.jppf.management.*;
 import org.jppf.management.spi.*;
 import org.jppf.node.connection.ConnectionReason;
@@ -238,6 +239,10 @@ public abstract class JPPFNode extends AbstractCommonNode implements ClassLoader
     checkStopped();
     if (debugEnabled) log.debug("setting initial bundle, offline=" + isOffline() + (currentBundle == null ? ", bundle=" + bundle : ", currentBundle=" + currentBundle.first()));
     bundle.setParameter(BundleParameter.NODE_UUID_PARAM, uuid);
+    if (!isLocal()) {
+      final String codecs = PayloadCodecs.getAdvertisedCodecs(configuration);
+      if (codecs != null) bundle.setParameter(BundleParameter.PAYLOAD_CODECS, codecs);
+    }
     handshakeUuidPath = bundle.getUuidPath().getList();
     if (isOffline()) {
       bundle.setParameter(BundleParameter.NODE_OFFLINE, true);
@@ -270,9 +275,15 @@ public abstract class JPPFNode extends AbstractCommonNode implements ClassLoader
    */
   void processResults(final BundleWithTasks bundleWithTasks) throws Exception {
     checkStopped();
-    currentBundle = null;
     final TaskBundle bundle = bundleWithTasks.getBundle();
     final List<Task<?>> taskList = bundleWithTasks.getTasks();
+    if (AbstractNodeIO.isPartialResults(bundle)) {
+      if (debugEnabled) log.debug("sending {} streamed task results for job '{}'", taskList.size(), bundle.getName());
+      nodeIO.writeResults(bundle, taskList);
+      if (!isJmxEnabled()) setExecutedTaskCount(getExecutedTaskCount() + taskList.size());
+      return;
+    }
+    currentBundle = null;
     if (debugEnabled) log.debug("processing " + (taskList == null ? 0 : taskList.size()) + " task results for job '" + bundle.getName() + '\'');
     if (executionManager.checkConfigChanged() || bundle.isHandshake() || isOffline()) {
       if (debugEnabled) log.debug("detected configuration change or initial bundle request, sending new system information to the server, config=\n{}", configuration);
@@ -409,6 +420,21 @@ public abstract class JPPFNode extends AbstractCommonNode implements ClassLoader
     }
   }
 
+  @Override
+  public void tasksExecuted(final TaskBundle bundle, final List<Task<?>> tasks) {
+    try {
+      final TaskBundle header = bundle.copy();
+      header.setTaskCount(tasks.size());
+      final int[] positions = new int[tasks.size()];
+      for (int i=0; i<positions.length; i++) positions[i] = tasks.get(i).getPosition();
+      header.setParameter(BundleParameter.PARTIAL_RESULTS_POSITIONS, positions);
+      if (debugEnabled) log.debug("streaming results of tasks at positions {} for job {}", Arrays.toString(positions), bundle);
+      getJobWriter().put(new BundleWithTasks(header, tasks));
+    } catch (final Exception e) {
+      log.error(e.getMessage(), e);
+    }
+  }
+
   /**
    * @exclude
    */
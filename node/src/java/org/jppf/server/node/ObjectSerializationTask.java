@@ -23,6 +23,8 @@ import java.util.concurrent.Callable;
 import org.jppf.io.*;
 import org.jppf.node.protocol.*;
 import org.jppf.serialization.ObjectSerializer;
+import org.jppf.utils.JPPFConfiguration;
+import org.jppf.utils.configuration.JPPFProperties;
 import org.jppf.utils.hooks.HookFactory;
 import org.slf4j.*;
 
@@ -39,6 +41,10 @@ public class ObjectSerializationTask implements Callable<DataLocation> {
    * Determines whether the trace level is enabled in the logging configuration, without the cost of a method call.
    */
   private static final boolean traceEnabled = log.isTraceEnabled();
+  /**
+   * The serialized size below which the results are not compressed.
+   */
+  private static final int COMPRESSION_THRESHOLD = JPPFConfiguration.get(JPPFProperties.PAYLOAD_COMPRESSION_THRESHOLD);
   /**
    * The data to send over the network connection.
    */
@@ -85,6 +91,7 @@ public class ObjectSerializationTask implements Callable<DataLocation> {
       Thread.currentThread().setContextClassLoader(contextCL);
       if (traceEnabled) log.trace("serializing {} at position={}, submitOrder={}, job={}", toString(object), p, submitOrder, toString(isTask ? ((Task<?>) object).getJob() : object));
       dl = IOHelper.serializeData(object, ser);
+      if (isTask) dl = PayloadCodecs.encode(dl, PayloadCodecs.getCodec(bundle.getParameter(BundleParameter.PAYLOAD_CODEC)), COMPRESSION_THRESHOLD);
       final int size = dl.getSize();
       if (traceEnabled) log.trace("serialized  {} at position={}, submitOrder={}, job={}, size={}", toString(object), p, submitOrder, toString(isTask ? ((Task<?>) object).getJob() : object), size);
     } catch(final Throwable t) {
@@ -244,6 +244,11 @@ public class JPPFDriverAdmin implements JPPFDriverAdminMBean {
     }
   }
 
+  @Override
+  public Double statisticsPercentile(final String label, final Double percentile) throws Exception {
+    return driver.getStatistics().getPercentile(label, (percentile == null) ? 50d : percentile);
+  }
+
   @Override
   public JPPFSystemInformation systemInformation() throws Exception {
     return driver.getSystemInformation();
@@ -0,0 +1,340 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jppf.management;
+
+import java.lang.management.ManagementFactory;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+import java.util.function.BiPredicate;
+
+import javax.management.*;
+
+import org.jppf.management.diagnostics.*;
+import org.jppf.management.forwarding.NodeForwardingMBean;
+import org.jppf.server.JPPFDriver;
+import org.jppf.server.event.*;
+import org.jppf.server.nio.nodeserver.BaseNodeContext;
+import org.jppf.utils.*;
+import org.jppf.utils.concurrent.JPPFThreadFactory;
+import org.jppf.utils.configuration.JPPFProperties;
+import org.slf4j.*;
+
+/**
+ * Implementation of the {@link TopologyChangeFeedMBean} interface.
+ * <p>The connections and disconnections of the nodes are received as events, while the states and JVM health of the nodes are sampled
+ * at regular intervals, once for all the subscribers. The changes are coalesced per node until the next batch is sent, which bounds the
+ * backlog to one change per node however slowly the subscribers consume the notifications. Nothing is recorded or sampled while there is no subscriber.
+ * @author Laurent Cohen
+ * @since 6.2
+ * @exclude
+ */
+public final class TopologyChangeFeed extends NotificationBroadcasterSupport implements TopologyChangeFeedMBean {
+  /**
+   * Logger for this class.
+   */
+  private static Logger log = LoggerFactory.getLogger(TopologyChangeFeed.class);
+  /**
+   * Determines whether the debug level is enabled in the log configuration, without the cost of a method call.
+   */
+  private static boolean debugEnabled = log.isDebugEnabled();
+  /**
+   * The JPPF driver.
+   */
+  private final JPPFDriver driver;
+  /**
+   * Notifications sequence number.
+   */
+  private final AtomicLong sequence = new AtomicLong(0L);
+  /**
+   * The changes to send with the next batch, at most one per node.
+   */
+  private final Map<String, TopologyChange> pending = new LinkedHashMap<>();
+  /**
+   * The number of registered notification listeners.
+   */
+  private final AtomicInteger nbListeners = new AtomicInteger(0);
+  /**
+   * Maximum number of changes in each notification.
+   */
+  private final int maxBatchSize;
+  /**
+   * Maximum relative difference between two sampled numeric health values for which no change is recorded.
+   */
+  private final double healthThreshold;
+  /**
+   * Sends the batches.
+   */
+  private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(new JPPFThreadFactory("TopologyChangeFeed"));
+  /**
+   * Samples the nodes states, so that a slow sampling does not delay the sending of the batches.
+   */
+  private final ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor(new JPPFThreadFactory("TopologyChangeSampler"));
+  /**
+   * The last sampled active states of the nodes.
+   */
+  private final Map<String, Boolean> activeStates = new HashMap<>();
+  /**
+   * The last sampled execution states of the nodes.
+   */
+  private final Map<String, JPPFNodeState> nodeStates = new HashMap<>();
+  /**
+   * The last sampled numbers of slaves of the master nodes.
+   */
+  private final Map<String, Integer> nbSlaves = new HashMap<>();
+  /**
+   * The last sampled JVM health snapshots of the nodes.
+   */
+  private final Map<String, HealthSnapshot> healthSnapshots = new HashMap<>();
+  /**
+   * The last sampled JVM health snapshot of the driver.
+   */
+  private HealthSnapshot driverHealthSnapshot;
+  /**
+   * Proxy to the node forwarding MBean, used to sample the nodes states.
+   */
+  private NodeForwardingMBean forwarder;
+  /**
+   * Proxy to the driver diagnostics MBean.
+   */
+  private DiagnosticsMBean diagnostics;
+
+  /**
+   * Initialize this MBean.
+   * @param driver reference to the JPPF driver.
+   */
+  public TopologyChangeFeed(final JPPFDriver driver) {
+    this.driver = driver;
+    final TypedProperties config = driver.getConfiguration();
+    this.maxBatchSize = config.get(JPPFProperties.TOPOLOGY_FEED_MAX_BATCH_SIZE);
+    this.healthThreshold = config.get(JPPFProperties.TOPOLOGY_FEED_HEALTH_THRESHOLD);
+    final long interval = config.get(JPPFProperties.TOPOLOGY_FEED_INTERVAL);
+    // with a fixed delay, a slow sending or sampling delays the next one instead of piling up
+    executor.scheduleWithFixedDelay(this::sendPendingChanges, interval, interval, TimeUnit.MILLISECONDS);
+    final long samplingInterval = config.get(JPPFProperties.TOPOLOGY_FEED_SAMPLING_INTERVAL);
+    if (samplingInterval > 0L) sampler.scheduleWithFixedDelay(this::sample, samplingInterval, samplingInterval, TimeUnit.MILLISECONDS);
+    driver.getInitializer().getNodeConnectionEventHandler().addProvider(new ConnectionListener());
+    driver.setTopologyChangeFeed(this);
+  }
+
+  /**
+   * Record a change, coalescing it with the pending change for the same node, if any.
+   * @param change the change to record.
+   */
+  void addChange(final TopologyChange change) {
+    if (nbListeners.get() <= 0) return;
+    synchronized(pending) {
+      final TopologyChange previous = pending.get(change.getUuid());
+      pending.put(change.getUuid(), (previous == null) ? change : previous.coalesce(change));
+    }
+  }
+
+  /**
+   * Send the pending changes to the subscribers, in batches of at most {@link #maxBatchSize} changes.
+   */
+  private void sendPendingChanges() {
+    final List<TopologyChange> changes;
+    synchronized(pending) {
+      if (pending.isEmpty()) return;
+      changes = new ArrayList<>(pending.values());
+      pending.clear();
+    }
+    try {
+      for (int i=0; i<changes.size(); i+=maxBatchSize) {
+        final Notification notif = new Notification(TOPOLOGY_CHANGES, MBEAN_NAME, sequence.incrementAndGet(), System.currentTimeMillis());
+        notif.setUserData(new ArrayList<>(changes.subList(i, Math.min(i + maxBatchSize, changes.size()))));
+        sendNotification(notif);
+      }
+      if (debugEnabled) log.debug("sent {} topology changes", changes.size());
+    } catch (final Exception e) {
+      log.error("error sending topology changes", e);
+    }
+  }
+
+  /**
+   * Sample the states and JVM health of the nodes and of the driver, and record those which changed since the last sampling.
+   */
+  private void sample() {
+    if (nbListeners.get() <= 0) {
+      clearSamples();
+      return;
+    }
+    try {
+      final Set<String> nodes = new HashSet<>(), masterNodes = new HashSet<>();
+      for (final BaseNodeContext context: driver.getAsyncNodeNioServer().getAllChannels()) {
+        final JPPFManagementInfo info = context.getManagementInfo();
+        if ((info == null) || !info.isNode()) continue;
+        final String uuid = info.getUuid();
+        nodes.add(uuid);
+        if (info.isMasterNode()) masterNodes.add(uuid);
+        final Boolean active = info.isActive();
+        if (!active.equals(activeStates.put(uuid, active))) addChange(new TopologyChange(uuid, TopologyChange.Type.NODE_UPDATED).setActive(active));
+      }
+      activeStates.keySet().retainAll(nodes);
+      nodeStates.keySet().retainAll(nodes);
+      healthSnapshots.keySet().retainAll(nodes);
+      nbSlaves.keySet().retainAll(masterNodes);
+      if (!nodes.isEmpty()) {
+        final NodeForwardingMBean nodeForwarder = getForwarder();
+        sampleNodes(nodeForwarder.state(new UuidSelector(nodes)), nodeStates, Object::equals, TopologyChange::setNodeState);
+        if (!masterNodes.isEmpty()) sampleNodes(nodeForwarder.getNbSlaves(new UuidSelector(masterNodes)), nbSlaves, Object::equals, TopologyChange::setNbSlaves);
+        sampleNodes(nodeForwarder.healthSnapshot(new UuidSelector(nodes)), healthSnapshots, this::isSameHealth, TopologyChange::setHealthSnapshot);
+      }
+      final HealthSnapshot health = getDiagnostics().healthSnapshot();
+      if ((health != null) && !isSameHealth(health, driverHealthSnapshot)) {
+        driverHealthSnapshot = health;
+        addChange(new TopologyChange(driver.getUuid(), TopologyChange.Type.DRIVER_UPDATED).setHealthSnapshot(health));
+      }
+    } catch (final Exception e) {
+      if (debugEnabled) log.debug("error sampling the nodes states", e);
+      else log.warn("error sampling the nodes states: {}", ExceptionUtils.getMessage(e));
+    }
+  }
+
+  /**
+   * Compare the specified sampled values with the previous ones and record the changes.
+   * <p>A value which is considered the same as the previous one does not replace it, so that a slow drift is recorded once its cumulated amount is significant.
+   * @param <T> the type of the sampled values.
+   * @param results the sampled values, mapped to the uuids of the nodes.
+   * @param previous the previous sampled values, updated by this method.
+   * @param same determines whether a new value is the same as the previous one, which is never {@code null}.
+   * @param setter sets a new value on a change.
+   */
+  private <T> void sampleNodes(final ResultsMap<String, T> results, final Map<String, T> previous, final BiPredicate<T, T> same, final Setter<T> setter) {
+    if (results == null) return;
+    for (final Map.Entry<String, InvocationResult<T>> entry: results.entrySet()) {
+      final T value = entry.getValue().result();
+      if (entry.getValue().isException() || (value == null)) continue;
+      final T previousValue = previous.get(entry.getKey());
+      if ((previousValue != null) && same.test(value, previousValue)) continue;
+      previous.put(entry.getKey(), value);
+      addChange(setter.set(new TopologyChange(entry.getKey(), TopologyChange.Type.NODE_UPDATED), value));
+    }
+  }
+
+  /**
+   * Determine whether a sampled health snapshot is the same as the previous one, within the configured threshold.
+   * @param health the sampled health snapshot.
+   * @param previous the previous health snapshot, may be {@code null}.
+   * @return {@code true} if no change should be recorded, {@code false} otherwise.
+   */
+  private boolean isSameHealth(final HealthSnapshot health, final HealthSnapshot previous) {
+    return health.isSimilar(previous, healthThreshold);
+  }
+
+  /**
+   * Clear the sampled values, so that the first sampling after a subscription records the states of all the nodes.
+   */
+  private void clearSamples() {
+    activeStates.clear();
+    nodeStates.clear();
+    nbSlaves.clear();
+    healthSnapshots.clear();
+    driverHealthSnapshot = null;
+  }
+
+  /**
+   * @return a proxy to the node forwarding MBean.
+   * @throws Exception if the name of the MBean is invalid.
+   */
+  private NodeForwardingMBean getForwarder() throws Exception {
+    if (forwarder == null) forwarder = JMX.newMBeanProxy(ManagementFactory.getPlatformMBeanServer(), ObjectNameCache.getObjectName(NodeForwardingMBean.MBEAN_NAME), NodeForwardingMBean.class);
+    return forwarder;
+  }
+
+  /**
+   * @return a proxy to the driver diagnostics MBean.
+   * @throws Exception if the name of the MBean is invalid.
+   */
+  private DiagnosticsMBean getDiagnostics() throws Exception {
+    if (diagnostics == null) diagnostics = JMX.newMBeanProxy(ManagementFactory.getPlatformMBeanServer(), ObjectNameCache.getObjectName(DiagnosticsMBean.MBEAN_NAME_DRIVER), DiagnosticsMBean.class);
+    return diagnostics;
+  }
+
+  @Override
+  public void addNotificationListener(final NotificationListener listener, final NotificationFilter filter, final Object handback) {
+    if (debugEnabled) log.debug("adding notification listener");
+    super.addNotificationListener(listener, filter, handback);
+    nbListeners.incrementAndGet();
+  }
+
+  @Override
+  public void removeNotificationListener(final NotificationListener listener) throws ListenerNotFoundException {
+    if (debugEnabled) log.debug("removing notification listener");
+    super.removeNotificationListener(listener);
+    decrementListeners();
+  }
+
+  @Override
+  public void removeNotificationListener(final NotificationListener listener, final NotificationFilter filter, final Object handback) throws ListenerNotFoundException {
+    if (debugEnabled) log.debug("removing notification listener with filter");
+    super.removeNotificationListener(listener, filter, handback);
+    decrementListeners();
+  }
+
+  /**
+   * Decrement the number of listeners and discard the pending changes if there is no listener left.
+   */
+  private void decrementListeners() {
+    if (nbListeners.updateAndGet(n -> (n > 0) ? n - 1 : 0) <= 0) {
+      synchronized(pending) {
+        pending.clear();
+      }
+    }
+  }
+
+  /**
+   * Stop sending and sampling the changes.
+   */
+  public void close() {
+    executor.shutdownNow();
+    sampler.shutdownNow();
+  }
+
+  /**
+   * Sets a sampled value on a change.
+   * @param <T> the type of value.
+   */
+  @FunctionalInterface
+  private interface Setter<T> {
+    /**
+     * Set the specified value on the specified change.
+     * @param change the change to update.
+     * @param value the value to set.
+     * @return the updated change.
+     */
+    TopologyChange set(TopologyChange change, T value);
+  }
+
+  /**
+   * Records the connections and disconnections of the nodes.
+   */
+  private class ConnectionListener implements NodeConnectionListener {
+    @Override
+    public void nodeConnected(final NodeConnectionEvent event) {
+      final JPPFManagementInfo info = event.getNodeInformation();
+      addChange(new TopologyChange(info.getUuid(), TopologyChange.Type.NODE_ADDED).setManagementInfo(info));
+    }
+
+    @Override
+    public void nodeDisconnected(final NodeConnectionEvent event) {
+      addChange(new TopologyChange(event.getNodeInformation().getUuid(), TopologyChange.Type.NODE_REMOVED));
+    }
+  }
+}
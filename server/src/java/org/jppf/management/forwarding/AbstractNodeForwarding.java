@@ -18,15 +18,19 @@
 
 package org.jppf.management.forwarding;
 
-import java.util.concurrent.ExecutorService;
+import java.util.*;
+import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicLong;
 
 import javax.management.*;
 
+import org.jppf.*;
+import org.jppf.jmx.*;
 import org.jppf.management.*;
 import org.jppf.server.JPPFDriver;
+import org.jppf.server.nio.nodeserver.BaseNodeContext;
 import org.jppf.utils.*;
-import org.jppf.utils.concurrent.ConcurrentUtils;
+import org.jppf.utils.concurrent.*;
 import org.jppf.utils.configuration.JPPFProperties;
 import org.slf4j.*;
 
@@ -68,6 +72,18 @@ public abstract class AbstractNodeForwarding extends NotificationBroadcasterSupp
    * Use to send management/monitoring requests in parallel with regards to the nodes.
    */
   final ExecutorService executor;
+  /**
+   * Whether the requests are sent without blocking a thread per node, when the node JMX connections support it.
+   */
+  final boolean async;
+  /**
+   * Maximum time in millis to wait for the result from each node, 0 means no timeout.
+   */
+  final long timeout;
+  /**
+   * Completes the requests which exceed their timeout.
+   */
+  final ScheduledThreadPoolExecutor timeoutScheduler;
 
   /**
    * Initialize this MBean implementation.
@@ -78,8 +94,13 @@ public abstract class AbstractNodeForwarding extends NotificationBroadcasterSupp
     selectionHelper = new NodeSelectionHelper(driver);
     NodeForwardingHelper.getInstance().setSelectionProvider(selectionHelper);
     manager = new ForwardingNotificationManager(this);
-    this.core = driver.getConfiguration().get(JPPFProperties.NODE_FORWARDING_POOL_SIZE);
+    final TypedProperties config = driver.getConfiguration();
+    this.core = config.get(JPPFProperties.NODE_FORWARDING_POOL_SIZE);
     executor = ConcurrentUtils.newFixedExecutor(core, "NodeForwarding");
+    this.async = config.get(JPPFProperties.NODE_FORWARDING_ASYNC);
+    this.timeout = config.get(JPPFProperties.NODE_FORWARDING_TIMEOUT);
+    timeoutScheduler = new ScheduledThreadPoolExecutor(1, new JPPFThreadFactory("NodeForwardingTimeout"));
+    timeoutScheduler.setRemoveOnCancelPolicy(true);
     if (debugEnabled) log.debug("initialized JPPFNodeForwarding");
   }
 
@@ -119,6 +140,102 @@ public abstract class AbstractNodeForwarding extends NotificationBroadcasterSupp
     super.sendNotification(notification);
   }
 
+  /**
+   * Forward the specified operation to the specified nodes, and notify the callback of the result from each node as soon as it is received.
+   * <p>When the node JMX connections support it, the requests are sent without waiting for the responses, such that all the nodes process
+   * the request concurrently, regardless of the size of the thread pool. Otherwise each request is a blocking call performed by a pool thread.
+   * @param <E> the type of results.
+   * @param type the type of operation to forward.
+   * @param nodes the nodes to forward to.
+   * @param timeout the maximum time in millis to wait for the result of each node, after which the result is a {@link JPPFTimeoutException}. 0 or less means no timeout.
+   * @param callback notified of the result from each node.
+   * @param mbeanName the name of the node MBean to which the request is sent.
+   * @param memberName the name of the method to invoke, or of the attribute to get or set.
+   * @param params additional params to send with the request.
+   */
+  <E> void forwardToNodes(final byte type, final Set<BaseNodeContext> nodes, final long timeout, final ForwardCallback<E> callback,
+    final String mbeanName, final String memberName, final Object...params) {
+    for (final BaseNodeContext node: nodes) {
+      switch(type) {
+        case JMXHelper.INVOKE:
+        case JMXHelper.GET_ATTRIBUTE:
+        case JMXHelper.SET_ATTRIBUTE:
+          break;
+        default:
+          throw new IllegalArgumentException(String.format(
+            "unknown type of operation %d for mbean=%s, memeber=%s, param=%s, node=%s", type, mbeanName, memberName, Arrays.deepToString(params), node));
+      }
+      if (debugEnabled) log.debug("about to forward with type={}, mbean={}, member={}, params={}, node={}", type, mbeanName, memberName, Arrays.deepToString(params), node);
+      final String uuid = node.getUuid();
+      final CompletableFuture<Object> future = execute(type, node.getJmxConnection(), mbeanName, memberName, params);
+      if ((timeout > 0L) && !future.isDone()) {
+        final ScheduledFuture<?> timeoutFuture = timeoutScheduler.schedule(() -> {
+          future.completeExceptionally(new JPPFTimeoutException(String.format("node %s did not respond within %,d ms to request on mbean=%s, member=%s", uuid, timeout, mbeanName, memberName)));
+        }, timeout, TimeUnit.MILLISECONDS);
+        future.whenComplete((result, error) -> timeoutFuture.cancel(false));
+      }
+      future.whenCompleteAsync((result, error) -> callback.gotResult(uuid, toInvocationResult(result, error)), executor);
+    }
+  }
+
+  /**
+   * Start the specified operation on a node.
+   * @param type the type of operation to forward.
+   * @param jmx the JMX connection to the node.
+   * @param mbeanName the name of the node MBean to which the request is sent.
+   * @param memberName the name of the method to invoke, or of the attribute to get or set.
+   * @param params additional params to send with the request.
+   * @return a future completed with the result of the operation.
+   */
+  private CompletableFuture<Object> execute(final byte type, final JMXConnectionWrapper jmx, final String mbeanName, final String memberName, final Object...params) {
+    final MBeanServerConnection mbsc = jmx.getMbeanConnection();
+    if (async && jmx.isConnected() && (mbsc instanceof AsyncMBeanServerConnection)) {
+      final AsyncMBeanServerConnection connection = (AsyncMBeanServerConnection) mbsc;
+      try {
+        final ObjectName name = ObjectNameCache.getObjectName(mbeanName);
+        switch(type) {
+          case JMXHelper.INVOKE: return connection.invokeAsync(name, memberName, (Object[]) params[0], (String[]) params[1]);
+          case JMXHelper.GET_ATTRIBUTE: return connection.getAttributeAsync(name, memberName);
+          default: return connection.setAttributeAsync(name, new Attribute(memberName, params[0]));
+        }
+      } catch (final Exception e) {
+        final CompletableFuture<Object> future = new CompletableFuture<>();
+        future.completeExceptionally(e);
+        return future;
+      }
+    }
+    final CompletableFuture<Object> future = new CompletableFuture<>();
+    executor.execute(() -> {
+      try {
+        switch(type) {
+          case JMXHelper.INVOKE: future.complete(jmx.invoke(mbeanName, memberName, (Object[]) params[0], (String[]) params[1])); break;
+          case JMXHelper.GET_ATTRIBUTE: future.complete(jmx.getAttribute(mbeanName, memberName)); break;
+          default:
+            jmx.setAttribute(mbeanName, memberName, params[0]);
+            future.complete(null);
+            break;
+        }
+      } catch (final Exception e) {
+        future.completeExceptionally(e);
+      }
+    });
+    return future;
+  }
+
+  /**
+   * Convert the outcome of an operation on a node into an {@link InvocationResult}.
+   * @param <E> the type of result.
+   * @param result the result of the operation.
+   * @param error the exception raised by the operation, if any.
+   * @return an {@link InvocationResult} holding either the result or the exception.
+   */
+  @SuppressWarnings("unchecked")
+  private static <E> InvocationResult<E> toInvocationResult(final Object result, final Throwable error) {
+    if (error == null) return new InvocationResult<>((E) result);
+    final Throwable t = ((error instanceof CompletionException) && (error.getCause() != null)) ? error.getCause() : error;
+    return new InvocationResult<>((t instanceof Exception) ? (Exception) t : new JPPFException(t));
+  }
+
   /**
    * Get the object that provides an API for selecting nodes based on a {@link NodeSelector}.
    * @return a {@link NodeSelectionHelper} instance.
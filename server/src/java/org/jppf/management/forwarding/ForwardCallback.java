@@ -21,7 +21,7 @@ package org.jppf.management.forwarding;
 import org.jppf.utils.InvocationResult;
 
 /**
- * A callback invoked by each submitted forwarding task to notify that results have arrived from a node.
+ * A callback notified when the result of a forwarded request has arrived from a node.
  * @param <E> the type of result.
  */
 interface ForwardCallback<E> {
@@ -216,6 +216,7 @@ public class JPPFNodeForwarding extends AbstractNodeForwarding implements JPPFNo
    * @param params additional params to send with the request.
    * @return a mapping of node uuids to the result of invoking the MBean operation on the corresponding node. Each result may be an exception.
    * Additionally, each result may be {@code null}, in particular if the invoked method has a {@code void} return type.
+   * The result for a node which did not respond within {@code jppf.node.forwarding.timeout} is a {@link org.jppf.JPPFTimeoutException}.
    * @throws Exception if the invocation failed.
    */
   Map<String, Object> forward(final byte type, final Set<BaseNodeContext> nodes, final String mbeanName, final String memberName, final Object...params) throws Exception {
@@ -223,42 +224,7 @@ public class JPPFNodeForwarding extends AbstractNodeForwarding implements JPPFNo
       final int size = nodes.size();
       if (size <= 0) return Collections.<String, Object>emptyMap();
       final ForwardCallbackImpl callback = new ForwardCallbackImpl(size);
-      AbstractForwardingTask<?> task;
-      for (final BaseNodeContext node: nodes) {
-        final JMXConnectionWrapper jmx = node.getJmxConnection();
-        switch(type) {
-          case JMXHelper.INVOKE:
-            task = new AbstractForwardingTask<Object>(node.getUuid(), callback) {
-              @Override
-              Object execute() throws Exception {
-                return jmx.invoke(mbeanName, memberName, (Object[]) params[0], (String[]) params[1]);
-              }
-            };
-            break;
-          case JMXHelper.GET_ATTRIBUTE:
-            task = new AbstractForwardingTask<Object>(node.getUuid(), callback) {
-              @Override
-              Object execute() throws Exception {
-                return jmx.getAttribute(mbeanName, memberName);
-              }
-            };
-            break;
-          case JMXHelper.SET_ATTRIBUTE:
-            task = new AbstractForwardingTask<Object>(node.getUuid(), callback) {
-              @Override
-              Object execute() throws Exception {
-                jmx.setAttribute(mbeanName, memberName, params[0]);
-                return null;
-              }
-            };
-            break;
-          default:
-            throw new IllegalArgumentException(String.format(
-              "unknown type of operation %d for mbean=%s, memeber=%s, param=%s, node=%s", type, mbeanName, memberName, Arrays.deepToString(params), node));
-        }
-        if (debugEnabled) log.debug("about to forward with type={}, mbean={}, member={}, params={}, node={}", type, mbeanName, memberName, Arrays.deepToString(params), node);
-        executor.execute(task);
-      }
+      forwardToNodes(type, nodes, timeout, callback, mbeanName, memberName, params);
       return callback.await();
     } catch (final Exception e) {
       if (debugEnabled) {
@@ -21,7 +21,9 @@ package org.jppf.management.forwarding;
 import static org.jppf.utils.collections.CollectionUtils.array;
 
 import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import org.jppf.JPPFTimeoutException;
 import org.jppf.classloader.DelegationModel;
 import org.jppf.jmx.JMXHelper;
 import org.jppf.management.*;
@@ -78,6 +80,26 @@ public class NodeForwarding extends AbstractNodeForwarding implements NodeForwar
     return forward(JMXHelper.SET_ATTRIBUTE, selectionHelper.getChannels(selector), name, attribute, value);
   }
 
+  @Override
+  public int forwardInvokeAsync(final String requestID, final NodeSelector selector, final String name, final String methodName, final Object[] params, final String[] signature,
+    final long timeout) throws Exception {
+    if (requestID == null) throw new IllegalArgumentException("requestID cannot be null");
+    final Set<BaseNodeContext> channels = selectionHelper.getChannels(selector);
+    final int size = channels.size();
+    if (debugEnabled) log.debug("async invoking {}() on mbean={} for selector={} ({} channels), requestID={}", methodName, name, selector, size, requestID);
+    if (size <= 0) {
+      sendNotification(new ForwardingResultNotification(requestID, 0));
+      return 0;
+    }
+    final AtomicInteger remaining = new AtomicInteger(size), timeouts = new AtomicInteger();
+    forwardToNodes(JMXHelper.INVOKE, channels, timeout, (uuid, result) -> {
+      if (result.isException() && (result.exception() instanceof JPPFTimeoutException)) timeouts.incrementAndGet();
+      sendNotification(new ForwardingResultNotification(requestID, uuid, result));
+      if (remaining.decrementAndGet() == 0) sendNotification(new ForwardingResultNotification(requestID, timeouts.get()));
+    }, name, methodName, params, signature);
+    return size;
+  }
+
   @Override
   public ResultsMap<String, JPPFNodeState> state(final NodeSelector selector) throws Exception {
     return forwardInvoke(selector, JPPFNodeAdminMBean.MBEAN_NAME, "state");
@@ -217,6 +239,7 @@ public class NodeForwarding extends AbstractNodeForwarding implements NodeForwar
    * @param params additional params to send with the request.
    * @return a mapping of node uuids to the result of invoking the MBean operation on the corresponding node. Each result may be an exception.
    * Additionally, each result may be {@code null}, in particular if the invoked method has a {@code void} return type.
+   * The result for a node which did not respond within {@code jppf.node.forwarding.timeout} is a {@link org.jppf.JPPFTimeoutException}.
    * @throws Exception if the invocation failed.
    */
   <E> ResultsMap<String, E> forward(final byte type, final Set<BaseNodeContext> nodes, final String mbeanName, final String memberName, final Object...params) throws Exception {
@@ -224,44 +247,7 @@ public class NodeForwarding extends AbstractNodeForwarding implements NodeForwar
       final int size = nodes.size();
       if (size <= 0) return new ResultsMap<>();
       final ForwardCallbackImpl<E> callback = new ForwardCallbackImpl<>(size);
-      AbstractForwardingTask<E> task;
-      for (final BaseNodeContext node: nodes) {
-        final JMXConnectionWrapper jmx = node.getJmxConnection();
-        switch(type) {
-          case JMXHelper.INVOKE:
-            task = new AbstractForwardingTask<E>(node.getUuid(), callback) {
-              @SuppressWarnings("unchecked")
-              @Override
-              E execute() throws Exception {
-                return (E) jmx.invoke(mbeanName, memberName, (Object[]) params[0], (String[]) params[1]);
-              }
-            };
-            break;
-          case JMXHelper.GET_ATTRIBUTE:
-            task = new AbstractForwardingTask<E>(node.getUuid(), callback) {
-              @SuppressWarnings("unchecked")
-              @Override
-              E execute() throws Exception {
-                return (E) jmx.getAttribute(mbeanName, memberName);
-              }
-            };
-            break;
-          case JMXHelper.SET_ATTRIBUTE:
-            task = new AbstractForwardingTask<E>(node.getUuid(), callback) {
-              @Override
-              E execute() throws Exception {
-                jmx.setAttribute(mbeanName, memberName, params[0]);
-                return null;
-              }
-            };
-            break;
-          default:
-            throw new IllegalArgumentException(String.format(
-              "unknown type of operation %d for mbean=%s, memeber=%s, param=%s, node=%s", type, mbeanName, memberName, Arrays.deepToString(params), node));
-        }
-        if (debugEnabled) log.debug("about to forward with type={}, mbean={}, member={}, params={}, node={}", type, mbeanName, memberName, Arrays.deepToString(params), node);
-        executor.execute(task);
-      }
+      forwardToNodes(type, nodes, timeout, callback, mbeanName, memberName, params);
       return callback.await();
     } catch (final Exception e) {
       if (debugEnabled) {
@@ -23,6 +23,7 @@ import java.util.*;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.jppf.JPPFInitializer;
+import org.jppf.io.IO;
 import org.jppf.logging.jmx.JmxMessageNotifier;
 import org.jppf.management.*;
 import org.jppf.nio.NioServer;
@@ -140,6 +141,10 @@ abstract class AbstractJPPFDriver {
    * MBean handling changes in number of nodes/processing threads.
    */
   PeerDriver peerDriver;
+  /**
+   * MBean which pushes the topology changes to its subscribers.
+   */
+  TopologyChangeFeed topologyChangeFeed;
   /**
    * Whether JPPF debug mode is enabled.
    */
@@ -161,6 +166,7 @@ abstract class AbstractJPPFDriver {
     statistics = createServerStatistics();
     systemInformation = new JPPFSystemInformation(configuration, uuid, false, true, statistics);
     statistics.addListener(new StatsSystemInformationUpdater(systemInformation));
+    if (IO.BUFFER_POOL != null) IO.BUFFER_POOL.setStatistics(statistics);
     jppfDebugEnabled = configuration.get(JPPFProperties.DEBUG_ENABLED);
   }
 
@@ -326,6 +332,22 @@ abstract class AbstractJPPFDriver {
     this.peerDriver = peerDriver;
   }
 
+  /**
+   * @return the MBean which pushes the topology changes to its subscribers, or {@code null} if management is disabled.
+   * @exclude
+   */
+  public TopologyChangeFeed getTopologyChangeFeed() {
+    return topologyChangeFeed;
+  }
+
+  /**
+   * @param topologyChangeFeed the MBean which pushes the topology changes to its subscribers.
+   * @exclude
+   */
+  public void setTopologyChangeFeed(final TopologyChangeFeed topologyChangeFeed) {
+    this.topologyChangeFeed = topologyChangeFeed;
+  }
+
   /**
    * @return whether JPPF debug mode is enabled.
    */
@@ -102,9 +102,9 @@ public class DriverInitializer {
    */
   private final NodeConnectionEventHandler nodeConnectionEventHandler = new NodeConnectionEventHandler();
   /**
-   * Holds the soft cache of classes downlaoded form the clients r from this driver's classpath.
+   * Holds the cache of classes downlaoded form the clients r from this driver's classpath.
    */
-  private final ClassCache classCache = new ClassCache();
+  private final ClassCache classCache;
   /**
    * Supports built-in and custom discovery mechanisms.
    */
@@ -127,6 +127,7 @@ public class DriverInitializer {
   public DriverInitializer(final JPPFDriver driver, final TypedProperties config) {
     this.driver = driver;
     this.config = config;
+    this.classCache = new ClassCache(config);
     this.peerConnectionPoolHandler = new PeerConnectionPoolHandler(driver, config);
   }
 
@@ -390,6 +391,7 @@ public class DriverInitializer {
           oldConfig.putAll(nodeConfig);
           if (node.getBundler() instanceof ChannelAwareness) ((ChannelAwareness) node.getBundler()).setChannelConfiguration(node.getSystemInformation());
         }
+        driver.getAsyncNodeNioServer().getJobScheduler().nodeInformationUpdated(node);
       };
       jmx.registerForwardingNotificationListener(NodeSelector.ALL_NODES, NodeConfigNotifierMBean.MBEAN_NAME, listener, null, null);
     } catch (final Exception e) {
@@ -289,8 +289,12 @@ public class JPPFDriver extends AbstractJPPFDriver {
     initializer.stopBroadcaster();
     if (debugEnabled) log.debug("stopping peer discovery");
     initializer.stopPeerDiscoveryThread();
+    if (debugEnabled) log.debug("closing topology change feed");
+    if (topologyChangeFeed != null) topologyChangeFeed.close();
     if (debugEnabled) log.debug("closing JMX server");
     initializer.stopJmxServer();
+    if (debugEnabled) log.debug("closing class cache");
+    initializer.getClassCache().close();
     if (debugEnabled) log.debug("closing job manager");
     jobManager.close();
     if (debugEnabled) log.debug("shutdown complete");
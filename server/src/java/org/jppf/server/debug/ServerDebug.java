@@ -18,7 +18,6 @@
 
 package org.jppf.server.debug;
 
-import java.nio.channels.*;
 import java.util.*;
 
 import org.jppf.JPPFRuntimeException;
@@ -75,10 +74,8 @@ public class ServerDebug implements ServerDebugMBean {
 
   @Override
   public String clientDataChannels() {
-    final Selector selector = driver.getAsyncClientNioServer().getSelector();
-    final Set<SelectionKey> keys = new HashSet<>(selector.keys());
     final StringBuilder sb = new StringBuilder();
-    for (final SelectionKey key: keys)  sb.append(key.attachment()).append('\n');
+    for (final AsyncClientContext context: driver.getAsyncClientNioServer().getAllContexts().values())  sb.append(context).append('\n');
     return sb.toString();
   }
 
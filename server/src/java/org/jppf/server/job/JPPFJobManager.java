@@ -28,6 +28,7 @@ import org.jppf.node.protocol.*;
 import org.jppf.server.JPPFDriver;
 import org.jppf.server.nio.nodeserver.NodeReservationHandler;
 import org.jppf.server.protocol.*;
+import org.jppf.server.queue.JobQueueOrdering;
 import org.jppf.server.submission.SubmissionStatus;
 import org.jppf.utils.*;
 import org.jppf.utils.collections.*;
@@ -131,6 +132,8 @@ public class JPPFJobManager implements ServerJobChangeListener, JobNotificationE
     stats.addValue(JPPFStatisticsHelper.JOB_DISPATCH_TOTAL, 1);
     stats.addValue(JPPFStatisticsHelper.JOB_DISPATCH_COUNT, 1);
     stats.addValue(JPPFStatisticsHelper.JOB_DISPATCH_TASKS, nodeBundle.getTaskCount());
+    final JobQueueOrdering ordering = driver.getQueue().getJobOrdering();
+    if (ordering != null) ordering.jobDispatched(serverJob, nodeBundle);
   }
 
   @Override
@@ -150,7 +153,10 @@ public class JPPFJobManager implements ServerJobChangeListener, JobNotificationE
     }
     final JPPFStatistics stats = driver.getStatistics();
     stats.addValue(JPPFStatisticsHelper.JOB_DISPATCH_COUNT, -1);
-    stats.addValue(JPPFStatisticsHelper.JOB_DISPATCH_TIME, System.currentTimeMillis() - nodeBundle.getDispatchStartTime());
+    final long elapsed = System.currentTimeMillis() - nodeBundle.getDispatchStartTime();
+    stats.addValue(JPPFStatisticsHelper.JOB_DISPATCH_TIME, elapsed);
+    final JobQueueOrdering ordering = driver.getQueue().getJobOrdering();
+    if (ordering != null) ordering.jobReturned(serverJob, nodeBundle, elapsed);
   }
 
   /**
@@ -340,6 +346,14 @@ public class JPPFJobManager implements ServerJobChangeListener, JobNotificationE
     taskReturnListeners.remove(listener);
   }
 
+  /**
+   * Determine whether there is at least one registered job tasks listener.
+   * @return {@code true} if there is at least one listener, {@code false} otherwise.
+   */
+  public boolean hasJobTasksListeners() {
+    return !taskReturnListeners.isEmpty();
+  }
+
   /**
    * Called when final tasks results have been received and are about to be sent back to the client.
    * @param channel the node to which the job is dispatched.
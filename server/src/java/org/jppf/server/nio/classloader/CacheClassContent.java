@@ -15,10 +15,11 @@
  * See the License for the specific language governing permissions and
  * limitations under the License.
  */
+
 package org.jppf.server.nio.classloader;
 
 /**
- * This class encapsulates the content oif a class cache entry.
+ * This class encapsulates the content oif a class cache entry, shared by all the resources with the same hash.
  * @author Domingos Creado
  */
 class CacheClassContent {
@@ -26,13 +27,25 @@ class CacheClassContent {
    * The actual content of this element.
    */
   private final byte[] content;
+  /**
+   * The hash of the content.
+   */
+  private final String hash;
+  /**
+   * The value of the cache's access sequence when this element was last accessed.
+   */
+  private volatile long lastAccess;
 
   /**
    * Initialize this content with the specified data.
+   * @param hash the hash of the content.
    * @param content the data as an array of bytes.
+   * @param lastAccess the value of the cache's access sequence at creation time.
    */
-  public CacheClassContent(final byte[] content) {
+  public CacheClassContent(final String hash, final byte[] content, final long lastAccess) {
+    this.hash = hash;
     this.content = content;
+    this.lastAccess = lastAccess;
   }
 
   /**
@@ -42,4 +55,28 @@ class CacheClassContent {
   public byte[] getContent() {
     return content;
   }
+
+  /**
+   * Get the hash of the content.
+   * @return the hash as a string of hexadecimal digits.
+   */
+  public String getHash() {
+    return hash;
+  }
+
+  /**
+   * Get the value of the cache's access sequence when this element was last accessed.
+   * @return the last access sequence number.
+   */
+  public long getLastAccess() {
+    return lastAccess;
+  }
+
+  /**
+   * Record an access to this element.
+   * @param sequence the current value of the cache's access sequence.
+   */
+  public void touch(final long sequence) {
+    lastAccess = sequence;
+  }
 }
@@ -18,14 +18,23 @@
 
 package org.jppf.server.nio.classloader;
 
-import java.util.Map;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.*;
+import java.util.concurrent.locks.*;
 
+import org.jppf.classloader.*;
 import org.jppf.utils.*;
-import org.jppf.utils.collections.SoftReferenceValuesMap;
+import org.jppf.utils.configuration.JPPFProperties;
 import org.slf4j.*;
 
 /**
- * A cache for resources loaded by client class loaders.
+ * A cache for resources loaded by client class loaders or from the driver's classpath.
+ * <p>The contents are addressed by their hash: a concurrent index maps each {@code (provider uuid, resource name)} pair to the hash
+ * of its content, so that the identical resources provided by many clients are only stored once. The total size of the contents
+ * held in memory is bounded, and the least recently used contents are evicted when it is exceeded. An optional on-disk tier keeps
+ * the contents across driver restarts, and the hashes allow nodes to validate the resources they already hold without downloading them again.
  * @author Laurent Cohen
  */
 public class ClassCache {
@@ -33,37 +42,83 @@ public class ClassCache {
    * Logger for this class.
    */
   private static Logger log = LoggerFactory.getLogger(ClassCache.class);
+  /**
+   * Determines whether the debug level is enabled in the log configuration, without the cost of a method call.
+   */
+  private static boolean debugEnabled = log.isDebugEnabled();
   /**
    * Determines whether TRACE logging level is enabled.
    */
   private static boolean traceEnabled = log.isTraceEnabled();
   /**
-   * The cache of class definition, this is done to not flood the provider when it dispatch many tasks. it uses
-   * a soft map to minimize the OutOfMemory.
+   * Mapping of resource keys to the hash of their content.
+   */
+  private final Map<CacheClassKey, String> index = new ConcurrentHashMap<>();
+  /**
+   * Mapping of hashes to the contents held in memory.
+   */
+  private final Map<String, CacheClassContent> contents = new ConcurrentHashMap<>();
+  /**
+   * Total size of the contents held in memory.
+   */
+  private final AtomicLong memorySize = new AtomicLong(0L);
+  /**
+   * Maximum total size of the contents held in memory.
+   */
+  private final long maxSize;
+  /**
+   * The on-disk tier, or {@code null} if it is disabled.
+   */
+  private final ClassCacheDiskStore diskStore;
+  /**
+   * Sequence incremented upon each access to a content, used to determine the least recently used contents.
+   */
+  private final AtomicLong accessSequence = new AtomicLong(0L);
+  /**
+   * Ensures that only one thread evicts contents at any given time.
    */
-  private final Map<CacheClassKey, CacheClassContent> classCache = new SoftReferenceValuesMap<>();
+  private final Lock evictionLock = new ReentrantLock();
   /**
    * Total number of cache lookups.
    */
-  private long nbLookups;
+  private final AtomicLong nbLookups = new AtomicLong(0L);
   /**
    * Total number of positive cache lookups.
    */
-  private long nbHits;
+  private final AtomicLong nbHits = new AtomicLong(0L);
+
+  /**
+   * Initialize this cache with the specified configuration.
+   * @param config the driver configuration.
+   */
+  public ClassCache(final TypedProperties config) {
+    this.maxSize = config.get(JPPFProperties.CLASS_CACHE_MAX_SIZE);
+    ClassCacheDiskStore store = null;
+    if (config.get(JPPFProperties.CLASS_CACHE_DISK_ENABLED)) {
+      final String dir = config.get(JPPFProperties.CLASS_CACHE_DISK_DIR);
+      try {
+        store = new ClassCacheDiskStore(Paths.get(dir), config.get(JPPFProperties.CLASS_CACHE_DISK_MAX_SIZE));
+      } catch (final Exception e) {
+        log.error("could not initialize the class cache disk store in {}, it will be disabled: {}", dir, ExceptionUtils.getMessage(e));
+      }
+    }
+    this.diskStore = store;
+  }
 
   /**
    * Add a resource content to the class cache.
    * @param uuid uuid of the resource provider.
    * @param name name of the resource.
    * @param content content of the resource.
+   * @return the hash of the content.
    */
-  public void setCacheContent(final String uuid, final String name, final byte[] content) {
-    if (traceEnabled) log.trace("adding cache entry with key=[" + uuid + ", " + name + ']');
-    final CacheClassContent cacheContent = new CacheClassContent(content);
-    final CacheClassKey cacheKey = new CacheClassKey(uuid, name);
-    synchronized (classCache) {
-      classCache.put(cacheKey, cacheContent);
-    }
+  public String setCacheContent(final String uuid, final String name, final byte[] content) {
+    final String hash = CryptoUtils.computeHash(content, JPPFResourceWrapper.CONTENT_HASH_ALGORITHM);
+    if (traceEnabled) log.trace("adding cache entry with key=[" + uuid + ", " + name + "], hash=" + hash);
+    if (hash == null) return null;
+    storeContent(hash, content, true);
+    index.put(new CacheClassKey(uuid, name), hash);
+    return hash;
   }
 
   /**
@@ -73,14 +128,164 @@ public class ClassCache {
    * @return the content of the resource as an array of bytes.
    */
   public byte[] getCacheContent(final String uuid, final String name) {
-    final CacheClassContent content;
-    final boolean contentNull;
-    synchronized (classCache) {
-      contentNull = (content = classCache.get(new CacheClassKey(uuid, name))) == null;
-      nbLookups++;
-      if (!contentNull) nbHits++;
-      if (traceEnabled) log.trace(StringUtils.build("nbLookups=", nbLookups, ", nbHits=", nbHits, ", lookup for key=[", uuid, ", ", name, "] : ", ReflectionUtils.simpleDump(content)));
+    final CacheClassKey key = new CacheClassKey(uuid, name);
+    final String hash = index.get(key);
+    final byte[] content = (hash == null) ? null : getContentByHash(hash);
+    if ((hash != null) && (content == null)) index.remove(key, hash);
+    nbLookups.incrementAndGet();
+    if (content != null) nbHits.incrementAndGet();
+    if (traceEnabled) log.trace(StringUtils.build("nbLookups=", nbLookups, ", nbHits=", nbHits, ", lookup for key=[", uuid, ", ", name, "] : hash=", hash));
+    return content;
+  }
+
+  /**
+   * Get the hash of the content of a resource.
+   * @param uuid uuid of the resource provider.
+   * @param name name of the resource.
+   * @return the hash of the content, or {@code null} if the resource is not in the cache.
+   */
+  public String getContentHash(final String uuid, final String name) {
+    return index.get(new CacheClassKey(uuid, name));
+  }
+
+  /**
+   * Get a content from its hash, looking it up in memory first, then on disk.
+   * @param hash the hash of the content.
+   * @return the content as an array of bytes, or {@code null} if it is not in the cache.
+   */
+  public byte[] getContentByHash(final String hash) {
+    final CacheClassContent c = contents.get(hash);
+    if (c != null) {
+      c.touch(accessSequence.incrementAndGet());
+      return c.getContent();
+    }
+    if (diskStore == null) return null;
+    final byte[] content = diskStore.read(hash);
+    if (content != null) storeContent(hash, content, false);
+    return content;
+  }
+
+  /**
+   * Associate a resource with a content that is already in the cache, such as when a provider has validated the hash
+   * of the content held by a node instead of sending it.
+   * @param uuid uuid of the resource provider.
+   * @param name name of the resource.
+   * @param hash the hash of the content.
+   * @return {@code true} if the content is in the cache and the resource was associated with it, {@code false} otherwise.
+   */
+  public boolean linkContent(final String uuid, final String name, final String hash) {
+    if ((hash == null) || !hasContent(hash)) return false;
+    index.put(new CacheClassKey(uuid, name), hash);
+    return true;
+  }
+
+  /**
+   * Respond to a request for a single resource from the content of the cache, if possible. If the hash of the content
+   * held by the node is the same as the cached one, then the response is validated without the content being looked up.
+   * @param resource the resource requested by the node.
+   * @param uuid uuid of the resource provider.
+   * @return {@code true} if the response was set from the cache, {@code false} if the resource is not in the cache.
+   */
+  public boolean setResponseFromCache(final JPPFResourceWrapper resource, final String uuid) {
+    final String name = resource.getName();
+    final String hash = getContentHash(uuid, name);
+    if (hash == null) return false;
+    byte[] content = null;
+    if (!hash.equals(resource.getData(ResourceIdentifier.CACHED_CONTENT_HASH))) {
+      content = getCacheContent(uuid, name);
+      if (content == null) return false;
+    }
+    setResponseDefinition(resource, content, hash);
+    return true;
+  }
+
+  /**
+   * Set the definition of a resource in a response to a node. If the content held by the node, as specified by the
+   * {@link ResourceIdentifier#CACHED_CONTENT_HASH CACHED_CONTENT_HASH} of the request, has the same hash, then the content is not sent
+   * and the response is flagged as {@link ResourceIdentifier#CONTENT_VALIDATED validated}.
+   * @param resource the resource to send back to the node.
+   * @param content the content of the resource.
+   * @param hash the hash of the content, may be {@code null} if it is not known.
+   */
+  public static void setResponseDefinition(final JPPFResourceWrapper resource, final byte[] content, final String hash) {
+    if ((hash != null) && hash.equals(resource.getData(ResourceIdentifier.CACHED_CONTENT_HASH))) {
+      resource.setDefinition(null);
+      resource.setData(ResourceIdentifier.CONTENT_VALIDATED, true);
+    } else resource.setDefinition(content);
+    if (hash != null) resource.setData(ResourceIdentifier.CONTENT_HASH, hash);
+  }
+
+  /**
+   * Determine whether the content with the specified hash is in the cache, either in memory or on disk.
+   * @param hash the hash of the content.
+   * @return {@code true} if the content is in the cache, {@code false} otherwise.
+   */
+  private boolean hasContent(final String hash) {
+    return contents.containsKey(hash) || ((diskStore != null) && diskStore.contains(hash));
+  }
+
+  /**
+   * Store the specified content in memory and, if specified, on disk.
+   * @param hash the hash of the content.
+   * @param content the content to store.
+   * @param toDisk whether to store the content on disk as well.
+   */
+  private void storeContent(final String hash, final byte[] content, final boolean toDisk) {
+    final long sequence = accessSequence.incrementAndGet();
+    final CacheClassContent existing = contents.get(hash);
+    if (existing != null) existing.touch(sequence);
+    else if (content.length <= maxSize) {
+      if ((contents.putIfAbsent(hash, new CacheClassContent(hash, content, sequence)) == null) && (memorySize.addAndGet(content.length) > maxSize)) evict();
     }
-    return contentNull ? null : content.getContent();
+    if (toDisk && (diskStore != null)) diskStore.write(hash, content);
+  }
+
+  /**
+   * Evict the least recently used contents from memory until their total size is less than 90% of the maximum size.
+   * The index entries whose content is no longer in the cache are then removed.
+   */
+  private void evict() {
+    if (!evictionLock.tryLock()) return;
+    try {
+      if (memorySize.get() <= maxSize) return;
+      final long target = maxSize - maxSize / 10L;
+      final List<CacheClassContent> list = new ArrayList<>(contents.values());
+      list.sort((c1, c2) -> Long.compare(c1.getLastAccess(), c2.getLastAccess()));
+      int count = 0;
+      for (final CacheClassContent c: list) {
+        if (memorySize.get() <= target) break;
+        if (contents.remove(c.getHash(), c)) {
+          memorySize.addAndGet(-c.getContent().length);
+          count++;
+        }
+      }
+      index.values().removeIf(hash -> !hasContent(hash));
+      if (debugEnabled) log.debug("evicted {} entries, memory size is now {} bytes", count, memorySize.get());
+    } finally {
+      evictionLock.unlock();
+    }
+  }
+
+  /**
+   * Get the total size of the contents held in memory.
+   * @return the size in bytes.
+   */
+  public long getMemorySize() {
+    return memorySize.get();
+  }
+
+  /**
+   * Get the number of distinct contents held in memory.
+   * @return the number of contents.
+   */
+  public int getContentCount() {
+    return contents.size();
+  }
+
+  /**
+   * Wait for the pending writes to the disk tier, if any, then close it.
+   */
+  public void close() {
+    if (diskStore != null) diskStore.close();
   }
 }
@@ -0,0 +1,226 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jppf.server.nio.classloader;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.nio.file.attribute.FileTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.jppf.classloader.JPPFResourceWrapper;
+import org.jppf.utils.*;
+import org.jppf.utils.concurrent.JPPFThreadFactory;
+import org.slf4j.*;
+
+/**
+ * The on-disk tier of the class cache. Each content is stored in a file named after its hash, so the store survives driver restarts
+ * and identical contents are only stored once. The files are written asynchronously, to avoid blocking the I/O threads, and the
+ * least recently used files are deleted when the total size exceeds the configured maximum.
+ * @author Laurent Cohen
+ */
+class ClassCacheDiskStore {
+  /**
+   * Logger for this class.
+   */
+  private static Logger log = LoggerFactory.getLogger(ClassCacheDiskStore.class);
+  /**
+   * Determines whether the debug level is enabled in the log configuration, without the cost of a method call.
+   */
+  private static boolean debugEnabled = log.isDebugEnabled();
+  /**
+   * Extension of the temporary files, renamed once completely written.
+   */
+  private static final String TMP_EXTENSION = ".tmp";
+  /**
+   * The directory where the files are stored.
+   */
+  private final Path dir;
+  /**
+   * Maximum total size of the stored contents.
+   */
+  private final long maxSize;
+  /**
+   * Mapping of the stored hashes to the size of the corresponding content.
+   */
+  private final Map<String, Long> sizes = new ConcurrentHashMap<>();
+  /**
+   * Total size of the stored contents.
+   */
+  private final AtomicLong totalSize = new AtomicLong(0L);
+  /**
+   * Writes the files.
+   */
+  private final ExecutorService writer = Executors.newSingleThreadExecutor(new JPPFThreadFactory("ClassCacheDiskWriter"));
+
+  /**
+   * Initialize this store and index the contents already present in the specified directory.
+   * @param dir the directory where the files are stored.
+   * @param maxSize the maximum total size of the stored contents.
+   * @throws IOException if the directory cannot be created or read.
+   */
+  ClassCacheDiskStore(final Path dir, final long maxSize) throws IOException {
+    this.dir = dir;
+    this.maxSize = maxSize;
+    Files.createDirectories(dir);
+    try (final DirectoryStream<Path> stream = Files.newDirectoryStream(dir)) {
+      for (final Path file: stream) {
+        final String name = file.getFileName().toString();
+        if (name.endsWith(TMP_EXTENSION)) Files.deleteIfExists(file);
+        else if (Files.isRegularFile(file)) {
+          final long size = Files.size(file);
+          sizes.put(name, size);
+          totalSize.addAndGet(size);
+        }
+      }
+    }
+    if (debugEnabled) log.debug("found {} entries with a total size of {} bytes in {}", sizes.size(), totalSize.get(), dir);
+    evictIfNeeded();
+  }
+
+  /**
+   * Determine whether this store holds the content with the specified hash.
+   * @param hash the hash of the content to look up.
+   * @return {@code true} if the content is stored, {@code false} otherwise.
+   */
+  boolean contains(final String hash) {
+    return sizes.containsKey(hash);
+  }
+
+  /**
+   * Asynchronously store the specified content, unless it is already stored.
+   * @param hash the hash of the content.
+   * @param content the content to store.
+   */
+  void write(final String hash, final byte[] content) {
+    if (sizes.containsKey(hash) || (content.length > maxSize)) return;
+    try {
+      writer.execute(() -> doWrite(hash, content));
+    } catch (@SuppressWarnings("unused") final RejectedExecutionException e) {
+      if (debugEnabled) log.debug("could not store content with hash {}: store is closed", hash);
+    }
+  }
+
+  /**
+   * Store the specified content.
+   * @param hash the hash of the content.
+   * @param content the content to store.
+   */
+  private void doWrite(final String hash, final byte[] content) {
+    if (sizes.containsKey(hash)) return;
+    final Path file = dir.resolve(hash), tmp = dir.resolve(hash + TMP_EXTENSION);
+    try {
+      Files.write(tmp, content);
+      try {
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      } catch (@SuppressWarnings("unused") final AtomicMoveNotSupportedException e) {
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+      }
+      if (sizes.put(hash, (long) content.length) == null) totalSize.addAndGet(content.length);
+      evictIfNeeded();
+    } catch (final IOException e) {
+      log.warn("could not store content with hash {} in {}: {}", hash, dir, ExceptionUtils.getMessage(e));
+    }
+  }
+
+  /**
+   * Read the content with the specified hash. The content is checked against its hash, and deleted if it does not match.
+   * @param hash the hash of the content to read.
+   * @return the content, or {@code null} if it is not stored or could not be read.
+   */
+  byte[] read(final String hash) {
+    if (!sizes.containsKey(hash)) return null;
+    final Path file = dir.resolve(hash);
+    try {
+      final byte[] content = Files.readAllBytes(file);
+      if (!hash.equals(CryptoUtils.computeHash(content, JPPFResourceWrapper.CONTENT_HASH_ALGORITHM))) {
+        log.warn("content of {} does not match its hash, deleting it", file);
+        remove(hash);
+        return null;
+      }
+      Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+      return content;
+    } catch (@SuppressWarnings("unused") final NoSuchFileException e) {
+      final Long size = sizes.remove(hash);
+      if (size != null) totalSize.addAndGet(-size);
+    } catch (final IOException e) {
+      log.warn("could not read content with hash {} from {}: {}", hash, dir, ExceptionUtils.getMessage(e));
+    }
+    return null;
+  }
+
+  /**
+   * Delete the least recently used files until the total size is less than 90% of the maximum size.
+   */
+  private synchronized void evictIfNeeded() {
+    if (totalSize.get() <= maxSize) return;
+    final long target = maxSize - maxSize / 10L;
+    final List<Pair<String, Long>> entries = new ArrayList<>(sizes.size());
+    for (final String hash: sizes.keySet()) {
+      try {
+        entries.add(new Pair<>(hash, Files.getLastModifiedTime(dir.resolve(hash)).toMillis()));
+      } catch (@SuppressWarnings("unused") final IOException e) {
+        entries.add(new Pair<>(hash, 0L));
+      }
+    }
+    entries.sort((p1, p2) -> Long.compare(p1.second(), p2.second()));
+    int count = 0;
+    for (final Pair<String, Long> entry: entries) {
+      if (totalSize.get() <= target) break;
+      remove(entry.first());
+      count++;
+    }
+    if (debugEnabled) log.debug("evicted {} entries, total size is now {} bytes", count, totalSize.get());
+  }
+
+  /**
+   * Delete the content with the specified hash.
+   * @param hash the hash of the content to delete.
+   */
+  private void remove(final String hash) {
+    final Long size = sizes.remove(hash);
+    if (size != null) totalSize.addAndGet(-size);
+    try {
+      Files.deleteIfExists(dir.resolve(hash));
+    } catch (final IOException e) {
+      log.warn("could not delete content with hash {} from {}: {}", hash, dir, ExceptionUtils.getMessage(e));
+    }
+  }
+
+  /**
+   * Get the total size of the stored contents.
+   * @return the size in bytes.
+   */
+  long getTotalSize() {
+    return totalSize.get();
+  }
+
+  /**
+   * Stop accepting new contents and wait for the pending writes to complete.
+   */
+  void close() {
+    writer.shutdown();
+    try {
+      writer.awaitTermination(5000L, TimeUnit.MILLISECONDS);
+    } catch (@SuppressWarnings("unused") final InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -108,10 +108,8 @@ public class AsyncClientClassContext extends AbstractAsyncClassContext {
     final JPPFResourceWrapper resource = request.getResource();
     if (resource.isSingleResource()) {
       final String uuid = resource.getUuidPath().getFirst();
-      final byte[] content = getServer().getClassCache().getCacheContent(uuid, resource.getName());
-      if (content != null) {
+      if (getServer().getClassCache().setResponseFromCache(resource, uuid)) {
         if (debugEnabled) log.debug("resource [uuid={}, res={}] found in the cache, request will not be sent to the client", uuid, resource.getName());
-        resource.setDefinition(content);
         resource.setState(JPPFResourceWrapper.State.NODE_RESPONSE);
         request.getContext().handleProviderResponse(request);
         return;
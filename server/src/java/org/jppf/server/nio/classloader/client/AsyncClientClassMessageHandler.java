@@ -20,7 +20,7 @@ package org.jppf.server.nio.classloader.client;
 
 import org.jppf.classloader.*;
 import org.jppf.server.JPPFDriver;
-import org.jppf.server.nio.classloader.AsyncResourceRequest;
+import org.jppf.server.nio.classloader.*;
 import org.jppf.utils.stats.JPPFStatisticsHelper;
 import org.slf4j.*;
 
@@ -96,7 +96,13 @@ public class AsyncClientClassMessageHandler {
     final AsyncResourceRequest request = context.removeRequest(resource);
     if (debugEnabled) log.debug("read response from provider {}, sending to node {}, resource = {}", context, request.getContext(), resource.getName());
     final double elapsed = (System.nanoTime() - request.getRequestStartTime()) / 1_000_000d;
-    if ((resource.getDefinition() != null) && resource.isSingleResource()) server.getClassCache().setCacheContent(resource.getUuidPath().getFirst(), resource.getName(), resource.getDefinition());
+    if (resource.isSingleResource()) {
+      final ClassCache classCache = server.getClassCache();
+      final String uuid = resource.getUuidPath().getFirst();
+      final byte[] definition = resource.getDefinition();
+      if (definition != null) ClassCache.setResponseDefinition(resource, definition, classCache.setCacheContent(uuid, resource.getName(), definition));
+      else if (resource.getData(ResourceIdentifier.CONTENT_VALIDATED) != null) classCache.linkContent(uuid, resource.getName(), (String) resource.getData(ResourceIdentifier.CONTENT_HASH));
+    }
     resource.setState(JPPFResourceWrapper.State.NODE_RESPONSE);
     request.setResource(resource);
     request.getContext().handleProviderResponse(request);
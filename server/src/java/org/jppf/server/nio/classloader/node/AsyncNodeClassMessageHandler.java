@@ -177,8 +177,9 @@ public class AsyncNodeClassMessageHandler {
           if (debugEnabled) log.debug("resource {}found [{}] in the driver's classpath for node {}", b == null ? "not " : "", name, context);
         }
         if ((b != null) || !resource.isDynamic()) {
-          if ((b != null) && !alreadyInCache) classCache.setCacheContent(driver.getUuid(), name, b);
-          resource.setDefinition(b);
+          String hash = null;
+          if (b != null) hash = alreadyInCache ? classCache.getContentHash(uuid, name) : classCache.setCacheContent(driver.getUuid(), name, b);
+          ClassCache.setResponseDefinition(resource, b, hash);
         }
       }
     }
@@ -199,9 +200,7 @@ public class AsyncNodeClassMessageHandler {
     final String name = resource.getName();
     final TraversalList<String> uuidPath = resource.getUuidPath();
     if (resource.isSingleResource()) {
-      b = classCache.getCacheContent(uuidPath.getFirst(), name);
-      if (b != null) {
-        resource.setDefinition(b);
+      if (classCache.setResponseFromCache(resource, uuidPath.getFirst())) {
         resource.setState(JPPFResourceWrapper.State.NODE_RESPONSE);
         return true;
       }
@@ -75,6 +75,10 @@ public class AsyncClientContext extends AbstractNioContext {
   private final BlockingQueue<ClientMessage> sendQueue = new LinkedBlockingQueue<>();
   /** */
   private final boolean jppfDebugEnabled;
+  /**
+   * Bit mask of the ids of the payload codecs supported by the client. Compressed results with any other codec are decompressed before being sent.
+   */
+  private int acceptedCodecs = PayloadCodecs.ALL_CODECS;
 
   /**
    * @param server the server that handles this context.
@@ -117,11 +121,19 @@ public class AsyncClientContext extends AbstractNioContext {
       header.removeParameter(BundleParameter.TASK_MAX_RESUBMITS);
     }
     message.addLocation(IOHelper.serializeData(header, driver.getSerializer()));
-    if (tasks != null) for (ServerTask task: tasks) message.addLocation(task.getResult());
+    if (tasks != null) for (ServerTask task: tasks) message.addLocation(PayloadCodecs.decodeIfNotAccepted(task.getResult(), acceptedCodecs));
     message.setBundle(header);
     return message;
   }
 
+  /**
+   * Set the payload codecs supported by the client.
+   * @param acceptedCodecs a bit mask of the ids of the codecs, as computed by {@link PayloadCodecs#toMask(java.util.Collection)}.
+   */
+  void setAcceptedCodecs(final int acceptedCodecs) {
+    this.acceptedCodecs = acceptedCodecs;
+  }
+
   /**
    * Deserialize a task bundle from a message read from a connection.
    * @param message the message to process.
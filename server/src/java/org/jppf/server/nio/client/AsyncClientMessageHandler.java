@@ -26,7 +26,7 @@ import org.jppf.node.protocol.*;
 import org.jppf.server.JPPFDriver;
 import org.jppf.server.nio.classloader.client.*;
 import org.jppf.server.nio.nodeserver.PeerAttributesHandler;
-import org.jppf.server.protocol.ServerTaskBundleClient;
+import org.jppf.server.protocol.*;
 import org.jppf.utils.*;
 import org.jppf.utils.configuration.JPPFProperties;
 import org.slf4j.*;
@@ -118,6 +118,7 @@ public class AsyncClientMessageHandler {
   void jobResultsSent(final AsyncClientContext context, final ServerTaskBundleClient bundle) throws Exception {
     final long bundleId = bundle.getOriginalBundleId();
     if (debugEnabled) log.debug("job results sent bundleId={}, bundle={} for {}", bundleId, bundle, context);
+    for (final ServerTask task: bundle.getTaskList()) task.releaseResult();
     final JobEntry entry = context.getJobEntry(bundle.getUuid(), bundleId);
     if (entry != null) {
       boolean jobEnded = false;
@@ -154,6 +155,9 @@ public class AsyncClientMessageHandler {
     final TaskBundle header = bundle.getJob();
     if (debugEnabled) log.debug("read handshake bundle {} from client {}", header, context);
     context.setConnectionUuid((String) header.getParameter(BundleParameter.CONNECTION_UUID));
+    final String localCodecs = driver.getConfiguration().get(JPPFProperties.PAYLOAD_CODECS);
+    final List<PayloadCodec> codecs = PayloadCodecs.negotiate(localCodecs, header.getParameter(BundleParameter.PAYLOAD_CODECS));
+    context.setAcceptedCodecs(PayloadCodecs.acceptedMask(localCodecs, codecs));
     header.getUuidPath().incPosition();
     final String uuid = header.getUuidPath().getCurrentElement();
     context.setUuid(uuid);
@@ -167,6 +171,10 @@ public class AsyncClientMessageHandler {
     header.setParameter(BundleParameter.DRIVER_MANAGEMENT_PORT, jmxServer != null ? jmxServer.getManagementPort() : -1);
     jmxServer = driver.getInitializer().getJmxServer(true);
     header.setParameter(BundleParameter.DRIVER_MANAGEMENT_PORT_SSL, jmxServer != null ? jmxServer.getManagementPort() : -1);
+    if (!codecs.isEmpty()) {
+      if (debugEnabled) log.debug("negotiated payload codec {} with client {}", codecs.get(0), context);
+      header.setParameter(BundleParameter.PAYLOAD_CODEC, codecs.get(0).getName());
+    }
     final ClientMessage response = context.serializeBundle(bundle);
     context.offerMessageToSend(bundle, response);
   }
@@ -30,6 +30,7 @@ import org.jppf.server.JPPFDriver;
 import org.jppf.server.nio.classloader.client.*;
 import org.jppf.ssl.SSLHelper;
 import org.jppf.utils.*;
+import org.jppf.utils.configuration.JPPFProperties;
 import org.jppf.utils.stats.JPPFStatisticsHelper;
 import org.slf4j.*;
 
@@ -70,6 +71,7 @@ public final class AsyncClientNioServer extends StatelessNioServer<AsyncClientCo
     this.driver = driver;
     selectTimeout = 1000L;
     messageHandler = new AsyncClientMessageHandler(driver);
+    initSelectorShards(driver.getConfiguration().get(JPPFProperties.CLIENT_SERVER_SELECTOR_SHARDS), driver.getConfiguration().get(JPPFProperties.SELECTOR_SHARD_ASSIGNMENT));
   }
 
   @Override
@@ -118,6 +118,10 @@ public abstract class BaseNodeContext extends AbstractNioContext implements  Exe
    * Determines whether the node is idle or not.
    */
   private final AtomicBoolean idle = new AtomicBoolean(false);
+  /**
+   * Value of {@code System.nanoTime()} when the node last became available for a job dispatch.
+   */
+  private volatile long idleSince;
 
   /**
    *
@@ -404,6 +408,22 @@ public abstract class BaseNodeContext extends AbstractNioContext implements  Exe
     return idle;
   }
 
+  /**
+   * Get the time at which the node last became available for a job dispatch.
+   * @return the value of {@code System.nanoTime()} at that time, or 0 if it was never set.
+   */
+  public long getIdleSince() {
+    return idleSince;
+  }
+
+  /**
+   * Set the time at which the node last became available for a job dispatch.
+   * @param idleSince the value of {@code System.nanoTime()} at that time.
+   */
+  public void setIdleSince(final long idleSince) {
+    this.idleSince = idleSince;
+  }
+
   /**
    * Cancel the job with the specified id.
    * @param jobId the id of the job to cancel.
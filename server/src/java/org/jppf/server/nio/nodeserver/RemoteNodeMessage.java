@@ -18,16 +18,21 @@
 
 package org.jppf.server.nio.nodeserver;
 
-import org.jppf.io.IOHelper;
+import org.jppf.io.*;
 import org.jppf.node.protocol.*;
 import org.jppf.node.protocol.graph.TaskGraphInfo;
 import org.jppf.server.nio.AbstractTaskBundleMessage;
+import org.jppf.server.protocol.ServerJob;
 
 /**
  * Representation of a message sent or received by a remote node.
  * @author Laurent Cohen
  */
 public class RemoteNodeMessage extends AbstractTaskBundleMessage {
+  /**
+   * Whether the task results in this message are released after they are sent to the client.
+   */
+  private boolean releasableResults;
   /**
    * Initialize this nio message with the specified sll flag.
    * @param context the channel to read from or write to.
@@ -44,7 +49,18 @@ public class RemoteNodeMessage extends AbstractTaskBundleMessage {
   protected void afterFirstRead() throws Exception {
     final BaseNodeContext context = (BaseNodeContext) this.channel;
     bundle = (TaskBundle) IOHelper.unwrappedData(locations.get(0), context.getDriver().getSerializer());
+    IOHelper.releaseDataLocation(locations.get(0));
     nbObjects = bundle.getTaskCount() + 1;
+    final ServerJob job = (IO.BUFFER_POOL == null) ? null : context.getDriver().getQueue().getJob(bundle.getUuid());
+    releasableResults = (job != null) && job.isResultReleasable();
+  }
+
+  /**
+   * The header is released right after it is deserialized, while the task results are released after they are sent to the client, if their job allows it.
+   */
+  @Override
+  protected boolean isPooled(final int position) {
+    return (position == 0) || releasableResults;
   }
 
   /**
@@ -108,6 +108,10 @@ abstract class AbstractAsyncJobScheduler extends ThreadSynchronization implement
    * 
    */
   final JobDependenciesHandler dependencyHandler; 
+  /**
+   * Caches the verdicts of job execution policies against the nodes, or {@code null} if caching is disabled.
+   */
+  JobMatchingIndex matchingIndex;
 
   /**
    * Initialize this task queue checker with the specified node server.
@@ -175,14 +179,17 @@ abstract class AbstractAsyncJobScheduler extends ThreadSynchronization implement
         if (!reservationHandler.transitionReservation(channel)) reservationHandler.removeReservation(channel);
         final boolean added;
         synchronized(idleChannels) {
+          // the idle time must be set before the channel can be picked for a dispatch
+          if (!idleChannels.contains(channel)) channel.setIdleSince(System.nanoTime());
           added = idleChannels.add(channel);
+          if (added) {
+            // the idle state must be visible to the execution policies before they are evaluated and their verdict cached
+            setIdleProperty(channel, true);
+            if (matchingIndex != null) matchingIndex.nodeIdle(channel);
+          }
         }
         channel.getIdle().set(true);
-        if (added) {
-          final JPPFSystemInformation info = channel.getSystemInformation();
-          if (info != null) info.getJppf().set(JPPFProperties.NODE_IDLE, true);
-          stats.addValue(JPPFStatisticsHelper.IDLE_NODES, 1);
-        }
+        if (added) stats.addValue(JPPFStatisticsHelper.IDLE_NODES, 1);
         wakeUp();
       }
       else channel.handleException(null);
@@ -199,16 +206,26 @@ abstract class AbstractAsyncJobScheduler extends ThreadSynchronization implement
     final boolean removed;
     synchronized(idleChannels) {
       removed = idleChannels.remove(channel);
+      if (removed) {
+        setIdleProperty(channel, false);
+        if (matchingIndex != null) matchingIndex.nodeBusy(channel);
+      }
     }
     channel.getIdle().set(false);
-    if (removed) {
-      final JPPFSystemInformation info = channel.getSystemInformation();
-      if (info != null) info.getJppf().set(JPPFProperties.NODE_IDLE, false);
-      stats.addValue(JPPFStatisticsHelper.IDLE_NODES, -1);
-    }
+    if (removed) stats.addValue(JPPFStatisticsHelper.IDLE_NODES, -1);
     return channel;
   }
 
+  /**
+   * Set the idle state in the system information of the specified node.
+   * @param channel the node to update.
+   * @param idle whether the node is idle.
+   */
+  private static void setIdleProperty(final BaseNodeContext channel, final boolean idle) {
+    final JPPFSystemInformation info = channel.getSystemInformation();
+    if (info != null) info.getJppf().set(JPPFProperties.NODE_IDLE, idle);
+  }
+
   /**
    * Asynchronously remove a channel from the list of idle channels.
    * @param channel the channel to remove from the list.
@@ -218,6 +235,32 @@ abstract class AbstractAsyncJobScheduler extends ThreadSynchronization implement
     channelsExecutor.execute(() -> removeIdleChannel(channel));
   }
 
+  /**
+   * Asynchronously notify this scheduler that the system information of a node was updated.
+   * @param channel the channel whose information was updated.
+   */
+  public void nodeInformationUpdated(final BaseNodeContext channel) {
+    if (matchingIndex == null) return;
+    channelsExecutor.execute(() -> {
+      synchronized(idleChannels) {
+        matchingIndex.nodeUpdated(channel, idleChannels.contains(channel));
+      }
+    });
+  }
+
+  /**
+   * Asynchronously notify this scheduler that a node was disconnected.
+   * @param channel the channel that was disconnected.
+   */
+  public void channelRemovedAsync(final BaseNodeContext channel) {
+    if (matchingIndex == null) return;
+    channelsExecutor.execute(() -> {
+      synchronized(idleChannels) {
+        matchingIndex.nodeRemoved(channel);
+      }
+    });
+  }
+
   /**
    * Get the list of idle channels.
    * @return a new copy of the underlying list of idle channels.
@@ -34,7 +34,7 @@ import org.jppf.server.queue.*;
 import org.jppf.utils.*;
 import org.jppf.utils.collections.*;
 import org.jppf.utils.configuration.JPPFProperties;
-import org.jppf.utils.stats.JPPFStatistics;
+import org.jppf.utils.stats.*;
 import org.slf4j.*;
 
 /**
@@ -49,6 +49,14 @@ public class AsyncJobScheduler extends AbstractAsyncJobScheduler {
    * Determines whether DEBUG logging level is enabled.
    */
   private static final boolean debugEnabled = log.isDebugEnabled();
+  /**
+   * Whether to dispatch to as many idle nodes as possible in a single scheduling pass.
+   */
+  private final boolean batchDispatchEnabled;
+  /**
+   * Maximum number of dispatches in a single scheduling pass when batch dispatch is enabled.
+   */
+  private final int maxBatchSize;
 
   /**
    * Initialize this task queue checker with the specified node server.
@@ -59,6 +67,11 @@ public class AsyncJobScheduler extends AbstractAsyncJobScheduler {
    */
   AsyncJobScheduler(final AsyncNodeNioServer server, final JPPFPriorityQueue queue, final JPPFStatistics stats, final JPPFBundlerFactory bundlerFactory) {
     super(server, queue, stats, bundlerFactory);
+    final TypedProperties config = server.getDriver().getConfiguration();
+    batchDispatchEnabled = config.get(JPPFProperties.JOB_DISPATCH_BATCH_ENABLED);
+    maxBatchSize = config.get(JPPFProperties.JOB_DISPATCH_BATCH_MAX_SIZE);
+    if (config.get(JPPFProperties.JOB_MATCHING_INDEX_ENABLED))
+      matchingIndex = new JobMatchingIndex((channel, job) -> checkExecutionPolicy(channel, job, job.getSLA().getExecutionPolicy(), channel.getSystemInformation(), job.getNbChannels()));
   }
 
   /**
@@ -85,52 +98,19 @@ public class AsyncJobScheduler extends AbstractAsyncJobScheduler {
     try {
       queue.getBroadcastManager().processPendingBroadcasts();
       if (queue.isEmpty()) return false;
-      BaseNodeContext channel = null;
-      ServerTaskBundleNode nodeBundle = null;
       synchronized(idleChannels) {
         if (idleChannels.isEmpty()) return false;
-        final List<ServerJob> allJobs = queue.getAllJobsFromPriorityMap();
+        if (batchDispatchEnabled) return dispatchBatch() > 0;
+        final List<ServerJob> allJobs = queue.getAllJobsInDispatchOrder();
         if (debugEnabled) log.debug("there are {} idle channels and {} jobs in the queue", idleChannels.size(), allJobs.size());
+        if (matchingIndex != null) matchingIndex.retainJobs(allJobs);
         try {
           final Iterator<ServerJob> jobIterator = allJobs.iterator();
-          while ((channel == null) && jobIterator.hasNext() && !idleChannels.isEmpty()) {
-            final ServerJob job = jobIterator.next();
-            if (debugEnabled) log.debug("checking {}", job);
-            if (!performJobChecks(job)) continue;
-            channel = findIdleChannelIndex(job);
-            if (channel == null) continue;
-            synchronized(channel.getMonitor()) {
-              if (job.getSLA().getDesiredNodeConfiguration() != null) {
-                final String readyJobUUID = reservationHandler.getReadyJobUUID(channel);
-                final String pendingJobUUID = reservationHandler.getPendingJobUUID(channel);
-                if ((pendingJobUUID == null) && (readyJobUUID == null)) {
-                  if (debugEnabled) log.debug("reserving {} with {}", job, channel);
-                  reservationHandler.doReservation(job, channel);
-                  channel = null;
-                  continue;
-                }
-              }
-              if (channel.getCurrentNbJobs() >= channel.getMaxJobs()) removeIdleChannel(channel);
-              if (!channel.isEnabled()) {
-                if (debugEnabled) log.debug("channel is disabled [}", channel);
-                channel = null;
-                continue;
-              }
-              nodeBundle = prepareJobDispatch(channel, job);
-              if (debugEnabled) log.debug("prepareJobDispatch() returned {}", nodeBundle);
-              if (nodeBundle != null) {
-                try {
-                  dispatchJobToChannel(channel, nodeBundle);
-                  return true;
-                } catch (final Exception e) {
-                  log.error("{}\nchannel={}\njob={}\nstack trace: {}", ExceptionUtils.getMessage(e), channel, nodeBundle, ExceptionUtils.getStackTrace(e));
-                  channel.setClosed(false);
-                  channel.handleException(e);
-                }
-              }
-            }
+          while (jobIterator.hasNext() && !idleChannels.isEmpty()) {
+            final DispatchOutcome outcome = dispatchJob(jobIterator.next());
+            if (outcome != DispatchOutcome.SKIPPED) return outcome == DispatchOutcome.DISPATCHED;
           }
-          if (debugEnabled) log.debug((channel == null) ? "no channel found for bundle " : "channel found for bundle " + channel);
+          if (debugEnabled) log.debug("no channel found for bundle");
         } catch(final Exception e) {
           log.error("An error occurred while attempting to dispatch task bundles. This is most likely due to an error in the load balancer implementation.", e);
         }
@@ -141,6 +121,98 @@ public class AsyncJobScheduler extends AbstractAsyncJobScheduler {
     return false;
   }
 
+  /**
+   * Dispatch jobs to as many idle nodes as possible in a single pass, while holding the queue lock.
+   * <p>This method must be called while holding the monitor on the idle channels. The jobs are looked up in priority order,
+   * and the local copy of the job list is kept consistent with the queue by moving partially dispatched jobs to the end
+   * of their priority group and removing the jobs that have no more task to dispatch, as {@link JPPFPriorityQueue#nextBundle(ServerJob, int, org.jppf.execute.ExecutorChannel) nextBundle()} does.
+   * If a {@link JobQueueOrdering} is configured, the local copy is reordered after each dispatch, since the dispatch may change the order.
+   * @return the number of dispatches that were performed.
+   */
+  private int dispatchBatch() {
+    int count = 0;
+    final Lock queueLock = queue.getLock();
+    queueLock.lock();
+    try {
+      final List<ServerJob> jobs = queue.getAllJobsInDispatchOrder();
+      final JobQueueOrdering ordering = queue.getJobOrdering();
+      if (debugEnabled) log.debug("batch dispatch with {} idle channels and {} jobs in the queue", idleChannels.size(), jobs.size());
+      if (matchingIndex != null) matchingIndex.retainJobs(jobs);
+      while ((count < maxBatchSize) && !idleChannels.isEmpty() && !jobs.isEmpty()) {
+        int dispatchedIndex = -1;
+        for (int i=0; i<jobs.size(); i++) {
+          final DispatchOutcome outcome = dispatchJob(jobs.get(i));
+          if (outcome == DispatchOutcome.FAILED) return count;
+          if (outcome == DispatchOutcome.DISPATCHED) {
+            dispatchedIndex = i;
+            break;
+          }
+          if (idleChannels.isEmpty()) break;
+        }
+        if (dispatchedIndex < 0) break;
+        count++;
+        final ServerJob job = jobs.remove(dispatchedIndex);
+        if (job.getTaskCount() > 0) {
+          final int priority = job.getSLA().getPriority();
+          int pos = dispatchedIndex;
+          while ((pos < jobs.size()) && (jobs.get(pos).getSLA().getPriority() == priority)) pos++;
+          jobs.add(pos, job);
+        }
+        if (ordering != null) ordering.order(jobs);
+      }
+    } catch(final Exception e) {
+      log.error("An error occurred while attempting to dispatch task bundles. This is most likely due to an error in the load balancer implementation.", e);
+    } finally {
+      queueLock.unlock();
+    }
+    if (debugEnabled) log.debug("performed {} dispatches in batch", count);
+    return count;
+  }
+
+  /**
+   * Attempt to dispatch the specified job to an idle node.
+   * <p>This method must be called while holding the monitor on the idle channels.
+   * @param job the job to dispatch.
+   * @return the outcome of the dispatch attempt.
+   * @throws Exception if any error occurs.
+   */
+  private DispatchOutcome dispatchJob(final ServerJob job) throws Exception {
+    if (debugEnabled) log.debug("checking {}", job);
+    if (!performJobChecks(job)) return DispatchOutcome.SKIPPED;
+    final BaseNodeContext channel = findIdleChannelIndex(job);
+    if (channel == null) return DispatchOutcome.SKIPPED;
+    synchronized(channel.getMonitor()) {
+      if (job.getSLA().getDesiredNodeConfiguration() != null) {
+        final String readyJobUUID = reservationHandler.getReadyJobUUID(channel);
+        final String pendingJobUUID = reservationHandler.getPendingJobUUID(channel);
+        if ((pendingJobUUID == null) && (readyJobUUID == null)) {
+          if (debugEnabled) log.debug("reserving {} with {}", job, channel);
+          reservationHandler.doReservation(job, channel);
+          return DispatchOutcome.SKIPPED;
+        }
+      }
+      if (channel.getCurrentNbJobs() >= channel.getMaxJobs()) removeIdleChannel(channel);
+      if (!channel.isEnabled()) {
+        if (debugEnabled) log.debug("channel is disabled {}", channel);
+        return DispatchOutcome.SKIPPED;
+      }
+      final ServerTaskBundleNode nodeBundle = prepareJobDispatch(channel, job);
+      if (debugEnabled) log.debug("prepareJobDispatch() returned {}", nodeBundle);
+      if (nodeBundle != null) {
+        try {
+          dispatchJobToChannel(channel, nodeBundle);
+          return DispatchOutcome.DISPATCHED;
+        } catch (final Exception e) {
+          log.error("{}\nchannel={}\njob={}\nstack trace: {}", ExceptionUtils.getMessage(e), channel, nodeBundle, ExceptionUtils.getStackTrace(e));
+          channel.setClosed(false);
+          channel.handleException(e);
+        }
+      }
+    }
+    if (debugEnabled) log.debug("channel found for bundle {}", channel);
+    return DispatchOutcome.FAILED;
+  }
+
   /**
    * Prepare the specified job for the selected channel, after applying the load balancer to the job.
    * @param channel the node channel to prepare dispatch the job to.
@@ -167,7 +239,7 @@ public class AsyncJobScheduler extends AbstractAsyncJobScheduler {
    * @param nodeBundle the job to dispatch.
    * @throws Exception if any error occurs.
    */
-  private static void dispatchJobToChannel(final BaseNodeContext channel, final ServerTaskBundleNode nodeBundle) throws Exception {
+  private void dispatchJobToChannel(final BaseNodeContext channel, final ServerTaskBundleNode nodeBundle) throws Exception {
     if (debugEnabled) log.debug("dispatching {} tasks of job '{}' to node {}", nodeBundle.getTaskCount(), nodeBundle.getJob().getName(), channel.getUuid());
     if (log.isTraceEnabled()) {
       final Set<Long> set = new TreeSet<>();
@@ -196,6 +268,10 @@ public class AsyncJobScheduler extends AbstractAsyncJobScheduler {
       final Future<?> future = channel.submit(nodeBundle);
       nodeBundle.jobDispatched(channel, future);
     }
+    final long now = System.nanoTime();
+    final long idleSince = channel.getIdleSince();
+    if (idleSince > 0L) stats.addValue(JPPFStatisticsHelper.NODE_DISPATCH_LATENCY, (now - idleSince) / 1_000_000d);
+    channel.setIdleSince(now);
     if (debugEnabled) log.debug("dispatched {} tasks of job '{}' to node {}", nodeBundle.getTaskCount(), nodeBundle.getJob().getName(), channel.getUuid());
   }
 
@@ -217,7 +293,9 @@ public class AsyncJobScheduler extends AbstractAsyncJobScheduler {
       if (preferedChannels.isEmpty()) return null;
       nodeIterator = preferedChannels.iterator();
     }
+    else if (matchingIndex != null) nodeIterator = matchingIndex.getCandidates(job, idleChannels).iterator();
     else nodeIterator = idleChannels.iterator();
+    final Set<String> jobMasterUuids = getJobMasterUuids(job);
     while (nodeIterator.hasNext()) {
       final AsyncNodeContext channel = (AsyncNodeContext) nodeIterator.next();
       synchronized(channel.getMonitor()) {
@@ -247,8 +325,10 @@ public class AsyncJobScheduler extends AbstractAsyncJobScheduler {
             continue;
           }
         }
-        if (!checkExecutionPolicy(channel, job, sla.getExecutionPolicy(), info, job.getNbChannels())) continue;
-        if (!checkMaxNodeGroups(channel, job)) continue;
+        if (matchingIndex != null) {
+          if (!matchingIndex.checkPolicy(channel, job)) continue;
+        } else if (!checkExecutionPolicy(channel, job, sla.getExecutionPolicy(), info, job.getNbChannels())) continue;
+        if (!checkMaxNodeGroups(channel, job, jobMasterUuids)) continue;
         final Collection<String> readyNodes = (spec == null) ? null : reservationHandler.getReadyNodes(job.getUuid());
         if (debugEnabled) log.debug("jobUuid={}, readyNodes={}", job.getUuid(), readyNodes);
         if (!checkDesiredConfiguration(desiredConfiguration, channel, job, readyNodes, reservationHandler.getNbReservedNodes(job.getUuid()))) continue;
@@ -416,33 +496,42 @@ public class AsyncJobScheduler extends AbstractAsyncJobScheduler {
    * Check if the job state allows it to be dispatched to a specific master/slaves group of nodes.
    * @param currentNode the node currently being evaluated.
    * @param job the bundle from which to get the job information.
+   * @param jobMasterUuids the master uuids of the nodes the job is already dispatched to, as computed by {@link #getJobMasterUuids(ServerJob)}.
    * @return true if the job can be dispatched to at least one more node, false otherwise.
    */
-  private static boolean checkMaxNodeGroups(final BaseNodeContext currentNode, final ServerJob job) {
+  private static boolean checkMaxNodeGroups(final BaseNodeContext currentNode, final ServerJob job, final Set<String> jobMasterUuids) {
+    if (jobMasterUuids == null) return true;
     final JPPFManagementInfo currentInfo = currentNode.getManagementInfo();
     if (currentInfo == null) return true;
     final String currentMasterUuid = getMasterUuid(currentInfo);
     if (currentMasterUuid == null) return true;
     final int maxNodeGroups = job.getSLA().getMaxNodeProvisioningGroupss();
-    if ((maxNodeGroups == Integer.MAX_VALUE) || (maxNodeGroups <= 0)) return true;
-    final Set<ServerTaskBundleNode> nodes = job.getDispatchSet();
-    final Set<String> masterUuids = new HashSet<>();
-    masterUuids.add(currentMasterUuid);
-    for (final ServerTaskBundleNode node: nodes) {
-      final AsyncNodeContext ctx = (AsyncNodeContext) node.getChannel();
-      final JPPFManagementInfo info = ctx.getManagementInfo();
-      final String uuid = getMasterUuid(info);
-      if (uuid != null) {
-        if (!masterUuids.contains(uuid)) masterUuids.add(uuid);
-        if (masterUuids.size() > maxNodeGroups) {
-          if (log.isTraceEnabled()) log.trace("[masterUuids.size() = {}] > [maxNodeGroups = {}] for {}", masterUuids.size(), maxNodeGroups, currentNode);
-          return false;
-        }
-      }
+    final int nbGroups = jobMasterUuids.size() + (jobMasterUuids.contains(currentMasterUuid) ? 0 : 1);
+    if (nbGroups > maxNodeGroups) {
+      if (log.isTraceEnabled()) log.trace("[nbGroups = {}] > [maxNodeGroups = {}] for {}", nbGroups, maxNodeGroups, currentNode);
+      return false;
     }
     return true;
   }
 
+  /**
+   * Compute the master uuids of the nodes to which the specified job is already dispatched.
+   * This is done once per job and per scheduling attempt, rather than once for each evaluated node.
+   * @param job the job for which to compute the master uuids.
+   * @return a set of master node uuids, or {@code null} if the job does not limit the number of node provisioning groups.
+   */
+  private static Set<String> getJobMasterUuids(final ServerJob job) {
+    final int maxNodeGroups = job.getSLA().getMaxNodeProvisioningGroupss();
+    if ((maxNodeGroups == Integer.MAX_VALUE) || (maxNodeGroups <= 0)) return null;
+    final Set<String> masterUuids = new HashSet<>();
+    for (final ServerTaskBundleNode node: job.getDispatchSet()) {
+      final JPPFManagementInfo info = node.getChannel().getManagementInfo();
+      final String uuid = (info == null) ? null : getMasterUuid(info);
+      if (uuid != null) masterUuids.add(uuid);
+    }
+    return masterUuids;
+  }
+
   /**
    * Get the master node uuid for a node that is either a master or a slave.
    * @param info represents the node information.
@@ -518,4 +607,22 @@ public class AsyncJobScheduler extends AbstractAsyncJobScheduler {
     final int n = scoreMap.firstKey();
     return (scoreMap.isEmpty()) ? Collections.<BaseNodeContext>emptyList() : new ArrayList<>(scoreMap.getValues(n));
   }
+
+  /**
+   * The possible outcomes of an attempt to dispatch a job.
+   */
+  private enum DispatchOutcome {
+    /**
+     * The job was dispatched to a node.
+     */
+    DISPATCHED,
+    /**
+     * The job could not be dispatched, and the next job in the queue should be tried.
+     */
+    SKIPPED,
+    /**
+     * A node was found but the dispatch failed.
+     */
+    FAILED
+  }
 }
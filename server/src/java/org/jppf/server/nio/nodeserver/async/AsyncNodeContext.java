@@ -86,6 +86,14 @@ public class AsyncNodeContext extends BaseNodeContext {
    * Whether an exception was already handled for this node..
    */
   private AtomicBoolean exceptionHandled = new AtomicBoolean(false);
+  /**
+   * Bit mask of the ids of the payload codecs supported by the node. Compressed tasks with any other codec are decompressed before being sent.
+   */
+  private int acceptedCodecs = PayloadCodecs.ALL_CODECS;
+  /**
+   * The codec the node uses to compress the results it sends back, or {@code null} if they are not compressed.
+   */
+  private PayloadCodec payloadCodec;
 
   /**
    * @param server the server that handles this context.
@@ -186,20 +194,32 @@ public class AsyncNodeContext extends BaseNodeContext {
         taskBundle.setParameter(BundleParameter.JOB_TASK_GRAPH_INFO, graphInfo);
       }
     }
+    if (payloadCodec != null) taskBundle.setParameter(BundleParameter.PAYLOAD_CODEC, payloadCodec.getName());
+    else taskBundle.removeParameter(BundleParameter.PAYLOAD_CODEC);
     message.addLocation(IOHelper.serializeData(taskBundle, server.getDriver().getSerializer()));
-    message.addLocation(bundle.getDataProvider());
-    for (ServerTask task: bundle.getTaskList()) message.addLocation(task.getInitialTask());
+    message.addLocation(PayloadCodecs.decodeIfNotAccepted(bundle.getDataProvider(), acceptedCodecs));
+    for (ServerTask task: bundle.getTaskList()) message.addLocation(PayloadCodecs.decodeIfNotAccepted(task.getInitialTask(), acceptedCodecs));
     if (graphInfo != null) {
       for (final PositionalElement<?> elt: graphInfo.getDependencies()) {
         final ServerTask task = (ServerTask) elt;
         if (debugEnabled) log.debug("adding dependency {} with result = {}", task, task.getResult());
-        message.addLocation(task.getResult());
+        message.addLocation(PayloadCodecs.decodeIfNotAccepted(task.getResult(), acceptedCodecs));
       }
     }
     message.setBundle(taskBundle);
     return message;
   }
 
+  /**
+   * Set the payload codecs negotiated with the node.
+   * @param acceptedCodecs a bit mask of the ids of the codecs supported by the node, as computed by {@link PayloadCodecs#toMask(Collection)}.
+   * @param payloadCodec the codec the node uses to compress its results, or {@code null} if they are not compressed.
+   */
+  void setPayloadCodecs(final int acceptedCodecs, final PayloadCodec payloadCodec) {
+    this.acceptedCodecs = acceptedCodecs;
+    this.payloadCodec = payloadCodec;
+  }
+
   /**
    * Deserialize a task bundle from the message read into this buffer.
    * @param message the message to process.
@@ -26,6 +26,7 @@ import java.nio.channels.SocketChannel;
 import java.util.*;
 
 import org.jppf.execute.ExecutorStatus;
+import org.jppf.io.*;
 import org.jppf.job.JobReturnReason;
 import org.jppf.load.balancer.*;
 import org.jppf.load.balancer.spi.JPPFBundlerFactory;
@@ -140,6 +141,12 @@ public class AsyncNodeMessageHandler {
     if (debugEnabled) log.debug("nodeID = {} for node = {}", context.getNodeIdentifier(), context);
     final boolean isPeer = bundle.getParameter(IS_PEER, false);
     context.setPeer(isPeer);
+    if (!context.isLocal()) {
+      final String localCodecs = driver.getConfiguration().get(JPPFProperties.PAYLOAD_CODECS);
+      final List<PayloadCodec> codecs = PayloadCodecs.negotiate(localCodecs, bundle.getParameter(PAYLOAD_CODECS));
+      if (debugEnabled && !codecs.isEmpty()) log.debug("negotiated payload codec {} with node {}", codecs.get(0), context);
+      context.setPayloadCodecs(PayloadCodecs.acceptedMask(localCodecs, codecs), codecs.isEmpty() ? null : codecs.get(0));
+    }
     if (systemInfo != null) {
       systemInfo.getJppf().setBoolean("jppf.peer.driver", isPeer);
       systemInfo.getJppf().set(JPPFProperties.NODE_IDLE, true);
@@ -195,9 +202,55 @@ public class AsyncNodeMessageHandler {
   public void resultsReceived(final AsyncNodeContext context, final AbstractTaskBundleMessage message)  throws Exception {
     if (debugEnabled) log.debug("node {} received {}", context, message);
     final NodeBundleResults received = context.deserializeBundle(message);
+    final TaskBundle bundle = received.bundle();
+    final int[] positions = bundle.getParameter(PARTIAL_RESULTS_POSITIONS, null);
+    if (positions != null) {
+      processPartialResults(received, positions, context);
+      return;
+    }
+    final int streamedCount = bundle.getParameter(STREAMED_TASK_COUNT, 0);
+    if (streamedCount > 0) {
+      final ServerTaskBundleNode nodeBundle = context.getJobEntry(bundle.getUuid(), bundle.getBundleId());
+      if ((nodeBundle != null) && nodeBundle.deferCompletion(streamedCount, () -> processDeferred(received, context))) {
+        if (debugEnabled) log.debug("deferring results of {} until {} streamed results are processed", nodeBundle, streamedCount);
+        return;
+      }
+    }
     process(received, context);
   }
 
+  /**
+   * Process the results of tasks streamed by a node before the whole node bundle has completed.
+   * @param received holds the received bundle along with the tasks.
+   * @param positions the positions of the received tasks.
+   * @param context the channel from which the bundle was read.
+   * @throws Exception if any error occurs.
+   */
+  private static void processPartialResults(final NodeBundleResults received, final int[] positions, final AsyncNodeContext context) throws Exception {
+    final TaskBundle bundle = received.bundle();
+    final ServerTaskBundleNode nodeBundle = context.getJobEntry(bundle.getUuid(), bundle.getBundleId());
+    if (nodeBundle == null) {
+      if (debugEnabled) log.debug("no dispatched bundle found for streamed results {} from node {}", bundle, context);
+      return;
+    }
+    if (debugEnabled) log.debug("received {} streamed results for {} from node {}", positions.length, nodeBundle, context);
+    nodeBundle.partialResultsReceived(positions, received.data());
+  }
+
+  /**
+   * Process the final results of a streamed bundle, once all its streamed results have been processed.
+   * @param received holds the received bundle along with the tasks.
+   * @param context the channel from which the bundle was read.
+   */
+  private void processDeferred(final NodeBundleResults received, final AsyncNodeContext context) {
+    try {
+      process(received, context);
+    } catch (final Exception e) {
+      log.error("error processing deferred results {} from node {}", received.bundle(), context, e);
+      context.handleException(e);
+    }
+  }
+
   /**
    * Resolve the host name for the specified channel.
    * @param context the channel from which to get the host information.
@@ -371,6 +424,7 @@ public class AsyncNodeMessageHandler {
     final JPPFSystemInformation systemInfo = newBundle.getParameter(SYSTEM_INFO_PARAM);
     if (systemInfo != null) {
       context.setNodeInfo(systemInfo, true);
+      context.getServer().getJobScheduler().nodeInformationUpdated(context);
       if (bundler instanceof ChannelAwareness) ((ChannelAwareness) bundler).setChannelConfiguration(systemInfo);
     }
     return newBundle.isRequeue();
@@ -402,14 +456,16 @@ public class AsyncNodeMessageHandler {
    */
   private Bundler<?> updateBundlerAndStats(final AsyncNodeContext context, final Bundler<?> currentBundler, final ServerTaskBundleNode nodeBundle, final TaskBundle newBundle) {
     final long elapsed = System.nanoTime() - nodeBundle.getJob().getExecutionStartTime();
+    // for streamed results, the header only counts the tasks that were not streamed
+    final int nbTasks = newBundle.getTaskCount() + newBundle.getParameter(STREAMED_TASK_COUNT, 0);
     final Bundler<?> bundler = (currentBundler == null) ? context.checkBundler(context.getServer().getBundlerFactory(), context.getServer().getJPPFContext()) : currentBundler;
     if (bundler instanceof BundlerEx) {
       final long accumulatedTime = newBundle.getParameter(NODE_BUNDLE_ELAPSED_PARAM, -1L);
-      BundlerHelper.updateBundler((BundlerEx<?>) bundler, newBundle.getTaskCount(), elapsed, accumulatedTime, elapsed - newBundle.getNodeExecutionTime());
-    } else BundlerHelper.updateBundler(bundler, newBundle.getTaskCount(), elapsed);
+      BundlerHelper.updateBundler((BundlerEx<?>) bundler, nbTasks, elapsed, accumulatedTime, elapsed - newBundle.getNodeExecutionTime());
+    } else BundlerHelper.updateBundler(bundler, nbTasks, elapsed);
     if (debugEnabled) log.debug("updated bundler for {}", context);
     context.getServer().getBundlerHandler().storeBundler(context.getNodeIdentifier(), bundler, context.getBundlerAlgorithm());
-    updateStats(newBundle.getTaskCount(), elapsed / 1_000_000L, newBundle.getNodeExecutionTime() / 1_000_000L);
+    updateStats(nbTasks, elapsed / 1_000_000L, newBundle.getNodeExecutionTime() / 1_000_000L);
     return bundler;
   }
 
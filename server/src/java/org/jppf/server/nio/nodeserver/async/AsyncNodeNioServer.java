@@ -46,6 +46,7 @@ import org.jppf.server.protocol.*;
 import org.jppf.server.queue.JPPFPriorityQueue;
 import org.jppf.ssl.SSLHelper;
 import org.jppf.utils.*;
+import org.jppf.utils.configuration.JPPFProperties;
 import org.jppf.utils.concurrent.ThreadUtils;
 import org.jppf.utils.stats.JPPFStatisticsHelper;
 import org.slf4j.*;
@@ -142,6 +143,7 @@ public final class AsyncNodeNioServer extends StatelessNioServer<AsyncNodeContex
     bundlerFactory = new JPPFBundlerFactory(driver.getConfiguration());
     bundlerHandler = new LoadBalancerPersistenceManager(bundlerFactory);
     this.selectTimeout = NioConstants.DEFAULT_SELECT_TIMEOUT;
+    initSelectorShards(driver.getConfiguration().get(JPPFProperties.NODE_SERVER_SELECTOR_SHARDS), driver.getConfiguration().get(JPPFProperties.SELECTOR_SHARD_ASSIGNMENT));
     jobScheduler = new AsyncJobScheduler(this, queue, driver.getStatistics(), bundlerFactory);
     this.queue.addQueueListener(new QueueListenerAdapter<ServerJob, ServerTaskBundleClient, ServerTaskBundleNode>() {
       @Override
@@ -443,6 +445,7 @@ public final class AsyncNodeNioServer extends StatelessNioServer<AsyncNodeContex
     if (debugEnabled) log.debug("removing connection {}", nodeContext);
     try {
       jobScheduler.removeIdleChannelAsync(nodeContext);
+      jobScheduler.channelRemovedAsync(nodeContext);
       updateConnectionStatus(nodeContext, nodeContext.getExecutionStatus(), ExecutorStatus.DISABLED);
     } catch(final Exception e) {
       if (debugEnabled) log.debug("error removing connection {} : {}", nodeContext, e);
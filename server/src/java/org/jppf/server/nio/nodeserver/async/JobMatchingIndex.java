@@ -0,0 +1,273 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jppf.server.nio.nodeserver.async;
+
+import java.util.*;
+import java.util.function.BiPredicate;
+
+import org.jppf.management.JPPFSystemInformation;
+import org.jppf.node.policy.*;
+import org.jppf.node.protocol.JobSLA;
+import org.jppf.server.nio.nodeserver.BaseNodeContext;
+import org.jppf.server.protocol.ServerJob;
+import org.slf4j.*;
+
+/**
+ * An incremental index of the idle nodes that match the execution policy of each job in the queue.
+ * <p>The result of evaluating a job's execution policy against a node is cached until either the node's system information
+ * or the job's SLA changes. For each job, the index also maintains a bucket of the idle nodes whose cached verdict is positive,
+ * so that the scheduler only has to look at eligible nodes instead of all idle nodes.
+ * <p>Policies whose outcome depends on the evaluation context, such as scripted, custom or {@link NodesMatching} policies,
+ * are never cached: for the jobs that have one, all idle nodes are candidates and the policy is evaluated every time.
+ * <p>This class is not thread-safe: all its methods must be invoked while holding the monitor on the scheduler's set of idle channels.
+ * @author Laurent Cohen
+ * @exclude
+ */
+public class JobMatchingIndex {
+  /**
+   * Logger for this class.
+   */
+  private static final Logger log = LoggerFactory.getLogger(JobMatchingIndex.class);
+  /**
+   * Determines whether DEBUG logging level is enabled.
+   */
+  private static final boolean debugEnabled = log.isDebugEnabled();
+  /**
+   * Mapping of job uuids to the corresponding index entries.
+   */
+  private final Map<String, JobEntry> entries = new HashMap<>();
+  /**
+   * Performs the actual evaluation of a job's execution policy against a node.
+   */
+  private final BiPredicate<BaseNodeContext, ServerJob> evaluator;
+
+  /**
+   * Initialize this index with the specified policy evaluator.
+   * @param evaluator performs the actual evaluation of a job's execution policy against a node.
+   */
+  public JobMatchingIndex(final BiPredicate<BaseNodeContext, ServerJob> evaluator) {
+    this.evaluator = evaluator;
+  }
+
+  /**
+   * Get the idle nodes that are candidates for the execution of the specified job.
+   * @param job the job for which to get the candidate nodes.
+   * @param idleChannels the current set of idle nodes.
+   * @return a list of nodes whose cached policy verdict for the job is positive, or all the idle nodes if the job's policy cannot be cached.
+   */
+  public List<BaseNodeContext> getCandidates(final ServerJob job, final Set<BaseNodeContext> idleChannels) {
+    final JobEntry entry = getEntry(job, idleChannels);
+    if (!entry.cacheable) return new ArrayList<>(idleChannels);
+    if (!entry.unchecked.isEmpty()) {
+      for (final BaseNodeContext channel: entry.unchecked) {
+        if (entry.accepts(channel)) entry.eligible.add(channel);
+      }
+      entry.unchecked.clear();
+    }
+    return new ArrayList<>(entry.eligible);
+  }
+
+  /**
+   * Determine whether the execution policy of the specified job accepts the specified node, using the cached verdict when it is still valid.
+   * @param channel the node to check.
+   * @param job the job whose policy to evaluate.
+   * @return {@code true} if the node is accepted, {@code false} otherwise.
+   */
+  public boolean checkPolicy(final BaseNodeContext channel, final ServerJob job) {
+    final JobEntry entry = entries.get(job.getUuid());
+    if ((entry == null) || !entry.isValidFor(job) || !entry.cacheable) return evaluator.test(channel, job);
+    final boolean accepted = entry.accepts(channel);
+    if (!accepted) entry.eligible.remove(channel);
+    return accepted;
+  }
+
+  /**
+   * Called when a node is added to the set of idle nodes.
+   * @param channel the node that became idle.
+   */
+  public void nodeIdle(final BaseNodeContext channel) {
+    for (final JobEntry entry: entries.values()) {
+      if (!entry.cacheable) continue;
+      final Verdict verdict = entry.verdicts.get(channel);
+      if ((verdict != null) && (verdict.info == channel.getSystemInformation())) {
+        if (verdict.accepted) entry.eligible.add(channel);
+      }
+      else entry.unchecked.add(channel);
+    }
+  }
+
+  /**
+   * Called when a node is removed from the set of idle nodes.
+   * @param channel the node that is no longer idle.
+   */
+  public void nodeBusy(final BaseNodeContext channel) {
+    for (final JobEntry entry: entries.values()) {
+      entry.eligible.remove(channel);
+      entry.unchecked.remove(channel);
+    }
+  }
+
+  /**
+   * Called when the system information of a node was updated, to invalidate all the cached verdicts for this node.
+   * An idle node is checked again by the next dispatch, whatever its previous verdict was, including when it was rejected.
+   * @param channel the node whose information was updated.
+   * @param idle whether the node is currently idle.
+   */
+  public void nodeUpdated(final BaseNodeContext channel, final boolean idle) {
+    if (debugEnabled) log.debug("invalidating cached policy verdicts for {}", channel);
+    for (final JobEntry entry: entries.values()) {
+      entry.verdicts.remove(channel);
+      entry.eligible.remove(channel);
+      if (idle && entry.cacheable) entry.unchecked.add(channel);
+    }
+  }
+
+  /**
+   * Called when a node is disconnected, to remove all references to it.
+   * @param channel the node that was disconnected.
+   */
+  public void nodeRemoved(final BaseNodeContext channel) {
+    for (final JobEntry entry: entries.values()) {
+      entry.verdicts.remove(channel);
+      entry.eligible.remove(channel);
+      entry.unchecked.remove(channel);
+    }
+  }
+
+  /**
+   * Remove the entries of the jobs that are no longer in the queue.
+   * @param jobs the jobs currently in the queue.
+   */
+  public void retainJobs(final Collection<ServerJob> jobs) {
+    if (entries.isEmpty()) return;
+    // the number of entries does not tell whether some are stale, since jobs may have been added and removed since the last call
+    final Set<String> uuids = new HashSet<>(jobs.size());
+    for (final ServerJob job: jobs) uuids.add(job.getUuid());
+    entries.keySet().retainAll(uuids);
+  }
+
+  /**
+   * Get the index entry for the specified job, creating or rebuilding it if needed.
+   * @param job the job for which to get an entry.
+   * @param idleChannels the current set of idle nodes.
+   * @return a {@link JobEntry} instance.
+   */
+  private JobEntry getEntry(final ServerJob job, final Set<BaseNodeContext> idleChannels) {
+    JobEntry entry = entries.get(job.getUuid());
+    if ((entry == null) || !entry.isValidFor(job)) {
+      if (debugEnabled) log.debug("{} index entry for {}", (entry == null) ? "creating" : "rebuilding", job);
+      entry = new JobEntry(job);
+      if (entry.cacheable) entry.unchecked.addAll(idleChannels);
+      entries.put(job.getUuid(), entry);
+    }
+    return entry;
+  }
+
+  /**
+   * The cached result of a policy evaluation against a node.
+   */
+  private static final class Verdict {
+    /**
+     * The node information the policy was evaluated against.
+     */
+    private final JPPFSystemInformation info;
+    /**
+     * The result of the evaluation.
+     */
+    private final boolean accepted;
+
+    /**
+     * @param info the node information the policy was evaluated against.
+     * @param accepted the result of the evaluation.
+     */
+    private Verdict(final JPPFSystemInformation info, final boolean accepted) {
+      this.info = info;
+      this.accepted = accepted;
+    }
+  }
+
+  /**
+   * The cached matching state for a single job.
+   */
+  private final class JobEntry {
+    /**
+     * The job this entry is for.
+     */
+    private final ServerJob job;
+    /**
+     * The job SLA at the time this entry was created.
+     */
+    private final JobSLA sla;
+    /**
+     * The execution policy at the time this entry was created.
+     */
+    private final ExecutionPolicy policy;
+    /**
+     * Whether policy verdicts can be cached for this job.
+     */
+    private final boolean cacheable;
+    /**
+     * Cached policy verdicts, keyed by node.
+     */
+    private final Map<BaseNodeContext, Verdict> verdicts = new HashMap<>();
+    /**
+     * The idle nodes that are accepted by the job's policy.
+     */
+    private final Set<BaseNodeContext> eligible = new LinkedHashSet<>();
+    /**
+     * The idle nodes whose verdict is not known yet.
+     */
+    private final Set<BaseNodeContext> unchecked = new LinkedHashSet<>();
+
+    /**
+     * @param job the job this entry is for.
+     */
+    private JobEntry(final ServerJob job) {
+      this.job = job;
+      this.sla = job.getSLA();
+      this.policy = sla.getExecutionPolicy();
+      this.cacheable = PolicyUtils.isContextIndependent(policy);
+    }
+
+    /**
+     * Determine whether this entry is still valid for the specified job.
+     * @param job the job to check.
+     * @return {@code true} if neither the job nor its SLA and execution policy have changed, {@code false} otherwise.
+     */
+    private boolean isValidFor(final ServerJob job) {
+      final JobSLA currentSla = job.getSLA();
+      return (this.job == job) && (sla == currentSla) && (policy == currentSla.getExecutionPolicy());
+    }
+
+    /**
+     * Get the cached verdict for the specified node, evaluating the policy if there is none or if the node information has changed.
+     * @param channel the node to check.
+     * @return {@code true} if the node is accepted, {@code false} otherwise.
+     */
+    private boolean accepts(final BaseNodeContext channel) {
+      final JPPFSystemInformation info = channel.getSystemInformation();
+      Verdict verdict = verdicts.get(channel);
+      if ((verdict == null) || (verdict.info != info)) {
+        verdict = new Verdict(info, evaluator.test(channel, job));
+        verdicts.put(channel, verdict);
+      }
+      return verdict.accepted;
+    }
+  }
+}
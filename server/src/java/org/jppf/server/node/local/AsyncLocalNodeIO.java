@@ -115,6 +115,7 @@ public class AsyncLocalNodeIO extends AbstractNodeIO<JPPFLocalNode> {
         final JPPFLocalContainer cont = (JPPFLocalContainer) node.getClassLoaderManager().getContainer(bundle.getUuidPath().getList(), clientAccess, (Object[]) null);
         if (!node.isOffline() && !bundle.getSLA().isRemoteClassLoadingEnabled()) cont.getClassLoader().setRemoteClassLoadingDisabled(true);
         node.getLifeCycleEventHandler().fireJobHeaderLoaded(bundle, cont.getClassLoader());
+        prefetchClasspath(bundle, cont.getClassLoader());
         cont.deserializeObjects(list, 1 + count, currentMessage, node.getSerializationExecutor());
       } else {
         // skip null data provider
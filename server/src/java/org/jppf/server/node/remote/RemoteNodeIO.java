@@ -95,6 +95,7 @@ public class RemoteNodeIO extends AbstractNodeIO<AbstractRemoteNode> {
         cont.setNodeConnection((RemoteNodeConnection) node.getNodeConnection());
         if (!node.isOffline() && !bundle.getSLA().isRemoteClassLoadingEnabled()) cont.getClassLoader().setRemoteClassLoadingDisabled(true);
         node.getLifeCycleEventHandler().fireJobHeaderLoaded(bundle, cont.getClassLoader());
+        prefetchClasspath(bundle, cont.getClassLoader());
         cont.deserializeObjects(list, 1 + count, node.getSerializationExecutor());
       }
       else  getSocketWrapper().receiveBytes(0); // skip null data provider
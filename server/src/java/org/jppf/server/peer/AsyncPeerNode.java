@@ -70,7 +70,7 @@ class AsyncPeerNode extends AbstractPeerConnectionHandler {
       socketClient.setChannel(null);
       socketChannel.configureBlocking(false);
       server.accept(null, socketChannel, null, secure, true);
-      final SelectionKey key = socketChannel.keyFor(server.getSelector());
+      final SelectionKey key = server.getSelectionKey(socketChannel);
       context = (AsyncClientContext) key.attachment();
       context.setPeer(true);
       context.setConnectionUuid(connectionUuid);
@@ -22,7 +22,7 @@ import java.util.*;
 import java.util.concurrent.Future;
 import java.util.concurrent.locks.Lock;
 
-import org.jppf.io.DataLocation;
+import org.jppf.io.*;
 import org.jppf.job.JobInformation;
 import org.jppf.management.JPPFManagementInfo;
 import org.jppf.node.protocol.*;
@@ -232,6 +232,47 @@ public class ServerJob extends AbstractServerJobBase {
     postResultsReceived(map, bundle, throwable);
   }
 
+  /**
+   * Called to notify that the results of some of the tasks in a node bundle were streamed by the node, before the whole bundle has completed.
+   * The tasks whose results are received are removed from the node bundle, so that the results of the remaining tasks can be processed
+   * by {@link #resultsReceived(ServerTaskBundleNode, List)} once the node has executed them.
+   * @param bundle the executing node bundle.
+   * @param positions the positions of the tasks whose results are received.
+   * @param results the task results, in the same order as the positions.
+   */
+  public void partialResultsReceived(final ServerTaskBundleNode bundle, final int[] positions, final List<DataLocation> results) {
+    if (debugEnabled) log.debug("received {} streamed results from {}", results.size(), bundle);
+    final CollectionMap<ServerTaskBundleClient, ServerTask> map = new SetIdentityMap<>();
+    lock.lock();
+    try {
+      if (isJobExpired() || isCancelled()) {
+        if (debugEnabled) log.debug("ignoring streamed results for expired or cancelled job {}", this);
+        return;
+      }
+      final Map<Integer, DataLocation> resultMap = new HashMap<>(positions.length);
+      for (int i=0; i<positions.length; i++) resultMap.put(positions[i], results.get(i));
+      final Iterator<ServerTask> it = bundle.getTaskList().iterator();
+      while (it.hasNext()) {
+        final ServerTask task = it.next();
+        final int pos = task.getPosition();
+        final DataLocation location = resultMap.get(pos);
+        if (location == null) continue;
+        it.remove();
+        if (taskGraph != null) {
+          dispatchedTasks.remove(pos);
+          taskGraph.nodeDone(pos);
+        }
+        task.setReturnedFromNode(true);
+        task.resultReceived(location);
+        map.putValue(task.getBundle(), task);
+      }
+    } finally {
+      lock.unlock();
+    }
+    notifyResults(map, bundle, null);
+    checkBundlesEnded(map);
+  }
+
   /**
    * 
    * @param map .
@@ -239,14 +280,47 @@ public class ServerJob extends AbstractServerJobBase {
    * @param throwable .
    */
   private void postResultsReceived(final CollectionMap<ServerTaskBundleClient, ServerTask> map, final ServerTaskBundleNode bundle, final Throwable throwable) {
+    notifyResults(map, bundle, throwable);
+    taskCompleted(bundle, throwable);
+    checkBundlesEnded(map);
+  }
+
+  /**
+   * Forward the received task results to the client bundles they belong to.
+   * @param map the received tasks, grouped by client bundle.
+   * @param bundle the node bundle the results were received for.
+   * @param throwable an eventual exception raised by the node, or {@code null}.
+   */
+  private void notifyResults(final CollectionMap<ServerTaskBundleClient, ServerTask> map, final ServerTaskBundleNode bundle, final Throwable throwable) {
     if (debugEnabled) log.debug("client bundle map has {} keys: {}", map.keySet().size(), map.keySet());
+    final boolean releasable = (throwable == null) && isResultReleasable();
     map.forEach((clientBundle, tasks) -> {
+      if (releasable) {
+        for (final ServerTask task: tasks) task.setResultReleasable(true);
+      }
       if (throwable == null) clientBundle.resultReceived(tasks);
       else clientBundle.resultReceived(tasks, throwable);
       ((JPPFJobManager) notificationEmitter).jobResultsReceived(bundle.getChannel(), this, tasks);
       if (debugEnabled) log.debug("received results for {}", clientBundle);
     });
-    taskCompleted(bundle, throwable);
+  }
+
+  /**
+   * Determine whether the buffers of the task results can be released as soon as they are sent to the client.
+   * This is not the case when the results may be referenced after that, that is, when the job is persisted,
+   * when it has a task graph or when job tasks listeners are registered with the server.
+   * @return {@code true} if the results can be released after they are sent, {@code false} otherwise.
+   */
+  public boolean isResultReleasable() {
+    if ((IO.BUFFER_POOL == null) || (taskGraph != null) || isPersistent()) return false;
+    return (notificationEmitter instanceof JPPFJobManager) && !((JPPFJobManager) notificationEmitter).hasJobTasksListeners();
+  }
+
+  /**
+   * Notify the client bundles which have no more pending tasks that they have ended.
+   * @param map the received tasks, grouped by client bundle.
+   */
+  private void checkBundlesEnded(final CollectionMap<ServerTaskBundleClient, ServerTask> map) {
     if (getJob().getParameter(BundleParameter.FROM_PERSISTENCE, false) || submissionStatus.get() == SubmissionStatus.COMPLETE) {
       map.forEach((clientBundle, tasks) -> {
         if (debugEnabled) log.debug("checking bundleEnded() for {}", clientBundle);
@@ -58,6 +58,10 @@ public class ServerTask implements Serializable, PositionalElement<ServerTask> {
    * The serialized execution result.
    */
   private transient DataLocation result;
+  /**
+   * Whether the buffers of the result can be released once the result has been sent to the client.
+   */
+  private transient boolean resultReleasable;
   /**
    * The exception thrown during execution.
    */
@@ -154,6 +158,28 @@ public class ServerTask implements Serializable, PositionalElement<ServerTask> {
     this.result = result;
   }
 
+  /**
+   * Specify whether the buffers of the result can be released once the result has been sent to the client.
+   * @param releasable {@code true} if the result is not referenced anywhere else than in this task, {@code false} otherwise.
+   */
+  public void setResultReleasable(final boolean releasable) {
+    this.resultReleasable = releasable;
+  }
+
+  /**
+   * Release the buffers of the result after it was sent to the client, if it was marked as releasable.
+   * The result is then no longer available from this task.
+   */
+  public void releaseResult() {
+    if (!resultReleasable) return;
+    resultReleasable = false;
+    final DataLocation location = result;
+    if ((location != null) && (location != initialTask) && IOHelper.releaseDataLocation(location)) {
+      if (traceEnabled) log.trace("released result buffers of {}", this);
+      result = null;
+    }
+  }
+
   /**
    * Get the eventual throwable raised during the processing of this task in the driver.
    * @return a {@code Throwable} instance, or null if no exception was raised.
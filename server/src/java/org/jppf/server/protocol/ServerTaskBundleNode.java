@@ -112,6 +112,18 @@ public class ServerTaskBundleNode {
    * Info on the dependenencies of the tasks in this bundle.
    */
   private TaskGraphInfo graphInfo;
+  /**
+   * The number of tasks whose results were streamed by the node and processed so far.
+   */
+  private int streamedTaskCount;
+  /**
+   * The number of streamed tasks to wait for before processing the results of the remaining tasks.
+   */
+  private int expectedStreamedTaskCount;
+  /**
+   * Processing of the remaining results, deferred until all the streamed results have been processed.
+   */
+  private Runnable deferredCompletion;
 
   /**
    * Initialize this task bundle and set its build number.
@@ -210,6 +222,42 @@ public class ServerTaskBundleNode {
     this.channel = null;
   }
 
+  /**
+   * Called to notify that the results of some of the tasks in this bundle were streamed by the node.
+   * @param positions the positions of the tasks whose results are received.
+   * @param results the task results, in the same order as the positions.
+   */
+  public void partialResultsReceived(final int[] positions, final List<DataLocation> results) {
+    job.partialResultsReceived(this, positions, results);
+    Runnable completion = null;
+    synchronized(this) {
+      streamedTaskCount += positions.length;
+      if ((deferredCompletion != null) && (streamedTaskCount >= expectedStreamedTaskCount)) {
+        completion = deferredCompletion;
+        deferredCompletion = null;
+      }
+    }
+    if (completion != null) {
+      if (debugEnabled) log.debug("all streamed results received, processing deferred results for {}", this);
+      completion.run();
+    }
+  }
+
+  /**
+   * Defer the processing of the final results of this bundle until the specified number of streamed task results have been processed.
+   * Since the messages from a node are not necessarily processed in the order they were received, the final results may be handled
+   * before some of the partial results that preceded them.
+   * @param expectedCount the number of tasks whose results were streamed by the node.
+   * @param completion the processing of the final results.
+   * @return {@code true} if the processing was deferred, {@code false} if all the streamed results were already processed.
+   */
+  public synchronized boolean deferCompletion(final int expectedCount, final Runnable completion) {
+    if (streamedTaskCount >= expectedCount) return false;
+    expectedStreamedTaskCount = expectedCount;
+    deferredCompletion = completion;
+    return true;
+  }
+
   /**
    * Called to notify that throwable eventually raised while receiving the results.
    * @param throwable the throwable that was raised while receiving the results.
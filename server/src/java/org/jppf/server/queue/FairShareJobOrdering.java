@@ -0,0 +1,256 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jppf.server.queue;
+
+import java.util.*;
+
+import org.jppf.node.protocol.TaskBundle;
+import org.jppf.server.protocol.*;
+import org.jppf.utils.TypedProperties;
+import org.jppf.utils.configuration.JPPFProperties;
+import org.slf4j.*;
+
+/**
+ * A job queue ordering which shares the nodes between groups of jobs, in proportion of the weights of the groups.
+ * <p>The jobs are grouped into shares according to the parameters of this ordering:
+ * <pre class="jppf_pre">
+ * pkg = org.jppf.server.queue
+ * <span style="color: green"># one share per client, which is the default</span>
+ * jppf.job.queue.ordering = ${pkg}.FairShareJobOrdering client
+ * <span style="color: green"># one share per value of the 'team' job metadata</span>
+ * jppf.job.queue.ordering = ${pkg}.FairShareJobOrdering metadata team</pre>
+ * <p>The jobs whose share cannot be determined, for instance because they do not have the specified metadata, belong to the {@link #DEFAULT_SHARE default} share.
+ * <p>The node time consumed by each share is the sum of the durations of all the dispatches of its jobs, from the time the tasks are sent to a node until they return.
+ * This sum decays exponentially with a half-life specified in millis with {@code jppf.job.queue.fair.share.half.life}, which defaults to 5 minutes, such that the
+ * node time consumed in the distant past is progressively forgotten. The node time of the dispatches still in progress is estimated from the average duration
+ * of the latest dispatches of the share.
+ * <p>The jobs with the same priority are considered in ascending order of the node time consumed by their share, divided by the weight of the share.
+ * The weight of a share is specified with {@code jppf.job.queue.fair.share.weight.<share> = <weight>} and defaults to 1. For example,
+ * with the following configuration, the jobs of the 'analytics' team receive three times as much node time as those of any other team:
+ * <pre class="jppf_pre">
+ * jppf.job.queue.ordering = org.jppf.server.queue.FairShareJobOrdering metadata team
+ * jppf.job.queue.fair.share.weight.analytics = 3</pre>
+ * <p>The priority of the jobs still takes precedence: a job is always considered before the jobs with a lower priority, whatever their shares.
+ * @author Laurent Cohen
+ * @since 6.2
+ */
+public class FairShareJobOrdering implements JobQueueOrdering {
+  /**
+   * Logger for this class.
+   */
+  private static Logger log = LoggerFactory.getLogger(FairShareJobOrdering.class);
+  /**
+   * Determines whether the debug level is enabled in the log configuration, without the cost of a method call.
+   */
+  private static boolean debugEnabled = log.isDebugEnabled();
+  /**
+   * The name of the share for the jobs whose share cannot be determined.
+   */
+  public static final String DEFAULT_SHARE = "default";
+  /**
+   * Estimated duration in millis of a dispatch for a share which has no completed dispatch yet.
+   */
+  private static final double DEFAULT_DISPATCH_TIME = 1000d;
+  /**
+   * Weight of the latest dispatch duration in the moving average of the dispatch durations.
+   */
+  private static final double ALPHA = 0.25d;
+  /**
+   * The name of the job metadata which determines the share of a job, or {@code null} to use the client uuid.
+   */
+  private final String metadataKey;
+  /**
+   * The shares, mapped to their name.
+   */
+  private final Map<String, Share> shares = new HashMap<>();
+  /**
+   * The driver configuration.
+   */
+  private TypedProperties config = new TypedProperties();
+  /**
+   * Half-life in nanos of the consumed node time.
+   */
+  private double halfLife = JPPFProperties.JOB_QUEUE_FAIR_SHARE_HALF_LIFE.getDefaultValue() * 1_000_000d;
+
+  /**
+   * Initialize this ordering with the specified parameters.
+   * @param params either nothing or "client" to have one share per client, or "metadata" followed by the name of the metadata which determines the share of a job.
+   */
+  public FairShareJobOrdering(final String...params) {
+    if ((params == null) || (params.length < 1) || "client".equalsIgnoreCase(params[0])) metadataKey = null;
+    else if ("metadata".equalsIgnoreCase(params[0]) && (params.length >= 2)) metadataKey = params[1];
+    else throw new IllegalArgumentException("invalid parameters " + Arrays.asList(params) + ", expected [client | metadata <name>]");
+  }
+
+  @Override
+  public synchronized void initialize(final TypedProperties config) {
+    this.config = config;
+    halfLife = config.get(JPPFProperties.JOB_QUEUE_FAIR_SHARE_HALF_LIFE) * 1_000_000d;
+  }
+
+  @Override
+  public synchronized void order(final List<ServerJob> jobs) {
+    final long now = System.nanoTime();
+    final Map<String, Double> usages = new HashMap<>();
+    final int size = jobs.size();
+    int start = 0;
+    while (start < size) {
+      final int priority = jobs.get(start).getSLA().getPriority();
+      int end = start + 1;
+      while ((end < size) && (jobs.get(end).getSLA().getPriority() == priority)) end++;
+      // the sort is stable, so the jobs of the same share keep their relative order
+      if (end - start > 1) jobs.subList(start, end).sort(Comparator.comparingDouble(job -> usages.computeIfAbsent(getShareName(job), name -> getNormalizedUsage(name, now))));
+      start = end;
+    }
+    final Iterator<Share> it = shares.values().iterator();
+    while (it.hasNext()) {
+      final Share share = it.next();
+      share.decay(now, halfLife);
+      if ((share.running <= 0) && (share.usage < 1d)) it.remove();
+    }
+  }
+
+  @Override
+  public synchronized void jobDispatched(final AbstractServerJob job, final ServerTaskBundleNode nodeBundle) {
+    getShare(getShareName(job)).running++;
+  }
+
+  @Override
+  public synchronized void jobReturned(final AbstractServerJob job, final ServerTaskBundleNode nodeBundle, final long elapsed) {
+    final Share share = getShare(getShareName(job));
+    share.decay(System.nanoTime(), halfLife);
+    share.usage += elapsed;
+    if (share.running > 0) share.running--;
+    share.dispatchTime = share.observed ? ALPHA * elapsed + (1d - ALPHA) * share.dispatchTime : elapsed;
+    share.observed = true;
+  }
+
+  /**
+   * Get the node time consumed by each share.
+   * @return a map of share names to the consumed node time in millis, after decay.
+   */
+  public synchronized Map<String, Double> getConsumedNodeTime() {
+    final long now = System.nanoTime();
+    final Map<String, Double> result = new HashMap<>();
+    for (final Map.Entry<String, Share> entry: shares.entrySet()) {
+      entry.getValue().decay(now, halfLife);
+      result.put(entry.getKey(), entry.getValue().usage);
+    }
+    return result;
+  }
+
+  /**
+   * Get the name of the share of the specified job.
+   * @param job the job for which to get the share.
+   * @return the name of the share.
+   */
+  public String getShareName(final AbstractServerJob job) {
+    final TaskBundle header = job.getJob();
+    if (metadataKey == null) {
+      final String uuid = header.getUuidPath().getFirst();
+      return (uuid == null) ? DEFAULT_SHARE : uuid;
+    }
+    final Object value = header.getMetadata().getParameter(metadataKey);
+    return (value == null) ? DEFAULT_SHARE : value.toString();
+  }
+
+  /**
+   * Get the consumed node time of a share, including the estimated node time of its dispatches in progress, divided by its weight.
+   * This method must be called while holding the monitor on this object.
+   * @param name the name of the share.
+   * @param now the current time in nanos.
+   * @return the consumed node time per unit of weight.
+   */
+  private double getNormalizedUsage(final String name, final long now) {
+    final Share share = shares.get(name);
+    if (share == null) return 0d;
+    share.decay(now, halfLife);
+    final double usage = (share.usage + share.running * share.dispatchTime) / share.weight;
+    if (debugEnabled) log.debug("share '{}': usage = {} ms, running = {}, dispatch time = {} ms, weight = {}", name, share.usage, share.running, share.dispatchTime, share.weight);
+    return usage;
+  }
+
+  /**
+   * Get the share with the specified name, creating it if needed. This method must be called while holding the monitor on this object.
+   * @param name the name of the share.
+   * @return a {@link Share} instance.
+   */
+  private Share getShare(final String name) {
+    Share share = shares.get(name);
+    if (share == null) {
+      double weight = config.get(JPPFProperties.JOB_QUEUE_FAIR_SHARE_WEIGHT, name);
+      if (weight <= 0d) {
+        log.warn("invalid weight {} for share '{}', using 1 instead", weight, name);
+        weight = 1d;
+      }
+      shares.put(name, share = new Share(weight));
+    }
+    return share;
+  }
+
+  /**
+   * The accounting of the node time consumed by a share.
+   */
+  private static final class Share {
+    /**
+     * The weight of the share.
+     */
+    private final double weight;
+    /**
+     * The consumed node time in millis, decayed up to {@link #lastUpdate}.
+     */
+    private double usage;
+    /**
+     * The time in nanos at which the consumed node time was last decayed.
+     */
+    private long lastUpdate = System.nanoTime();
+    /**
+     * The number of dispatches in progress.
+     */
+    private int running;
+    /**
+     * Moving average of the durations in millis of the dispatches.
+     */
+    private double dispatchTime = DEFAULT_DISPATCH_TIME;
+    /**
+     * Whether at least one dispatch has completed.
+     */
+    private boolean observed;
+
+    /**
+     * Initialize with the specified weight.
+     * @param weight the weight of the share.
+     */
+    private Share(final double weight) {
+      this.weight = weight;
+    }
+
+    /**
+     * Apply the exponential decay to the consumed node time.
+     * @param now the current time in nanos.
+     * @param halfLife the half-life of the consumed node time in nanos.
+     */
+    private void decay(final long now, final double halfLife) {
+      final long elapsed = now - lastUpdate;
+      if (elapsed <= 0L) return;
+      usage *= Math.pow(0.5d, elapsed / halfLife);
+      lastUpdate = now;
+    }
+  }
+}
@@ -35,6 +35,7 @@ import org.jppf.server.protocol.*;
 import org.jppf.server.submission.SubmissionStatus;
 import org.jppf.utils.*;
 import org.jppf.utils.collections.LinkedListSortedMap;
+import org.jppf.utils.configuration.JPPFProperties;
 import org.jppf.utils.stats.JPPFStatisticsHelper;
 import org.slf4j.*;
 
@@ -84,6 +85,10 @@ public class JPPFPriorityQueue extends AbstractJPPFQueue<ServerJob, ServerTaskBu
    * The job dependency graph handler.
    */
   private final JobDependenciesHandler dependenciesHandler;
+  /**
+   * Determines the order in which the jobs are considered for dispatching, in addition to their priority. May be {@code null}.
+   */
+  private final JobQueueOrdering jobOrdering;
 
   /**
    * Initialize this queue.
@@ -96,6 +101,23 @@ public class JPPFPriorityQueue extends AbstractJPPFQueue<ServerJob, ServerTaskBu
     broadcastManager = new BroadcastManager(this);
     persistenceHandler = new PersistenceHandler(this);
     dependenciesHandler = new JobDependenciesHandler(this);
+    jobOrdering = createJobOrdering(driver.getConfiguration());
+  }
+
+  /**
+   * Create the job queue ordering specified in the configuration, if any.
+   * @param config the driver configuration.
+   * @return a {@link JobQueueOrdering} instance, or {@code null} if none is specified or it could not be created.
+   */
+  private static JobQueueOrdering createJobOrdering(final TypedProperties config) {
+    final String[] params = config.get(JPPFProperties.JOB_QUEUE_ORDERING);
+    if ((params == null) || (params.length <= 0)) return null;
+    final JobQueueOrdering ordering = ReflectionHelper.invokeDefaultOrStringArrayConstructor(JobQueueOrdering.class, JPPFProperties.JOB_QUEUE_ORDERING.getName(), params);
+    if (ordering != null) {
+      ordering.initialize(config);
+      log.info("using job queue ordering {}", ordering.getClass().getName());
+    }
+    return ordering;
   }
 
   @Override
@@ -435,6 +457,31 @@ public class JPPFPriorityQueue extends AbstractJPPFQueue<ServerJob, ServerTaskBu
     }
   }
 
+  /**
+   * Get all the jobs in the queue, in the order in which they should be considered for dispatching to the nodes.
+   * This is the same as {@link #getAllJobsFromPriorityMap()}, reordered by the configured {@link JobQueueOrdering}, if any.
+   * @return a list of server-side jobs. The returned list is completely independant from this queue
+   * and can be modified without affecting this queue.
+   */
+  public List<ServerJob> getAllJobsInDispatchOrder() {
+    lock.lock();
+    try {
+      final List<ServerJob> jobs = priorityMap.allValues();
+      if (jobOrdering != null) jobOrdering.order(jobs);
+      return jobs;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Get the order in which the jobs are considered for dispatching, in addition to their priority.
+   * @return a {@link JobQueueOrdering} instance, or {@code null} if none is configured.
+   */
+  public JobQueueOrdering getJobOrdering() {
+    return jobOrdering;
+  }
+
   @Override
   public void addJobListener(final JobManagerListener listener) {
     if (listener == null) throw new IllegalArgumentException("listener is null");
@@ -0,0 +1,69 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jppf.server.queue;
+
+import java.util.List;
+
+import org.jppf.server.protocol.*;
+import org.jppf.utils.TypedProperties;
+
+/**
+ * Determines the order in which the jobs in the driver queue are considered for dispatching to the nodes.
+ * <p>An implementation is specified in the driver configuration with:
+ * <pre class="jppf_pre">
+ * jppf.job.queue.ordering = &lt;implementation_class_name&gt; &lt;param1&gt; ... &lt;paramN&gt;</pre>
+ * <p>The implementation class must have either a no-args constructor or a constructor that takes a {@code String...} or {@code String[]} argument,
+ * which receives the parameters specified after the class name. When no implementation is specified, the jobs are considered in descending order
+ * of their {@linkplain org.jppf.node.protocol.JobSLA#getPriority() priority}, and the jobs with the same priority are considered in turn.
+ * <p>The methods of this interface may be called concurrently from multiple threads.
+ * @author Laurent Cohen
+ * @since 6.2
+ */
+public interface JobQueueOrdering {
+  /**
+   * Initialize this ordering with the driver configuration. This method is called once, before any other method of this interface.
+   * This default implementation does nothing.
+   * @param config the driver configuration.
+   */
+  default void initialize(final TypedProperties config) {
+  }
+
+  /**
+   * Reorder the specified list of jobs, in place.
+   * @param jobs the queued jobs, in descending order of priority, and in the order in which they should be considered otherwise.
+   */
+  void order(List<ServerJob> jobs);
+
+  /**
+   * Called when tasks of a job are dispatched to a node. This default implementation does nothing.
+   * @param job the job whose tasks are dispatched.
+   * @param nodeBundle the dispatched tasks.
+   */
+  default void jobDispatched(final AbstractServerJob job, final ServerTaskBundleNode nodeBundle) {
+  }
+
+  /**
+   * Called when tasks of a job return from a node, whether they were executed or not. This default implementation does nothing.
+   * @param job the job whose tasks returned.
+   * @param nodeBundle the returned tasks.
+   * @param elapsed the time in millis elapsed since the tasks were dispatched.
+   */
+  default void jobReturned(final AbstractServerJob job, final ServerTaskBundleNode nodeBundle, final long elapsed) {
+  }
+}
@@ -0,0 +1,263 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package test.org.jppf.classloader;
+
+import static org.junit.Assert.*;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jppf.classloader.*;
+import org.jppf.utils.streams.StreamUtils;
+import org.junit.Test;
+
+import test.org.jppf.test.setup.BaseTest;
+
+/**
+ * Unit tests for the concurrent loading of classes and resources by the node class loaders.
+ * @author Laurent Cohen
+ */
+public class TestParallelClassLoading extends BaseTest {
+  /**
+   * Test that concurrent requests for the same resource result in a single remote request, including when an identical
+   * request is already being sent to the server.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 10000)
+  public void testRequestCoalescing() throws Exception {
+    final int nbThreads = 16;
+    final BlockingRequestRunner runner = new BlockingRequestRunner();
+    final ClassLoaderRequestHandler handler = new ClassLoaderRequestHandler(runner);
+    final ExecutorService executor = Executors.newFixedThreadPool(nbThreads);
+    try {
+      final CyclicBarrier barrier = new CyclicBarrier(nbThreads);
+      final List<Future<Future<JPPFResourceWrapper>>> results = new ArrayList<>();
+      for (int i=0; i<nbThreads; i++) results.add(executor.submit(() -> {
+        barrier.await();
+        return handler.addRequest(request("my/Resource.txt"));
+      }));
+      final Future<JPPFResourceWrapper> future = results.get(0).get();
+      for (final Future<Future<JPPFResourceWrapper>> result: results) assertSame(future, result.get());
+      // an identical request made while the batch is being sent waits for the same response
+      assertTrue(runner.started.await(5L, TimeUnit.SECONDS));
+      assertSame(future, handler.addRequest(request("my/Resource.txt")));
+      runner.gate.countDown();
+      assertEquals("my/Resource.txt", new String(future.get().getDefinition(), "UTF-8"));
+      assertEquals(1, runner.requests.size());
+      assertEquals(1, runner.requests.get(0).size());
+      // once the response is received, a new request is sent for the same resource
+      final Future<JPPFResourceWrapper> future2 = handler.addRequest(request("my/Resource.txt"));
+      assertNotSame(future, future2);
+      assertNotNull(future2.get());
+      assertEquals(2, runner.requests.size());
+    } finally {
+      executor.shutdownNow();
+      handler.close();
+    }
+  }
+
+  /**
+   * Test that loading the same classes from many threads in parallel, including classes whose super class is loaded remotely as well,
+   * neither deadlocks nor defines a class more than once.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 10000)
+  public void testParallelLoading() throws Exception {
+    final int nbThreads = 16;
+    final String[] names = { Base1.class.getName(), Derived1.class.getName(), Base2.class.getName(), Derived2.class.getName(), Derived3.class.getName() };
+    final DefinitionsConnection connection = new DefinitionsConnection();
+    final JPPFClassLoader loader = new JPPFClassLoader(connection, null, Collections.singletonList("client_uuid"));
+    final ExecutorService executor = Executors.newFixedThreadPool(nbThreads);
+    try {
+      final CyclicBarrier barrier = new CyclicBarrier(nbThreads);
+      final List<Future<Map<String, Class<?>>>> results = new ArrayList<>();
+      for (int i=0; i<nbThreads; i++) {
+        final List<String> list = new ArrayList<>(Arrays.asList(names));
+        // half the threads load the derived classes before their super classes
+        if (i % 2 == 0) Collections.reverse(list);
+        results.add(executor.submit(() -> {
+          barrier.await();
+          final Map<String, Class<?>> map = new HashMap<>();
+          for (final String name: list) map.put(name, Class.forName(name, true, loader));
+          return map;
+        }));
+      }
+      final Map<String, Class<?>> first = results.get(0).get();
+      for (final String name: names) {
+        final Class<?> c = first.get(name);
+        assertSame(loader, c.getClassLoader());
+        assertNotSame(Class.forName(name), c);
+        for (final Future<Map<String, Class<?>>> result: results) assertSame(c, result.get().get(name));
+        assertEquals(name, 1, connection.count(name));
+      }
+      assertSame(first.get(Base1.class.getName()), first.get(Derived1.class.getName()).getSuperclass());
+    } finally {
+      executor.shutdownNow();
+      loader.close();
+    }
+  }
+
+  /**
+   * Create a resource request for the specified name.
+   * @param name the name of the resource.
+   * @return a {@link JPPFResourceWrapper} instance.
+   */
+  private static JPPFResourceWrapper request(final String name) {
+    final JPPFResourceWrapper resource = new JPPFResourceWrapper();
+    resource.setState(JPPFResourceWrapper.State.NODE_REQUEST);
+    resource.setData(ResourceIdentifier.NAME, name);
+    return resource;
+  }
+
+  /**
+   * A request runner which blocks on the first request until its gate is opened, and whose responses hold the name of each resource as content.
+   */
+  private static class BlockingRequestRunner implements ResourceRequestRunner {
+    /**
+     * Counted down when the first request is being sent.
+     */
+    private final CountDownLatch started = new CountDownLatch(1);
+    /**
+     * Counted down to let the first request proceed.
+     */
+    private final CountDownLatch gate = new CountDownLatch(1);
+    /**
+     * The names of the resources in each sent request.
+     */
+    private final List<List<String>> requests = new CopyOnWriteArrayList<>();
+    /**
+     * The request to send.
+     */
+    private JPPFResourceWrapper request;
+    /**
+     * The response to the request.
+     */
+    private JPPFResourceWrapper response;
+
+    @Override
+    public void run() {
+      started.countDown();
+      try {
+        gate.await();
+      } catch (@SuppressWarnings("unused") final InterruptedException e) {
+        return;
+      }
+      final List<String> list = new ArrayList<>();
+      final CompositeResourceWrapper composite = new CompositeResourceWrapper();
+      for (final JPPFResourceWrapper resource: request.getResources()) {
+        list.add(resource.getName());
+        resource.setDefinition(resource.getName().getBytes());
+        composite.addOrReplaceResource(resource);
+      }
+      requests.add(list);
+      response = composite;
+    }
+
+    @Override
+    public Throwable getThrowable() {
+      return null;
+    }
+
+    @Override
+    public void reset() {
+      request = null;
+      response = null;
+    }
+
+    @Override
+    public void setRequest(final JPPFResourceWrapper request) {
+      this.request = request;
+    }
+
+    @Override
+    public JPPFResourceWrapper getResponse() {
+      return response;
+    }
+  }
+
+  /**
+   * A class loader connection which provides the definitions of the classes visible to this test, and counts the requests for each class.
+   */
+  private static class DefinitionsConnection implements ClassLoaderConnection<Object> {
+    /**
+     * The number of requests for each resource.
+     */
+    private final Map<String, AtomicInteger> counts = new ConcurrentHashMap<>();
+
+    @Override
+    public JPPFResourceWrapper loadResource(final Map<ResourceIdentifier, Object> map, final boolean dynamic, final String requestUuid, final List<String> uuidPath) throws Exception {
+      final String name = (String) map.get(ResourceIdentifier.NAME);
+      counts.computeIfAbsent(name, k -> new AtomicInteger(0)).incrementAndGet();
+      // widen the window during which other threads may request the same class
+      Thread.sleep(10L);
+      final JPPFResourceWrapper resource = new JPPFResourceWrapper();
+      resource.setState(JPPFResourceWrapper.State.NODE_RESPONSE);
+      resource.setDefinition(StreamUtils.getInputStreamAsByte(getClass().getClassLoader().getResourceAsStream(name)));
+      return resource;
+    }
+
+    /**
+     * Get the number of requests for the specified class.
+     * @param className the binary name of the class.
+     * @return the number of requests.
+     */
+    private int count(final String className) {
+      final AtomicInteger count = counts.get(className.replace('.', '/') + ".class");
+      return (count == null) ? 0 : count.get();
+    }
+
+    @Override
+    public void init() throws Exception {
+    }
+
+    @Override
+    public void reset() throws Exception {
+    }
+
+    @Override
+    public void close() throws Exception {
+    }
+
+    @Override
+    public Object getChannel() {
+      return null;
+    }
+  }
+
+  /** A class loaded remotely. */
+  public static class Base1 {
+  }
+
+  /** A class loaded remotely, whose super class is loaded remotely as well. */
+  public static class Derived1 extends Base1 {
+  }
+
+  /** A class loaded remotely. */
+  public static class Base2 {
+  }
+
+  /** A class loaded remotely, whose super class is loaded remotely as well. */
+  public static class Derived2 extends Base2 {
+  }
+
+  /** A class loaded remotely, whose super class is loaded remotely as well. */
+  public static class Derived3 extends Base2 {
+  }
+}
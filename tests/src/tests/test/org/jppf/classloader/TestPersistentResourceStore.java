@@ -0,0 +1,135 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package test.org.jppf.classloader;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.nio.file.*;
+import java.nio.file.attribute.FileTime;
+
+import org.jppf.classloader.JPPFResourceWrapper;
+import org.jppf.classloader.resource.PersistentResourceStore;
+import org.jppf.utils.*;
+import org.junit.Test;
+
+import test.org.jppf.test.setup.BaseTest;
+
+/**
+ * Unit tests for {@link PersistentResourceStore}.
+ * @author Laurent Cohen
+ */
+public class TestPersistentResourceStore extends BaseTest {
+  /**
+   * Test that the stored contents are visible to other store instances sharing the same directory, as after a restart or from a slave node.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 10000)
+  public void testSharedStore() throws Exception {
+    final Path dir = Files.createTempDirectory("resource_store");
+    try {
+      final PersistentResourceStore store1 = new PersistentResourceStore(dir, 1024L * 1024L);
+      final PersistentResourceStore store2 = new PersistentResourceStore(dir, 1024L * 1024L);
+      final byte[] content = createContent(1000, 1);
+      final String hash = CryptoUtils.computeHash(content, JPPFResourceWrapper.CONTENT_HASH_ALGORITHM);
+      assertNull(store2.getHash("my/Task.class"));
+      store1.store("my/Task.class", null, content);
+      store1.close();
+      assertEquals(hash, store2.getHash("my/Task.class"));
+      assertArrayEquals(content, store2.read(hash));
+      final PersistentResourceStore store3 = new PersistentResourceStore(dir, 1024L * 1024L);
+      assertEquals(hash, store3.getHash("my/Task.class"));
+      assertEquals(content.length, store3.getTotalSize());
+      store2.close();
+      store3.close();
+    } finally {
+      FileUtils.deletePath(dir.toFile());
+    }
+  }
+
+  /**
+   * Test that a content which does not match its hash is discarded.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 10000)
+  public void testCorruptedContent() throws Exception {
+    final Path dir = Files.createTempDirectory("resource_store");
+    try {
+      PersistentResourceStore store = new PersistentResourceStore(dir, 1024L * 1024L);
+      final byte[] content = createContent(1000, 1);
+      store.store("my/Task.class", null, content);
+      store.close();
+      store = new PersistentResourceStore(dir, 1024L * 1024L);
+      final String hash = store.getHash("my/Task.class");
+      assertNotNull(hash);
+      final File file = new File(new File(dir.toFile(), "content"), hash);
+      Files.write(file.toPath(), createContent(1000, 2));
+      assertNull(store.read(hash));
+      assertFalse(file.exists());
+      assertNull(store.getHash("my/Task.class"));
+      store.close();
+    } finally {
+      FileUtils.deletePath(dir.toFile());
+    }
+  }
+
+  /**
+   * Test that the least recently used contents are evicted when the total size exceeds the maximum.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 10000)
+  public void testEviction() throws Exception {
+    final Path dir = Files.createTempDirectory("resource_store");
+    try {
+      final long start = System.currentTimeMillis() - 100_000L;
+      for (int i=0; i<10; i++) {
+        final PersistentResourceStore tmp = new PersistentResourceStore(dir, 10_000L);
+        tmp.store("res" + i, null, createContent(1000, i));
+        tmp.close();
+        final String hash = tmp.getHash("res" + i);
+        Files.setLastModifiedTime(dir.resolve("content").resolve(hash), FileTime.fromMillis(start + i * 1000L));
+      }
+      final PersistentResourceStore store = new PersistentResourceStore(dir, 10_000L);
+      assertEquals(10_000L, store.getTotalSize());
+      // make res0 the most recently used
+      assertNotNull(store.read(store.getHash("res0")));
+      store.store("res10", null, createContent(1000, 10));
+      store.close();
+      assertTrue(store.getTotalSize() <= 9_000L);
+      assertNotNull(store.getHash("res0"));
+      assertNotNull(store.getHash("res10"));
+      assertNull(store.getHash("res1"));
+      assertNull(store.getHash("res2"));
+    } finally {
+      FileUtils.deletePath(dir.toFile());
+    }
+  }
+
+  /**
+   * Create a content.
+   * @param size the size of the content.
+   * @param seed a value which makes the content unique.
+   * @return the content as an array of bytes.
+   */
+  private static byte[] createContent(final int size, final int seed) {
+    final byte[] content = new byte[size];
+    for (int i=0; i<size; i++) content[i] = (byte) (i * 31 + seed);
+    return content;
+  }
+}
@@ -0,0 +1,204 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package test.org.jppf.classloader;
+
+import static org.junit.Assert.*;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jppf.classloader.*;
+import org.jppf.utils.JPPFConfiguration;
+import org.jppf.utils.configuration.JPPFProperties;
+import org.jppf.utils.streams.StreamUtils;
+import org.junit.Test;
+
+import test.org.jppf.test.setup.BaseTest;
+
+/**
+ * Unit tests for the class definitions prefetched by the node class loaders.
+ * @author Laurent Cohen
+ */
+public class TestPrefetchedDefinitions extends BaseTest {
+  /**
+   * Test that the prefetched definitions are used instead of a remote request, and that they are released once the class is defined
+   * or when the unused definitions are released.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 10000)
+  public void testUsedAndReleased() throws Exception {
+    final DefinitionsConnection connection = new DefinitionsConnection();
+    final JPPFClassLoader loader = new JPPFClassLoader(connection, null, Collections.singletonList("client_uuid"));
+    try {
+      assertEquals(3, loader.prefetch(resourceName(Item1.class), resourceName(Item2.class), resourceName(Item3.class)));
+      assertEquals(1, connection.requests.get());
+      final Class<?> c1 = Class.forName(Item1.class.getName(), false, loader), c2 = Class.forName(Item2.class.getName(), false, loader);
+      assertSame(loader, c1.getClassLoader());
+      assertSame(loader, c2.getClassLoader());
+      assertEquals(1, connection.requests.get());
+      // the definitions of the defined classes are no longer held
+      assertEquals(1, loader.releasePrefetchedDefinitions());
+      assertEquals(0, loader.releasePrefetchedDefinitions());
+      assertSame(loader, Class.forName(Item3.class.getName(), false, loader).getClassLoader());
+      assertEquals(2, connection.requests.get());
+      assertEquals(1, connection.count(Item3.class));
+      // classes already defined are not prefetched again
+      assertEquals(0, loader.prefetch(resourceName(Item1.class), resourceName(Item3.class)));
+      assertEquals(2, connection.requests.get());
+    } finally {
+      loader.close();
+    }
+  }
+
+  /**
+   * Test that the unused prefetched definitions are held until the class loader is closed.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 10000)
+  public void testReleasedOnClose() throws Exception {
+    final DefinitionsConnection connection = new DefinitionsConnection();
+    final JPPFClassLoader loader = new JPPFClassLoader(connection, null, Collections.singletonList("client_uuid"));
+    try {
+      assertEquals(2, loader.prefetch(resourceName(Item1.class), resourceName(Item2.class)));
+      Class.forName(Item1.class.getName(), false, loader);
+    } finally {
+      loader.close();
+    }
+    assertEquals(0, loader.releasePrefetchedDefinitions());
+  }
+
+  /**
+   * Test that the number of prefetched definitions held by a class loader is bounded, the oldest ones being evicted first.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 10000)
+  public void testMaxSize() throws Exception {
+    JPPFConfiguration.set(JPPFProperties.CLASSLOADER_PREFETCH_MAX_SIZE, 2);
+    final DefinitionsConnection connection = new DefinitionsConnection();
+    final JPPFClassLoader loader;
+    try {
+      loader = new JPPFClassLoader(connection, null, Collections.singletonList("client_uuid"));
+    } finally {
+      JPPFConfiguration.remove(JPPFProperties.CLASSLOADER_PREFETCH_MAX_SIZE);
+    }
+    try {
+      assertEquals(3, loader.prefetch(resourceName(Item1.class), resourceName(Item2.class), resourceName(Item3.class)));
+      Class.forName(Item3.class.getName(), false, loader);
+      Class.forName(Item2.class.getName(), false, loader);
+      assertEquals(1, connection.requests.get());
+      Class.forName(Item1.class.getName(), false, loader);
+      assertEquals(2, connection.requests.get());
+      assertEquals(1, connection.count(Item1.class));
+      assertEquals(0, loader.releasePrefetchedDefinitions());
+    } finally {
+      loader.close();
+    }
+  }
+
+  /**
+   * Get the resource name of the specified class.
+   * @param c the class for which to get the resource name.
+   * @return the resource name, such as {@code "a/b/C.class"}.
+   */
+  private static String resourceName(final Class<?> c) {
+    return c.getName().replace('.', '/') + ".class";
+  }
+
+  /**
+   * A class loader connection which provides the definitions of the classes visible to this test, and counts the remote requests.
+   */
+  private static class DefinitionsConnection implements ClassLoaderConnection<Object> {
+    /**
+     * The total number of requests.
+     */
+    private final AtomicInteger requests = new AtomicInteger(0);
+    /**
+     * The number of single resource requests for each resource.
+     */
+    private final Map<String, AtomicInteger> counts = new ConcurrentHashMap<>();
+
+    @Override
+    public JPPFResourceWrapper loadResource(final Map<ResourceIdentifier, Object> map, final boolean dynamic, final String requestUuid, final List<String> uuidPath) throws Exception {
+      requests.incrementAndGet();
+      final JPPFResourceWrapper resource = new JPPFResourceWrapper();
+      resource.setState(JPPFResourceWrapper.State.NODE_RESPONSE);
+      final String[] names = (String[]) map.get(ResourceIdentifier.MULTIPLE_NAMES);
+      if (names != null) {
+        final Map<String, List<byte[]>> dataMap = new HashMap<>();
+        for (final String name: names) dataMap.put(name, Collections.singletonList(load(name)));
+        resource.setData(ResourceIdentifier.RESOURCE_MAP, dataMap);
+      } else {
+        final String name = (String) map.get(ResourceIdentifier.NAME);
+        counts.computeIfAbsent(name, k -> new AtomicInteger(0)).incrementAndGet();
+        resource.setDefinition(load(name));
+      }
+      return resource;
+    }
+
+    /**
+     * Read the content of the specified resource.
+     * @param name the name of the resource.
+     * @return the content of the resource.
+     * @throws Exception if any error occurs.
+     */
+    private byte[] load(final String name) throws Exception {
+      return StreamUtils.getInputStreamAsByte(getClass().getClassLoader().getResourceAsStream(name));
+    }
+
+    /**
+     * Get the number of single resource requests for the specified class.
+     * @param c the class to lookup.
+     * @return the number of requests.
+     */
+    private int count(final Class<?> c) {
+      final AtomicInteger count = counts.get(resourceName(c));
+      return (count == null) ? 0 : count.get();
+    }
+
+    @Override
+    public void init() throws Exception {
+    }
+
+    @Override
+    public void reset() throws Exception {
+    }
+
+    @Override
+    public void close() throws Exception {
+    }
+
+    @Override
+    public Object getChannel() {
+      return null;
+    }
+  }
+
+  /** A class loaded remotely. */
+  public static class Item1 {
+  }
+
+  /** A class loaded remotely. */
+  public static class Item2 {
+  }
+
+  /** A class loaded remotely. */
+  public static class Item3 {
+  }
+}
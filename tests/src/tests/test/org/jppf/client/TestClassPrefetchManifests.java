@@ -0,0 +1,68 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package test.org.jppf.client;
+
+import static org.junit.Assert.*;
+
+import org.jppf.client.ClassPrefetchManifests;
+import org.jppf.utils.TypedProperties;
+import org.jppf.utils.configuration.JPPFProperties;
+import org.junit.Test;
+
+import test.org.jppf.test.setup.BaseTest;
+
+/**
+ * Unit tests for {@link ClassPrefetchManifests}.
+ * @author Laurent Cohen
+ */
+public class TestClassPrefetchManifests extends BaseTest {
+  /**
+   * Test that the resources loaded for a job are sent with the next job of the same kind, but not with jobs of another kind.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 10000)
+  public void testManifestRecordedPerKind() throws Exception {
+    final ClassPrefetchManifests manifests = new ClassPrefetchManifests(new TypedProperties());
+    assertNull(manifests.jobDispatched("job1", "my.Task"));
+    manifests.resourceLoaded("job1", "my/Task.class");
+    manifests.resourceLoaded("job1", "my/Helper.class");
+    manifests.resourceLoaded("job1", "my/Task.class");
+    manifests.resourceLoaded("unknownJob", "other/Resource.txt");
+    manifests.jobEnded("job1");
+    manifests.resourceLoaded("job1", "my/Late.class");
+    assertArrayEquals(new String[] { "my/Task.class", "my/Helper.class" }, manifests.jobDispatched("job2", "my.Task"));
+    assertNull(manifests.jobDispatched("job3", "other.Task"));
+  }
+
+  /**
+   * Test that the size of a manifest is bounded and that nothing is recorded when the prefetch is disabled.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 10000)
+  public void testMaxSizeAndDisabled() throws Exception {
+    ClassPrefetchManifests manifests = new ClassPrefetchManifests(new TypedProperties().set(JPPFProperties.CLASSLOADER_PREFETCH_MAX_SIZE, 3));
+    manifests.jobDispatched("job1", "my.Task");
+    for (int i=0; i<10; i++) manifests.resourceLoaded("job1", "my/Class" + i + ".class");
+    assertEquals(3, manifests.jobDispatched("job2", "my.Task").length);
+    manifests = new ClassPrefetchManifests(new TypedProperties().set(JPPFProperties.CLASSLOADER_PREFETCH_ENABLED, false));
+    manifests.jobDispatched("job1", "my.Task");
+    manifests.resourceLoaded("job1", "my/Task.class");
+    assertNull(manifests.jobDispatched("job2", "my.Task"));
+  }
+}
@@ -0,0 +1,124 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package test.org.jppf.client;
+
+import static org.junit.Assert.*;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.jppf.client.*;
+import org.jppf.node.protocol.*;
+import org.junit.Test;
+
+import test.org.jppf.test.setup.BaseTest;
+
+/**
+ * Unit tests for {@link JobResults}.
+ * @author Laurent Cohen
+ */
+public class TestJobResults extends BaseTest {
+  /**
+   * Test that polled results are returned only once and that released results are still accounted for.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 10000)
+  public void testPollAndRelease() throws Exception {
+    final JobResults results = new JobResults();
+    results.addResults(createTasks(0, 5));
+    assertNotNull(results.pollResult());
+    final Task<?> released = results.pollResult(true);
+    assertNotNull(released);
+    results.addResults(createTasks(5, 10));
+    int count = 2;
+    while (results.pollResult(true) != null) count++;
+    assertEquals(10, count);
+    assertEquals(10, results.size());
+    assertTrue(results.hasResult(released.getPosition()));
+    assertNull(results.getResultTask(released.getPosition()));
+    // only the first result, polled without release, is still held
+    assertEquals(1, results.getResultsList().size());
+    results.clear();
+    assertEquals(0, results.size());
+    assertFalse(results.hasResult(released.getPosition()));
+  }
+
+  /**
+   * Test that concurrent consumers of the results of a job each receive distinct results, and receive all of them.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 10000)
+  public void testConcurrentConsumers() throws Exception {
+    final int nbTasks = 10_000, nbConsumers = 4, batchSize = 100;
+    final JPPFJob job = new JPPFJob();
+    for (int i=0; i<nbTasks; i++) job.add(new MyTask());
+    final List<Task<?>> tasks = new ArrayList<>(job.getJobTasks());
+    Collections.shuffle(tasks, new Random(1L));
+    final ExecutorService executor = Executors.newFixedThreadPool(nbConsumers);
+    try {
+      final List<Future<List<Integer>>> futures = new ArrayList<>();
+      for (int i=0; i<nbConsumers; i++) futures.add(executor.submit(() -> {
+        final List<Integer> positions = new ArrayList<>();
+        final Iterator<Task<?>> it = job.resultsIterator(true);
+        while (it.hasNext()) positions.add(it.next().getPosition());
+        return positions;
+      }));
+      for (int i=0; i<nbTasks; i+=batchSize) job.getResults().addResults(tasks.subList(i, i + batchSize));
+      final Set<Integer> all = new HashSet<>();
+      for (final Future<List<Integer>> future: futures) {
+        for (final int pos: future.get()) assertTrue("duplicate position " + pos, all.add(pos));
+      }
+      assertEquals(nbTasks, all.size());
+      assertTrue(job.getAllResults().isEmpty());
+      assertEquals(nbTasks, job.executedTaskCount());
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  /**
+   * Create the specified tasks.
+   * @param from the position of the first task.
+   * @param to the position after the last task.
+   * @return a list of tasks.
+   */
+  private static List<Task<?>> createTasks(final int from, final int to) {
+    final List<Task<?>> tasks = new ArrayList<>();
+    for (int i=from; i<to; i++) {
+      final Task<?> task = new MyTask();
+      task.setPosition(i);
+      tasks.add(task);
+    }
+    return tasks;
+  }
+
+  /**
+   * A simple task.
+   */
+  public static class MyTask extends AbstractTask<String> {
+    /**
+     * Explicit serialVersionUID.
+     */
+    private static final long serialVersionUID = 1L;
+
+    @Override
+    public void run() {
+    }
+  }
+}
@@ -0,0 +1,164 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package test.org.jppf.client.concurrent;
+
+import static org.junit.Assert.*;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jppf.client.JPPFJob;
+import org.jppf.client.concurrent.AdaptiveBatchingPolicy;
+import org.junit.Test;
+
+import test.org.jppf.test.setup.BaseTest;
+
+/**
+ * Unit tests for {@link AdaptiveBatchingPolicy}.
+ * @author Laurent Cohen
+ */
+public class TestAdaptiveBatchingPolicy extends BaseTest {
+  /**
+   * Test that without any observed load, each task is sent immediately.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 10000)
+  public void testNoLoad() throws Exception {
+    final AdaptiveBatchingPolicy policy = new AdaptiveBatchingPolicy(() -> 2, Runnable::run);
+    policy.update(System.nanoTime(), 0, 0L);
+    assertEquals(1, policy.getTargetSize());
+    assertEquals(AdaptiveBatchingPolicy.MIN_DELAY, policy.getMaxDelay());
+    assertEquals(2, policy.getIdleNodes());
+  }
+
+  /**
+   * Test that the batches are larger and less frequent when the grid has no idle node.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 10000)
+  public void testIdleAndBusyGrid() throws Exception {
+    final AdaptiveBatchingPolicy idle = new AdaptiveBatchingPolicy(() -> 4, Runnable::run);
+    final AdaptiveBatchingPolicy busy = new AdaptiveBatchingPolicy(() -> 0, Runnable::run);
+    // round-trip time of at least 200 ms and submission rate of 10 tasks/ms
+    simulateLoad(200L, 4000, 0, 0L, idle, busy);
+    assertEquals(4, idle.getIdleNodes());
+    assertEquals(0, busy.getIdleNodes());
+    // the delay is 10% of the rtt when nodes are idle and 50% when the grid is busy
+    assertTrue(idle.getMaxDelay() >= 20_000_000L);
+    assertTrue(busy.getMaxDelay() >= 100_000_000L);
+    assertTrue(busy.getMaxDelay() > idle.getMaxDelay());
+    assertTrue(idle.getTargetSize() >= 200);
+    assertTrue(busy.getTargetSize() >= 1000);
+    assertTrue(busy.getTargetSize() > idle.getTargetSize());
+  }
+
+  /**
+   * Test that the batch size and timeout are used as upper bounds.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 10000)
+  public void testUpperBounds() throws Exception {
+    final AdaptiveBatchingPolicy policy = new AdaptiveBatchingPolicy(() -> 0, Runnable::run);
+    simulateLoad(200L, 4000, 50, 5L, policy);
+    assertEquals(50, policy.getTargetSize());
+    assertEquals(5_000_000L, policy.getMaxDelay());
+  }
+
+  /**
+   * Test that the grid capacity is sampled at most once per sampling interval, and that a failed sampling results in an unknown capacity.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 10000)
+  public void testCapacitySamplingInterval() throws Exception {
+    final AtomicInteger calls = new AtomicInteger(0);
+    final AdaptiveBatchingPolicy policy = new AdaptiveBatchingPolicy(() -> {
+      if (calls.incrementAndGet() > 2) throw new IllegalStateException("simulated sampling failure");
+      return 3;
+    }, Runnable::run);
+    final long start = System.nanoTime();
+    policy.update(start, 0, 0L);
+    policy.update(start + AdaptiveBatchingPolicy.CAPACITY_SAMPLING_INTERVAL / 2L, 0, 0L);
+    assertEquals(1, calls.get());
+    assertEquals(3, policy.getIdleNodes());
+    policy.update(start + AdaptiveBatchingPolicy.CAPACITY_SAMPLING_INTERVAL, 0, 0L);
+    assertEquals(2, calls.get());
+    policy.update(start + 2L * AdaptiveBatchingPolicy.CAPACITY_SAMPLING_INTERVAL, 0, 0L);
+    assertEquals(3, calls.get());
+    assertEquals(-1, policy.getIdleNodes());
+  }
+
+  /**
+   * Test that a slow sampling of the grid capacity does not block the updates, and that only one sampling is performed at a time.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 10000)
+  public void testCapacitySamplingDoesNotBlock() throws Exception {
+    final CountDownLatch release = new CountDownLatch(1);
+    final AtomicInteger calls = new AtomicInteger(0);
+    final ExecutorService sampler = Executors.newSingleThreadExecutor();
+    try {
+      final AdaptiveBatchingPolicy policy = new AdaptiveBatchingPolicy(() -> {
+        calls.incrementAndGet();
+        try {
+          release.await();
+        } catch (final InterruptedException e) {
+          throw new IllegalStateException(e);
+        }
+        return 5;
+      }, sampler);
+      final long start = System.nanoTime();
+      policy.update(start, 0, 0L);
+      assertEquals(-1, policy.getIdleNodes());
+      // the first sampling is still in progress
+      policy.update(start + 2L * AdaptiveBatchingPolicy.CAPACITY_SAMPLING_INTERVAL, 0, 0L);
+      assertEquals(-1, policy.getIdleNodes());
+      release.countDown();
+      sampler.shutdown();
+      assertTrue(sampler.awaitTermination(5L, TimeUnit.SECONDS));
+      assertEquals(1, calls.get());
+      assertEquals(5, policy.getIdleNodes());
+    } finally {
+      sampler.shutdownNow();
+    }
+  }
+
+  /**
+   * Simulate jobs with the specified round-trip time and a number of tasks submitted within 100 ms.
+   * @param rtt the jobs round-trip time in millis.
+   * @param nbTasks the number of tasks submitted within 100 ms.
+   * @param batchSize the batch size upper bound.
+   * @param batchTimeout the batch timeout upper bound.
+   * @param policies the policies to update.
+   * @throws Exception if any error occurs.
+   */
+  private static void simulateLoad(final long rtt, final int nbTasks, final int batchSize, final long batchTimeout, final AdaptiveBatchingPolicy...policies) throws Exception {
+    final JPPFJob job = new JPPFJob();
+    for (final AdaptiveBatchingPolicy policy: policies) policy.jobSubmitted(job);
+    Thread.sleep(rtt);
+    final long now = System.nanoTime();
+    for (final AdaptiveBatchingPolicy policy: policies) {
+      policy.jobEnded(job);
+      // a job which was not submitted is ignored
+      policy.jobEnded(new JPPFJob());
+      policy.update(now, batchSize, batchTimeout);
+      policy.tasksSubmitted(nbTasks);
+      policy.update(now + 100_000_000L, batchSize, batchTimeout);
+    }
+  }
+}
@@ -25,6 +25,7 @@ import java.util.*;
 import java.util.concurrent.*;
 
 import org.jppf.client.concurrent.JPPFExecutorService;
+import org.jppf.node.protocol.Task;
 import org.junit.*;
 
 import test.org.jppf.test.setup.Setup1D1N1C;
@@ -211,6 +212,27 @@ public class TestJPPFExecutorService extends Setup1D1N1C {
     assertTrue(executor.isTerminated());
   }
 
+  /**
+   * Test that <code>JPPFExecutorService.shutdownNow()</code> returns the tasks held by the batching mode instead of sending them to the grid.
+   * @throws Exception if any error occurs
+   */
+  @Test(timeout = 5000)
+  public void testShutdownNowReturnsPendingTasks() throws Exception {
+    executor.setBatchSize(100).setBatchTimeout(0L);
+    final SimpleRunnable runnable1 = new SimpleRunnable(), runnable2 = new SimpleRunnable();
+    executor.submit(runnable1);
+    executor.submit(new SimpleCallable());
+    executor.submit(runnable2);
+    final List<Runnable> notRun = executor.shutdownNow();
+    assertTrue(executor.isShutdown());
+    assertTrue(executor.isTerminated());
+    assertNotNull(notRun);
+    assertEquals(3, notRun.size());
+    assertSame(runnable1, notRun.get(0));
+    assertTrue(notRun.get(1) instanceof Task);
+    assertSame(runnable2, notRun.get(2));
+  }
+
   /**
    * Test invocation of <code>JPPFExecutorService.awaitTermination(long, TimeUnit)</code>.
    * In this test, the termination occurs before the timeout expires.
@@ -239,4 +261,39 @@ public class TestJPPFExecutorService extends Setup1D1N1C {
     assertTrue(executor.isShutdown());
     assertFalse(executor.isTerminated());
   }
+
+  /**
+   * Test that all tasks submitted concurrently in adaptive batching mode are executed, with a bounded batch size.
+   * @throws Exception if any error occurs
+   */
+  @Test(timeout = 10000)
+  public void testAdaptiveBatching() throws Exception {
+    final int nbThreads = 4, nbTasks = 250;
+    executor.setAdaptiveBatching(true).setBatchSize(50).setBatchTimeout(100L);
+    assertTrue(executor.isAdaptiveBatching());
+    final ExecutorService submitters = Executors.newFixedThreadPool(nbThreads);
+    try {
+      final List<Future<List<Future<TaskResult>>>> submitted = new ArrayList<>();
+      for (int i=0; i<nbThreads; i++) {
+        final int offset = i * nbTasks;
+        submitted.add(submitters.submit(() -> {
+          final List<Future<TaskResult>> futures = new ArrayList<>();
+          for (int j=0; j<nbTasks; j++) futures.add(executor.submit(new SimpleCallable(offset + j)));
+          return futures;
+        }));
+      }
+      int count = 0;
+      for (final Future<List<Future<TaskResult>>> f: submitted) {
+        for (final Future<TaskResult> future: f.get()) {
+          final TaskResult result = future.get();
+          assertNotNull(result);
+          assertEquals(BaseTestHelper.EXECUTION_SUCCESSFUL_MESSAGE, result.message);
+          count++;
+        }
+      }
+      assertEquals(nbThreads * nbTasks, count);
+    } finally {
+      submitters.shutdownNow();
+    }
+  }
 }
@@ -0,0 +1,124 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package test.org.jppf.execute;
+
+import static org.junit.Assert.*;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jppf.execute.ThreadManagerVirtualThreads;
+import org.junit.Test;
+
+import test.org.jppf.test.setup.BaseTest;
+
+/**
+ * Unit tests for {@link ThreadManagerVirtualThreads}. When the JVM does not support virtual threads, they test the fallback to platform threads.
+ * @author Laurent Cohen
+ */
+public class TestThreadManagerVirtualThreads extends BaseTest {
+  /**
+   * Test that the tasks run on virtual threads when the JVM supports them, and that the CPU time measurement is then disabled.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 10000)
+  public void testThreadType() throws Exception {
+    final ThreadManagerVirtualThreads manager = new ThreadManagerVirtualThreads(2);
+    try {
+      final boolean supported = isVirtualThreadSupported();
+      assertEquals(supported, manager.isVirtual());
+      final Thread thread = manager.getExecutorService().submit(Thread::currentThread).get();
+      if (supported) {
+        assertFalse(manager.isCpuTimeEnabled());
+        assertEquals(Boolean.TRUE, Thread.class.getMethod("isVirtual").invoke(thread));
+      }
+    } finally {
+      manager.getExecutorService().shutdownNow();
+    }
+  }
+
+  /**
+   * Test that the number of tasks executing concurrently does not exceed the pool size.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 10000)
+  public void testBoundedConcurrency() throws Exception {
+    final int poolSize = 3, nbTasks = 20;
+    final ThreadManagerVirtualThreads manager = new ThreadManagerVirtualThreads(poolSize);
+    final AtomicInteger running = new AtomicInteger(), maxRunning = new AtomicInteger();
+    try {
+      final List<Future<?>> futures = new ArrayList<>();
+      for (int i=0; i<nbTasks; i++) futures.add(manager.getExecutorService().submit(() -> {
+        final int n = running.incrementAndGet();
+        maxRunning.accumulateAndGet(n, Math::max);
+        try {
+          Thread.sleep(20L);
+        } catch (@SuppressWarnings("unused") final InterruptedException e) {
+        } finally {
+          running.decrementAndGet();
+        }
+      }));
+      for (final Future<?> future: futures) future.get();
+      assertEquals(poolSize, maxRunning.get());
+    } finally {
+      manager.getExecutorService().shutdownNow();
+    }
+  }
+
+  /**
+   * Test that a blocked task is interrupted when it is cancelled.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 10000)
+  public void testCancellation() throws Exception {
+    final ThreadManagerVirtualThreads manager = new ThreadManagerVirtualThreads(1);
+    final CountDownLatch started = new CountDownLatch(1), interrupted = new CountDownLatch(1);
+    try {
+      final Future<?> future = manager.getExecutorService().submit(() -> {
+        started.countDown();
+        try {
+          Thread.sleep(60_000L);
+        } catch (@SuppressWarnings("unused") final InterruptedException e) {
+          interrupted.countDown();
+        }
+      });
+      assertTrue(started.await(5L, TimeUnit.SECONDS));
+      assertTrue(future.cancel(true));
+      assertTrue(interrupted.await(5L, TimeUnit.SECONDS));
+      // the pool is still usable after the cancellation
+      assertEquals("ok", manager.getExecutorService().submit(() -> "ok").get());
+    } finally {
+      manager.getExecutorService().shutdownNow();
+    }
+  }
+
+  /**
+   * Determine whether the JVM supports virtual threads.
+   * @return {@code true} if virtual threads are supported, {@code false} otherwise.
+   */
+  private static boolean isVirtualThreadSupported() {
+    try {
+      Thread.class.getMethod("ofVirtual").invoke(null);
+      return true;
+    } catch (@SuppressWarnings("unused") final Exception e) {
+      return false;
+    }
+  }
+}
@@ -0,0 +1,128 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package test.org.jppf.io;
+
+import static org.junit.Assert.*;
+
+import java.io.*;
+
+import org.jppf.io.*;
+import org.junit.Test;
+
+import test.org.jppf.test.setup.BaseTest;
+
+/**
+ * Unit tests for {@link BufferPool}.
+ * @author Laurent Cohen
+ */
+public class TestBufferPool extends BaseTest {
+  /**
+   * Test that a released buffer is reused for a request in the same size class, and that the data size is preserved.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 5000)
+  public void testReuse() throws Exception {
+    final BufferPool pool = new BufferPool(1024L * 1024L, 64 * 1024);
+    final MultipleBuffersLocation loc1 = pool.createLocation(3000);
+    assertTrue(loc1 instanceof PooledBuffersLocation);
+    assertEquals(3000, loc1.getSize());
+    assertEquals(4096, loc1.getBuffer(0).buffer.length);
+    assertEquals(1L, pool.getMisses());
+    final byte[] buffer = loc1.getBuffer(0).buffer;
+    assertTrue(IOHelper.releaseDataLocation(loc1));
+    assertEquals(4096L, pool.getPooledBytes());
+    final MultipleBuffersLocation loc2 = pool.createLocation(2100);
+    assertSame(buffer, loc2.getBuffer(0).buffer);
+    assertEquals(2100, loc2.getSize());
+    assertEquals(1L, pool.getHits());
+    assertEquals(0L, pool.getPooledBytes());
+  }
+
+  /**
+   * Test that a buffer is returned to the pool only when its last reference is released.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 5000)
+  public void testReferenceCounting() throws Exception {
+    final BufferPool pool = new BufferPool(1024L * 1024L, 64 * 1024);
+    final PooledBuffersLocation loc = (PooledBuffersLocation) pool.createLocation(10_000);
+    loc.retain();
+    assertEquals(2, loc.getRefCount());
+    assertFalse(loc.release());
+    assertEquals(0L, pool.getRecycled());
+    assertTrue(loc.release());
+    assertEquals(1L, pool.getRecycled());
+    try {
+      loc.retain();
+      fail("retaining a released location should fail");
+    } catch (@SuppressWarnings("unused") final IllegalStateException e) {
+    }
+  }
+
+  /**
+   * Test that sizes outside of the pooled range are not pooled and that the pool does not grow beyond its maximum size.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 5000)
+  public void testBounds() throws Exception {
+    final BufferPool pool = new BufferPool(8 * 1024L, 8 * 1024);
+    final MultipleBuffersLocation large = pool.createLocation(10_000);
+    assertFalse(large instanceof PooledBuffersLocation);
+    assertFalse(IOHelper.releaseDataLocation(large));
+    final MultipleBuffersLocation loc1 = pool.createLocation(8 * 1024), loc2 = pool.createLocation(5000);
+    assertTrue(IOHelper.releaseDataLocation(loc1));
+    assertTrue(IOHelper.releaseDataLocation(loc2));
+    assertEquals(1L, pool.getRecycled());
+    assertEquals(1L, pool.getDiscarded());
+    assertEquals(8 * 1024L, pool.getPooledBytes());
+    assertEquals(10_000L + 2 * 8 * 1024L, pool.getAllocatedBytes());
+  }
+
+  /**
+   * Test that the allocation size of a pooled location is the size of its buffer, and that of an unpooled location is the data size.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 5000)
+  public void testAllocationSize() throws Exception {
+    final BufferPool pool = new BufferPool(1024L * 1024L, 8 * 1024);
+    assertEquals(1024, pool.allocationSize(10));
+    assertEquals(4096, pool.allocationSize(3000));
+    assertEquals(8192, pool.allocationSize(8192));
+    assertEquals(10_000, pool.allocationSize(10_000));
+    assertEquals(pool.allocationSize(5000), pool.createLocation(5000).getBuffer(0).buffer.length);
+    // a location which is not requested as pooled never comes from the pool
+    assertFalse(IOHelper.createDataLocationMemorySensitive(3000) instanceof PooledBuffersLocation);
+  }
+
+  /**
+   * Test that data written to and read from a pooled location is limited to the data size, even when the buffer is larger.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 5000)
+  public void testTransfer() throws Exception {
+    final BufferPool pool = new BufferPool(1024L * 1024L, 64 * 1024);
+    final byte[] data = new byte[1500];
+    for (int i=0; i<data.length; i++) data[i] = (byte) i;
+    final MultipleBuffersLocation loc = pool.createLocation(data.length);
+    loc.transferFrom(new StreamInputSource(new ByteArrayInputStream(data)), true);
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    loc.transferTo(new StreamOutputDestination(out), true);
+    assertArrayEquals(data, out.toByteArray());
+  }
+}
@@ -0,0 +1,83 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package test.org.jppf.io;
+
+import static org.junit.Assert.*;
+
+import java.io.*;
+import java.util.*;
+
+import org.jppf.io.*;
+import org.junit.Test;
+
+import test.org.jppf.test.setup.BaseTest;
+
+/**
+ * Unit tests for {@link MappedOverflowArena}.
+ * @author Laurent Cohen
+ */
+public class TestMappedOverflowArena extends BaseTest {
+  /**
+   * Test that data written to a mapped location can be read back, both from a copy and as a stream.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 10000)
+  public void testReadWrite() throws Exception {
+    final MappedOverflowArena arena = new MappedOverflowArena(1024 * 1024, 1);
+    final byte[] data = new byte[300_000];
+    new Random(1L).nextBytes(data);
+    final MappedDataLocation location = arena.allocate(data.length);
+    assertNotNull(location);
+    assertEquals(data.length, location.getSize());
+    location.transferFrom(new StreamInputSource(new ByteArrayInputStream(data)), true);
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    location.copy().transferTo(new StreamOutputDestination(out), true);
+    assertArrayEquals(data, out.toByteArray());
+    final byte[] read = new byte[data.length];
+    try (DataInputStream in = new DataInputStream(location.getInputStream())) {
+      in.readFully(read);
+    }
+    assertArrayEquals(data, read);
+  }
+
+  /**
+   * Test that the arena does not grow beyond its maximum number of segments, and that the space of unreferenced locations is reused.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 10000)
+  public void testSpaceReuse() throws Exception {
+    final int segmentSize = 1024 * 1024;
+    final MappedOverflowArena arena = new MappedOverflowArena(segmentSize, 2);
+    assertNull(arena.allocate(segmentSize + 1));
+    List<MappedDataLocation> locations = new ArrayList<>();
+    MappedDataLocation location;
+    while ((location = arena.allocate(300_000)) != null) locations.add(location);
+    assertEquals(2, arena.getSegmentCount());
+    assertEquals(6, locations.size());
+    location = null;
+    locations = null;
+    for (int i=0; (i<50) && (arena.getFreeSpace() < 2L * segmentSize); i++) {
+      System.gc();
+      System.runFinalization();
+      Thread.sleep(50L);
+    }
+    assertEquals(2L * segmentSize, arena.getFreeSpace());
+    assertNotNull(arena.allocate(segmentSize));
+  }
+}
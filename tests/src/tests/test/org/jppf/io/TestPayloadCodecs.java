@@ -0,0 +1,142 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package test.org.jppf.io;
+
+import static org.junit.Assert.*;
+
+import java.io.*;
+import java.util.*;
+
+import org.jppf.io.*;
+import org.jppf.job.ServerTaskInformation;
+import org.jppf.serialization.SerializationUtils;
+import org.jppf.utils.streams.StreamUtils;
+import org.junit.Test;
+
+import test.org.jppf.test.setup.BaseTest;
+
+/**
+ * Unit tests for {@link PayloadCodecs}.
+ * @author Laurent Cohen
+ */
+public class TestPayloadCodecs extends BaseTest {
+  /**
+   * Test that compressed data is transparently decompressed when deserialized.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 10000)
+  public void testRoundTrip() throws Exception {
+    final double[] array = new double[50_000];
+    for (int i=0; i<array.length; i++) array[i] = i % 100;
+    final DataLocation dl = IOHelper.serializeData(array);
+    assertEquals(-1, PayloadCodecs.getCodecId(dl));
+    final PayloadCodec codec = PayloadCodecs.getCodec(DeflatePayloadCodec.NAME);
+    assertNotNull(codec);
+    final DataLocation encoded = PayloadCodecs.encode(dl, codec, 8192);
+    assertEquals(codec.getId(), PayloadCodecs.getCodecId(encoded));
+    assertTrue(encoded.getSize() < dl.getSize());
+    assertArrayEquals(array, (double[]) IOHelper.unwrappedData(encoded), 0d);
+  }
+
+  /**
+   * Test that data smaller than the threshold, or which does not compress, is left as is.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 10000)
+  public void testNoCompression() throws Exception {
+    final PayloadCodec codec = PayloadCodecs.getCodec(DeflatePayloadCodec.NAME);
+    final DataLocation small = IOHelper.serializeData("a small string");
+    assertSame(small, PayloadCodecs.encode(small, codec, 8192));
+    final byte[] bytes = new byte[20_000];
+    new Random(1L).nextBytes(bytes);
+    final DataLocation random = IOHelper.serializeData(bytes);
+    assertSame(random, PayloadCodecs.encode(random, codec, 0));
+    assertSame(random, PayloadCodecs.encode(random, null, 0));
+  }
+
+  /**
+   * Test the negotiation of the codecs and the decompression of the data sent to peers which do not support its codec.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 10000)
+  public void testNegotiation() throws Exception {
+    final PayloadCodec codec = PayloadCodecs.getCodec(DeflatePayloadCodec.NAME);
+    final List<PayloadCodec> codecs = PayloadCodecs.negotiate("deflate", "unknown, deflate");
+    assertEquals(Arrays.asList(codec), codecs);
+    assertTrue(PayloadCodecs.negotiate("deflate", null).isEmpty());
+    assertEquals(PayloadCodecs.ALL_CODECS, PayloadCodecs.acceptedMask("", codecs));
+    final int[] array = new int[10_000];
+    final DataLocation encoded = PayloadCodecs.encode(IOHelper.serializeData(array), codec, 0);
+    assertSame(encoded, PayloadCodecs.decodeIfNotAccepted(encoded, PayloadCodecs.acceptedMask("deflate", codecs)));
+    final DataLocation decoded = PayloadCodecs.decodeIfNotAccepted(encoded, PayloadCodecs.acceptedMask("deflate", Collections.<PayloadCodec>emptyList()));
+    assertEquals(-1, PayloadCodecs.getCodecId(decoded));
+    assertArrayEquals(array, (int[]) IOHelper.unwrappedData(decoded));
+  }
+
+  /**
+   * Test that a frame which declares a decompressed size larger than the configured maximum is rejected.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 10000, expected = IOException.class)
+  public void testMaxDecodedSize() throws Exception {
+    final PayloadCodec codec = PayloadCodecs.getCodec(DeflatePayloadCodec.NAME);
+    final MultipleBuffersLocation encoded = (MultipleBuffersLocation) PayloadCodecs.encode(IOHelper.serializeData(new int[10_000]), codec, 0);
+    // overwrite the uncompressed size in the frame header
+    SerializationUtils.writeInt(Integer.MAX_VALUE, encoded.getBuffer(0).buffer, PayloadCodecs.HEADER_SIZE - 4);
+    PayloadCodecs.decode(encoded);
+  }
+
+  /**
+   * Test that decompressing to a stream, as done when the decompressed data overflows to disk, provides the original data.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 10000)
+  public void testStreamedDecompression() throws Exception {
+    final PayloadCodec codec = PayloadCodecs.getCodec(DeflatePayloadCodec.NAME);
+    final byte[] data = new byte[200_000];
+    for (int i=0; i<data.length; i++) data[i] = (byte) (i % 37);
+    final byte[] compressed = new byte[data.length];
+    final int n = codec.compress(data, data.length, compressed, 0, compressed.length);
+    assertTrue(n > 0);
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    codec.decompress(compressed, 0, n, data.length, out);
+    assertArrayEquals(data, out.toByteArray());
+  }
+
+  /**
+   * Test that the stream of a task result provided to the job tasks listeners holds the decompressed data.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 10000)
+  public void testServerTaskInformationResult() throws Exception {
+    final PayloadCodec codec = PayloadCodecs.getCodec(DeflatePayloadCodec.NAME);
+    final DataLocation dl = IOHelper.serializeData(new int[10_000]);
+    final DataLocation encoded = PayloadCodecs.encode(dl, codec, 0);
+    assertEquals(codec.getId(), PayloadCodecs.getCodecId(encoded));
+    final ServerTaskInformation info = new ServerTaskInformation(0, null, 0, 0, 0, encoded);
+    final byte[] expected, actual;
+    try (InputStream is = dl.getInputStream()) {
+      expected = StreamUtils.getInputStreamAsByte(is);
+    }
+    try (InputStream is = info.getResultAsStream()) {
+      actual = StreamUtils.getInputStreamAsByte(is);
+    }
+    assertArrayEquals(expected, actual);
+  }
+}
@@ -0,0 +1,135 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package test.org.jppf.jmxremote;
+
+import static org.junit.Assert.*;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import javax.management.Notification;
+
+import org.jppf.jmxremote.message.*;
+import org.junit.Test;
+
+import test.org.jppf.test.setup.BaseTest;
+
+/**
+ * Unit tests for {@link NotificationBatcher}.
+ * @author Laurent Cohen
+ */
+public class TestNotificationBatcher extends BaseTest {
+  /**
+   * Test that the accumulated notifications are sent as a single batch, in order, when the batching window has elapsed.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 10000)
+  public void testWindowFlush() throws Exception {
+    final BlockingQueue<JMXMessage> sent = new LinkedBlockingQueue<>();
+    final NotificationBatcher batcher = new NotificationBatcher(200L, 100, sent::put);
+    try {
+      final long start = System.nanoTime();
+      for (int n=0; n<5; n++) batcher.add(notification(n));
+      final JMXMessage message = sent.poll(5L, TimeUnit.SECONDS);
+      assertTrue((System.nanoTime() - start) / 1_000_000L >= 200L);
+      assertSequences(message, 0, 5);
+      assertNull(sent.poll(300L, TimeUnit.MILLISECONDS));
+      // a batch with a single notification is sent as a plain notification
+      batcher.add(notification(5));
+      final JMXMessage single = sent.poll(5L, TimeUnit.SECONDS);
+      assertTrue(single instanceof JMXNotification);
+      assertEquals(5L, ((JMXNotification) single).getNotification().getSequenceNumber());
+    } finally {
+      batcher.close();
+    }
+  }
+
+  /**
+   * Test that a batch is sent as soon as it reaches the maximum size, without waiting for the batching window.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 10000)
+  public void testMaxSizeFlush() throws Exception {
+    final BlockingQueue<JMXMessage> sent = new LinkedBlockingQueue<>();
+    final NotificationBatcher batcher = new NotificationBatcher(60_000L, 5, sent::put);
+    try {
+      for (int n=0; n<12; n++) batcher.add(notification(n));
+      assertSequences(sent.poll(5L, TimeUnit.SECONDS), 0, 5);
+      assertSequences(sent.poll(5L, TimeUnit.SECONDS), 5, 5);
+      assertNull(sent.poll(200L, TimeUnit.MILLISECONDS));
+      batcher.flush();
+      assertSequences(sent.poll(5L, TimeUnit.SECONDS), 10, 2);
+    } finally {
+      batcher.close();
+    }
+  }
+
+  /**
+   * Test that a connection whose sender is blocked does not delay the batches of another connection,
+   * and that the notifications of the blocked connection are still sent in order once it is unblocked.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 10000)
+  public void testBlockedSender() throws Exception {
+    final CountDownLatch gate = new CountDownLatch(1);
+    final List<JMXMessage> blockedSent = new CopyOnWriteArrayList<>();
+    final NotificationBatcher blocked = new NotificationBatcher(50L, 2, message -> {
+      gate.await();
+      blockedSent.add(message);
+    });
+    final BlockingQueue<JMXMessage> sent = new LinkedBlockingQueue<>();
+    final NotificationBatcher other = new NotificationBatcher(50L, 100, sent::put);
+    try {
+      for (int n=0; n<10; n++) blocked.add(notification(n));
+      other.add(notification(100));
+      assertNotNull(sent.poll(5L, TimeUnit.SECONDS));
+      assertTrue(blockedSent.isEmpty());
+      gate.countDown();
+      final long start = System.currentTimeMillis();
+      while ((blockedSent.size() < 5) && (System.currentTimeMillis() - start < 5000L)) Thread.sleep(10L);
+      assertEquals(5, blockedSent.size());
+      for (int i=0; i<5; i++) assertSequences(blockedSent.get(i), 2 * i, 2);
+    } finally {
+      blocked.close();
+      other.close();
+    }
+  }
+
+  /**
+   * Check that the specified message is a batch with the specified consecutive sequence numbers.
+   * @param message the message to check.
+   * @param first the expected first sequence number.
+   * @param count the expected number of notifications.
+   */
+  private static void assertSequences(final JMXMessage message, final long first, final int count) {
+    assertTrue(message instanceof JMXNotificationBatch);
+    final List<JMXNotification> notifications = ((JMXNotificationBatch) message).getNotifications();
+    assertEquals(count, notifications.size());
+    for (int i=0; i<count; i++) assertEquals(first + i, notifications.get(i).getNotification().getSequenceNumber());
+  }
+
+  /**
+   * Create a JMX notification message.
+   * @param sequence the sequence number of the notification.
+   * @return a {@link JMXNotification} instance.
+   */
+  private static JMXNotification notification(final long sequence) {
+    return new JMXNotification(sequence, new Notification("type", "source", sequence), new Integer[] { 1 });
+  }
+}
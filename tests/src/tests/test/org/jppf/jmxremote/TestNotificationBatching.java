@@ -0,0 +1,116 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package test.org.jppf.jmxremote;
+
+import static org.junit.Assert.*;
+
+import java.util.*;
+
+import javax.management.*;
+
+import org.jppf.jmxremote.BatchNotificationListener;
+import org.jppf.utils.concurrent.ConcurrentUtils;
+import org.jppf.utils.configuration.JPPFProperties;
+import org.junit.*;
+
+/**
+ * Tests for the batching of the JMX notifications sent by the jmxremote-nio connector server.
+ * @author Laurent Cohen
+ */
+public class TestNotificationBatching extends AbstractTestStandaloneConnector {
+  /**
+   * Performs setup before each test.
+   * @throws Exception if any error occurs.
+   */
+  @Before
+  public void beforeInstance() throws Exception {
+    final Map<String, Object> env = new HashMap<>();
+    env.put(JPPFProperties.JMX_NOTIF_BATCH_WINDOW.getName(), 50L);
+    env.put(JPPFProperties.JMX_NOTIF_BATCH_MAX_SIZE.getName(), 16);
+    server = createConnectorServer(env);
+    clientConnector = createConnectorClient();
+    registerMBeans();
+  }
+
+  /**
+   * Test that a {@link BatchNotificationListener} receives all the notifications in the order in which they were emitted,
+   * with several notifications per call, while a regular listener receives them one by one in the same order.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 10000)
+  public void testBatchListenerOrder() throws Exception {
+    final MBeanServerConnection mbsc = clientConnector.getMBeanServerConnection();
+    final MyBatchListener batchListener = new MyBatchListener();
+    final List<String> received = Collections.synchronizedList(new ArrayList<>());
+    final NotificationListener listener = (notification, handback) -> received.add((String) notification.getUserData());
+    mbsc.addNotificationListener(connectorTestName, batchListener, null, "batch");
+    mbsc.addNotificationListener(connectorTestName, listener, null, "single");
+    final int nbNotifs = 200;
+    final String[] messages = new String[nbNotifs];
+    for (int i=0; i<nbNotifs; i++) messages[i] = "msg-" + i;
+    mbsc.invoke(connectorTestName, "triggerNotifications", new Object[] { messages }, new String[] { String[].class.getName() });
+    ConcurrentUtils.awaitCondition(() -> (batchListener.size() == nbNotifs) && (received.size() == nbNotifs), 5_000L, 50L, true);
+    assertEquals(Arrays.asList(messages), batchListener.getMessages());
+    assertEquals(Arrays.asList(messages), received);
+    // the notifications of consecutive batches may be delivered in the same call
+    assertTrue(batchListener.maxCallSize > 1);
+    mbsc.removeNotificationListener(connectorTestName, batchListener);
+    mbsc.removeNotificationListener(connectorTestName, listener);
+  }
+
+  /**
+   * A listener which records the user data of the notifications it receives.
+   */
+  static class MyBatchListener implements BatchNotificationListener {
+    /**
+     * The user data of the received notifications, in the order they were received.
+     */
+    private final List<String> messages = new ArrayList<>();
+    /**
+     * The maximum number of notifications received in a single call.
+     */
+    private volatile int maxCallSize;
+
+    @Override
+    public void handleNotification(final Notification notification, final Object handback) {
+      handleNotifications(Collections.singletonList(notification), handback);
+    }
+
+    @Override
+    public synchronized void handleNotifications(final List<Notification> notifications, final Object handback) {
+      assertEquals("batch", handback);
+      if (notifications.size() > maxCallSize) maxCallSize = notifications.size();
+      for (final Notification notification: notifications) messages.add((String) notification.getUserData());
+    }
+
+    /**
+     * @return the number of received notifications.
+     */
+    synchronized int size() {
+      return messages.size();
+    }
+
+    /**
+     * @return a copy of the user data of the received notifications.
+     */
+    synchronized List<String> getMessages() {
+      return new ArrayList<>(messages);
+    }
+  }
+}
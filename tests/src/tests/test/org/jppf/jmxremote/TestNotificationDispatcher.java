@@ -0,0 +1,204 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package test.org.jppf.jmxremote;
+
+import static org.junit.Assert.*;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+import javax.management.Notification;
+
+import org.jppf.jmx.JMXHelper;
+import org.jppf.jmxremote.message.*;
+import org.jppf.jmxremote.nio.NotificationDispatcher;
+import org.jppf.jmxremote.nio.NotificationDispatcher.ConnectionQueue;
+import org.jppf.utils.TypedProperties;
+import org.jppf.utils.concurrent.QueueHandler.ElementHandler;
+import org.jppf.utils.configuration.JPPFProperties;
+import org.junit.Test;
+
+import test.org.jppf.test.setup.BaseTest;
+
+/**
+ * Unit tests for {@link NotificationDispatcher} and {@link JMXNotificationBatch}.
+ * @author Laurent Cohen
+ */
+public class TestNotificationDispatcher extends BaseTest {
+  /**
+   * Test that the notifications of each connection are delivered in the order in which they were received.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 10000)
+  public void testOrderPerConnection() throws Exception {
+    final int nbConnections = 8, nbNotifs = 2000;
+    final NotificationDispatcher dispatcher = new NotificationDispatcher(new TypedProperties().set(JPPFProperties.JMX_NOTIF_DISPATCH_THREADS, 4));
+    final List<List<Long>> received = new ArrayList<>();
+    final List<ConnectionQueue> queues = new ArrayList<>();
+    final CountDownLatch done = new CountDownLatch(nbConnections * nbNotifs);
+    for (int i=0; i<nbConnections; i++) {
+      final List<Long> list = Collections.synchronizedList(new ArrayList<>());
+      received.add(list);
+      queues.add(dispatcher.newQueue(notifs -> {
+        for (final JMXNotification notif: notifs) {
+          list.add(notif.getNotification().getSequenceNumber());
+          done.countDown();
+        }
+      }));
+    }
+    for (int n=0; n<nbNotifs; n++) {
+      for (final ConnectionQueue queue: queues) queue.offer(notification("type", "source", n));
+    }
+    assertTrue(done.await(5L, TimeUnit.SECONDS));
+    for (final List<Long> list: received) {
+      assertEquals(nbNotifs, list.size());
+      for (int n=0; n<nbNotifs; n++) assertEquals(n, (long) list.get(n));
+    }
+  }
+
+  /**
+   * Test that the notifications with a 'drop' policy are discarded when there are too many pending notifications, while the other ones are kept.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 10000)
+  public void testDropPolicy() throws Exception {
+    final TypedProperties config = new TypedProperties()
+      .set(JPPFProperties.JMX_NOTIF_DISPATCH_MAX_PENDING, 5)
+      .set(JPPFProperties.JMX_NOTIF_POLICY, "drop", "task.monitor");
+    final NotificationDispatcher dispatcher = new NotificationDispatcher(config);
+    final BlockingHandler handler = new BlockingHandler();
+    final ConnectionQueue queue = dispatcher.newQueue(handler);
+    queue.offer(notification("task.monitor", "source", 0));
+    assertTrue(handler.started.await(5L, TimeUnit.SECONDS));
+    for (int n=1; n<=20; n++) queue.offer(notification("task.monitor", "source", n));
+    queue.offer(notification("other", "source", 21));
+    assertEquals(6, queue.size());
+    assertEquals(15L, dispatcher.getDroppedCount());
+    handler.gate.countDown();
+    assertEquals(Arrays.asList(0L, 1L, 2L, 3L, 4L, 5L, 21L), handler.await(7));
+  }
+
+  /**
+   * Test that a notification with a 'coalesce' policy replaces the pending notification from the same source, at the same position.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 10000)
+  public void testCoalescePolicy() throws Exception {
+    final NotificationDispatcher dispatcher = new NotificationDispatcher(new TypedProperties().set(JPPFProperties.JMX_NOTIF_POLICY, "coalesce", "state"));
+    final BlockingHandler handler = new BlockingHandler();
+    final ConnectionQueue queue = dispatcher.newQueue(handler);
+    queue.offer(notification("state", "A", 0));
+    assertTrue(handler.started.await(5L, TimeUnit.SECONDS));
+    queue.offer(notification("state", "A", 1));
+    queue.offer(notification("other", "A", 2));
+    queue.offer(notification("state", "B", 3));
+    for (int n=4; n<10; n++) queue.offer(notification("state", (n % 2 == 0) ? "A" : "B", n));
+    assertEquals(3, queue.size());
+    assertEquals(6L, dispatcher.getCoalescedCount());
+    handler.gate.countDown();
+    assertEquals(Arrays.asList(0L, 8L, 2L, 9L), handler.await(4));
+    // once delivered, a notification is no longer coalesced
+    queue.offer(notification("state", "A", 10));
+    assertEquals(Arrays.asList(0L, 8L, 2L, 9L, 10L), handler.await(5));
+  }
+
+  /**
+   * Test that the notifications of a batch are queued in order and with their delivery policy applied, and that a serialized batch
+   * is read back with the same notifications and listener ids.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 10000)
+  public void testBatch() throws Exception {
+    final List<JMXNotification> list = new ArrayList<>();
+    for (int n=0; n<10; n++) list.add(notification((n < 5) ? "state" : "other", "A", n));
+    final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    try (final ObjectOutputStream oos = new ObjectOutputStream(baos)) {
+      oos.writeObject(new JMXNotificationBatch(-1L, list));
+    }
+    final JMXNotificationBatch batch;
+    try (final ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(baos.toByteArray()))) {
+      batch = (JMXNotificationBatch) ois.readObject();
+    }
+    assertEquals(JMXHelper.NOTIFICATION_BATCH, batch.getMessageType());
+    assertEquals(list.size(), batch.getNotifications().size());
+    for (final JMXNotification notif: batch.getNotifications()) assertArrayEquals(new Integer[] { 1 }, notif.getListenerIDs());
+    final NotificationDispatcher dispatcher = new NotificationDispatcher(new TypedProperties().set(JPPFProperties.JMX_NOTIF_POLICY, "coalesce", "state"));
+    final BlockingHandler handler = new BlockingHandler();
+    final ConnectionQueue queue = dispatcher.newQueue(handler);
+    queue.offer(notification("other", "B", 100));
+    assertTrue(handler.started.await(5L, TimeUnit.SECONDS));
+    queue.offerAll(batch.getNotifications());
+    assertEquals(6, queue.size());
+    handler.gate.countDown();
+    assertEquals(Arrays.asList(100L, 4L, 5L, 6L, 7L, 8L, 9L), handler.await(7));
+  }
+
+  /**
+   * Create a JMX notification message.
+   * @param type the type of the notification.
+   * @param source the source of the notification.
+   * @param sequence the sequence number of the notification.
+   * @return a {@link JMXNotification} instance.
+   */
+  private static JMXNotification notification(final String type, final String source, final long sequence) {
+    return new JMXNotification(sequence, new Notification(type, source, sequence), new Integer[] { 1 });
+  }
+
+  /**
+   * A notification handler which blocks on the first notification until its gate is opened.
+   */
+  private static class BlockingHandler implements ElementHandler<List<JMXNotification>> {
+    /**
+     * Counted down when the first notification is handled.
+     */
+    private final CountDownLatch started = new CountDownLatch(1);
+    /**
+     * Counted down to let the handling of the notifications proceed.
+     */
+    private final CountDownLatch gate = new CountDownLatch(1);
+    /**
+     * The sequence numbers of the handled notifications.
+     */
+    private final List<Long> sequences = new ArrayList<>();
+
+    @Override
+    public void handle(final List<JMXNotification> notifs) throws Exception {
+      started.countDown();
+      gate.await();
+      synchronized(sequences) {
+        for (final JMXNotification notif: notifs) sequences.add(notif.getNotification().getSequenceNumber());
+        sequences.notifyAll();
+      }
+    }
+
+    /**
+     * Wait until the specified number of notifications are handled.
+     * @param count the number of notifications to wait for.
+     * @return the sequence numbers of the handled notifications.
+     * @throws Exception if any error occurs.
+     */
+    private List<Long> await(final int count) throws Exception {
+      synchronized(sequences) {
+        while (sequences.size() < count) sequences.wait(100L);
+        return new ArrayList<>(sequences);
+      }
+    }
+  }
+}
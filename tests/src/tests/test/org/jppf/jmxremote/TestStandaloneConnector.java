@@ -22,6 +22,7 @@ import static org.junit.Assert.*;
 
 import java.lang.management.*;
 import java.util.*;
+import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.management.*;
@@ -102,6 +103,28 @@ public class TestStandaloneConnector extends AbstractTestStandaloneConnector {
     assertTrue(mbsc.isInstanceOf(connectorTestName, ConnectorTestMBean.class.getName()));
   }
 
+  /**
+   * Test sending requests without waiting for their responses.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 10000)
+  public void testAsyncRequests() throws Exception {
+    final JPPFMBeanServerConnection mbsc = (JPPFMBeanServerConnection) clientConnector.getMBeanServerConnection();
+    print(false, true, ">>> testing async requests");
+    final List<CompletableFuture<Object>> futures = new ArrayList<>();
+    for (int i=0; i<10; i++) futures.add(mbsc.invokeAsync(connectorTestName, "test1", new Object[] { "testing", i }, new String[] { String.class.getName(), int.class.getName() }));
+    for (int i=0; i<10; i++) assertEquals("[testing - " + i + "]", futures.get(i).get());
+    assertNull(mbsc.setAttributeAsync(connectorTestName, new Attribute("StringParam", "async value")).get());
+    assertEquals("async value", mbsc.getAttributeAsync(connectorTestName, "StringParam").get());
+    final CompletableFuture<Object> future = mbsc.invokeAsync(connectorTestName, "nonExistentMethod", null, null);
+    try {
+      future.get();
+      fail("the request should have raised an exception");
+    } catch (final ExecutionException e) {
+      assertNotNull(e.getCause());
+    }
+  }
+
   /**
    * Test MBean domains.
    * @throws Exception if any error occurs.
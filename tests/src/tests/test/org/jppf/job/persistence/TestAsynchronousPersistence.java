@@ -0,0 +1,232 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package test.org.jppf.job.persistence;
+
+import static org.junit.Assert.*;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.jppf.io.MultipleBuffersLocation;
+import org.jppf.job.persistence.*;
+import org.jppf.job.persistence.impl.AsynchronousPersistence;
+import org.jppf.utils.streams.StreamUtils;
+import org.junit.Test;
+
+import test.org.jppf.test.setup.BaseTest;
+
+/**
+ * Unit tests for the write coalescing and ordering of {@link AsynchronousPersistence}.
+ * @author Laurent Cohen
+ */
+public class TestAsynchronousPersistence extends BaseTest {
+  /**
+   * Number of tasks in the test jobs.
+   */
+  private static final int NB_TASKS = 10;
+  /**
+   * Uuid of the test job.
+   */
+  private final String uuid = UUID.randomUUID().toString();
+
+  /**
+   * Test that the elements stored while a previous store is in progress are coalesced into a single store operation with their latest version.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 10000)
+  public void testCoalescing() throws Exception {
+    final MemoryPersistence delegate = new MemoryPersistence();
+    final AsynchronousPersistence persistence = createPersistence(delegate);
+    delegate.gate = new CountDownLatch(1);
+    persistence.store(tasks(0));
+    assertTrue(delegate.storeStarted.await(5L, TimeUnit.SECONDS));
+    for (int version=1; version<=5; version++) persistence.store(tasks(version));
+    delegate.gate.countDown();
+    assertTrue(persistence.isJobPersisted(uuid));
+    assertEquals(Arrays.asList(NB_TASKS, NB_TASKS), delegate.storeSizes);
+    final List<PersistenceInfo> infos = new ArrayList<>();
+    for (int i=0; i<NB_TASKS; i++) infos.add(new PersistenceInfoImpl(uuid, null, PersistenceObjectType.TASK, i, null));
+    final List<InputStream> streams = persistence.load(infos);
+    for (int i=0; i<NB_TASKS; i++) assertArrayEquals(data(i, 5), StreamUtils.getInputStreamAsByte(streams.get(i)));
+  }
+
+  /**
+   * Test that the store and delete operations of a job are performed in the order in which they are requested.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 10000)
+  public void testDeleteOrdering() throws Exception {
+    final MemoryPersistence delegate = new MemoryPersistence();
+    final AsynchronousPersistence persistence = createPersistence(delegate);
+    persistence.store(tasks(0));
+    persistence.deleteJob(uuid);
+    assertFalse(persistence.isJobPersisted(uuid));
+    persistence.store(tasks(1));
+    persistence.deleteJob(uuid);
+    persistence.store(tasks(2).subList(0, 3));
+    assertEquals(3, persistence.getTaskPositions(uuid).length);
+    assertEquals(Arrays.asList(uuid), persistence.getPersistedJobUuids());
+    persistence.deleteJob(uuid);
+    assertTrue(persistence.getPersistedJobUuids().isEmpty());
+  }
+
+  /**
+   * Create an asynchronous persistence which delegates to the specified persistence.
+   * @param delegate the persistence to delegate to.
+   * @return an {@link AsynchronousPersistence} instance.
+   * @throws Exception if any error occurs.
+   */
+  private static AsynchronousPersistence createPersistence(final MemoryPersistence delegate) throws Exception {
+    MemoryPersistence.next = delegate;
+    return new AsynchronousPersistence("2", MemoryPersistence.class.getName());
+  }
+
+  /**
+   * Create the tasks of the test job.
+   * @param version the version of the tasks content.
+   * @return a list of {@link PersistenceInfo} instances.
+   */
+  private List<PersistenceInfo> tasks(final int version) {
+    final List<PersistenceInfo> infos = new ArrayList<>();
+    for (int i=0; i<NB_TASKS; i++) infos.add(new PersistenceInfoImpl(uuid, null, PersistenceObjectType.TASK, i, new MultipleBuffersLocation(data(i, version))));
+    return infos;
+  }
+
+  /**
+   * Create the content of a job element.
+   * @param position the position of the element.
+   * @param version the version of the content.
+   * @return the content as an array of bytes.
+   */
+  private static byte[] data(final int position, final int version) {
+    return new byte[] { (byte) position, (byte) version };
+  }
+
+  /**
+   * An in-memory persistence which records the size of each store operation.
+   */
+  public static class MemoryPersistence implements JobPersistence {
+    /**
+     * The instance returned by the next call to the constructor without parameters.
+     */
+    private static MemoryPersistence next;
+    /**
+     * The persisted elements, mapped to their job uuid, type and position.
+     */
+    private final Map<String, Map<String, byte[]>> jobs = new HashMap<>();
+    /**
+     * The number of elements passed to each store operation.
+     */
+    private final List<Integer> storeSizes = new CopyOnWriteArrayList<>();
+    /**
+     * Counted down when a store operation starts.
+     */
+    private final CountDownLatch storeStarted = new CountDownLatch(1);
+    /**
+     * If not null, store operations wait until it is counted down.
+     */
+    private volatile CountDownLatch gate;
+    /**
+     * The instance to which this one delegates when it is created by reflection.
+     */
+    private final MemoryPersistence target;
+
+    /**
+     * Create a standalone instance.
+     */
+    private MemoryPersistence() {
+      target = this;
+    }
+
+    /**
+     * Create an instance which delegates to the instance specified with {@link #next}.
+     * @param params not used.
+     */
+    public MemoryPersistence(final String...params) {
+      target = next;
+    }
+
+    @Override
+    public void store(final Collection<PersistenceInfo> infos) throws JobPersistenceException {
+      target.storeSizes.add(infos.size());
+      target.storeStarted.countDown();
+      try {
+        final CountDownLatch latch = target.gate;
+        if (latch != null) latch.await();
+        synchronized(target.jobs) {
+          for (final PersistenceInfo info: infos) {
+            final Map<String, byte[]> job = target.jobs.computeIfAbsent(info.getJobUuid(), uuid -> new HashMap<>());
+            job.put(info.getType() + "-" + info.getPosition(), StreamUtils.getInputStreamAsByte(info.getInputStream()));
+          }
+        }
+      } catch (final Exception e) {
+        throw new JobPersistenceException(e);
+      }
+    }
+
+    @Override
+    public List<InputStream> load(final Collection<PersistenceInfo> infos) throws JobPersistenceException {
+      final List<InputStream> result = new ArrayList<>();
+      synchronized(target.jobs) {
+        for (final PersistenceInfo info: infos) {
+          final Map<String, byte[]> job = target.jobs.get(info.getJobUuid());
+          final byte[] bytes = (job == null) ? null : job.get(info.getType() + "-" + info.getPosition());
+          if (bytes != null) result.add(new ByteArrayInputStream(bytes));
+        }
+      }
+      return result;
+    }
+
+    @Override
+    public List<String> getPersistedJobUuids() throws JobPersistenceException {
+      synchronized(target.jobs) {
+        return new ArrayList<>(target.jobs.keySet());
+      }
+    }
+
+    @Override
+    public int[] getTaskPositions(final String jobUuid) throws JobPersistenceException {
+      synchronized(target.jobs) {
+        final Map<String, byte[]> job = target.jobs.get(jobUuid);
+        return (job == null) ? new int[0] : job.keySet().stream().filter(key -> key.startsWith(PersistenceObjectType.TASK + "-"))
+          .mapToInt(key -> Integer.parseInt(key.substring(key.indexOf('-') + 1))).sorted().toArray();
+      }
+    }
+
+    @Override
+    public int[] getTaskResultPositions(final String jobUuid) throws JobPersistenceException {
+      return new int[0];
+    }
+
+    @Override
+    public void deleteJob(final String jobUuid) throws JobPersistenceException {
+      synchronized(target.jobs) {
+        target.jobs.remove(jobUuid);
+      }
+    }
+
+    @Override
+    public boolean isJobPersisted(final String jobUuid) throws JobPersistenceException {
+      synchronized(target.jobs) {
+        return target.jobs.containsKey(jobUuid);
+      }
+    }
+  }
+}
@@ -0,0 +1,217 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package test.org.jppf.job.persistence;
+
+import static org.junit.Assert.*;
+
+import java.io.InputStream;
+import java.sql.*;
+import java.util.*;
+
+import javax.sql.DataSource;
+
+import org.jppf.io.MultipleBuffersLocation;
+import org.jppf.job.persistence.*;
+import org.jppf.job.persistence.impl.DefaultDatabasePersistence;
+import org.jppf.persistence.JPPFDatasourceFactory;
+import org.jppf.utils.JPPFConfiguration;
+import org.jppf.utils.configuration.JPPFProperties;
+import org.jppf.utils.streams.StreamUtils;
+import org.junit.*;
+
+import test.org.jppf.test.setup.BaseTest;
+
+/**
+ * Unit tests for the batched insert and update of the elements stored by a {@link DefaultDatabasePersistence}, against an in-memory H2 database.
+ * @author Laurent Cohen
+ */
+public class TestDatabaseBatchStore extends BaseTest {
+  /**
+   * Name of the test datasource.
+   */
+  private static final String DATASOURCE_NAME = "batchStoreDS";
+  /**
+   * Name of the test table.
+   */
+  private static final String TABLE_NAME = "BATCH_STORE";
+  /**
+   * Number of tasks in the test job.
+   */
+  private static final int NB_TASKS = 10;
+  /**
+   * Batch size used in the tests, smaller than the number of tasks so that several batches are executed.
+   */
+  private static final int BATCH_SIZE = 4;
+  /**
+   * The test datasource.
+   */
+  private static DataSource dataSource;
+  /**
+   * Uuid of the test job.
+   */
+  private final String uuid = UUID.randomUUID().toString();
+  /**
+   * The persistence under test.
+   */
+  private DefaultDatabasePersistence persistence;
+  /**
+   * The configured batch size, restored after each test.
+   */
+  private int oldBatchSize;
+
+  /**
+   * Create the in-memory H2 datasource.
+   * @throws Exception if any error occurs.
+   */
+  @BeforeClass
+  public static void setupDataSource() throws Exception {
+    final Properties props = new Properties();
+    props.setProperty("driverClassName", "org.h2.Driver");
+    props.setProperty("jdbcUrl", "jdbc:h2:mem:batch_store;DB_CLOSE_DELAY=-1");
+    props.setProperty("username", "sa");
+    props.setProperty("password", "");
+    dataSource = JPPFDatasourceFactory.getInstance().createDataSource(DATASOURCE_NAME, props);
+  }
+
+  /**
+   * Drop the test table and remove the in-memory H2 datasource.
+   * @throws Exception if any error occurs.
+   */
+  @AfterClass
+  public static void cleanupDataSource() throws Exception {
+    try (final Connection connection = dataSource.getConnection(); final Statement statement = connection.createStatement()) {
+      statement.execute("DROP TABLE IF EXISTS " + TABLE_NAME);
+    }
+    JPPFDatasourceFactory.getInstance().removeDataSource(DATASOURCE_NAME);
+  }
+
+  /**
+   * Create the persistence with a batch size smaller than the number of stored elements.
+   * @throws Exception if any error occurs.
+   */
+  @Before
+  public void setupPersistence() throws Exception {
+    oldBatchSize = JPPFConfiguration.get(JPPFProperties.PERSISTENCE_JDBC_BATCH_SIZE);
+    JPPFConfiguration.set(JPPFProperties.PERSISTENCE_JDBC_BATCH_SIZE, BATCH_SIZE);
+    persistence = new DefaultDatabasePersistence(TABLE_NAME, DATASOURCE_NAME);
+  }
+
+  /**
+   * Delete the test job and restore the configured batch size.
+   * @throws Exception if any error occurs.
+   */
+  @After
+  public void cleanupPersistence() throws Exception {
+    JPPFConfiguration.set(JPPFProperties.PERSISTENCE_JDBC_BATCH_SIZE, oldBatchSize);
+    if (persistence != null) persistence.deleteJob(uuid);
+  }
+
+  /**
+   * Test that storing the same elements twice updates the existing rows instead of duplicating them.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 10000)
+  public void testStoreTwice() throws Exception {
+    persistence.store(tasks(0, positions(0, NB_TASKS)));
+    checkRows(NB_TASKS, 0);
+    persistence.store(tasks(1, positions(0, NB_TASKS)));
+    checkRows(NB_TASKS, 1);
+  }
+
+  /**
+   * Test that a batch mixing new and existing elements inserts the new ones and updates the existing ones.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 10000)
+  public void testMixedBatch() throws Exception {
+    // every other position already exists, so the failed inserts are spread across all the batches
+    final List<Integer> existing = new ArrayList<>();
+    for (int i=0; i<NB_TASKS; i+=2) existing.add(i);
+    persistence.store(tasks(0, existing));
+    checkRows(existing.size(), 0);
+    persistence.store(tasks(1, positions(0, NB_TASKS)));
+    checkRows(NB_TASKS, 1);
+    // the first half exists and the second half is new
+    persistence.store(tasks(2, positions(0, NB_TASKS + BATCH_SIZE)));
+    checkRows(NB_TASKS + BATCH_SIZE, 2);
+  }
+
+  /**
+   * Check the number of rows in the table and the content of the stored tasks.
+   * @param expectedRows the expected number of rows for the test job.
+   * @param expectedVersion the expected version of all the stored tasks.
+   * @throws Exception if any error occurs.
+   */
+  private void checkRows(final int expectedRows, final int expectedVersion) throws Exception {
+    try (final Connection connection = dataSource.getConnection();
+      final PreparedStatement ps = connection.prepareStatement("SELECT COUNT(*) FROM " + TABLE_NAME + " WHERE UUID = ?")) {
+      ps.setString(1, uuid);
+      try (final ResultSet rs = ps.executeQuery()) {
+        assertTrue(rs.next());
+        assertEquals(expectedRows, rs.getInt(1));
+      }
+    }
+    final List<PersistenceInfo> infos = new ArrayList<>();
+    for (final int position: persistence.getTaskPositions(uuid)) infos.add(new PersistenceInfoImpl(uuid, null, PersistenceObjectType.TASK, position, null));
+    assertEquals(expectedRows, infos.size());
+    final List<InputStream> streams = persistence.load(infos);
+    assertEquals(infos.size(), streams.size());
+    for (int i=0; i<infos.size(); i++) {
+      final String content = new String(StreamUtils.getInputStreamAsByte(streams.get(i)), "UTF-8");
+      assertEquals(content(expectedVersion, infos.get(i).getPosition()), content);
+    }
+  }
+
+  /**
+   * Create a list of consecutive positions.
+   * @param start the first position.
+   * @param end the position after the last one.
+   * @return a list of positions.
+   */
+  private static List<Integer> positions(final int start, final int end) {
+    final List<Integer> result = new ArrayList<>();
+    for (int i=start; i<end; i++) result.add(i);
+    return result;
+  }
+
+  /**
+   * Create the persistence infos for a version of the tasks at the specified positions.
+   * @param version the version of the tasks.
+   * @param positions the positions of the tasks.
+   * @return a list of persistence infos.
+   * @throws Exception if any error occurs.
+   */
+  private List<PersistenceInfo> tasks(final int version, final List<Integer> positions) throws Exception {
+    final List<PersistenceInfo> infos = new ArrayList<>();
+    for (final int position: positions) {
+      infos.add(new PersistenceInfoImpl(uuid, null, PersistenceObjectType.TASK, position, new MultipleBuffersLocation(content(version, position).getBytes("UTF-8"))));
+    }
+    return infos;
+  }
+
+  /**
+   * Compute the content of a task.
+   * @param version the version of the task.
+   * @param position the position of the task.
+   * @return the content as a string.
+   */
+  private static String content(final int version, final int position) {
+    return "task-" + position + "-v" + version;
+  }
+}
@@ -0,0 +1,277 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package test.org.jppf.job.persistence;
+
+import static org.junit.Assert.*;
+
+import java.io.InputStream;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.jppf.io.MultipleBuffersLocation;
+import org.jppf.job.persistence.*;
+import org.jppf.job.persistence.impl.SegmentLogPersistence;
+import org.jppf.utils.DeleteFileVisitor;
+import org.jppf.utils.streams.StreamUtils;
+import org.junit.*;
+
+import test.org.jppf.test.setup.BaseTest;
+
+/**
+ * Unit tests for the recovery and compaction of the segment files in {@link SegmentLogPersistence}.
+ * @author Laurent Cohen
+ */
+public class TestSegmentLogPersistenceRecovery extends BaseTest {
+  /**
+   * The root directory of the persistence.
+   */
+  private static final Path ROOT = Paths.get("persistence_segment");
+  /**
+   * Number of tasks in the test jobs.
+   */
+  private static final int NB_TASKS = 100;
+  /**
+   * Uuid of the test job.
+   */
+  private final String uuid = UUID.randomUUID().toString();
+
+  /**
+   * Delete the persistence directory.
+   * @throws Exception if any error occurs.
+   */
+  @Before
+  @After
+  public void deleteRoot() throws Exception {
+    if (Files.exists(ROOT)) Files.walkFileTree(ROOT, new DeleteFileVisitor());
+  }
+
+  /**
+   * Test that the persisted elements are found by a new persistence instance, as after a driver restart.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 10000)
+  public void testRecovery() throws Exception {
+    final SegmentLogPersistence persistence = new SegmentLogPersistence(ROOT.toString(), "false");
+    storeJob(persistence);
+    for (int i=0; i<40; i++) persistence.store(Arrays.asList(info(PersistenceObjectType.TASK_RESULT, i)));
+    final SegmentLogPersistence recovered = new SegmentLogPersistence(ROOT.toString(), "false");
+    assertEquals(Arrays.asList(uuid), recovered.getPersistedJobUuids());
+    assertTrue(recovered.isJobPersisted(uuid));
+    assertEquals(NB_TASKS, recovered.getTaskPositions(uuid).length);
+    assertEquals(40, recovered.getTaskResultPositions(uuid).length);
+    checkLoad(recovered, PersistenceObjectType.JOB_HEADER, -1);
+    checkLoad(recovered, PersistenceObjectType.TASK, 57);
+    checkLoad(recovered, PersistenceObjectType.TASK_RESULT, 39);
+  }
+
+  /**
+   * Test that an incomplete record at the end of a segment file is discarded when the file is recovered.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 10000)
+  public void testIncompleteRecord() throws Exception {
+    storeJob(new SegmentLogPersistence(ROOT.toString(), "false"));
+    final Path path = ROOT.resolve(uuid + ".log");
+    final long size = Files.size(path);
+    // a record header announcing more data than actually written
+    final byte[] partial = { (byte) PersistenceObjectType.TASK_RESULT.ordinal(), 0, 0, 0, 1, 0, 0, 1, 0, 0, 0, 0, 0, 42, 42 };
+    Files.write(path, partial, StandardOpenOption.APPEND);
+    final SegmentLogPersistence recovered = new SegmentLogPersistence(ROOT.toString(), "false");
+    assertEquals(NB_TASKS, recovered.getTaskPositions(uuid).length);
+    assertEquals(0, recovered.getTaskResultPositions(uuid).length);
+    assertEquals(size, Files.size(path));
+    recovered.store(Arrays.asList(info(PersistenceObjectType.TASK_RESULT, 1)));
+    checkLoad(new SegmentLogPersistence(ROOT.toString(), "false"), PersistenceObjectType.TASK_RESULT, 1);
+  }
+
+  /**
+   * Test that the superseded records are removed when all the tasks have a result.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 10000)
+  public void testCompactionOnCompletion() throws Exception {
+    final SegmentLogPersistence persistence = new SegmentLogPersistence(ROOT.toString());
+    storeJob(persistence);
+    // supersede the header and some of the tasks
+    persistence.store(Arrays.asList(info(PersistenceObjectType.JOB_HEADER, -1)));
+    final List<PersistenceInfo> tasks = new ArrayList<>();
+    for (int i=0; i<10; i++) tasks.add(info(PersistenceObjectType.TASK, i));
+    persistence.store(tasks);
+    final Path path = ROOT.resolve(uuid + ".log");
+    final List<PersistenceInfo> results = new ArrayList<>();
+    for (int i=0; i<NB_TASKS; i++) results.add(info(PersistenceObjectType.TASK_RESULT, i));
+    persistence.store(results);
+    // file header, then the latest record for the header, data provider, each task and each result
+    long expectedSize = 8L + (13 + info(PersistenceObjectType.JOB_HEADER, -1).getSize()) + (13 + info(PersistenceObjectType.DATA_PROVIDER, -1).getSize());
+    for (final PersistenceInfo info: results) expectedSize += 2 * (13 + info.getSize());
+    assertEquals(expectedSize, Files.size(path));
+    final SegmentLogPersistence recovered = new SegmentLogPersistence(ROOT.toString());
+    assertEquals(NB_TASKS, recovered.getTaskPositions(uuid).length);
+    assertEquals(NB_TASKS, recovered.getTaskResultPositions(uuid).length);
+    checkLoad(recovered, PersistenceObjectType.TASK, 5);
+    checkLoad(recovered, PersistenceObjectType.TASK_RESULT, NB_TASKS - 1);
+  }
+
+  /**
+   * Test that concurrent store and delete operations do not result in exceptions.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 10000)
+  public void testConcurrentStoreAndDelete() throws Exception {
+    final SegmentLogPersistence persistence = new SegmentLogPersistence(ROOT.toString());
+    storeJob(persistence);
+    final int nbThreads = 8;
+    final ExecutorService executor = Executors.newFixedThreadPool(2 * nbThreads);
+    try {
+      final List<Future<?>> futures = new ArrayList<>();
+      for (int i=0; i<nbThreads; i++) {
+        final int n = i;
+        futures.add(executor.submit(() -> {
+          for (int j=n; j<NB_TASKS; j+=nbThreads) persistence.store(Arrays.asList(info(PersistenceObjectType.TASK_RESULT, j)));
+          return null;
+        }));
+        futures.add(executor.submit(() -> {
+          persistence.deleteJob(uuid);
+          return null;
+        }));
+      }
+      for (final Future<?> future: futures) future.get();
+    } finally {
+      executor.shutdownNow();
+    }
+    persistence.deleteJob(uuid);
+    assertFalse(persistence.isJobPersisted(uuid));
+    assertTrue(persistence.getPersistedJobUuids().isEmpty());
+  }
+
+  /**
+   * Test that the jobs remain accessible when there are more jobs than the maximum number of open segment files,
+   * including after the files of idle jobs were closed and with concurrent accesses.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 10000)
+  public void testMaxOpenFiles() throws Exception {
+    final SegmentLogPersistence persistence = new SegmentLogPersistence(ROOT.toString(), "true", "2");
+    final int nbJobs = 6;
+    final List<String> uuids = new ArrayList<>();
+    for (int i=0; i<nbJobs; i++) uuids.add(UUID.randomUUID().toString());
+    for (final String jobUuid: uuids) persistence.store(Arrays.asList(info(jobUuid, PersistenceObjectType.JOB_HEADER, -1), info(jobUuid, PersistenceObjectType.TASK, 0)));
+    final ExecutorService executor = Executors.newFixedThreadPool(nbJobs);
+    try {
+      final List<Future<?>> futures = new ArrayList<>();
+      for (final String jobUuid: uuids) {
+        futures.add(executor.submit(() -> {
+          for (int i=0; i<20; i++) {
+            persistence.store(Arrays.asList(info(jobUuid, PersistenceObjectType.TASK_RESULT, i)));
+            checkLoad(persistence, jobUuid, PersistenceObjectType.TASK, 0);
+          }
+          return null;
+        }));
+      }
+      for (final Future<?> future: futures) future.get();
+    } finally {
+      executor.shutdownNow();
+    }
+    final SegmentLogPersistence recovered = new SegmentLogPersistence(ROOT.toString(), "true", "2");
+    assertEquals(new HashSet<>(uuids), new HashSet<>(recovered.getPersistedJobUuids()));
+    for (final String jobUuid: uuids) {
+      assertTrue(recovered.isJobPersisted(jobUuid));
+      assertEquals(20, recovered.getTaskResultPositions(jobUuid).length);
+    }
+    for (final String jobUuid: uuids) {
+      checkLoad(recovered, jobUuid, PersistenceObjectType.JOB_HEADER, -1);
+      checkLoad(recovered, jobUuid, PersistenceObjectType.TASK_RESULT, 19);
+      recovered.deleteJob(jobUuid);
+    }
+    assertTrue(recovered.getPersistedJobUuids().isEmpty());
+  }
+
+  /**
+   * Store the header, data provider and tasks of the test job, in several batches.
+   * @param persistence the persistence to use.
+   * @throws Exception if any error occurs.
+   */
+  private void storeJob(final SegmentLogPersistence persistence) throws Exception {
+    persistence.store(Arrays.asList(info(PersistenceObjectType.JOB_HEADER, -1), info(PersistenceObjectType.DATA_PROVIDER, -1)));
+    for (int i=0; i<NB_TASKS; i+=10) {
+      final List<PersistenceInfo> infos = new ArrayList<>();
+      for (int j=i; j<i+10; j++) infos.add(info(PersistenceObjectType.TASK, j));
+      persistence.store(infos);
+    }
+  }
+
+  /**
+   * Check that the specified element is loaded with the expected content.
+   * @param persistence the persistence to use.
+   * @param type the type of element to load.
+   * @param position the position of the element.
+   * @throws Exception if any error occurs.
+   */
+  private void checkLoad(final SegmentLogPersistence persistence, final PersistenceObjectType type, final int position) throws Exception {
+    checkLoad(persistence, uuid, type, position);
+  }
+
+  /**
+   * Check that the specified element of the specified job is loaded with the expected content.
+   * @param persistence the persistence to use.
+   * @param jobUuid the uuid of the job.
+   * @param type the type of element to load.
+   * @param position the position of the element.
+   * @throws Exception if any error occurs.
+   */
+  private static void checkLoad(final SegmentLogPersistence persistence, final String jobUuid, final PersistenceObjectType type, final int position) throws Exception {
+    final List<InputStream> streams = persistence.load(Arrays.asList(info(jobUuid, type, position)));
+    assertEquals(1, streams.size());
+    assertArrayEquals(data(type, position), StreamUtils.getInputStreamAsByte(streams.get(0)));
+  }
+
+  /**
+   * Create the information for a job element.
+   * @param type the type of element.
+   * @param position the position of the element.
+   * @return a {@link PersistenceInfo} instance.
+   */
+  private PersistenceInfo info(final PersistenceObjectType type, final int position) {
+    return info(uuid, type, position);
+  }
+
+  /**
+   * Create the information for an element of the specified job.
+   * @param jobUuid the uuid of the job.
+   * @param type the type of element.
+   * @param position the position of the element.
+   * @return a {@link PersistenceInfo} instance.
+   */
+  private static PersistenceInfo info(final String jobUuid, final PersistenceObjectType type, final int position) {
+    return new PersistenceInfoImpl(jobUuid, null, type, position, new MultipleBuffersLocation(data(type, position)));
+  }
+
+  /**
+   * Create the data of a job element.
+   * @param type the type of element.
+   * @param position the position of the element.
+   * @return the data as an array of bytes.
+   */
+  private static byte[] data(final PersistenceObjectType type, final int position) {
+    final byte[] data = new byte[100 + (position & 0xFF)];
+    for (int i=0; i<data.length; i++) data[i] = (byte) (31 * type.ordinal() + position + i);
+    return data;
+  }
+}
@@ -0,0 +1,110 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package test.org.jppf.management;
+
+import static org.junit.Assert.*;
+
+import org.jppf.management.TopologyChange;
+import org.jppf.management.TopologyChange.Type;
+import org.jppf.management.diagnostics.HealthSnapshot;
+import org.jppf.management.diagnostics.provider.MonitoringConstants;
+import org.junit.Test;
+
+import test.org.jppf.test.setup.BaseTest;
+
+/**
+ * Unit tests for {@link TopologyChange}.
+ * @author Laurent Cohen
+ */
+public class TestTopologyChange extends BaseTest {
+  /**
+   * Test that successive updates of the same node are coalesced into a single change holding the latest values.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 10000)
+  public void testCoalesceUpdates() throws Exception {
+    final TopologyChange change = new TopologyChange("node1", Type.NODE_UPDATED).setActive(false).setNbSlaves(1);
+    TopologyChange result = change.coalesce(new TopologyChange("node1", Type.NODE_UPDATED).setNbSlaves(2));
+    result = result.coalesce(new TopologyChange("node1", Type.NODE_UPDATED).setActive(true));
+    assertSame(change, result);
+    assertEquals(Type.NODE_UPDATED, result.getType());
+    assertEquals(Boolean.TRUE, result.getActive());
+    assertEquals(Integer.valueOf(2), result.getNbSlaves());
+    assertNull(result.getNodeState());
+  }
+
+  /**
+   * Test that additions and removals supersede the pending changes and that updates received after a removal are discarded.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 10000)
+  public void testCoalesceAddRemove() throws Exception {
+    final TopologyChange removed = new TopologyChange("node1", Type.NODE_REMOVED);
+    TopologyChange result = new TopologyChange("node1", Type.NODE_UPDATED).setActive(false).coalesce(removed);
+    assertSame(removed, result);
+    result = result.coalesce(new TopologyChange("node1", Type.NODE_UPDATED).setActive(true));
+    assertSame(removed, result);
+    assertNull(result.getActive());
+    final TopologyChange added = new TopologyChange("node1", Type.NODE_ADDED);
+    assertSame(added, result.coalesce(added));
+  }
+
+  /**
+   * Test that health snapshots which only differ by the JVM uptime are equal, so that sampling them does not produce a change.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 10000)
+  public void testHealthSnapshotEquality() throws Exception {
+    final HealthSnapshot snapshot1 = createHealthSnapshot(0.5d, 1000L), snapshot2 = createHealthSnapshot(0.5d, 2000L);
+    assertEquals(snapshot1, snapshot2);
+    assertEquals(snapshot1.hashCode(), snapshot2.hashCode());
+    assertFalse(snapshot1.equals(createHealthSnapshot(0.6d, 1000L)));
+    assertFalse(snapshot1.equals(null));
+  }
+
+  /**
+   * Test that a small change of the CPU load is within the threshold, so that sampling it does not produce a change, while a larger change does.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 10000)
+  public void testHealthSnapshotThreshold() throws Exception {
+    final HealthSnapshot snapshot = createHealthSnapshot(50d, 1000L);
+    assertTrue(snapshot.isSimilar(createHealthSnapshot(51d, 2000L), 0.05d));
+    assertTrue(snapshot.isSimilar(createHealthSnapshot(48d, 2000L), 0.05d));
+    assertFalse(snapshot.isSimilar(createHealthSnapshot(60d, 2000L), 0.05d));
+    assertFalse(snapshot.isSimilar(createHealthSnapshot(51d, 2000L), 0d));
+    assertTrue(snapshot.isSimilar(createHealthSnapshot(50d, 2000L), 0d));
+    final HealthSnapshot deadlocked = createHealthSnapshot(50d, 1000L);
+    deadlocked.getProperties().setBoolean(MonitoringConstants.DEADLOCKED, true);
+    assertFalse(snapshot.isSimilar(deadlocked, 0.05d));
+    assertFalse(snapshot.isSimilar(null, 0.05d));
+  }
+
+  /**
+   * Create a health snapshot with the specified values.
+   * @param cpuLoad the process CPU load.
+   * @param uptime the JVM uptime.
+   * @return a new {@link HealthSnapshot}.
+   */
+  private static HealthSnapshot createHealthSnapshot(final double cpuLoad, final long uptime) {
+    final HealthSnapshot snapshot = new HealthSnapshot();
+    snapshot.getProperties().setDouble(MonitoringConstants.PROCESS_CPU_LOAD, cpuLoad).setLong(MonitoringConstants.JVM_UPTIME, uptime).setInt(MonitoringConstants.LIVE_THREADS_COUNT, 20);
+    return snapshot;
+  }
+}
@@ -21,11 +21,14 @@ package test.org.jppf.management.forwarding;
 import static org.junit.Assert.*;
 
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.jppf.JPPFException;
 import org.jppf.classloader.DelegationModel;
 import org.jppf.client.JPPFJob;
 import org.jppf.management.*;
+import org.jppf.management.forwarding.ForwardingResultListener;
 import org.jppf.node.policy.*;
 import org.jppf.node.protocol.Task;
 import org.jppf.utils.*;
@@ -395,4 +398,45 @@ public class TestNodeForwardingMBean extends AbstractTestNodeForwardingMBean {
     checkNullResults(nodeForwarder.setDelegationModel(selector, DelegationModel.PARENT_FIRST), expectedNodes);
     checkNodes(nodeForwarder.getDelegationModel(selector), DelegationModel.class, model -> model == DelegationModel.PARENT_FIRST, expectedNodes);
   }
+
+  /**
+   * Test that the results of an asynchronous forwarding request are received one node at a time, followed by the completion of the request.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 10000)
+  public void testForwardInvokeAsync() throws Exception {
+    for (final Map.Entry<NodeSelector, String[]> entry: selectorMap.entrySet()) testForwardInvokeAsync(entry.getKey(), entry.getValue());
+  }
+
+  /**
+   * Execute the tests with the specified node selector.
+   * @param selector the selector to apply.
+   * @param expectedNodes the set of nodes the selector is expected to resolve to.
+   * @throws Exception if any error occurs.
+   */
+  private static void testForwardInvokeAsync(final NodeSelector selector, final String... expectedNodes) throws Exception {
+    final Map<String, InvocationResult<?>> results = new ConcurrentHashMap<>();
+    final CountDownLatch completed = new CountDownLatch(1);
+    final AtomicInteger timeoutCount = new AtomicInteger(-1);
+    final int n = driverJmx.forwardInvokeAsync(selector, JPPFNodeAdminMBean.MBEAN_NAME, "state", null, null, 5000L, new ForwardingResultListener() {
+      @Override
+      public void resultReceived(final String nodeUuid, final InvocationResult<?> result) {
+        results.put(nodeUuid, result);
+      }
+
+      @Override
+      public void requestComplete(final int count) {
+        timeoutCount.set(count);
+        completed.countDown();
+      }
+    });
+    assertEquals(expectedNodes.length, n);
+    assertTrue(completed.await(5000L, TimeUnit.MILLISECONDS));
+    assertEquals(0, timeoutCount.get());
+    assertEquals(new HashSet<>(Arrays.asList(expectedNodes)), results.keySet());
+    for (final InvocationResult<?> result: results.values()) {
+      assertFalse(result.isException());
+      assertTrue(result.result() instanceof JPPFNodeState);
+    }
+  }
 }
@@ -0,0 +1,187 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package test.org.jppf.nio;
+
+import static org.junit.Assert.*;
+
+import java.io.*;
+import java.net.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.*;
+import java.nio.file.Files;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.jppf.io.*;
+import org.jppf.nio.GatheringChannelWriter;
+import org.jppf.serialization.SerializationUtils;
+import org.jppf.utils.JPPFBuffer;
+import org.junit.Test;
+
+import test.org.jppf.test.setup.BaseTest;
+
+/**
+ * Loopback tests for {@link GatheringChannelWriter}.
+ * @author Laurent Cohen
+ */
+public class TestGatheringChannelWriter extends BaseTest {
+  /**
+   * Test writing small in-memory locations which fit in a single gathering write.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 10000)
+  public void testSmallLocations() throws Exception {
+    final List<DataLocation> locations = new ArrayList<>();
+    for (int i=0; i<10; i++) locations.add(new MultipleBuffersLocation(randomBytes(10 * i + 1, i)));
+    checkLoopback(locations, 0L);
+  }
+
+  /**
+   * Test writing large locations over a socket with small buffers and a slow reader, such that most writes are partial.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 20000)
+  public void testPartialWrites() throws Exception {
+    final List<DataLocation> locations = new ArrayList<>();
+    locations.add(new MultipleBuffersLocation(new JPPFBuffer(randomBytes(100_000, 1)), new JPPFBuffer(randomBytes(70_000, 2)), new JPPFBuffer(randomBytes(3, 3))));
+    locations.add(new MultipleBuffersLocation(randomBytes(1, 4)));
+    locations.add(new MultipleBuffersLocation(randomBytes(200_000, 5)));
+    checkLoopback(locations, 1L);
+  }
+
+  /**
+   * Test writing locations larger than the maximum size of a single gathering write, along with more buffers than can be passed to a single write.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 20000)
+  public void testLargeGatheredWrites() throws Exception {
+    final List<DataLocation> locations = new ArrayList<>();
+    locations.add(new MultipleBuffersLocation(randomBytes(3 * 1024 * 1024 + 17, 1)));
+    final JPPFBuffer[] buffers = new JPPFBuffer[200];
+    for (int i=0; i<buffers.length; i++) buffers[i] = new JPPFBuffer(randomBytes(1000 + i, i));
+    locations.add(new MultipleBuffersLocation(buffers));
+    for (int i=0; i<100; i++) locations.add(new MultipleBuffersLocation(randomBytes(i + 1, i)));
+    checkLoopback(locations, 0L);
+  }
+
+  /**
+   * Test writing a mix of in-memory, memory-mapped and file locations.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 20000)
+  public void testMixedLocations() throws Exception {
+    final File file = File.createTempFile("jppf", ".tmp");
+    file.deleteOnExit();
+    try {
+      final byte[] fileData = randomBytes(1024 * 1024 + 5, 1);
+      Files.write(file.toPath(), fileData);
+      final MappedOverflowArena arena = new MappedOverflowArena(1024 * 1024, 1);
+      final byte[] mappedData = randomBytes(300_000, 2);
+      final MappedDataLocation mapped = arena.allocate(mappedData.length);
+      mapped.transferFrom(new StreamInputSource(new ByteArrayInputStream(mappedData)), true);
+      final List<DataLocation> locations = new ArrayList<>();
+      locations.add(new MultipleBuffersLocation(randomBytes(1000, 3)));
+      locations.add(new FileDataLocation(file, fileData.length));
+      locations.add(mapped);
+      locations.add(new MultipleBuffersLocation(randomBytes(50_000, 4)));
+      locations.add(new FileDataLocation(file, fileData.length));
+      checkLoopback(locations, 1L);
+    } finally {
+      file.delete();
+    }
+  }
+
+  /**
+   * Write the specified locations over a loopback connection with small socket buffers and check that the received bytes
+   * are the expected length-prefixed content of each location.
+   * @param locations the locations to write.
+   * @param readDelay the time to sleep in millis after each read on the receiving side, to simulate a slow reader.
+   * @throws Exception if any error occurs.
+   */
+  private static void checkLoopback(final List<DataLocation> locations, final long readDelay) throws Exception {
+    final ByteArrayOutputStream expected = new ByteArrayOutputStream();
+    for (final DataLocation location: locations) {
+      final byte[] length = new byte[4];
+      SerializationUtils.writeInt(location.getSize(), length, 0);
+      expected.write(length);
+      location.copy().transferTo(new StreamOutputDestination(expected), true);
+    }
+    final byte[] expectedBytes = expected.toByteArray();
+    assertTrue(GatheringChannelWriter.isSupported(locations));
+    final ExecutorService executor = Executors.newSingleThreadExecutor();
+    try (ServerSocketChannel server = ServerSocketChannel.open()) {
+      server.setOption(StandardSocketOptions.SO_RCVBUF, 8 * 1024);
+      server.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+      try (SocketChannel client = SocketChannel.open()) {
+        client.setOption(StandardSocketOptions.SO_SNDBUF, 8 * 1024);
+        client.connect(server.getLocalAddress());
+        client.configureBlocking(false);
+        try (SocketChannel accepted = server.accept()) {
+          final Future<byte[]> received = executor.submit(() -> {
+            final ByteArrayOutputStream out = new ByteArrayOutputStream(expectedBytes.length);
+            final ByteBuffer buf = ByteBuffer.allocate(4 * 1024);
+            while (out.size() < expectedBytes.length) {
+              buf.clear();
+              final int n = accepted.read(buf);
+              if (n < 0) break;
+              out.write(buf.array(), 0, n);
+              if (readDelay > 0L) Thread.sleep(readDelay);
+            }
+            return out.toByteArray();
+          });
+          final AtomicLong written = new AtomicLong(0L);
+          final GatheringChannelWriter writer = new GatheringChannelWriter(client, locations);
+          int nbWrites = 0, nbIncomplete = 0;
+          try (Selector selector = Selector.open()) {
+            client.register(selector, SelectionKey.OP_WRITE);
+            while (true) {
+              nbWrites++;
+              if (writer.write(written::addAndGet)) break;
+              nbIncomplete++;
+              selector.select(100L);
+              selector.selectedKeys().clear();
+            }
+          } finally {
+            writer.close();
+          }
+          assertEquals(expectedBytes.length, written.get());
+          assertEquals(locations.size(), writer.getCompletedLocations());
+          // a large payload cannot be sent over small socket buffers in a single call
+          if (expectedBytes.length > 256 * 1024) assertTrue("writes should be partial, nbWrites = " + nbWrites, nbIncomplete > 0);
+          assertArrayEquals(expectedBytes, received.get(10L, TimeUnit.SECONDS));
+        }
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  /**
+   * Generate an array of random bytes.
+   * @param size the size of the array.
+   * @param seed the random seed.
+   * @return an array of the specified size.
+   */
+  private static byte[] randomBytes(final int size, final long seed) {
+    final byte[] data = new byte[size];
+    new Random(seed).nextBytes(data);
+    return data;
+  }
+}
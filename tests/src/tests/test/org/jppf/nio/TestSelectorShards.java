@@ -0,0 +1,195 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package test.org.jppf.nio;
+
+import static org.junit.Assert.*;
+
+import java.net.*;
+import java.nio.channels.*;
+import java.util.*;
+
+import org.jppf.nio.*;
+import org.jppf.server.JPPFDriver;
+import org.jppf.server.nio.nodeserver.async.*;
+import org.jppf.utils.*;
+import org.jppf.utils.configuration.JPPFProperties;
+import org.junit.*;
+
+import test.org.jppf.test.setup.BaseTest;
+
+/**
+ * Unit tests for the distribution of the channels of a {@link StatelessNioServer} across its selector shards.
+ * @author Laurent Cohen
+ */
+public class TestSelectorShards extends BaseTest {
+  /**
+   * Accepts the connections whose client side is registered with the servers.
+   */
+  private ServerSocketChannel acceptor;
+  /**
+   * The client side of the connections.
+   */
+  private final List<SocketChannel> channels = new ArrayList<>();
+  /**
+   * The server being tested.
+   */
+  private AsyncNodeNioServer server;
+
+  /**
+   * Open the server socket.
+   * @throws Exception if any error occurs.
+   */
+  @Before
+  public void setup() throws Exception {
+    acceptor = ServerSocketChannel.open();
+    acceptor.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+  }
+
+  /**
+   * Close the server, the connections and the server socket.
+   * @throws Exception if any error occurs.
+   */
+  @After
+  public void teardown() throws Exception {
+    if (server != null) server.shutdown();
+    for (final SocketChannel channel: channels) channel.close();
+    channels.clear();
+    acceptor.close();
+  }
+
+  /**
+   * Test that the channels are evenly distributed across the shards in round-robin fashion.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 10000)
+  public void testRoundRobin() throws Exception {
+    server = createServer(4, "round_robin");
+    final List<SelectionKey> keys = new ArrayList<>();
+    for (int i=0; i<12; i++) keys.add(register());
+    final Map<Selector, Integer> loads = loads(keys);
+    assertEquals(4, loads.size());
+    for (final int load: loads.values()) assertEquals(3, load);
+    for (int i=0; i<4; i++) {
+      for (int j=i+4; j<12; j+=4) assertSame(keys.get(i).selector(), keys.get(j).selector());
+    }
+    for (int i=0; i<12; i++) assertSame(keys.get(i), server.getSelectionKey(channels.get(i)));
+  }
+
+  /**
+   * Test that new channels are assigned to the shard with the fewest channels.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 10000)
+  public void testLeastLoaded() throws Exception {
+    server = createServer(3, "least_loaded");
+    final List<SelectionKey> keys = new ArrayList<>();
+    for (int i=0; i<6; i++) keys.add(register());
+    final Map<Selector, Integer> loads = loads(keys);
+    assertEquals(3, loads.size());
+    for (final int load: loads.values()) assertEquals(2, load);
+    final Selector selector = unregister(keys, 2);
+    assertSame(selector, unregister(keys, 5));
+    assertSame(selector, register().selector());
+    assertSame(selector, register().selector());
+  }
+
+  /**
+   * Test that an unknown assignment value falls back to the round-robin assignment.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 10000)
+  public void testInvalidAssignment() throws Exception {
+    server = createServer(3, "random");
+    final List<SelectionKey> keys = new ArrayList<>();
+    for (int i=0; i<3; i++) keys.add(register());
+    assertEquals(3, loads(keys).size());
+    unregister(keys, 2);
+    assertSame(keys.get(0).selector(), register().selector());
+  }
+
+  /**
+   * Test that the assignment value is case-insensitive and ignores surrounding spaces.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 10000)
+  public void testAssignmentValueFormat() throws Exception {
+    server = createServer(3, " Least_Loaded ");
+    final List<SelectionKey> keys = new ArrayList<>();
+    for (int i=0; i<3; i++) keys.add(register());
+    final Selector selector = unregister(keys, 2);
+    assertSame(selector, register().selector());
+  }
+
+  /**
+   * Create a node server which is never started, with the specified shards configuration.
+   * @param nbShards the number of selector shards.
+   * @param assignment how new channels are assigned to the shards.
+   * @return an {@link AsyncNodeNioServer} instance.
+   * @throws Exception if any error occurs.
+   */
+  private static AsyncNodeNioServer createServer(final int nbShards, final String assignment) throws Exception {
+    final TypedProperties config = new TypedProperties()
+      .set(JPPFProperties.MANAGEMENT_ENABLED, false)
+      .set(JPPFProperties.DISCOVERY_ENABLED, false)
+      .set(JPPFProperties.LOCAL_NODE_ENABLED, false)
+      .set(JPPFProperties.NODE_SERVER_SELECTOR_SHARDS, nbShards)
+      .set(JPPFProperties.SELECTOR_SHARD_ASSIGNMENT, assignment);
+    return new AsyncNodeNioServer(new JPPFDriver(config), JPPFIdentifiers.NODE_JOB_DATA_CHANNEL, false);
+  }
+
+  /**
+   * Open a new connection and register it with the server.
+   * @return the selection key of the new channel.
+   * @throws Exception if any error occurs.
+   */
+  private SelectionKey register() throws Exception {
+    final SocketChannel channel = SocketChannel.open(acceptor.getLocalAddress());
+    channels.add(channel);
+    channel.configureBlocking(false);
+    final AsyncNodeContext context = new AsyncNodeContext(server, channel, false);
+    server.registerChannel(context, channel);
+    assertNotNull(context.getSelectionKey());
+    return context.getSelectionKey();
+  }
+
+  /**
+   * Cancel the selection key at the specified position and flush it from its selector.
+   * @param keys the selection keys of the registered channels.
+   * @param index the position of the key to cancel.
+   * @return the selector of the cancelled key.
+   * @throws Exception if any error occurs.
+   */
+  private static Selector unregister(final List<SelectionKey> keys, final int index) throws Exception {
+    final SelectionKey key = keys.get(index);
+    key.cancel();
+    key.selector().selectNow();
+    return key.selector();
+  }
+
+  /**
+   * Count the specified keys per selector.
+   * @param keys the keys to count.
+   * @return a mapping of the selectors to their number of keys.
+   */
+  private static Map<Selector, Integer> loads(final List<SelectionKey> keys) {
+    final Map<Selector, Integer> map = new HashMap<>();
+    for (final SelectionKey key: keys) map.merge(key.selector(), 1, Integer::sum);
+    return map;
+  }
+}
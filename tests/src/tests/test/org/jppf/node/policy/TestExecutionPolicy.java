@@ -447,4 +447,24 @@ public class TestExecutionPolicy extends AbstractTestExecutionPolicy {
     }
     assertTrue(exception instanceof JPPFRuntimeException);
   }
+
+  /** @throws Exception if any error occurs. */
+  @Test(timeout=5000)
+  public void testIsContextIndependent() throws Exception {
+    assertTrue(PolicyUtils.isContextIndependent(null));
+    assertTrue(PolicyUtils.isContextIndependent(truePolicy1));
+    assertTrue(PolicyUtils.isContextIndependent(truePolicy1.and(falsePolicy2.not()).or(truePolicy3)));
+    assertTrue(PolicyUtils.isContextIndependent(new Equal("$script{ '${string}' + 4; }$", true, "string4")));
+    final ExecutionPolicy scripted = new ScriptedPolicy("javascript", "true");
+    assertFalse(PolicyUtils.isContextIndependent(scripted));
+    assertFalse(PolicyUtils.isContextIndependent(truePolicy1.and(truePolicy2.or(scripted))));
+    assertFalse(PolicyUtils.isContextIndependent(new NodesMatching(Operator.AT_LEAST, 1L, truePolicy1)));
+    assertFalse(PolicyUtils.isContextIndependent(new CustomPolicy() {
+      private static final long serialVersionUID = 1L;
+      @Override
+      public boolean accepts(final PropertiesCollection<String> info) {
+        return true;
+      }
+    }));
+  }
 }
@@ -0,0 +1,195 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package test.org.jppf.serialization;
+
+import static org.junit.Assert.*;
+
+import java.io.*;
+import java.util.*;
+
+import org.jppf.serialization.*;
+import org.junit.Test;
+
+import test.org.jppf.test.setup.BaseTest;
+
+/**
+ * Unit tests comparing the reflection and method handles field access modes of the JPPF serialization.
+ * @author Laurent Cohen
+ */
+public class TestSerializationFieldAccess extends BaseTest {
+  /**
+   * Test that an object graph serialized with method handles is identical to the same graph serialized with reflection, and that both deserialize to the same graph.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 10000)
+  public void testSameOutput() throws Exception {
+    final List<Item> graph = createGraph(1000);
+    final JPPFSerialization reflection = new DefaultJPPFSerialization(false), handles = new DefaultJPPFSerialization(true);
+    final byte[] bytes1 = serialize(reflection, graph), bytes2 = serialize(handles, graph);
+    assertArrayEquals(bytes1, bytes2);
+    checkGraph(graph, deserialize(reflection, bytes2));
+    checkGraph(graph, deserialize(handles, bytes1));
+  }
+
+  /**
+   * Create a list of items in groups of 10, where each item references the first item in its group.
+   * @param size the number of items to create.
+   * @return the list of items.
+   */
+  private static List<Item> createGraph(final int size) {
+    final List<Item> list = new ArrayList<>(size);
+    for (int i=0; i<size; i++) {
+      final Item first = (i % 10 == 0) ? null : list.get(i - i % 10);
+      list.add(new Item(i, "item-" + i, Kind.values()[i % Kind.values().length], first));
+    }
+    return list;
+  }
+
+  /**
+   * Check that a deserialized graph is equal to the original, including the shared references.
+   * @param expected the original graph.
+   * @param actual the deserialized graph.
+   */
+  @SuppressWarnings("unchecked")
+  private static void checkGraph(final List<Item> expected, final Object actual) {
+    final List<Item> list = (List<Item>) actual;
+    assertEquals(expected.size(), list.size());
+    for (int i=0; i<list.size(); i++) {
+      final Item e = expected.get(i), a = list.get(i);
+      assertEquals(e.id, a.id);
+      assertEquals(e.longValue, a.longValue);
+      assertEquals(e.doubleValue, a.doubleValue, 0d);
+      assertEquals(e.flag, a.flag);
+      assertEquals(e.c, a.c);
+      assertEquals(e.name, a.name);
+      assertSame(e.kind, a.kind);
+      assertEquals(e.getParentValue(), a.getParentValue());
+      if (i % 10 == 0) assertNull(a.first);
+      else assertSame(list.get(i - i % 10), a.first);
+    }
+  }
+
+  /**
+   * Serialize an object into an array of bytes.
+   * @param ser the serialization to use.
+   * @param o the object to serialize.
+   * @return the serialized bytes.
+   * @throws Exception if any error occurs.
+   */
+  private static byte[] serialize(final JPPFSerialization ser, final Object o) throws Exception {
+    final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    ser.serialize(o, baos);
+    return baos.toByteArray();
+  }
+
+  /**
+   * Deserialize an object from an array of bytes.
+   * @param ser the serialization to use.
+   * @param bytes the serialized bytes.
+   * @return the deserialized object.
+   * @throws Exception if any error occurs.
+   */
+  private static Object deserialize(final JPPFSerialization ser, final byte[] bytes) throws Exception {
+    return ser.deserialize(new ByteArrayInputStream(bytes));
+  }
+
+  /**
+   * An enum used as a field type.
+   */
+  enum Kind {
+    /** */
+    A,
+    /** */
+    B,
+    /** */
+    C
+  }
+
+  /**
+   * A super class with a private field.
+   */
+  static class ParentItem implements Serializable {
+    /**
+     * Explicit serialVersionUID.
+     */
+    private static final long serialVersionUID = 1L;
+    /**
+     * A field declared in the super class.
+     */
+    private short parentValue;
+
+    /**
+     * @param parentValue a field declared in the super class.
+     */
+    ParentItem(final short parentValue) {
+      this.parentValue = parentValue;
+    }
+
+    /**
+     * @return the field declared in the super class.
+     */
+    short getParentValue() {
+      return parentValue;
+    }
+  }
+
+  /**
+   * A small object with fields of various types.
+   */
+  static class Item extends ParentItem {
+    /**
+     * Explicit serialVersionUID.
+     */
+    private static final long serialVersionUID = 1L;
+    /** */
+    final int id;
+    /** */
+    final long longValue;
+    /** */
+    double doubleValue;
+    /** */
+    boolean flag;
+    /** */
+    char c;
+    /** */
+    final String name;
+    /** */
+    Kind kind;
+    /** */
+    final Item first;
+
+    /**
+     * @param id the item id.
+     * @param name the item name.
+     * @param kind the item kind.
+     * @param first the first item in the group of this item.
+     */
+    Item(final int id, final String name, final Kind kind, final Item first) {
+      super((short) (id % 1000));
+      this.id = id;
+      this.longValue = 31L * id;
+      this.doubleValue = id / 3d;
+      this.flag = (id % 2) == 0;
+      this.c = (char) ('a' + (id % 26));
+      this.name = name;
+      this.kind = kind;
+      this.first = first;
+    }
+  }
+}
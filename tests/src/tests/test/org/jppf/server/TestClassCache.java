@@ -0,0 +1,156 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package test.org.jppf.server;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.nio.file.*;
+
+import org.jppf.classloader.*;
+import org.jppf.server.nio.classloader.ClassCache;
+import org.jppf.utils.*;
+import org.jppf.utils.configuration.JPPFProperties;
+import org.junit.Test;
+
+import test.org.jppf.test.setup.BaseTest;
+
+/**
+ * Unit tests for {@link ClassCache}.
+ * @author Laurent Cohen
+ */
+public class TestClassCache extends BaseTest {
+  /**
+   * Test that identical contents provided by different clients are only stored once.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 10000)
+  public void testContentDeduplication() throws Exception {
+    final ClassCache cache = new ClassCache(new TypedProperties());
+    final byte[] content = createContent(1000, 1);
+    String hash = null;
+    for (int i=0; i<10; i++) {
+      final String h = cache.setCacheContent("client" + i, "my/Task.class", content.clone());
+      if (hash == null) hash = h;
+      else assertEquals(hash, h);
+    }
+    assertEquals(1, cache.getContentCount());
+    assertEquals(content.length, cache.getMemorySize());
+    for (int i=0; i<10; i++) assertArrayEquals(content, cache.getCacheContent("client" + i, "my/Task.class"));
+    assertNull(cache.getCacheContent("client10", "my/Task.class"));
+  }
+
+  /**
+   * Test that the least recently used contents are evicted when the size of the cache exceeds its maximum.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 10000)
+  public void testEviction() throws Exception {
+    final ClassCache cache = new ClassCache(new TypedProperties().set(JPPFProperties.CLASS_CACHE_MAX_SIZE, 10_000L));
+    for (int i=0; i<10; i++) {
+      cache.setCacheContent("client", "res" + i, createContent(1000, i));
+      // keep the first resource recently used
+      assertNotNull(cache.getCacheContent("client", "res0"));
+    }
+    assertEquals(10_000L, cache.getMemorySize());
+    cache.setCacheContent("client", "res10", createContent(1000, 10));
+    assertTrue(cache.getMemorySize() <= 9_000L);
+    assertNotNull(cache.getCacheContent("client", "res0"));
+    assertNotNull(cache.getCacheContent("client", "res10"));
+    assertNull(cache.getCacheContent("client", "res1"));
+    assertNull(cache.getContentHash("client", "res1"));
+  }
+
+  /**
+   * Test that the contents stored on disk are available after a restart and that corrupted files are discarded.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 10000)
+  public void testDiskStore() throws Exception {
+    final File dir = Files.createTempDirectory("class_cache").toFile();
+    try {
+      final TypedProperties config = new TypedProperties()
+        .set(JPPFProperties.CLASS_CACHE_DISK_ENABLED, true)
+        .set(JPPFProperties.CLASS_CACHE_DISK_DIR, dir.getPath());
+      ClassCache cache = new ClassCache(config);
+      final byte[] content1 = createContent(1000, 1), content2 = createContent(1000, 2);
+      final String hash1 = cache.setCacheContent("client", "res1", content1), hash2 = cache.setCacheContent("client", "res2", content2);
+      cache.close();
+      Files.write(new File(dir, hash2).toPath(), createContent(1000, 3));
+      cache = new ClassCache(config);
+      assertNull(cache.getCacheContent("client", "res1"));
+      assertArrayEquals(content1, cache.getContentByHash(hash1));
+      assertNull(cache.getContentByHash(hash2));
+      assertFalse(new File(dir, hash2).exists());
+      assertTrue(cache.linkContent("newClient", "res1", hash1));
+      assertFalse(cache.linkContent("newClient", "res2", hash2));
+      assertArrayEquals(content1, cache.getCacheContent("newClient", "res1"));
+      cache.close();
+    } finally {
+      FileUtils.deletePath(dir);
+    }
+  }
+
+  /**
+   * Test that the response to a node which already holds the requested content is validated without including the content.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 10000)
+  public void testValidation() throws Exception {
+    final ClassCache cache = new ClassCache(new TypedProperties());
+    final byte[] content = createContent(1000, 1);
+    final String hash = cache.setCacheContent("client", "my/Task.class", content);
+    assertEquals(hash, CryptoUtils.computeHash(content, JPPFResourceWrapper.CONTENT_HASH_ALGORITHM));
+    JPPFResourceWrapper resource = createRequest("my/Task.class", hash);
+    assertTrue(cache.setResponseFromCache(resource, "client"));
+    assertNull(resource.getDefinition());
+    assertEquals(Boolean.TRUE, resource.getData(ResourceIdentifier.CONTENT_VALIDATED));
+    resource = createRequest("my/Task.class", "outdated hash");
+    assertTrue(cache.setResponseFromCache(resource, "client"));
+    assertArrayEquals(content, resource.getDefinition());
+    assertEquals(hash, resource.getData(ResourceIdentifier.CONTENT_HASH));
+    assertNull(resource.getData(ResourceIdentifier.CONTENT_VALIDATED));
+    assertFalse(cache.setResponseFromCache(createRequest("my/Other.class", null), "client"));
+  }
+
+  /**
+   * Create a resource request.
+   * @param name the name of the requested resource.
+   * @param cachedHash the hash of the content held by the requester, if any.
+   * @return a new {@link JPPFResourceWrapper}.
+   */
+  private static JPPFResourceWrapper createRequest(final String name, final String cachedHash) {
+    final JPPFResourceWrapper resource = new JPPFResourceWrapper();
+    resource.setData(ResourceIdentifier.NAME, name);
+    if (cachedHash != null) resource.setData(ResourceIdentifier.CACHED_CONTENT_HASH, cachedHash);
+    return resource;
+  }
+
+  /**
+   * Create a content.
+   * @param size the size of the content.
+   * @param seed a value which makes the content unique.
+   * @return the content as an array of bytes.
+   */
+  private static byte[] createContent(final int size, final int seed) {
+    final byte[] content = new byte[size];
+    for (int i=0; i<size; i++) content[i] = (byte) (i * 31 + seed);
+    return content;
+  }
+}
@@ -0,0 +1,114 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package test.org.jppf.server;
+
+import static org.jppf.utils.stats.JPPFStatisticsHelper.*;
+import static org.junit.Assert.*;
+
+import java.util.*;
+
+import org.jppf.client.JPPFJob;
+import org.jppf.management.JMXDriverConnectionWrapper;
+import org.jppf.node.protocol.Task;
+import org.jppf.utils.ReflectionUtils;
+import org.jppf.utils.stats.*;
+import org.junit.*;
+
+import test.org.jppf.test.setup.*;
+import test.org.jppf.test.setup.common.*;
+
+/**
+ * Test the dispatch of jobs to the nodes when batch dispatch is enabled in the driver, along with the node dispatch latency statistic.
+ * @author Laurent Cohen
+ */
+public class TestJobDispatchBatch extends BaseTest {
+  /**
+   * Launches a driver with batch dispatch enabled and 2 nodes and start the client.
+   * @throws Exception if a process could not be started.
+   */
+  @BeforeClass
+  public static void setup() throws Exception {
+    final TestConfiguration config = BaseSetup.createDefaultConfiguration();
+    config.driver.jppf = "classes/tests/config/driver.TestJobDispatchBatch.properties";
+    client = BaseSetup.setup(1, 2, true, config);
+  }
+
+  /**
+   * Stops the driver and nodes and close the client.
+   * @throws Exception if a process could not be stopped.
+   */
+  @AfterClass
+  public static void cleanup() throws Exception {
+    try {
+      BaseSetup.cleanup();
+    } finally {
+      BaseSetup.resetClientConfig();
+    }
+  }
+
+  /**
+   * Test that multiple jobs submitted concurrently are all dispatched and executed when batch dispatch is enabled.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 15000)
+  public void testBatchDispatch() throws Exception {
+    final int nbJobs = 10, nbTasks = 5;
+    final String name = ReflectionUtils.getCurrentMethodName();
+    final List<JPPFJob> jobs = new ArrayList<>(nbJobs);
+    for (int i=1; i<=nbJobs; i++) {
+      final JPPFJob job = BaseTestHelper.createJob(name + "-" + i, false, nbTasks, LifeCycleTask.class, 10L);
+      jobs.add(job);
+      client.submitAsync(job);
+    }
+    for (final JPPFJob job: jobs) {
+      final List<Task<?>> results = job.awaitResults();
+      assertNotNull(results);
+      assertEquals(nbTasks, results.size());
+      for (final Task<?> task: results) {
+        assertNull(task.getThrowable());
+        assertNotNull(task.getResult());
+        assertEquals(BaseTestHelper.EXECUTION_SUCCESSFUL_MESSAGE, task.getResult());
+      }
+    }
+  }
+
+  /**
+   * Test that the node dispatch latency statistic measures the time between a node becoming idle and a job being dispatched to it.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 15000)
+  public void testNodeDispatchLatency() throws Exception {
+    final long idleTime = 1000L;
+    final JMXDriverConnectionWrapper driver = BaseSetup.getJMXConnection(client);
+    while (driver.nbIdleNodes() < 2) Thread.sleep(10L);
+    // the nodes remain idle for at least idleTime before the next dispatch
+    Thread.sleep(idleTime);
+    driver.resetStatistics();
+    final JPPFJob job = BaseTestHelper.createJob(ReflectionUtils.getCurrentMethodName(), false, 10, LifeCycleTask.class, 10L);
+    final List<Task<?>> results = client.submit(job);
+    assertEquals(10, results.size());
+    final JPPFStatistics stats = driver.statistics();
+    final JPPFSnapshot latency = stats.getSnapshot(NODE_DISPATCH_LATENCY);
+    assertNotNull(latency);
+    assertTrue("no dispatch latency was recorded", latency.getValueCount() > 0L);
+    assertTrue("min latency should be >= 0 but is " + latency.getMin(), latency.getMin() >= 0d);
+    assertTrue("max latency should be >= " + idleTime + " but is " + latency.getMax(), latency.getMax() >= idleTime);
+    assertTrue("max latency should be < 60000 but is " + latency.getMax(), latency.getMax() < 60_000d);
+  }
+}
@@ -0,0 +1,184 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package test.org.jppf.server.nio.nodeserver.async;
+
+import static org.junit.Assert.*;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.jppf.management.JPPFSystemInformation;
+import org.jppf.node.policy.Equal;
+import org.jppf.node.protocol.*;
+import org.jppf.server.JPPFDriver;
+import org.jppf.server.nio.nodeserver.BaseNodeContext;
+import org.jppf.server.nio.nodeserver.async.*;
+import org.jppf.server.protocol.ServerJob;
+import org.jppf.utils.*;
+import org.jppf.utils.configuration.JPPFProperties;
+import org.junit.*;
+
+import test.org.jppf.test.setup.BaseTest;
+
+/**
+ * Unit tests for {@link JobMatchingIndex}.
+ * @author Laurent Cohen
+ */
+public class TestJobMatchingIndex extends BaseTest {
+  /**
+   * Name of the node property the test policies are based on.
+   */
+  private static final String GROUP = "test.group";
+  /**
+   * A node server which is never started, only used to create node contexts.
+   */
+  private static AsyncNodeNioServer server;
+  /**
+   * The number of policy evaluations performed by the index.
+   */
+  private final AtomicInteger evaluations = new AtomicInteger(0);
+  /**
+   * The index to test.
+   */
+  private final JobMatchingIndex index = new JobMatchingIndex((node, job) -> {
+    evaluations.incrementAndGet();
+    return job.getSLA().getExecutionPolicy().evaluate(node.getSystemInformation());
+  });
+
+  /**
+   * Create the node server.
+   * @throws Exception if any error occurs.
+   */
+  @BeforeClass
+  public static void setup() throws Exception {
+    final TypedProperties config = new TypedProperties()
+      .set(JPPFProperties.MANAGEMENT_ENABLED, false)
+      .set(JPPFProperties.DISCOVERY_ENABLED, false)
+      .set(JPPFProperties.LOCAL_NODE_ENABLED, false);
+    server = new AsyncNodeNioServer(new JPPFDriver(config), JPPFIdentifiers.NODE_JOB_DATA_CHANNEL, false);
+  }
+
+  /**
+   * Close the node server.
+   * @throws Exception if any error occurs.
+   */
+  @AfterClass
+  public static void teardown() throws Exception {
+    if (server != null) server.shutdown();
+  }
+
+  /**
+   * Test that the verdicts are cached and that a change of the job's execution policy invalidates them.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 10000)
+  public void testJobChange() throws Exception {
+    final BaseNodeContext nodeA = createNode("A"), nodeB = createNode("B");
+    final Set<BaseNodeContext> idle = new LinkedHashSet<>(Arrays.asList(nodeA, nodeB));
+    final ServerJob job = createJob("job1", "A");
+    assertEquals(Arrays.asList(nodeA), index.getCandidates(job, idle));
+    assertEquals(2, evaluations.get());
+    assertEquals(Arrays.asList(nodeA), index.getCandidates(job, idle));
+    assertTrue(index.checkPolicy(nodeA, job));
+    assertEquals(2, evaluations.get());
+    job.getSLA().setExecutionPolicy(new Equal(GROUP, false, "B"));
+    assertEquals(Arrays.asList(nodeB), index.getCandidates(job, idle));
+    assertEquals(4, evaluations.get());
+  }
+
+  /**
+   * Test that an update of the node information invalidates the cached verdicts, including a negative verdict for an idle node.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 10000)
+  public void testNodeUpdated() throws Exception {
+    final BaseNodeContext nodeA = createNode("A"), nodeB = createNode("B");
+    final Set<BaseNodeContext> idle = new LinkedHashSet<>(Arrays.asList(nodeA, nodeB));
+    final ServerJob job = createJob("job1", "A");
+    assertEquals(Arrays.asList(nodeA), index.getCandidates(job, idle));
+    // the node information is updated in place, so only the notification can tell the index that the verdict is stale
+    nodeB.getSystemInformation().getJppf().setString(GROUP, "A");
+    assertEquals(Arrays.asList(nodeA), index.getCandidates(job, idle));
+    index.nodeUpdated(nodeB, true);
+    assertEquals(Arrays.asList(nodeA, nodeB), index.getCandidates(job, idle));
+    assertEquals(3, evaluations.get());
+    // a busy node is re-evaluated when it becomes idle again
+    idle.remove(nodeA);
+    index.nodeBusy(nodeA);
+    nodeA.getSystemInformation().getJppf().setString(GROUP, "B");
+    index.nodeUpdated(nodeA, false);
+    assertEquals(Arrays.asList(nodeB), index.getCandidates(job, idle));
+    idle.add(nodeA);
+    index.nodeIdle(nodeA);
+    assertEquals(Arrays.asList(nodeB), index.getCandidates(job, idle));
+    assertFalse(index.checkPolicy(nodeA, job));
+    assertEquals(4, evaluations.get());
+  }
+
+  /**
+   * Test that the entries of the jobs no longer in the queue are removed, even when the number of jobs has not changed.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 10000)
+  public void testRetainJobs() throws Exception {
+    final BaseNodeContext nodeA = createNode("A"), nodeB = createNode("B");
+    final Set<BaseNodeContext> idle = new LinkedHashSet<>(Arrays.asList(nodeA, nodeB));
+    final ServerJob job1 = createJob("job1", "A"), job2 = createJob("job2", "B");
+    assertEquals(Arrays.asList(nodeA), index.getCandidates(job1, idle));
+    assertEquals(2, evaluations.get());
+    index.retainJobs(Arrays.asList(job1));
+    assertEquals(Arrays.asList(nodeA), index.getCandidates(job1, idle));
+    assertEquals(2, evaluations.get());
+    // job1 is replaced with job2: same number of jobs, but the entry of job1 is stale
+    index.retainJobs(Arrays.asList(job2));
+    assertEquals(Arrays.asList(nodeB), index.getCandidates(job2, idle));
+    assertEquals(4, evaluations.get());
+    assertTrue(index.checkPolicy(nodeA, job1));
+    assertEquals(5, evaluations.get());
+    assertEquals(Arrays.asList(nodeA), index.getCandidates(job1, idle));
+    assertEquals(7, evaluations.get());
+  }
+
+  /**
+   * Create a node context with the specified value of the group property.
+   * @param group the value of the group property.
+   * @return a {@link BaseNodeContext} instance.
+   */
+  private static BaseNodeContext createNode(final String group) {
+    final BaseNodeContext node = new AsyncNodeContext(server, null, false);
+    final JPPFSystemInformation info = new JPPFSystemInformation(new TypedProperties().setString(GROUP, group), JPPFUuid.normalUUID(), false, false);
+    node.setNodeInfo(info, false);
+    return node;
+  }
+
+  /**
+   * Create a job whose execution policy accepts the nodes with the specified value of the group property.
+   * @param name the name and uuid of the job.
+   * @param group the value of the group property.
+   * @return a {@link ServerJob} instance.
+   */
+  private static ServerJob createJob(final String name, final String group) {
+    final JPPFTaskBundle header = new JPPFTaskBundle();
+    header.setName(name);
+    header.setUuid(name);
+    header.setSLA(new JobSLA().setExecutionPolicy(new Equal(GROUP, false, group)));
+    return new ServerJob(new ReentrantLock(), null, header, null);
+  }
+}
@@ -21,8 +21,10 @@ package test.org.jppf.server.protocol;
 import static org.junit.Assert.*;
 
 import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.jppf.client.JPPFJob;
+import org.jppf.client.event.*;
 import org.jppf.execute.async.AbstractAsyncExecutionManager;
 import org.jppf.load.balancer.LoadBalancingInformation;
 import org.jppf.management.*;
@@ -172,6 +174,45 @@ public class TestJPPFJobSLA4 extends BaseTest {
     }
   }
 
+  /**
+   * Test that with {@code streamResults = true} the nodes send the task results as they complete, instead of once per node bundle.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout=8000)
+  public void testStreamResults() throws Exception {
+    checkNodes();
+    final int nbTasks = 30;
+    final JMXDriverConnectionWrapper jmx = BaseSetup.getJMXConnection();
+    final LoadBalancingInformation clientLBI = client.getLoadBalancerSettings();
+    final LoadBalancingInformation driverLBI = jmx.loadBalancerInformation();
+    try {
+      client.setLoadBalancerSettings("manual", new TypedProperties().setInt("size", 100));
+      jmx.changeLoadBalancerSettings("manual", new TypedProperties().setInt("size", 15));
+      final JPPFJob job = BaseTestHelper.createJob(ReflectionUtils.getCurrentMethodName(), false, nbTasks, LifeCycleTask.class, 10L);
+      job.getSLA().setStreamResults(true).setResultsStrategy(SendResultsStrategyConstants.NODE_RESULTS);
+      final AtomicInteger returnedCount = new AtomicInteger(0);
+      job.addJobListener(new JobListenerAdapter() {
+        @Override
+        public synchronized void jobReturned(final JobEvent event) {
+          returnedCount.incrementAndGet();
+        }
+      });
+      final List<Task<?>> results = client.submit(job);
+      assertNotNull(results);
+      assertEquals(nbTasks, results.size());
+      for (final Task<?> result: results) {
+        assertNotNull(result.getResult());
+        assertNull(result.getThrowable());
+      }
+      print(false, false, "job returned %d times", returnedCount.get());
+      // without streaming, the results would be returned once per node bundle, i.e. twice
+      assertCompare(Operator.MORE_THAN, 2, returnedCount.get());
+    } finally {
+      client.setLoadBalancerSettings(clientLBI.getAlgorithm(), clientLBI.getParameters());
+      jmx.changeLoadBalancerSettings(driverLBI.getAlgorithm(), driverLBI.getParameters());
+    }
+  }
+
   /**
    * Wait until all nodes are connected to the driver via JMX.
    * @throws Exception if any error occurs.
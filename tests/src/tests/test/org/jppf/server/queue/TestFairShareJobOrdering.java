@@ -0,0 +1,133 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package test.org.jppf.server.queue;
+
+import static org.junit.Assert.*;
+
+import java.util.*;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.jppf.node.protocol.*;
+import org.jppf.server.protocol.ServerJob;
+import org.jppf.server.queue.FairShareJobOrdering;
+import org.jppf.utils.TypedProperties;
+import org.jppf.utils.configuration.JPPFProperties;
+import org.junit.Test;
+
+import test.org.jppf.test.setup.BaseTest;
+
+/**
+ * Unit tests for {@link FairShareJobOrdering}.
+ * @author Laurent Cohen
+ */
+public class TestFairShareJobOrdering extends BaseTest {
+  /**
+   * Test that the jobs with the same priority are ordered by ascending consumed node time of their client, while the priority still takes precedence.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 10000)
+  public void testOrderByClient() throws Exception {
+    final FairShareJobOrdering ordering = new FairShareJobOrdering();
+    ordering.initialize(new TypedProperties());
+    final ServerJob a1 = createJob("a1", "clientA", 0, null), a2 = createJob("a2", "clientA", 0, null);
+    final ServerJob b1 = createJob("b1", "clientB", 0, null), high = createJob("high", "clientA", 10, null);
+    ordering.jobDispatched(a1, null);
+    ordering.jobReturned(a1, null, 60_000L);
+    final List<ServerJob> jobs = new ArrayList<>(Arrays.asList(high, a1, a2, b1));
+    ordering.order(jobs);
+    assertEquals(Arrays.asList(high, b1, a1, a2), jobs);
+    // clientB now consumed more node time than clientA
+    ordering.jobDispatched(b1, null);
+    ordering.jobReturned(b1, null, 120_000L);
+    ordering.order(jobs);
+    assertEquals(Arrays.asList(high, a1, a2, b1), jobs);
+    assertEquals(2, ordering.getConsumedNodeTime().size());
+  }
+
+  /**
+   * Test that the dispatches in progress are accounted for, such that successive dispatches rotate between the shares.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 10000)
+  public void testDispatchesInProgress() throws Exception {
+    final FairShareJobOrdering ordering = new FairShareJobOrdering();
+    ordering.initialize(new TypedProperties());
+    final ServerJob a = createJob("a", "clientA", 0, null), b = createJob("b", "clientB", 0, null);
+    final List<ServerJob> jobs = new ArrayList<>(Arrays.asList(a, b));
+    ordering.jobDispatched(a, null);
+    ordering.order(jobs);
+    assertEquals(Arrays.asList(b, a), jobs);
+    ordering.jobDispatched(b, null);
+    ordering.jobDispatched(b, null);
+    ordering.order(jobs);
+    assertEquals(Arrays.asList(a, b), jobs);
+  }
+
+  /**
+   * Test that the shares are determined by the job metadata and that their weights are applied.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 10000)
+  public void testMetadataAndWeights() throws Exception {
+    final FairShareJobOrdering ordering = new FairShareJobOrdering("metadata", "team");
+    final TypedProperties config = new TypedProperties();
+    config.set(JPPFProperties.JOB_QUEUE_FAIR_SHARE_WEIGHT, 4d, "analytics");
+    ordering.initialize(config);
+    final ServerJob analytics = createJob("analytics", "clientA", 0, "analytics"), other = createJob("other", "clientA", 0, "other");
+    final ServerJob none = createJob("none", "clientA", 0, null);
+    assertEquals(FairShareJobOrdering.DEFAULT_SHARE, ordering.getShareName(none));
+    ordering.jobDispatched(analytics, null);
+    ordering.jobReturned(analytics, null, 300_000L);
+    ordering.jobDispatched(other, null);
+    ordering.jobReturned(other, null, 100_000L);
+    final List<ServerJob> jobs = new ArrayList<>(Arrays.asList(other, analytics, none));
+    ordering.order(jobs);
+    // normalized usages: none = 0, analytics = 300,000 / 4, other = 100,000
+    assertEquals(Arrays.asList(none, analytics, other), jobs);
+  }
+
+  /**
+   * Test that invalid parameters are rejected.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 10000, expected = IllegalArgumentException.class)
+  public void testInvalidParameters() throws Exception {
+    new FairShareJobOrdering("metadata");
+  }
+
+  /**
+   * Create a job with the specified characteristics.
+   * @param name the name of the job.
+   * @param clientUuid the uuid of the client which submitted the job.
+   * @param priority the priority of the job.
+   * @param team the value of the 'team' metadata, may be {@code null}.
+   * @return a {@link ServerJob} instance.
+   */
+  private static ServerJob createJob(final String name, final String clientUuid, final int priority, final String team) {
+    final JPPFTaskBundle header = new JPPFTaskBundle();
+    header.setName(name);
+    header.setUuid(name);
+    header.getUuidPath().add(clientUuid);
+    header.setSLA(new JobSLA().setPriority(priority));
+    final JPPFJobMetadata metadata = new JPPFJobMetadata();
+    if (team != null) metadata.setParameter("team", team);
+    header.setMetadata(metadata);
+    return new ServerJob(new ReentrantLock(), null, header, null);
+  }
+}
@@ -0,0 +1,162 @@
+/*
+ * JPPF.
+ * Copyright (C) 2005-2019 JPPF Team.
+ * http://www.jppf.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package test.org.jppf.utils.stats;
+
+import static org.junit.Assert.*;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.jppf.serialization.*;
+import org.jppf.utils.stats.*;
+import org.junit.Test;
+
+import test.org.jppf.test.setup.BaseTest;
+
+/**
+ * Unit tests for {@link LogLinearHistogram} and the percentiles of the statistics snapshots.
+ * @author Laurent Cohen
+ */
+public class TestLogLinearHistogram extends BaseTest {
+  /**
+   * The maximum relative error of the computed percentiles.
+   */
+  private static final double MAX_ERROR = 1d / LogLinearHistogram.SUB_BUCKETS;
+
+  /**
+   * Test that the percentiles are computed within the expected precision.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 10000)
+  public void testPercentiles() throws Exception {
+    final LogLinearHistogram histogram = new LogLinearHistogram();
+    assertEquals(0d, histogram.getValueAtPercentile(50d), 0d);
+    for (int i=1; i<=10_000; i++) histogram.recordValue(i / 10d);
+    assertEquals(10_000L, histogram.getCount());
+    assertEquals(500d, histogram.getValueAtPercentile(50d), 500d * MAX_ERROR);
+    assertEquals(900d, histogram.getValueAtPercentile(90d), 900d * MAX_ERROR);
+    assertEquals(990d, histogram.getValueAtPercentile(99d), 990d * MAX_ERROR);
+    assertEquals(1000d, histogram.getValueAtPercentile(100d), 1000d * MAX_ERROR);
+  }
+
+  /**
+   * Test that merged histograms have the same distribution as a histogram recording all the values.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 10000)
+  public void testMerge() throws Exception {
+    final LogLinearHistogram all = new LogLinearHistogram(), h1 = new LogLinearHistogram(), h2 = new LogLinearHistogram();
+    final Random rand = new Random(1L);
+    for (int i=0; i<10_000; i++) {
+      final double value = rand.nextDouble() * 1000d;
+      all.recordValue(value);
+      ((i % 2 == 0) ? h1 : h2).recordValue(value);
+    }
+    h1.merge(h2);
+    assertEquals(all.getCount(), h1.getCount());
+    for (final double p: new double[] { 10d, 50d, 90d, 99d, 99.9d }) assertEquals(all.getValueAtPercentile(p), h1.getValueAtPercentile(p), 0d);
+  }
+
+  /**
+   * Test that only the non-empty buckets of a histogram are serialized.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 10000)
+  public void testSerialization() throws Exception {
+    final LogLinearHistogram histogram = new LogLinearHistogram();
+    for (int i=0; i<1000; i++) histogram.recordValue(10d + (i % 10));
+    final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    try (ObjectOutputStream oos = new ObjectOutputStream(baos)) {
+      oos.writeObject(histogram);
+    }
+    assertTrue("serialized size = " + baos.size(), baos.size() < 500);
+    final LogLinearHistogram copy;
+    try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(baos.toByteArray()))) {
+      copy = (LogLinearHistogram) ois.readObject();
+    }
+    assertEquals(1000L, copy.getCount());
+    assertEquals(histogram.getValueAtPercentile(75d), copy.getValueAtPercentile(75d), 0d);
+  }
+
+  /**
+   * Test that the statistics and their snapshots can be serialized and deserialized with both the JPPF and the Java serialization.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 10000)
+  public void testStatisticsSerialization() throws Exception {
+    final JPPFStatistics stats = JPPFStatisticsHelper.createServerStatistics();
+    for (final JPPFSnapshot snapshot: stats.getSnapshots()) {
+      for (int i=1; i<=100; i++) stats.addValue(snapshot.getLabel(), i);
+    }
+    for (final JPPFSerialization serialization: new JPPFSerialization[] { new DefaultJPPFSerialization(), new DefaultJavaSerialization() }) {
+      final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+      serialization.serialize(stats, baos);
+      final JPPFStatistics copy = (JPPFStatistics) serialization.deserialize(new ByteArrayInputStream(baos.toByteArray()));
+      final String name = serialization.getClass().getSimpleName();
+      assertEquals(name, stats.getSnapshots().size(), copy.getSnapshots().size());
+      for (final JPPFSnapshot snapshot: stats.getSnapshots()) {
+        final JPPFSnapshot other = copy.getSnapshot(snapshot.getLabel());
+        final String message = name + " : " + snapshot.getLabel();
+        assertNotNull(message, other);
+        assertEquals(message, snapshot.getClass(), other.getClass());
+        assertEquals(message, snapshot.getTotal(), other.getTotal(), 0d);
+        assertEquals(message, snapshot.getLatest(), other.getLatest(), 0d);
+        assertEquals(message, snapshot.getMin(), other.getMin(), 0d);
+        assertEquals(message, snapshot.getMax(), other.getMax(), 0d);
+        assertEquals(message, snapshot.getAvg(), other.getAvg(), 0d);
+        assertEquals(message, snapshot.getValueCount(), other.getValueCount());
+        assertEquals(message, snapshot.getPercentile(90d), other.getPercentile(90d), 0d);
+        // the deserialized snapshot can still be updated
+        other.addValues(1000d, 1L);
+        assertEquals(message, snapshot.getTotal() + 1000d, other.getTotal(), 0d);
+      }
+    }
+  }
+
+  /**
+   * Test that concurrent updates of a snapshot are all accounted for.
+   * @throws Exception if any error occurs.
+   */
+  @Test(timeout = 10000)
+  public void testConcurrentUpdates() throws Exception {
+    final JPPFStatistics stats = new JPPFStatistics();
+    final JPPFSnapshot snapshot = stats.createSnapshot(false, JPPFStatisticsHelper.EXECUTION);
+    final int nbThreads = 8, nbValues = 10_000;
+    final ExecutorService executor = Executors.newFixedThreadPool(nbThreads);
+    try {
+      final List<Future<?>> futures = new ArrayList<>();
+      for (int i=0; i<nbThreads; i++) futures.add(executor.submit(() -> {
+        for (int j=1; j<=nbValues; j++) snapshot.addValues(j, 1L);
+      }));
+      for (final Future<?> future: futures) future.get();
+    } finally {
+      executor.shutdownNow();
+    }
+    assertEquals((long) nbThreads * nbValues, snapshot.getValueCount());
+    assertEquals(nbThreads * (nbValues * (nbValues + 1d) / 2d), snapshot.getTotal(), 0d);
+    assertEquals(1d, snapshot.getMin(), 0d);
+    assertEquals(nbValues, snapshot.getMax(), 0d);
+    assertEquals((nbValues + 1d) / 2d, snapshot.getAvg(), 0d);
+    assertEquals(0.99d * nbValues, stats.getPercentile(JPPFStatisticsHelper.EXECUTION, 99d), nbValues * MAX_ERROR);
+    final JPPFSnapshot copy = stats.copy().getSnapshot(JPPFStatisticsHelper.EXECUTION);
+    assertEquals(snapshot.getPercentile(90d), copy.getPercentile(90d), 0d);
+    assertTrue(Double.isNaN(stats.getPercentile("unknown", 50d)));
+  }
+}